@@ -18,138 +18,293 @@
  */
 package org.apache.myriad;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Injector;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import org.apache.myriad.configuration.EventBusConfiguration;
+import org.apache.myriad.configuration.MyriadConfiguration;
 import org.apache.myriad.scheduler.event.*;
+import org.apache.myriad.scheduler.event.handlers.ClearingEventHandler;
 import org.apache.myriad.scheduler.event.handlers.DisconnectedEventHandler;
 import org.apache.myriad.scheduler.event.handlers.ErrorEventHandler;
+import org.apache.myriad.scheduler.event.handlers.EventMetricsHandler;
 import org.apache.myriad.scheduler.event.handlers.ExecutorLostEventHandler;
 import org.apache.myriad.scheduler.event.handlers.FrameworkMessageEventHandler;
+import org.apache.myriad.scheduler.event.handlers.MultiplexedEventHandler;
 import org.apache.myriad.scheduler.event.handlers.OfferRescindedEventHandler;
 import org.apache.myriad.scheduler.event.handlers.ReRegisteredEventHandler;
 import org.apache.myriad.scheduler.event.handlers.RegisteredEventHandler;
 import org.apache.myriad.scheduler.event.handlers.ResourceOffersEventHandler;
 import org.apache.myriad.scheduler.event.handlers.SlaveLostEventHandler;
 import org.apache.myriad.scheduler.event.handlers.StatusUpdateEventHandler;
+import org.apache.myriad.scheduler.event.handlers.StatusUpdatePartitionHandler;
+import org.apache.myriad.scheduler.event.handlers.TimedEventHandler;
+import org.apache.myriad.state.SchedulerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Disruptor class is an event bus used in high speed financial systems. http://martinfowler.com/articles/lmax.html
  * Here it is used to abstract incoming events.
+ * <p/>
+ * Each event type has a ring buffer and consumer thread of its own, except for the low frequency events
+ * configured in {@link EventBusConfiguration#getLowFrequencyEvents()}, which share a single ring buffer.
+ * When the event bus is {@link EventBusConfiguration#isUnified() unified}, all events share a single ring
+ * buffer instead and are handled in the order of the Mesos callbacks by one consumer, while read-only
+ * handlers consume the ring in parallel.
+ * Ring sizes and wait strategies are configured per ring, and the remaining capacity and consumer lag of
+ * each ring are exposed as gauges. The time events of each type wait in their ring and are handled for are
+ * exposed as timers, and the sizes of the batches consumers are handed as a histogram per ring.
  */
 public class DisruptorManager {
-  private ExecutorService disruptorExecutors;
+  private static final Logger LOGGER = LoggerFactory.getLogger(DisruptorManager.class);
 
+  private static final String METRICS_PREFIX = "myriad.disruptor";
   private static final int DEFAULT_SMALL_RINGBUFFER_SIZE = 64;
   private static final int DEFAULT_LARGE_RINGBUFFER_SIZE = 1024;
 
-  private Disruptor<RegisteredEvent> registeredEventDisruptor;
-  private Disruptor<ReRegisteredEvent> reRegisteredEventDisruptor;
-  private Disruptor<ResourceOffersEvent> resourceOffersEventDisruptor;
-  private Disruptor<OfferRescindedEvent> offerRescindedEventDisruptor;
-  private Disruptor<StatusUpdateEvent> statusUpdateEventDisruptor;
-  private Disruptor<FrameworkMessageEvent> frameworkMessageEventDisruptor;
-  private Disruptor<DisconnectedEvent> disconnectedEventDisruptor;
-  private Disruptor<SlaveLostEvent> slaveLostEventDisruptor;
-  private Disruptor<ExecutorLostEvent> executorLostEventDisruptor;
-  private Disruptor<ErrorEvent> errorEventDisruptor;
+  private ExecutorService disruptorExecutors;
+  private EventBusConfiguration conf;
+  private MetricRegistry metricRegistry;
+  private boolean unified;
+  private Disruptor<MultiplexedEvent> multiplexedEventDisruptor;
+  private MultiplexedEventHandler multiplexedEventHandler;
+  private Set<EventType> multiplexedEventTypes;
+  private int statusUpdatePartitions;
+  private final List<Disruptor<?>> disruptors = new ArrayList<>();
+
+  private EventPublisher<RegisteredEvent> registeredEventPublisher;
+  private EventPublisher<ReRegisteredEvent> reRegisteredEventPublisher;
+  private EventPublisher<ResourceOffersEvent> resourceOffersEventPublisher;
+  private EventPublisher<OfferRescindedEvent> offerRescindedEventPublisher;
+  private EventPublisher<StatusUpdateEvent> statusUpdateEventPublisher;
+  private EventPublisher<FrameworkMessageEvent> frameworkMessageEventPublisher;
+  private EventPublisher<DisconnectedEvent> disconnectedEventPublisher;
+  private EventPublisher<SlaveLostEvent> slaveLostEventPublisher;
+  private EventPublisher<ExecutorLostEvent> executorLostEventPublisher;
+  private EventPublisher<ErrorEvent> errorEventPublisher;
 
   @SuppressWarnings("unchecked")
   public void init(Injector injector) {
-    this.disruptorExecutors = Executors.newCachedThreadPool();
+    this.conf = injector.getInstance(MyriadConfiguration.class).getEventBusConfiguration();
+    this.metricRegistry = injector.getInstance(MetricRegistry.class);
 
-    // todo:  (kensipe) need to make ringsize configurable (overriding the defaults)
+    this.unified = conf.isUnified();
+    this.multiplexedEventTypes = EnumSet.noneOf(EventType.class);
+    if (unified) {
+      multiplexedEventTypes.addAll(EnumSet.allOf(EventType.class));
+    } else {
+      for (String name : conf.getLowFrequencyEvents()) {
+        multiplexedEventTypes.add(EventType.fromName(name));
+      }
+    }
 
+    this.statusUpdatePartitions = multiplexedEventTypes.contains(EventType.STATUS_UPDATE) ? 1 : conf.getPartitions(
+        EventType.STATUS_UPDATE.getName());
+    Preconditions.checkArgument(statusUpdatePartitions > 0, "Status update partitions must be positive");
 
-    this.registeredEventDisruptor = new Disruptor<>(new RegisteredEventFactory(), DEFAULT_SMALL_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.registeredEventDisruptor.handleEventsWith(injector.getInstance(RegisteredEventHandler.class));
-    this.registeredEventDisruptor.start();
+    // One consumer thread per ring buffer, the unified ring has consumers for the read-only handlers and clearing,
+    // a partitioned status update ring has one per partition and one for clearing
+    int consumers = EventType.values().length - multiplexedEventTypes.size() + (multiplexedEventTypes.isEmpty() ? 0 : 1)
+        + (unified ? 2 : 0) + (statusUpdatePartitions > 1 ? statusUpdatePartitions : 0);
+    this.disruptorExecutors = Executors.newFixedThreadPool(consumers, new ThreadFactoryBuilder().setNameFormat(
+        "myriad-disruptor-%d").build());
 
-    this.reRegisteredEventDisruptor = new Disruptor<>(new ReRegisteredEventFactory(), DEFAULT_SMALL_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.reRegisteredEventDisruptor.handleEventsWith(injector.getInstance(ReRegisteredEventHandler.class));
-    this.reRegisteredEventDisruptor.start();
+    if (unified) {
+      this.multiplexedEventDisruptor = createDisruptor(EventBusConfiguration.UNIFIED_RING, new MultiplexedEventFactory(
+          multiplexedEventTypes), DEFAULT_LARGE_RINGBUFFER_SIZE);
+    } else if (!multiplexedEventTypes.isEmpty()) {
+      this.multiplexedEventDisruptor = createDisruptor(EventBusConfiguration.LOW_FREQUENCY_RING, new MultiplexedEventFactory(
+          multiplexedEventTypes), DEFAULT_SMALL_RINGBUFFER_SIZE);
+    }
+    this.multiplexedEventHandler = new MultiplexedEventHandler();
 
+    this.registeredEventPublisher = createPublisher(EventType.REGISTERED, RegisteredEvent.class, new RegisteredEventFactory(),
+        injector.getInstance(RegisteredEventHandler.class));
+    this.reRegisteredEventPublisher = createPublisher(EventType.RE_REGISTERED, ReRegisteredEvent.class,
+        new ReRegisteredEventFactory(), injector.getInstance(ReRegisteredEventHandler.class));
+    this.resourceOffersEventPublisher = createPublisher(EventType.RESOURCE_OFFERS, ResourceOffersEvent.class,
+        new ResourceOffersEventFactory(), injector.getInstance(ResourceOffersEventHandler.class));
+    this.offerRescindedEventPublisher = createPublisher(EventType.OFFER_RESCINDED, OfferRescindedEvent.class,
+        new OfferRescindedEventFactory(), injector.getInstance(OfferRescindedEventHandler.class));
+    this.statusUpdateEventPublisher = createStatusUpdatePublisher(injector.getInstance(StatusUpdateEventHandler.class),
+        injector.getInstance(SchedulerState.class));
+    this.frameworkMessageEventPublisher = createPublisher(EventType.FRAMEWORK_MESSAGE, FrameworkMessageEvent.class,
+        new FrameworkMessageEventFactory(), injector.getInstance(FrameworkMessageEventHandler.class));
+    this.disconnectedEventPublisher = createPublisher(EventType.DISCONNECTED, DisconnectedEvent.class,
+        new DisconnectedEventFactory(), injector.getInstance(DisconnectedEventHandler.class));
+    this.slaveLostEventPublisher = createPublisher(EventType.SLAVE_LOST, SlaveLostEvent.class, new SlaveLostEventFactory(),
+        injector.getInstance(SlaveLostEventHandler.class));
+    this.executorLostEventPublisher = createPublisher(EventType.EXECUTOR_LOST, ExecutorLostEvent.class,
+        new ExecutorLostEventFactory(), injector.getInstance(ExecutorLostEventHandler.class));
+    this.errorEventPublisher = createPublisher(EventType.ERROR, ErrorEvent.class, new ErrorEventFactory(),
+        injector.getInstance(ErrorEventHandler.class));
 
-    this.resourceOffersEventDisruptor = new Disruptor<>(new ResourceOffersEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.resourceOffersEventDisruptor.handleEventsWith(injector.getInstance(ResourceOffersEventHandler.class));
-    this.resourceOffersEventDisruptor.start();
+    if (unified) {
+      multiplexedEventDisruptor.handleEventsWith(multiplexedEventHandler, new EventMetricsHandler(metricRegistry))
+          .then(new ClearingEventHandler<MultiplexedEvent>(null, batchSizes(EventBusConfiguration.UNIFIED_RING)));
+      multiplexedEventDisruptor.start();
+    } else if (multiplexedEventDisruptor != null) {
+      multiplexedEventDisruptor.handleEventsWith(new ClearingEventHandler<>(multiplexedEventHandler,
+          batchSizes(EventBusConfiguration.LOW_FREQUENCY_RING)));
+      multiplexedEventDisruptor.start();
+    }
+  }
 
-    this.offerRescindedEventDisruptor = new Disruptor<>(new OfferRescindedEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.offerRescindedEventDisruptor.handleEventsWith(injector.getInstance(OfferRescindedEventHandler.class));
-    this.offerRescindedEventDisruptor.start();
+  @SuppressWarnings("unchecked")
+  private <T extends TimestampedEvent> EventPublisher<T> createPublisher(EventType type, Class<T> eventClass,
+                                                                          EventFactory<T> factory, EventHandler<T> handler) {
+    EventHandler<T> timedHandler = new TimedEventHandler<>(type, handler, metricRegistry);
+    if (multiplexedEventTypes.contains(type)) {
+      multiplexedEventHandler.register(type, timedHandler);
+      return new MultiplexedEventPublisher<>(multiplexedEventDisruptor.getRingBuffer(), type, eventClass);
+    }
+    Disruptor<T> disruptor = createDisruptor(type.getName(), factory, type.getDefaultRingSize());
+    disruptor.handleEventsWith(new ClearingEventHandler<>(timedHandler, batchSizes(type.getName())));
+    return new RingBufferEventPublisher<>(disruptor.start());
+  }
 
-    this.statusUpdateEventDisruptor = new Disruptor<>(new StatusUpdateEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.statusUpdateEventDisruptor.handleEventsWith(injector.getInstance(StatusUpdateEventHandler.class));
-    this.statusUpdateEventDisruptor.start();
+  /**
+   * Creates the publisher of status updates. Unless status updates share a ring with other events, they are
+   * partitioned by task id across the configured number of consumers and the scheduler state is persisted once per
+   * batch of handled updates.
+   */
+  @SuppressWarnings("unchecked")
+  private EventPublisher<StatusUpdateEvent> createStatusUpdatePublisher(StatusUpdateEventHandler handler,
+                                                                        SchedulerState schedulerState) {
+    if (multiplexedEventTypes.contains(EventType.STATUS_UPDATE)) {
+      return createPublisher(EventType.STATUS_UPDATE, StatusUpdateEvent.class, new StatusUpdateEventFactory(), handler);
+    }
+    String ring = EventType.STATUS_UPDATE.getName();
+    Disruptor<StatusUpdateEvent> disruptor = createDisruptor(ring, new StatusUpdateEventFactory(),
+        EventType.STATUS_UPDATE.getDefaultRingSize());
+    EventHandler<StatusUpdateEvent> timedHandler = new TimedEventHandler<>(EventType.STATUS_UPDATE, handler, metricRegistry);
+    if (statusUpdatePartitions == 1) {
+      disruptor.handleEventsWith(new ClearingEventHandler<>(new StatusUpdatePartitionHandler(timedHandler, schedulerState, 0, 1),
+          batchSizes(ring)));
+    } else {
+      LOGGER.info("Partitioning status updates across {} consumers", statusUpdatePartitions);
+      StatusUpdatePartitionHandler[] partitionHandlers = new StatusUpdatePartitionHandler[statusUpdatePartitions];
+      for (int i = 0; i < statusUpdatePartitions; i++) {
+        partitionHandlers[i] = new StatusUpdatePartitionHandler(timedHandler, schedulerState, i, statusUpdatePartitions);
+      }
+      disruptor.handleEventsWith(partitionHandlers).then(new ClearingEventHandler<StatusUpdateEvent>(null, batchSizes(ring)));
+    }
+    return new RingBufferEventPublisher<>(disruptor.start());
+  }
 
-    this.frameworkMessageEventDisruptor = new Disruptor<>(new FrameworkMessageEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.frameworkMessageEventDisruptor.handleEventsWith(injector.getInstance(FrameworkMessageEventHandler.class));
-    this.frameworkMessageEventDisruptor.start();
+  private <T> Disruptor<T> createDisruptor(String ring, EventFactory<T> factory, int defaultRingSize) {
+    int ringSize = conf.getRingSize(ring, defaultRingSize);
+    String waitStrategy = conf.getWaitStrategy(ring);
+    LOGGER.info("Creating {} ring with {} slots and {} wait strategy", ring, ringSize, waitStrategy);
+    Disruptor<T> disruptor = new Disruptor<>(factory, ringSize, disruptorExecutors, ProducerType.MULTI,
+        createWaitStrategy(waitStrategy));
+    registerGauges(ring, disruptor.getRingBuffer());
+    disruptors.add(disruptor);
+    return disruptor;
+  }
 
-    this.disconnectedEventDisruptor = new Disruptor<>(new DisconnectedEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.disconnectedEventDisruptor.handleEventsWith(injector.getInstance(DisconnectedEventHandler.class));
-    this.disconnectedEventDisruptor.start();
+  /**
+   * Waits until all published events are handled and stops the consumer threads.
+   */
+  public void shutdown() {
+    for (Disruptor<?> disruptor : disruptors) {
+      disruptor.shutdown();
+    }
+    disruptorExecutors.shutdown();
+  }
 
-    this.slaveLostEventDisruptor = new Disruptor<>(new SlaveLostEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE, disruptorExecutors);
-    this.slaveLostEventDisruptor.handleEventsWith(injector.getInstance(SlaveLostEventHandler.class));
-    this.slaveLostEventDisruptor.start();
+  private Histogram batchSizes(String ring) {
+    return TimedEventHandler.histogram(metricRegistry, MetricRegistry.name(METRICS_PREFIX, ring, "batch-size"));
+  }
 
-    this.executorLostEventDisruptor = new Disruptor<>(new ExecutorLostEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE,
-        disruptorExecutors);
-    this.executorLostEventDisruptor.handleEventsWith(injector.getInstance(ExecutorLostEventHandler.class));
-    this.executorLostEventDisruptor.start();
+  private void registerGauges(String ring, final RingBuffer<?> ringBuffer) {
+    metricRegistry.register(MetricRegistry.name(METRICS_PREFIX, ring, "remaining-capacity"), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return ringBuffer.remainingCapacity();
+      }
+    });
+    metricRegistry.register(MetricRegistry.name(METRICS_PREFIX, ring, "lag"), new Gauge<Long>() {
+      @Override
+      public Long getValue() {
+        return ringBuffer.getCursor() - ringBuffer.getMinimumGatingSequence();
+      }
+    });
+  }
 
-    this.errorEventDisruptor = new Disruptor<>(new ErrorEventFactory(), DEFAULT_LARGE_RINGBUFFER_SIZE, disruptorExecutors);
-    this.errorEventDisruptor.handleEventsWith(injector.getInstance(ErrorEventHandler.class));
-    this.errorEventDisruptor.start();
+  private static WaitStrategy createWaitStrategy(String waitStrategy) {
+    switch (waitStrategy) {
+      case "blocking":
+        return new BlockingWaitStrategy();
+      case "sleeping":
+        return new SleepingWaitStrategy();
+      case "yielding":
+        return new YieldingWaitStrategy();
+      case "busy-spin":
+        return new BusySpinWaitStrategy();
+      default:
+        throw new IllegalArgumentException("Unknown wait strategy: " + waitStrategy);
+    }
   }
 
-  public Disruptor<RegisteredEvent> getRegisteredEventDisruptor() {
-    return registeredEventDisruptor;
+  public EventPublisher<RegisteredEvent> getRegisteredEventPublisher() {
+    return registeredEventPublisher;
   }
 
-  public Disruptor<ReRegisteredEvent> getReRegisteredEventDisruptor() {
-    return reRegisteredEventDisruptor;
+  public EventPublisher<ReRegisteredEvent> getReRegisteredEventPublisher() {
+    return reRegisteredEventPublisher;
   }
 
-  public Disruptor<ResourceOffersEvent> getResourceOffersEventDisruptor() {
-    return resourceOffersEventDisruptor;
+  public EventPublisher<ResourceOffersEvent> getResourceOffersEventPublisher() {
+    return resourceOffersEventPublisher;
   }
 
-  public Disruptor<OfferRescindedEvent> getOfferRescindedEventDisruptor() {
-    return offerRescindedEventDisruptor;
+  public EventPublisher<OfferRescindedEvent> getOfferRescindedEventPublisher() {
+    return offerRescindedEventPublisher;
   }
 
-  public Disruptor<StatusUpdateEvent> getStatusUpdateEventDisruptor() {
-    return statusUpdateEventDisruptor;
+  public EventPublisher<StatusUpdateEvent> getStatusUpdateEventPublisher() {
+    return statusUpdateEventPublisher;
   }
 
-  public Disruptor<FrameworkMessageEvent> getFrameworkMessageEventDisruptor() {
-    return frameworkMessageEventDisruptor;
+  public EventPublisher<FrameworkMessageEvent> getFrameworkMessageEventPublisher() {
+    return frameworkMessageEventPublisher;
   }
 
-  public Disruptor<DisconnectedEvent> getDisconnectedEventDisruptor() {
-    return disconnectedEventDisruptor;
+  public EventPublisher<DisconnectedEvent> getDisconnectedEventPublisher() {
+    return disconnectedEventPublisher;
   }
 
-  public Disruptor<SlaveLostEvent> getSlaveLostEventDisruptor() {
-    return slaveLostEventDisruptor;
+  public EventPublisher<SlaveLostEvent> getSlaveLostEventPublisher() {
+    return slaveLostEventPublisher;
   }
 
-  public Disruptor<ExecutorLostEvent> getExecutorLostEventDisruptor() {
-    return executorLostEventDisruptor;
+  public EventPublisher<ExecutorLostEvent> getExecutorLostEventPublisher() {
+    return executorLostEventPublisher;
   }
 
-  public Disruptor<ErrorEvent> getErrorEventDisruptor() {
-    return errorEventDisruptor;
+  public EventPublisher<ErrorEvent> getErrorEventPublisher() {
+    return errorEventPublisher;
   }
 
 }
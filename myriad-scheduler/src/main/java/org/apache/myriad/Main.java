@@ -26,6 +26,7 @@ import com.google.inject.Injector;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -44,9 +45,11 @@ import org.apache.myriad.scheduler.ExtendedResourceProfile;
 import org.apache.myriad.scheduler.MyriadDriverManager;
 import org.apache.myriad.scheduler.MyriadOperations;
 import org.apache.myriad.scheduler.NMProfile;
+import org.apache.myriad.scheduler.NodeDrainer;
 import org.apache.myriad.scheduler.Rebalancer;
 import org.apache.myriad.scheduler.ServiceProfileManager;
 import org.apache.myriad.scheduler.ServiceResourceProfile;
+import org.apache.myriad.scheduler.TaskKillQueue;
 import org.apache.myriad.scheduler.TaskTerminator;
 import org.apache.myriad.scheduler.TaskUtils;
 import org.apache.myriad.scheduler.yarn.interceptor.InterceptorRegistry;
@@ -63,7 +66,8 @@ import org.slf4j.LoggerFactory;
  *  1. MyriadDriverManager
  *  2. MyriadWebServer
  *  3. TaskTerminator
- *  4. HealthCheckRegistry
+ *  4. TaskKillQueue
+ *  5. HealthCheckRegistry
  *
  *  Main uses the Guice Injector framework to manage the Myriad object graph and is
  *  configured by myriad-config-default.yml
@@ -73,6 +77,8 @@ public class Main {
 
   private MyriadWebServer webServer;
   private ScheduledExecutorService terminatorService;
+  private ExecutorService taskTerminatorService;
+  private ExecutorService taskKillQueueService;
 
   private ScheduledExecutorService rebalancerService;
   private HealthCheckRegistry healthCheckRegistry;
@@ -105,7 +111,7 @@ public class Main {
       LOGGER.debug("Bindings: " + injector.getAllBindings());
     }
 
-    JmxReporter.forRegistry(new MetricRegistry()).build().start();
+    JmxReporter.forRegistry(injector.getInstance(MetricRegistry.class)).build().start();
 
     initWebApp(injector);
     initHealthChecks(injector);
@@ -253,10 +259,21 @@ public class Main {
 
   private void initTerminatorService(Injector injector) {
     LOGGER.info("Initializing Terminator");
+    taskTerminatorService = Executors.newSingleThreadExecutor();
+    taskTerminatorService.execute(injector.getInstance(TaskTerminator.class));
+
     terminatorService = Executors.newScheduledThreadPool(1);
     final int initialDelay = 100;
     final int period = 2000;
-    terminatorService.scheduleAtFixedRate(injector.getInstance(TaskTerminator.class), initialDelay, period, TimeUnit.MILLISECONDS);
+    NodeDrainer nodeDrainer = injector.getInstance(NodeDrainer.class);
+    if (nodeDrainer.isEnabled()) {
+      LOGGER.info("Initializing NodeDrainer");
+      terminatorService.scheduleAtFixedRate(nodeDrainer, initialDelay, period, TimeUnit.MILLISECONDS);
+    }
+
+    LOGGER.info("Initializing TaskKillQueue");
+    taskKillQueueService = Executors.newSingleThreadExecutor();
+    taskKillQueueService.execute(injector.getInstance(TaskKillQueue.class));
   }
 
   private void initRebalancerService(MyriadConfiguration cfg, Injector injector) {
@@ -264,7 +281,7 @@ public class Main {
       LOGGER.info("Initializing Rebalancer");
       rebalancerService = Executors.newScheduledThreadPool(1);
       final int initialDelay = 100;
-      final int period = 5000;
+      final long period = cfg.getAutoscalerConfiguration().getIntervalMs();
       rebalancerService.scheduleAtFixedRate(injector.getInstance(Rebalancer.class), initialDelay, period, TimeUnit.MILLISECONDS);
     } else {
       LOGGER.info("Rebalancer is not turned on");
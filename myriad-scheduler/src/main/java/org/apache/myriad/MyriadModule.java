@@ -18,9 +18,12 @@
  */
 package org.apache.myriad;
 
+import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.AbstractModule;
+import com.google.inject.Provider;
 import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.Singleton;
@@ -35,18 +38,34 @@ import org.apache.myriad.configuration.MyriadConfiguration;
 import org.apache.myriad.configuration.NodeManagerConfiguration;
 import org.apache.myriad.configuration.ServiceConfiguration;
 import org.apache.myriad.policy.LeastAMNodesFirstPolicy;
+import org.apache.myriad.policy.LeastAllocatedResourcesFirstPolicy;
+import org.apache.myriad.policy.LeastContainerWorkFirstPolicy;
 import org.apache.myriad.policy.NodeScaleDownPolicy;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.policy.WeightedScaleDownPolicy;
+import org.apache.myriad.policy.YoungestNodeManagerFirstPolicy;
+import org.apache.myriad.scheduler.Clock;
 import org.apache.myriad.scheduler.ExecutorCommandLineGenerator;
+import org.apache.myriad.scheduler.FlexOperationQueue;
+import org.apache.myriad.scheduler.LostSlaveManager;
 import org.apache.myriad.scheduler.MyriadDriverManager;
 import org.apache.myriad.scheduler.NMExecutorCommandLineGenerator;
 import org.apache.myriad.scheduler.NMTaskFactoryAnnotation;
+import org.apache.myriad.scheduler.NodeDrainer;
 import org.apache.myriad.scheduler.ReconcileService;
 import org.apache.myriad.scheduler.ServiceProfileManager;
 import org.apache.myriad.scheduler.ServiceTaskFactory;
 import org.apache.myriad.scheduler.TaskFactory;
+import org.apache.myriad.scheduler.TaskKillQueue;
+import org.apache.myriad.scheduler.TaskTerminator;
+import org.apache.myriad.scheduler.event.journal.EventJournal;
 import org.apache.myriad.scheduler.NMTaskFactory;
+import org.apache.myriad.scheduler.fgs.ContainerTaskStore;
+import org.apache.myriad.scheduler.fgs.FineGrainedScalingMetrics;
 import org.apache.myriad.scheduler.fgs.NMHeartBeatHandler;
 import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferHandlingExecutor;
+import org.apache.myriad.scheduler.fgs.OfferHoldPolicy;
 import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
 import org.apache.myriad.scheduler.fgs.YarnNodeCapacityManager;
 import org.apache.myriad.scheduler.yarn.interceptor.InterceptorRegistry;
@@ -63,6 +82,15 @@ import org.slf4j.LoggerFactory;
 public class MyriadModule extends AbstractModule {
   private static final Logger LOGGER = LoggerFactory.getLogger(MyriadModule.class);
 
+  private static final Map<String, Class<? extends NodeScaleDownPolicy>> SCALE_DOWN_POLICIES =
+      ImmutableMap.<String, Class<? extends NodeScaleDownPolicy>>builder()
+          .put(LeastAMNodesFirstPolicy.NAME, LeastAMNodesFirstPolicy.class)
+          .put(LeastAllocatedResourcesFirstPolicy.NAME, LeastAllocatedResourcesFirstPolicy.class)
+          .put(YoungestNodeManagerFirstPolicy.NAME, YoungestNodeManagerFirstPolicy.class)
+          .put(LeastContainerWorkFirstPolicy.NAME, LeastContainerWorkFirstPolicy.class)
+          .put(WeightedScaleDownPolicy.NAME, WeightedScaleDownPolicy.class)
+          .build();
+
   private MyriadConfiguration cfg;
   private Configuration hadoopConf;
   private AbstractYarnScheduler yarnScheduler;
@@ -87,10 +115,12 @@ public class MyriadModule extends AbstractModule {
     bind(AbstractYarnScheduler.class).toInstance(yarnScheduler);
     bind(InterceptorRegistry.class).toInstance(interceptorRegistry);
     bind(MyriadDriverManager.class).in(Scopes.SINGLETON);
+    bind(MetricRegistry.class).in(Scopes.SINGLETON);
     bind(org.apache.myriad.scheduler.MyriadScheduler.class).in(Scopes.SINGLETON);
     bind(ServiceProfileManager.class).in(Scopes.SINGLETON);
     bind(DisruptorManager.class).in(Scopes.SINGLETON);
     bind(ReconcileService.class).in(Scopes.SINGLETON);
+    bind(FlexOperationQueue.class).in(Scopes.SINGLETON);
     bind(HttpConnectorProvider.class).in(Scopes.SINGLETON);
     bind(MyriadWebServer.class).in(Scopes.SINGLETON);
     // add special binding between TaskFactory and NMTaskFactory to ease up
@@ -99,6 +129,16 @@ public class MyriadModule extends AbstractModule {
     bind(YarnNodeCapacityManager.class).in(Scopes.SINGLETON);
     bind(NodeStore.class).in(Scopes.SINGLETON);
     bind(OfferLifecycleManager.class).in(Scopes.SINGLETON);
+    bind(ContainerTaskStore.class).in(Scopes.SINGLETON);
+    bind(FineGrainedScalingMetrics.class).in(Scopes.SINGLETON);
+    bind(OfferHoldPolicy.class).in(Scopes.SINGLETON);
+    bind(OfferHandlingExecutor.class).in(Scopes.SINGLETON);
+    bind(TaskKillQueue.class).in(Scopes.SINGLETON);
+    bind(Clock.class).toInstance(Clock.SYSTEM);
+    bind(TaskTerminator.class).asEagerSingleton();
+    bind(EventJournal.class).in(Scopes.SINGLETON);
+    bind(LostSlaveManager.class).in(Scopes.SINGLETON);
+    bind(NodeDrainer.class).in(Scopes.SINGLETON);
     bind(NMHeartBeatHandler.class).asEagerSingleton();
 
     MapBinder<String, TaskFactory> mapBinder = MapBinder.newMapBinder(binder(), String.class, TaskFactory.class);
@@ -120,8 +160,21 @@ public class MyriadModule extends AbstractModule {
       }
     }
 
-    //TODO(Santosh): Should be configurable as well
-    bind(NodeScaleDownPolicy.class).to(LeastAMNodesFirstPolicy.class).in(Scopes.SINGLETON);
+    bind(NodeStatistics.class).asEagerSingleton();
+    MapBinder<String, NodeScaleDownPolicy> policyBinder = MapBinder.newMapBinder(binder(), String.class, NodeScaleDownPolicy.class);
+    for (Map.Entry<String, Class<? extends NodeScaleDownPolicy>> entry : SCALE_DOWN_POLICIES.entrySet()) {
+      policyBinder.addBinding(entry.getKey()).to(entry.getValue()).in(Scopes.SINGLETON);
+    }
+    String scaleDownPolicy = cfg.getScaleDownConfiguration().getPolicy();
+    if (!SCALE_DOWN_POLICIES.containsKey(scaleDownPolicy)) {
+      try {
+        policyBinder.addBinding(scaleDownPolicy).to(Class.forName(scaleDownPolicy).asSubclass(NodeScaleDownPolicy.class))
+            .in(Scopes.SINGLETON);
+      } catch (ClassNotFoundException | ClassCastException e) {
+        throw new IllegalArgumentException("Scale down policy " + scaleDownPolicy + " is neither built-in nor a " +
+            NodeScaleDownPolicy.class.getName(), e);
+      }
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -129,6 +182,14 @@ public class MyriadModule extends AbstractModule {
     return (Class<? extends TaskFactory>) Class.forName(taskFactoryClass);
   }
 
+  @Provides
+  @Singleton
+  NodeScaleDownPolicy providesNodeScaleDownPolicy(MyriadConfiguration cfg, Map<String, Provider<NodeScaleDownPolicy>> policies) {
+    String name = cfg.getScaleDownConfiguration().getPolicy();
+    LOGGER.info("Using scale down policy {}", name);
+    return policies.get(name).get();
+  }
+
   @Provides
   @Singleton
   SchedulerState providesSchedulerState(MyriadConfiguration cfg) {
@@ -21,6 +21,7 @@ package org.apache.myriad.api;
 import com.codahale.metrics.annotation.Timed;
 import com.google.common.base.Preconditions;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import javax.inject.Inject;
@@ -28,44 +29,54 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.UriInfo;
 import org.apache.myriad.api.model.FlexDownClusterRequest;
 import org.apache.myriad.api.model.FlexDownServiceRequest;
 import org.apache.myriad.api.model.FlexUpClusterRequest;
 import org.apache.myriad.api.model.FlexUpServiceRequest;
 import org.apache.myriad.configuration.MyriadBadConfigurationException;
 import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.FlexOperation;
+import org.apache.myriad.scheduler.FlexOperationQueue;
 import org.apache.myriad.scheduler.MyriadOperations;
 import org.apache.myriad.scheduler.ServiceProfileManager;
 import org.apache.myriad.scheduler.ServiceResourceProfile;
-import org.apache.myriad.scheduler.constraints.ConstraintFactory;
 import org.apache.myriad.state.SchedulerState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * RESTful API to resource manager
+ * <p/>
+ * Flex requests are validated right away and executed by the {@link FlexOperationQueue}. Accepted requests
+ * are answered with the location of the operation executing them, see {@link OperationsResource}, and
+ * requests are answered with 503 while the queue is full.
  */
 @Path("/cluster")
 public class ClustersResource {
   private static final Logger LOGGER = LoggerFactory.getLogger(ClustersResource.class);
+  private static final int RETRY_AFTER_SECONDS = 5;
   private static final String LIKE_CONSTRAINT_FORMAT = "'<mesos_slave_attribute|hostname> LIKE <value_regex>'";
 
   private MyriadConfiguration cfg;
   private SchedulerState schedulerState;
   private ServiceProfileManager profileManager;
   private MyriadOperations myriadOperations;
+  private FlexOperationQueue operationQueue;
 
   @Inject
   public ClustersResource(MyriadConfiguration cfg, SchedulerState state, ServiceProfileManager profileManager,
-                          MyriadOperations myriadOperations) {
+                          MyriadOperations myriadOperations, FlexOperationQueue operationQueue) {
     this.cfg = cfg;
     this.schedulerState = state;
     this.profileManager = profileManager;
     this.myriadOperations = myriadOperations;
+    this.operationQueue = operationQueue;
   }
 
   @Timed
@@ -73,7 +84,7 @@ public class ClustersResource {
   @Path("/flexup")
   @Produces(MediaType.TEXT_PLAIN)
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response flexUp(FlexUpClusterRequest request) {
+  public Response flexUp(FlexUpClusterRequest request, @Context UriInfo uriInfo) {
     Preconditions.checkNotNull(request, "request object cannot be null or empty");
 
     Integer instances = request.getInstances();
@@ -86,14 +97,12 @@ public class ClustersResource {
     isValidRequest = isValidRequest && validateInstances(instances, response);
     isValidRequest = isValidRequest && validateConstraints(constraints, response);
 
-    Response returnResponse = response.build();
-    if (returnResponse.getStatus() == Response.Status.ACCEPTED.getStatusCode()) {
+    if (isValidRequest) {
       String constraint = constraints != null && !constraints.isEmpty() ? constraints.get(0) : null;
-      this.myriadOperations.flexUpCluster(this.profileManager.get(profile), instances, ConstraintFactory.createConstraint(
-          constraint));
+      submit(FlexOperation.Type.FLEX_UP, profile, constraint, instances, response, uriInfo);
     }
 
-    return returnResponse;
+    return response.build();
   }
 
   @Timed
@@ -101,7 +110,7 @@ public class ClustersResource {
   @Path("/flexupservice")
   @Produces(MediaType.TEXT_PLAIN)
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response flexUpservice(FlexUpServiceRequest request) {
+  public Response flexUpservice(FlexUpServiceRequest request, @Context UriInfo uriInfo) {
     Preconditions.checkNotNull(request, "request object cannot be null or empty");
 
     LOGGER.info("Received Flexup a Service Request");
@@ -126,11 +135,12 @@ public class ClustersResource {
     }
 
     try {
-      this.myriadOperations.flexUpAService(instances, serviceName);
+      this.myriadOperations.checkServiceInstances(instances, serviceName);
     } catch (MyriadBadConfigurationException e) {
       return response.status(Response.Status.BAD_REQUEST).entity(e.getMessage()).build();
     }
 
+    submit(FlexOperation.Type.FLEX_UP_SERVICE, serviceName, null, instances, response, uriInfo);
     return response.build();
   }
 
@@ -139,7 +149,7 @@ public class ClustersResource {
   @Path("/flexdown")
   @Produces(MediaType.TEXT_PLAIN)
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response flexDown(FlexDownClusterRequest request) {
+  public Response flexDown(FlexDownClusterRequest request, @Context UriInfo uriInfo) {
     Preconditions.checkNotNull(request, "request object cannot be null or empty");
 
     Integer instances = request.getInstances();
@@ -163,12 +173,28 @@ public class ClustersResource {
       }
     }
 
-    Response returnResponse = response.build();
-    if (returnResponse.getStatus() == Response.Status.ACCEPTED.getStatusCode()) {
+    if (isValidRequest) {
       String constraint = constraints != null && !constraints.isEmpty() ? constraints.get(0) : null;
-      this.myriadOperations.flexDownCluster(profileManager.get(profile), ConstraintFactory.createConstraint(constraint), instances);
+      submit(FlexOperation.Type.FLEX_DOWN, profile, constraint, instances, response, uriInfo);
+    }
+    return response.build();
+  }
+
+  private void submit(FlexOperation.Type type, String name, String constraint, int instances, ResponseBuilder response,
+                      UriInfo uriInfo) {
+    try {
+      FlexOperation operation = operationQueue.submit(type, name, constraint, instances);
+      if (uriInfo != null) {
+        response.location(uriInfo.getBaseUriBuilder().path(OperationsResource.class).path(String.valueOf(operation.getId()))
+            .build());
+      }
+    } catch (RejectedExecutionException e) {
+      response.status(Response.Status.SERVICE_UNAVAILABLE).entity(e.getMessage()).header("Retry-After", RETRY_AFTER_SECONDS);
+      LOGGER.warn("Rejected {} request for {} instances of {}: {}", type, instances, name, e.getMessage());
+    } catch (MyriadBadConfigurationException e) {
+      response.status(Response.Status.BAD_REQUEST).entity(e.getMessage());
+      LOGGER.warn("Rejected {} request for {} instances of {}: {}", type, instances, name, e.getMessage());
     }
-    return returnResponse;
   }
 
   private boolean validateProfile(String profile, ResponseBuilder response) {
@@ -256,7 +282,7 @@ public class ClustersResource {
   @Path("/flexdownservice")
   @Produces(MediaType.TEXT_PLAIN)
   @Consumes(MediaType.APPLICATION_JSON)
-  public Response flexDownservice(FlexDownServiceRequest request) {
+  public Response flexDownservice(FlexDownServiceRequest request, @Context UriInfo uriInfo) {
     Preconditions.checkNotNull(request, "request object cannot be null or empty");
 
     Integer instances = request.getInstances();
@@ -281,7 +307,7 @@ public class ClustersResource {
       LOGGER.warn("Requested number of instances greater than available: {} < {}", flexibleInstances, instances);
     }
 
-    this.myriadOperations.flexDownAService(instances, serviceName);
+    submit(FlexOperation.Type.FLEX_DOWN_SERVICE, serviceName, null, instances, response, uriInfo);
     return response.build();
   }
 }
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.api;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metered;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.annotation.Timed;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+/**
+ * Defines the REST API to the metrics registered in the Myriad MetricRegistry.
+ * Rates are per second and durations are in milliseconds.
+ */
+@Path("/metrics")
+@Produces(MediaType.APPLICATION_JSON)
+public class MetricsResource {
+  private static final double DURATION_FACTOR = 1.0 / TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final MetricRegistry registry;
+
+  @Inject
+  public MetricsResource(MetricRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Timed
+  @GET
+  public Map<String, Map<String, Object>> getMetrics() {
+    Map<String, Map<String, Object>> metrics = new TreeMap<>();
+
+    Map<String, Object> gauges = new TreeMap<>();
+    for (Map.Entry<String, Gauge> entry : registry.getGauges().entrySet()) {
+      gauges.put(entry.getKey(), entry.getValue().getValue());
+    }
+    metrics.put("gauges", gauges);
+
+    Map<String, Object> counters = new TreeMap<>();
+    for (Map.Entry<String, Counter> entry : registry.getCounters().entrySet()) {
+      counters.put(entry.getKey(), entry.getValue().getCount());
+    }
+    metrics.put("counters", counters);
+
+    Map<String, Object> histograms = new TreeMap<>();
+    for (Map.Entry<String, Histogram> entry : registry.getHistograms().entrySet()) {
+      Map<String, Object> values = toMap(entry.getValue().getSnapshot(), 1.0);
+      values.put("count", entry.getValue().getCount());
+      histograms.put(entry.getKey(), values);
+    }
+    metrics.put("histograms", histograms);
+
+    Map<String, Object> meters = new TreeMap<>();
+    for (Map.Entry<String, Meter> entry : registry.getMeters().entrySet()) {
+      meters.put(entry.getKey(), toMap(entry.getValue()));
+    }
+    metrics.put("meters", meters);
+
+    Map<String, Object> timers = new TreeMap<>();
+    for (Map.Entry<String, Timer> entry : registry.getTimers().entrySet()) {
+      Map<String, Object> values = toMap(entry.getValue());
+      values.putAll(toMap(entry.getValue().getSnapshot(), DURATION_FACTOR));
+      timers.put(entry.getKey(), values);
+    }
+    metrics.put("timers", timers);
+
+    return metrics;
+  }
+
+  private Map<String, Object> toMap(Metered metered) {
+    Map<String, Object> values = new TreeMap<>();
+    values.put("count", metered.getCount());
+    values.put("meanRate", metered.getMeanRate());
+    values.put("m1Rate", metered.getOneMinuteRate());
+    values.put("m5Rate", metered.getFiveMinuteRate());
+    values.put("m15Rate", metered.getFifteenMinuteRate());
+    return values;
+  }
+
+  private Map<String, Object> toMap(Snapshot snapshot, double factor) {
+    Map<String, Object> values = new TreeMap<>();
+    values.put("min", snapshot.getMin() * factor);
+    values.put("max", snapshot.getMax() * factor);
+    values.put("mean", snapshot.getMean() * factor);
+    values.put("p50", snapshot.getMedian() * factor);
+    values.put("p95", snapshot.get95thPercentile() * factor);
+    values.put("p99", snapshot.get99thPercentile() * factor);
+    values.put("p999", snapshot.get999thPercentile() * factor);
+    return values;
+  }
+}
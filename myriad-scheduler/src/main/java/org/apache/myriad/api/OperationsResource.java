@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.api;
+
+import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.myriad.api.model.FlexOperationResponse;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.FlexOperation;
+import org.apache.myriad.scheduler.FlexOperationQueue;
+import org.apache.myriad.scheduler.FlexUpOperation;
+
+/**
+ * Defines the REST API to the progress of the flex requests queued by the cluster API. The progress
+ * of an operation is polled from /operations/{id} or streamed as server-sent events from
+ * /operations/{id}/events, which sends an event whenever the progress changed and closes once the
+ * operation finished.
+ * <p/>
+ * A stream waits on the operation for the {@link FlexOperationQueue} to report a change, but holds its
+ * request thread while the stream is open, so the number of open streams is capped.
+ */
+@Path("/operations")
+@Produces(MediaType.APPLICATION_JSON)
+public class OperationsResource {
+  public static final String SERVER_SENT_EVENTS = "text/event-stream";
+
+  private final FlexOperationQueue operationQueue;
+  private final long streamTimeoutMs;
+  private final Semaphore streams;
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Inject
+  public OperationsResource(MyriadConfiguration cfg, FlexOperationQueue operationQueue) {
+    this.operationQueue = operationQueue;
+    this.streamTimeoutMs = cfg.getFlexOperationsConfiguration().getProgressStreamTimeoutMs();
+    this.streams = new Semaphore(cfg.getFlexOperationsConfiguration().getMaxProgressStreams());
+  }
+
+  @Timed
+  @GET
+  public List<FlexOperationResponse> getOperations() {
+    List<FlexOperation> operations = operationQueue.getOperations();
+    List<FlexOperationResponse> responses = new ArrayList<>(operations.size());
+    for (FlexOperation operation : operations) {
+      responses.add(toResponse(operation));
+    }
+    return responses;
+  }
+
+  @Timed
+  @GET
+  @Path("/{id}")
+  public Response getOperation(@PathParam("id") long id) {
+    FlexOperation operation = operationQueue.getOperation(id);
+    if (operation == null) {
+      return Response.status(Response.Status.NOT_FOUND).build();
+    }
+    return Response.ok(toResponse(operation)).build();
+  }
+
+  @GET
+  @Path("/{id}/events")
+  @Produces(SERVER_SENT_EVENTS)
+  public Response streamOperation(@PathParam("id") long id) {
+    final FlexOperation operation = operationQueue.getOperation(id);
+    if (operation == null) {
+      return Response.status(Response.Status.NOT_FOUND).build();
+    }
+    if (!streams.tryAcquire()) {
+      return Response.status(Response.Status.SERVICE_UNAVAILABLE).build();
+    }
+    return Response.ok(new StreamingOutput() {
+      @Override
+      public void write(OutputStream output) throws IOException {
+        try {
+          stream(operation, output);
+        } finally {
+          streams.release();
+        }
+      }
+    }).header("Cache-Control", "no-cache").build();
+  }
+
+  private void stream(FlexOperation operation, OutputStream output) throws IOException {
+    long deadline = System.currentTimeMillis() + streamTimeoutMs;
+    String last = null;
+    while (true) {
+      // Read the version first, a change made while the event is written is waited for below
+      long version = operation.getVersion();
+      boolean finished = operation.isFinished();
+      String data = mapper.writeValueAsString(toResponse(operation));
+      if (!data.equals(last)) {
+        output.write(("event: progress\ndata: " + data + "\n\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+        last = data;
+      }
+      long remaining = deadline - System.currentTimeMillis();
+      if (finished || remaining <= 0) {
+        return;
+      }
+      try {
+        operation.awaitChange(version, remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  static FlexOperationResponse toResponse(FlexOperation operation) {
+    FlexUpOperation launch = operation.getLaunch();
+    FlexUpOperation.Progress progress = launch == null ? null : launch.getProgress();
+    return new FlexOperationResponse(operation.getId(), operation.getType().name(), operation.getName(),
+        operation.getConstraint(), operation.getInstances(), operation.getRequests(), operation.getStatus().name(),
+        operation.getMessage(), operation.getSubmittedMillis(), operation.getStartedMillis(), operation.getCompletedMillis(),
+        operation.getTimeToCompletionMs(), progress == null ? 0 : progress.getPending(),
+        progress == null ? 0 : progress.getStaging(), progress == null ? 0 : progress.getActive(),
+        progress == null ? 0 : progress.getEnded());
+  }
+}
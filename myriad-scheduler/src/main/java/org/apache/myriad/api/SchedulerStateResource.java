@@ -29,8 +29,10 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.mesos.Protos;
+import org.apache.myriad.api.model.DrainingTask;
 import org.apache.myriad.api.model.GetSchedulerStateResponse;
 import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.NodeDrainer;
 
 /**
  * Defines the REST API for the current state of Myriad
@@ -40,18 +42,31 @@ import org.apache.myriad.configuration.MyriadConfiguration;
 public class SchedulerStateResource {
   private MyriadConfiguration cfg;
   private org.apache.myriad.state.SchedulerState state;
+  private NodeDrainer nodeDrainer;
 
   @Inject
-  public SchedulerStateResource(final MyriadConfiguration cfg, final org.apache.myriad.state.SchedulerState state) {
+  public SchedulerStateResource(final MyriadConfiguration cfg, final org.apache.myriad.state.SchedulerState state,
+                                final NodeDrainer nodeDrainer) {
     this.cfg = cfg;
     this.state = state;
+    this.nodeDrainer = nodeDrainer;
   }
 
   @Timed
   @GET
   public GetSchedulerStateResponse getState() {
     return new GetSchedulerStateResponse(toStringCollection(state.getPendingTaskIds()), toStringCollection(
-        state.getStagingTaskIds()), toStringCollection(state.getActiveTaskIds()), toStringCollection(state.getKillableTaskIds()));
+        state.getStagingTaskIds()), toStringCollection(state.getActiveTaskIds()), toStringCollection(state.getKillableTaskIds()),
+        toDrainingTasks(nodeDrainer.getDrains()));
+  }
+
+  private Collection<DrainingTask> toDrainingTasks(Collection<NodeDrainer.Drain> drains) {
+    Collection<DrainingTask> drainingTasks = new ArrayList<>(drains.size());
+    for (NodeDrainer.Drain drain : drains) {
+      drainingTasks.add(new DrainingTask(drain.getTaskId().getValue(), drain.getHostname(), drain.getStartMillis(),
+          drain.getDeadlineMillis(), drain.getInitialContainers(), drain.getRunningContainers()));
+    }
+    return drainingTasks;
   }
 
   private Collection<String> toStringCollection(Collection<Protos.TaskID> collection) {
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.api.model;
+
+/**
+ * Progress of draining the NM of a flexed down task
+ */
+public class DrainingTask {
+  private String taskId;
+  private String hostname;
+  private long startMillis;
+  private long deadlineMillis;
+  private int initialContainers;
+  private int runningContainers;
+
+  public DrainingTask() {
+
+  }
+
+  public DrainingTask(String taskId, String hostname, long startMillis, long deadlineMillis, int initialContainers,
+                      int runningContainers) {
+    this.taskId = taskId;
+    this.hostname = hostname;
+    this.startMillis = startMillis;
+    this.deadlineMillis = deadlineMillis;
+    this.initialContainers = initialContainers;
+    this.runningContainers = runningContainers;
+  }
+
+  public String getTaskId() {
+    return taskId;
+  }
+
+  public String getHostname() {
+    return hostname;
+  }
+
+  public long getStartMillis() {
+    return startMillis;
+  }
+
+  public long getDeadlineMillis() {
+    return deadlineMillis;
+  }
+
+  public int getInitialContainers() {
+    return initialContainers;
+  }
+
+  public int getRunningContainers() {
+    return runningContainers;
+  }
+}
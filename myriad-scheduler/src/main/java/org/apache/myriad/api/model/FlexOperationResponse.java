@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.api.model;
+
+/**
+ * Progress of a queued flex request
+ */
+public class FlexOperationResponse {
+  private long id;
+  private String type;
+  private String name;
+  private String constraint;
+  private int instances;
+  private int requests;
+  private String status;
+  private String message;
+  private long submittedMillis;
+  private long startedMillis;
+  private long completedMillis;
+  private long timeToCompletionMs;
+  private int pending;
+  private int staging;
+  private int active;
+  private int ended;
+
+  public FlexOperationResponse() {
+
+  }
+
+  public FlexOperationResponse(long id, String type, String name, String constraint, int instances, int requests, String status,
+                               String message, long submittedMillis, long startedMillis, long completedMillis,
+                               long timeToCompletionMs, int pending, int staging, int active, int ended) {
+    this.id = id;
+    this.type = type;
+    this.name = name;
+    this.constraint = constraint;
+    this.instances = instances;
+    this.requests = requests;
+    this.status = status;
+    this.message = message;
+    this.submittedMillis = submittedMillis;
+    this.startedMillis = startedMillis;
+    this.completedMillis = completedMillis;
+    this.timeToCompletionMs = timeToCompletionMs;
+    this.pending = pending;
+    this.staging = staging;
+    this.active = active;
+    this.ended = ended;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getConstraint() {
+    return constraint;
+  }
+
+  public int getInstances() {
+    return instances;
+  }
+
+  public int getRequests() {
+    return requests;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public long getSubmittedMillis() {
+    return submittedMillis;
+  }
+
+  public long getStartedMillis() {
+    return startedMillis;
+  }
+
+  public long getCompletedMillis() {
+    return completedMillis;
+  }
+
+  public long getTimeToCompletionMs() {
+    return timeToCompletionMs;
+  }
+
+  public int getPending() {
+    return pending;
+  }
+
+  public int getStaging() {
+    return staging;
+  }
+
+  public int getActive() {
+    return active;
+  }
+
+  public int getEnded() {
+    return ended;
+  }
+}
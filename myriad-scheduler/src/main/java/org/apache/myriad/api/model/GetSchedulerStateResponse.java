@@ -19,6 +19,7 @@
 package org.apache.myriad.api.model;
 
 import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Response for the current state of Myriad
@@ -28,6 +29,7 @@ public class GetSchedulerStateResponse {
   private Collection<String> stagingTasks;
   private Collection<String> activeTasks;
   private Collection<String> killableTasks;
+  private Collection<DrainingTask> drainingTasks;
 
   public GetSchedulerStateResponse() {
 
@@ -35,10 +37,16 @@ public class GetSchedulerStateResponse {
 
   public GetSchedulerStateResponse(Collection<String> pendingTasks, Collection<String> stagingTasks, Collection<String> activeTasks,
                                    Collection<String> killableTasks) {
+    this(pendingTasks, stagingTasks, activeTasks, killableTasks, Collections.<DrainingTask>emptyList());
+  }
+
+  public GetSchedulerStateResponse(Collection<String> pendingTasks, Collection<String> stagingTasks, Collection<String> activeTasks,
+                                   Collection<String> killableTasks, Collection<DrainingTask> drainingTasks) {
     this.pendingTasks = pendingTasks;
     this.stagingTasks = stagingTasks;
     this.activeTasks = activeTasks;
     this.killableTasks = killableTasks;
+    this.drainingTasks = drainingTasks;
   }
 
   public Collection<String> getPendingTasks() {
@@ -57,4 +65,8 @@ public class GetSchedulerStateResponse {
     return killableTasks;
   }
 
+  public Collection<DrainingTask> getDrainingTasks() {
+    return drainingTasks;
+  }
+
 }
@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+/**
+ * Configuration of the Rebalancer, which flexes NMs up and down based on the YARN queue metrics
+ */
+public class AutoscalerConfiguration {
+  /**
+   * Profile of the NM flexed up when no min instances are configured and no NM of any profile runs
+   */
+  public static final String DEFAULT_MIN_INSTANCES_PROFILE = "small";
+
+  /**
+   * By default no profile is flexed up on demand
+   */
+  public static final Map<String, Integer> DEFAULT_MAX_INSTANCES = Collections.emptyMap();
+
+  /**
+   * Default time between two evaluations of the queue metrics
+   */
+  public static final Long DEFAULT_INTERVAL_MS = 5000L;
+
+  /**
+   * Default number of consecutive evaluations demand has to exceed the capacity before NMs are flexed up
+   */
+  public static final Integer DEFAULT_SCALE_UP_INTERVALS = 2;
+
+  /**
+   * Default number of consecutive evaluations the cluster has to be idle before a NM is flexed down
+   */
+  public static final Integer DEFAULT_SCALE_DOWN_INTERVALS = 12;
+
+  /**
+   * Default min time between two flex ups
+   */
+  public static final Long DEFAULT_SCALE_UP_COOLDOWN_MS = 30000L;
+
+  /**
+   * Default min time between a flex up or down and the next flex down
+   */
+  public static final Long DEFAULT_SCALE_DOWN_COOLDOWN_MS = 300000L;
+
+  /**
+   * Default max number of NMs flexed up at once
+   */
+  public static final Integer DEFAULT_MAX_SCALE_UP_INSTANCES = 4;
+
+  /**
+   * Min number of NMs per profile, which are flexed up regardless of the queue metrics. If absent,
+   * a {@link #DEFAULT_MIN_INSTANCES_PROFILE} NM is flexed up only while no NM of any profile runs.
+   */
+  @JsonProperty
+  private Map<String, Integer> minInstances;
+
+  /**
+   * Max number of NMs per profile. Only profiles listed here are flexed up on demand.
+   */
+  @JsonProperty
+  private Map<String, Integer> maxInstances;
+
+  @JsonProperty
+  private Long intervalMs;
+
+  @JsonProperty
+  private Integer scaleUpIntervals;
+
+  @JsonProperty
+  private Integer scaleDownIntervals;
+
+  @JsonProperty
+  private Long scaleUpCooldownMs;
+
+  @JsonProperty
+  private Long scaleDownCooldownMs;
+
+  @JsonProperty
+  private Integer maxScaleUpInstances;
+
+  @JsonProperty
+  private ForecastConfiguration forecast;
+
+  public Optional<Map<String, Integer>> getMinInstances() {
+    return Optional.fromNullable(minInstances);
+  }
+
+  public Map<String, Integer> getMaxInstances() {
+    return Optional.fromNullable(maxInstances).or(DEFAULT_MAX_INSTANCES);
+  }
+
+  public Long getIntervalMs() {
+    return Optional.fromNullable(intervalMs).or(DEFAULT_INTERVAL_MS);
+  }
+
+  public Integer getScaleUpIntervals() {
+    return Optional.fromNullable(scaleUpIntervals).or(DEFAULT_SCALE_UP_INTERVALS);
+  }
+
+  public Integer getScaleDownIntervals() {
+    return Optional.fromNullable(scaleDownIntervals).or(DEFAULT_SCALE_DOWN_INTERVALS);
+  }
+
+  public Long getScaleUpCooldownMs() {
+    return Optional.fromNullable(scaleUpCooldownMs).or(DEFAULT_SCALE_UP_COOLDOWN_MS);
+  }
+
+  public Long getScaleDownCooldownMs() {
+    return Optional.fromNullable(scaleDownCooldownMs).or(DEFAULT_SCALE_DOWN_COOLDOWN_MS);
+  }
+
+  public Integer getMaxScaleUpInstances() {
+    return Optional.fromNullable(maxScaleUpInstances).or(DEFAULT_MAX_SCALE_UP_INSTANCES);
+  }
+
+  public ForecastConfiguration getForecastConfiguration() {
+    return Optional.fromNullable(forecast).or(new ForecastConfiguration());
+  }
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of the Disruptors the Mesos callbacks are published to
+ */
+public class EventBusConfiguration {
+  /**
+   * Name of the ring shared by the low frequency events
+   */
+  public static final String LOW_FREQUENCY_RING = "lowFrequency";
+
+  /**
+   * Name of the ring all events are published to when the event bus is unified
+   */
+  public static final String UNIFIED_RING = "unified";
+
+  /**
+   * Events are published to a ring per event type by default
+   */
+  public static final Boolean DEFAULT_UNIFIED = false;
+
+  /**
+   * Default strategy consumers use to wait for events
+   */
+  public static final String DEFAULT_WAIT_STRATEGY = "blocking";
+
+  /**
+   * Default number of consumer threads of a ring
+   */
+  public static final Integer DEFAULT_PARTITIONS = 1;
+
+  /**
+   * Default events that share a single ring and consumer thread
+   */
+  public static final List<String> DEFAULT_LOW_FREQUENCY_EVENTS = ImmutableList.of("registered", "reRegistered",
+      "disconnected", "error", "slaveLost", "executorLost", "frameworkMessage");
+
+  /**
+   * Publishes all events to a single ring, so they are handled one at a time in the order
+   * of the Mesos callbacks. The low frequency events are ignored when unified.
+   */
+  @JsonProperty
+  private Boolean unified;
+
+  /**
+   * Wait strategy of the rings that do not configure one.
+   */
+  @JsonProperty
+  private String waitStrategy;
+
+  /**
+   * Ring size and wait strategy per event type, keyed by event name or lowFrequency for the shared ring.
+   */
+  @JsonProperty
+  private Map<String, EventRingConfiguration> rings;
+
+  /**
+   * Events published to the shared low frequency ring instead of a ring of their own.
+   */
+  @JsonProperty
+  private List<String> lowFrequencyEvents;
+
+  /**
+   * Journal the Mesos callbacks are recorded to.
+   */
+  @JsonProperty
+  private EventJournalConfiguration journal;
+
+  public Boolean isUnified() {
+    return Optional.fromNullable(unified).or(DEFAULT_UNIFIED);
+  }
+
+  public String getWaitStrategy() {
+    return Optional.fromNullable(waitStrategy).or(DEFAULT_WAIT_STRATEGY);
+  }
+
+  public Map<String, EventRingConfiguration> getRings() {
+    return Optional.fromNullable(rings).or(Collections.<String, EventRingConfiguration>emptyMap());
+  }
+
+  public List<String> getLowFrequencyEvents() {
+    return Optional.fromNullable(lowFrequencyEvents).or(DEFAULT_LOW_FREQUENCY_EVENTS);
+  }
+
+  public EventJournalConfiguration getJournalConfiguration() {
+    return Optional.fromNullable(journal).or(new EventJournalConfiguration());
+  }
+
+  public int getRingSize(String ring, int defaultRingSize) {
+    EventRingConfiguration conf = getRings().get(ring);
+    return conf != null ? conf.getRingSize().or(defaultRingSize) : defaultRingSize;
+  }
+
+  public String getWaitStrategy(String ring) {
+    EventRingConfiguration conf = getRings().get(ring);
+    return conf != null ? conf.getWaitStrategy().or(getWaitStrategy()) : getWaitStrategy();
+  }
+
+  public int getPartitions(String ring) {
+    EventRingConfiguration conf = getRings().get(ring);
+    return conf != null ? conf.getPartitions().or(DEFAULT_PARTITIONS) : DEFAULT_PARTITIONS;
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+/**
+ * Configuration of the journal the Mesos callbacks are recorded to
+ */
+public class EventJournalConfiguration {
+  /**
+   * The journal is disabled by default
+   */
+  public static final Boolean DEFAULT_ENABLED = false;
+
+  /**
+   * Default directory of the journal segments, relative to the working directory of the Resource Manager
+   */
+  public static final String DEFAULT_DIRECTORY = "myriad-journal";
+
+  /**
+   * Default size of a journal segment
+   */
+  public static final Integer DEFAULT_SEGMENT_SIZE_MB = 64;
+
+  /**
+   * Default number of journal segments kept, 1 GB with the default segment size
+   */
+  public static final Integer DEFAULT_MAX_SEGMENTS = 16;
+
+  /**
+   * Records every Mesos callback to the journal, so it can be replayed offline.
+   */
+  @JsonProperty
+  private Boolean enabled;
+
+  /**
+   * Directory the journal segments are written to.
+   */
+  @JsonProperty
+  private String directory;
+
+  /**
+   * Size of the memory-mapped journal segment files.
+   */
+  @JsonProperty
+  private Integer segmentSizeMB;
+
+  /**
+   * Number of journal segments kept, the oldest segments are deleted once a new segment is opened.
+   * 0 keeps every segment.
+   */
+  @JsonProperty
+  private Integer maxSegments;
+
+  public Boolean isEnabled() {
+    return Optional.fromNullable(enabled).or(DEFAULT_ENABLED);
+  }
+
+  public String getDirectory() {
+    return Optional.fromNullable(directory).or(DEFAULT_DIRECTORY);
+  }
+
+  public Integer getSegmentSizeMB() {
+    return Optional.fromNullable(segmentSizeMB).or(DEFAULT_SEGMENT_SIZE_MB);
+  }
+
+  public Integer getMaxSegments() {
+    return Optional.fromNullable(maxSegments).or(DEFAULT_MAX_SEGMENTS);
+  }
+}
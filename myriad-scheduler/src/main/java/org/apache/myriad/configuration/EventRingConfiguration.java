@@ -0,0 +1,58 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+/**
+ * Disruptor ring buffer Configuration of a single event type
+ */
+public class EventRingConfiguration {
+  /**
+   * Number of slots of the ring buffer, must be a power of 2.
+   */
+  @JsonProperty
+  private Integer ringSize;
+
+  /**
+   * Strategy the consumer uses to wait for events: blocking, sleeping, yielding or busy-spin.
+   */
+  @JsonProperty
+  private String waitStrategy;
+
+  /**
+   * Number of consumer threads the events are partitioned across, only supported by the statusUpdate ring
+   * where status updates are partitioned by task id.
+   */
+  @JsonProperty
+  private Integer partitions;
+
+  public Optional<Integer> getRingSize() {
+    return Optional.fromNullable(ringSize);
+  }
+
+  public Optional<String> getWaitStrategy() {
+    return Optional.fromNullable(waitStrategy);
+  }
+
+  public Optional<Integer> getPartitions() {
+    return Optional.fromNullable(partitions);
+  }
+}
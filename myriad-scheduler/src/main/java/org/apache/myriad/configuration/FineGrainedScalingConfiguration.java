@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+/**
+ * Fine-grained scaling Configuration
+ */
+public class FineGrainedScalingConfiguration {
+  /**
+   * Default max number of heartbeats unused offers are held on a node
+   */
+  public static final Integer DEFAULT_OFFER_HOLD_HEARTBEATS = 3;
+
+  /**
+   * Default max time unused offers are held on a node
+   */
+  public static final Long DEFAULT_OFFER_HOLD_MS = 5000L;
+
+  /**
+   * Default time offers are not held after Mesos rescinded an offer
+   */
+  public static final Long DEFAULT_OFFER_HOLD_BACKOFF_MS = 30000L;
+
+  /**
+   * By default offers are launched on and declined by the thread the YARN scheduler handles the node update on
+   */
+  public static final Boolean DEFAULT_ASYNC_OFFER_HANDLING = false;
+
+  /**
+   * Max number of heartbeats the capacity of offers no container was placed on is kept
+   * on the node before the offers are declined. Set to 0 to decline unused offers right away.
+   */
+  @JsonProperty
+  private Integer offerHoldHeartbeats;
+
+  /**
+   * Max time the capacity of offers no container was placed on is kept on the node.
+   */
+  @JsonProperty
+  private Long offerHoldMs;
+
+  /**
+   * Time offers are declined right away once Mesos rescinds an offer, which signals that
+   * other frameworks are waiting for resources.
+   */
+  @JsonProperty
+  private Long offerHoldBackoffMs;
+
+  /**
+   * Launches tasks on and declines offers from a Myriad thread instead of the thread the YARN scheduler
+   * handles node updates on, so the Mesos driver calls do not extend the time the scheduler lock is held.
+   */
+  @JsonProperty
+  private Boolean asyncOfferHandling;
+
+  public Integer getOfferHoldHeartbeats() {
+    return Optional.fromNullable(offerHoldHeartbeats).or(DEFAULT_OFFER_HOLD_HEARTBEATS);
+  }
+
+  public Long getOfferHoldMs() {
+    return Optional.fromNullable(offerHoldMs).or(DEFAULT_OFFER_HOLD_MS);
+  }
+
+  public Long getOfferHoldBackoffMs() {
+    return Optional.fromNullable(offerHoldBackoffMs).or(DEFAULT_OFFER_HOLD_BACKOFF_MS);
+  }
+
+  public Boolean isAsyncOfferHandling() {
+    return Optional.fromNullable(asyncOfferHandling).or(DEFAULT_ASYNC_OFFER_HANDLING);
+  }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+/**
+ * Configuration of the queue flex requests of the REST API are executed from
+ */
+public class FlexOperationsConfiguration {
+  /**
+   * Default max number of operations waiting to be executed
+   */
+  public static final Integer DEFAULT_MAX_QUEUED_OPERATIONS = 16;
+
+  /**
+   * Default number of finished operations kept for clients to poll
+   */
+  public static final Integer DEFAULT_RETAINED_OPERATIONS = 100;
+
+  /**
+   * Default max time a client is streamed the progress of an operation
+   */
+  public static final Long DEFAULT_PROGRESS_STREAM_TIMEOUT_MS = 300000L;
+
+  /**
+   * Default max number of clients streamed the progress of operations at the same time
+   */
+  public static final Integer DEFAULT_MAX_PROGRESS_STREAMS = 16;
+
+  /**
+   * Default max time a flex up waits for its tasks to launch
+   */
+  public static final Long DEFAULT_LAUNCH_TIMEOUT_MS = 1800000L;
+
+  /**
+   * Max number of operations waiting to be executed, further flex requests are rejected unless
+   * they are coalesced into a waiting operation.
+   */
+  @JsonProperty
+  private Integer maxQueuedOperations;
+
+  /**
+   * Number of finished operations kept for clients to poll, the oldest are dropped first.
+   */
+  @JsonProperty
+  private Integer retainedOperations;
+
+  /**
+   * Max time the progress of an operation is streamed to a client before the stream is closed.
+   */
+  @JsonProperty
+  private Long progressStreamTimeoutMs;
+
+  /**
+   * Max number of clients streamed the progress of operations at the same time, every stream holds
+   * a thread of the web server. Further stream requests are answered with 503.
+   */
+  @JsonProperty
+  private Integer maxProgressStreams;
+
+  /**
+   * Max time a flex up waits for offers to launch its tasks. A flex up whose tasks are still pending
+   * or staging then expires, its pending tasks are kept and launched when offers arrive.
+   */
+  @JsonProperty
+  private Long launchTimeoutMs;
+
+  public Integer getMaxQueuedOperations() {
+    return Optional.fromNullable(maxQueuedOperations).or(DEFAULT_MAX_QUEUED_OPERATIONS);
+  }
+
+  public Integer getRetainedOperations() {
+    return Optional.fromNullable(retainedOperations).or(DEFAULT_RETAINED_OPERATIONS);
+  }
+
+  public Long getProgressStreamTimeoutMs() {
+    return Optional.fromNullable(progressStreamTimeoutMs).or(DEFAULT_PROGRESS_STREAM_TIMEOUT_MS);
+  }
+
+  public Integer getMaxProgressStreams() {
+    return Optional.fromNullable(maxProgressStreams).or(DEFAULT_MAX_PROGRESS_STREAMS);
+  }
+
+  public Long getLaunchTimeoutMs() {
+    return Optional.fromNullable(launchTimeoutMs).or(DEFAULT_LAUNCH_TIMEOUT_MS);
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+
+/**
+ * Configuration of the demand forecast the Rebalancer flexes up NMs ahead of recurring load by
+ */
+public class ForecastConfiguration {
+  /**
+   * By default NMs are only flexed up for the current demand
+   */
+  public static final Boolean DEFAULT_ENABLED = false;
+
+  /**
+   * Default length of the buckets the demand is aggregated into
+   */
+  public static final Long DEFAULT_BUCKET_MS = 60000L;
+
+  /**
+   * By default load is assumed to recur hourly
+   */
+  public static final Long DEFAULT_SEASON_MS = 3600000L;
+
+  /**
+   * Default time NMs are flexed up ahead of forecast demand
+   */
+  public static final Long DEFAULT_LEAD_TIME_MS = 600000L;
+
+  /**
+   * Default smoothing factors of the level, trend and seasonal components
+   */
+  public static final Double DEFAULT_LEVEL_SMOOTHING = 0.3;
+  public static final Double DEFAULT_TREND_SMOOTHING = 0.05;
+  public static final Double DEFAULT_SEASONAL_SMOOTHING = 0.3;
+
+  /**
+   * Flexes up NMs for the demand forecast over the lead time, in addition to the current demand.
+   */
+  @JsonProperty
+  private Boolean enabled;
+
+  /**
+   * The demand, allocated plus pending resources, is aggregated into buckets of this length
+   * by its peak, and the forecast is updated once per bucket.
+   */
+  @JsonProperty
+  private Long bucketMs;
+
+  /**
+   * Period the load recurs with. Seasonality is only forecast once a full season was recorded.
+   */
+  @JsonProperty
+  private Long seasonMs;
+
+  /**
+   * How far ahead demand is forecast, which should cover the time NMs take to launch and register.
+   */
+  @JsonProperty
+  private Long leadTimeMs;
+
+  @JsonProperty
+  private Double levelSmoothing;
+
+  @JsonProperty
+  private Double trendSmoothing;
+
+  @JsonProperty
+  private Double seasonalSmoothing;
+
+  public Boolean isEnabled() {
+    return Optional.fromNullable(enabled).or(DEFAULT_ENABLED);
+  }
+
+  public Long getBucketMs() {
+    return Optional.fromNullable(bucketMs).or(DEFAULT_BUCKET_MS);
+  }
+
+  public Long getSeasonMs() {
+    return Optional.fromNullable(seasonMs).or(DEFAULT_SEASON_MS);
+  }
+
+  public Long getLeadTimeMs() {
+    return Optional.fromNullable(leadTimeMs).or(DEFAULT_LEAD_TIME_MS);
+  }
+
+  public Double getLevelSmoothing() {
+    return Optional.fromNullable(levelSmoothing).or(DEFAULT_LEVEL_SMOOTHING);
+  }
+
+  public Double getTrendSmoothing() {
+    return Optional.fromNullable(trendSmoothing).or(DEFAULT_TREND_SMOOTHING);
+  }
+
+  public Double getSeasonalSmoothing() {
+    return Optional.fromNullable(seasonalSmoothing).or(DEFAULT_SEASONAL_SMOOTHING);
+  }
+}
@@ -202,6 +202,21 @@ public class MyriadConfiguration {
   @JsonProperty
   private Boolean cgroupEnabled;
 
+  @JsonProperty
+  private FineGrainedScalingConfiguration fineGrainedScaling;
+
+  @JsonProperty
+  private EventBusConfiguration eventBus;
+
+  @JsonProperty
+  private ScaleDownConfiguration scaleDown;
+
+  @JsonProperty
+  private AutoscalerConfiguration autoscaler;
+
+  @JsonProperty
+  private FlexOperationsConfiguration flexOperations;
+
   public MyriadConfiguration() {
   }
 
@@ -312,4 +327,24 @@ public class MyriadConfiguration {
   public Boolean isCgroupEnabled() {
     return Optional.fromNullable(cgroupEnabled).or(DEFAULT_CGROUPS_ENABLED);
   }
+
+  public FineGrainedScalingConfiguration getFineGrainedScalingConfiguration() {
+    return Optional.fromNullable(fineGrainedScaling).or(new FineGrainedScalingConfiguration());
+  }
+
+  public EventBusConfiguration getEventBusConfiguration() {
+    return Optional.fromNullable(eventBus).or(new EventBusConfiguration());
+  }
+
+  public ScaleDownConfiguration getScaleDownConfiguration() {
+    return Optional.fromNullable(scaleDown).or(new ScaleDownConfiguration());
+  }
+
+  public AutoscalerConfiguration getAutoscalerConfiguration() {
+    return Optional.fromNullable(autoscaler).or(new AutoscalerConfiguration());
+  }
+
+  public FlexOperationsConfiguration getFlexOperationsConfiguration() {
+    return Optional.fromNullable(flexOperations).or(new FlexOperationsConfiguration());
+  }
 }
@@ -62,6 +62,12 @@ public class NodeManagerConfiguration {
    * Default max CPU cores for NodeManager JVM
    */
   public static final double DEFAULT_NM_MAX_CPUS = 24;
+
+  /**
+   * Default number of heartbeats between reconciliations of the tracked container
+   * resources against the NodeManager heartbeat
+   */
+  public static final int DEFAULT_USED_RESOURCES_RECONCILE_INTERVAL = 30;
   
   /**
    * Translates to -Xmx for the NodeManager JVM.
@@ -93,6 +99,13 @@ public class NodeManagerConfiguration {
   
   @JsonProperty
   private Double maxCpus;
+
+  /**
+   * Number of heartbeats between full reconciliations of the per-node used resources,
+   * which are otherwise maintained incrementally by fine-grained scaling.
+   */
+  @JsonProperty
+  private Integer usedResourcesReconcileInterval;
   
   private Double generateNodeManagerMemory() {
     return (NodeManagerConfiguration.DEFAULT_JVM_MAX_MEMORY_MB) * (1 + NodeManagerConfiguration.JVM_OVERHEAD);
@@ -129,4 +142,8 @@ public class NodeManagerConfiguration {
   public Double getMaxCpus() {
     return Optional.fromNullable(maxCpus).or(DEFAULT_NM_MAX_CPUS);
   }
-}
\ No newline at end of file
+
+  public Integer getUsedResourcesReconcileInterval() {
+    return Optional.fromNullable(usedResourcesReconcileInterval).or(DEFAULT_USED_RESOURCES_RECONCILE_INTERVAL);
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.configuration;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Configuration of the policy that picks the node managers to flex down
+ */
+public class ScaleDownConfiguration {
+  /**
+   * By default tasks on the nodes running the fewest App Masters are flexed down first
+   */
+  public static final String DEFAULT_POLICY = "leastAMNodesFirst";
+
+  /**
+   * Default weights of the policies the weighted policy combines
+   */
+  public static final Map<String, Double> DEFAULT_WEIGHTS = ImmutableMap.of("leastAMNodesFirst", 1.0,
+      "leastContainerWorkFirst", 1.0);
+
+  /**
+   * By default NMs are killed as soon as they are flexed down
+   */
+  public static final Boolean DEFAULT_DRAIN = false;
+
+  /**
+   * Default max time a NM drains before it is killed
+   */
+  public static final Long DEFAULT_DRAIN_TIMEOUT_MS = 600000L;
+
+  /**
+   * Name of a built-in policy or class name of a NodeScaleDownPolicy implementation.
+   */
+  @JsonProperty
+  private String policy;
+
+  /**
+   * Weights of the policies the weighted policy combines, keyed by policy name.
+   */
+  @JsonProperty
+  private Map<String, Double> weights;
+
+  /**
+   * Drains active NMs before they are killed: their capacity is set to zero, so no new containers
+   * are placed on them, and they are killed once their containers finished.
+   */
+  @JsonProperty
+  private Boolean drain;
+
+  /**
+   * Max time a NM drains, it is killed with the containers still running on it afterwards.
+   */
+  @JsonProperty
+  private Long drainTimeoutMs;
+
+  public String getPolicy() {
+    return Optional.fromNullable(policy).or(DEFAULT_POLICY);
+  }
+
+  public Map<String, Double> getWeights() {
+    return Optional.fromNullable(weights).or(DEFAULT_WEIGHTS);
+  }
+
+  public Boolean isDrainEnabled() {
+    return Optional.fromNullable(drain).or(DEFAULT_DRAIN);
+  }
+
+  public Long getDrainTimeoutMs() {
+    return Optional.fromNullable(drainTimeoutMs).or(DEFAULT_DRAIN_TIMEOUT_MS);
+  }
+}
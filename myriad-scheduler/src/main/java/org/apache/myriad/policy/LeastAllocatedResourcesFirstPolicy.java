@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import javax.inject.Inject;
+import org.apache.myriad.policy.NodeStatistics.NodeStats;
+import org.apache.myriad.state.SchedulerState;
+
+/**
+ * A scale down policy that flexes down the nodes whose containers use the smallest share of the
+ * node's capacity first. The share is the larger of the memory and the vcores share.
+ */
+public class LeastAllocatedResourcesFirstPolicy extends NodeScorePolicy {
+  public static final String NAME = "leastAllocatedResourcesFirst";
+
+  @Inject
+  public LeastAllocatedResourcesFirstPolicy(SchedulerState schedulerState, NodeStatistics nodeStatistics) {
+    super(schedulerState, nodeStatistics);
+  }
+
+  @Override
+  public float[] score(NodeStats[] nodes, long now) {
+    float[] scores = new float[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      if (nodes[i] != null) {
+        scores[i] = Math.max(share(nodes[i].getUsedMemoryMB(), nodes[i].getTotalMemoryMB()),
+            share(nodes[i].getUsedVCores(), nodes[i].getTotalVCores()));
+      }
+    }
+    return scores;
+  }
+
+  private static float share(int used, int total) {
+    // Under fine-grained scaling the capacity of a node may momentarily be below what its containers use
+    return used > 0 ? (float) used / Math.max(used, total) : 0f;
+  }
+}
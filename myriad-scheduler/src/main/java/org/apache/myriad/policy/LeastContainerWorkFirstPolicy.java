@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import javax.inject.Inject;
+import org.apache.myriad.policy.NodeStatistics.NodeStats;
+import org.apache.myriad.state.SchedulerState;
+
+/**
+ * A scale down policy that flexes down the nodes whose containers lose the least work when killed first.
+ * The work of a node is the time its running containers have been running for, multiplied by one plus
+ * the number of App Masters on the node, as applications whose AM is killed start over.
+ * <p/>
+ * The RM does not know how long containers will keep running, so the work done so far stands in for it.
+ */
+public class LeastContainerWorkFirstPolicy extends NodeScorePolicy {
+  public static final String NAME = "leastContainerWorkFirst";
+
+  @Inject
+  public LeastContainerWorkFirstPolicy(SchedulerState schedulerState, NodeStatistics nodeStatistics) {
+    super(schedulerState, nodeStatistics);
+  }
+
+  @Override
+  public float[] score(NodeStats[] nodes, long now) {
+    float[] scores = new float[nodes.length];
+    for (int i = 0; i < nodes.length; i++) {
+      if (nodes[i] != null) {
+        scores[i] = (float) nodes[i].getContainerMillis(now) * (1 + nodes[i].getAMContainers());
+      }
+    }
+    return scores;
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import java.util.Arrays;
+import java.util.List;
+import org.apache.mesos.Protos;
+import org.apache.myriad.policy.NodeStatistics.NodeStats;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class of the scale down policies that score the nodes the tasks run on. Tasks on nodes with
+ * lower scores are flexed down first, and tasks whose NM has not registered with the RM come first.
+ * <p/>
+ * Each task's node is scored once per {@link #apply(List)}. The scores are packed with the task's
+ * index into primitive sort keys, so sorting neither allocates per comparison nor reorders ties.
+ */
+public abstract class NodeScorePolicy implements NodeScaleDownPolicy {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeScorePolicy.class);
+
+  private final SchedulerState schedulerState;
+  private final NodeStatistics nodeStatistics;
+
+  protected NodeScorePolicy(SchedulerState schedulerState, NodeStatistics nodeStatistics) {
+    this.schedulerState = schedulerState;
+    this.nodeStatistics = nodeStatistics;
+  }
+
+  /**
+   * Scores the nodes, tasks on nodes with lower scores are flexed down first.
+   *
+   * @param nodes statistics of the nodes, null for nodes whose NM has not registered with the RM
+   * @param now
+   * @return the scores of the nodes, the scores of null nodes are ignored
+   */
+  public abstract float[] score(NodeStats[] nodes, long now);
+
+  @Override
+  public void apply(List<Protos.TaskID> taskIDs) {
+    int size = taskIDs.size();
+    NodeStats[] nodes = new NodeStats[size];
+    for (int i = 0; i < size; i++) {
+      NodeTask task = schedulerState.getTask(taskIDs.get(i));
+      nodes[i] = task != null ? nodeStatistics.getNodeStats(task.getHostname()) : null;
+    }
+    float[] scores = score(nodes, nodeStatistics.getClock().currentTimeMillis());
+
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      keys[i] = ((long) sortBits(nodes[i], scores[i]) << Integer.SIZE) | i;
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Task {} on {} scores {}", taskIDs.get(i).getValue(), nodes[i], scores[i]);
+      }
+    }
+    Arrays.sort(keys);
+
+    Protos.TaskID[] sorted = new Protos.TaskID[size];
+    for (int i = 0; i < size; i++) {
+      sorted[i] = taskIDs.get((int) keys[i]);
+    }
+    for (int i = 0; i < size; i++) {
+      taskIDs.set(i, sorted[i]);
+    }
+  }
+
+  /**
+   * The bits of a non-negative float order like the float, the bits of unregistered nodes order first.
+   */
+  private static int sortBits(NodeStats node, float score) {
+    if (node == null) {
+      return 0;
+    }
+    return Float.floatToIntBits(score > 0 ? score : 0f) + 1;
+  }
+}
@@ -0,0 +1,350 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Inject;
+import org.apache.hadoop.yarn.api.records.ContainerId;
+import org.apache.hadoop.yarn.api.records.ContainerStatus;
+import org.apache.hadoop.yarn.api.records.NodeId;
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.AbstractYarnScheduler;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeAddedSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeRemovedSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
+import org.apache.myriad.scheduler.Clock;
+import org.apache.myriad.scheduler.yarn.interceptor.BaseInterceptor;
+import org.apache.myriad.scheduler.yarn.interceptor.InterceptorRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Statistics of the containers running on each NM host, read by the scale down policies.
+ * <p/>
+ * The containers of a host are tracked incrementally: completed containers are removed when the scheduler
+ * completes them, allocated containers are picked up when the NM heartbeat is handled, by walking the containers
+ * of the node only if the scheduler holds another number of containers than tracked. The statistics are published
+ * as an immutable {@link NodeStats} after every change, policies therefore neither lock the YARN scheduler nor walk
+ * the containers of its nodes.
+ */
+public class NodeStatistics extends BaseInterceptor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeStatistics.class);
+
+  private final AbstractYarnScheduler yarnScheduler;
+  private final Clock clock;
+  private final Map<String, NodeStats> nodeStats = new ConcurrentHashMap<>(200, 0.75f, 50);
+  private final Map<String, NodeContainers> nodeContainers = new ConcurrentHashMap<>(200, 0.75f, 50);
+
+  @Inject
+  public NodeStatistics(InterceptorRegistry registry, AbstractYarnScheduler yarnScheduler, Clock clock) {
+    registry.register(this);
+    this.yarnScheduler = yarnScheduler;
+    this.clock = clock;
+  }
+
+  /**
+   * @param host
+   * @return the statistics of the NM running on the host, null if no NM registered with the RM
+   */
+  public NodeStats getNodeStats(String host) {
+    return nodeStats.get(host);
+  }
+
+  public Map<String, NodeStats> getNodeStats() {
+    return nodeStats;
+  }
+
+  public Clock getClock() {
+    return clock;
+  }
+
+  @Override
+  public Set<SchedulerEventType> getSchedulerEventTypes() {
+    return EnumSet.of(SchedulerEventType.NODE_ADDED, SchedulerEventType.NODE_UPDATE, SchedulerEventType.NODE_REMOVED);
+  }
+
+  @Override
+  public Set<RMNodeEventType> getRMNodeEventTypes() {
+    return EnumSet.noneOf(RMNodeEventType.class);
+  }
+
+  @Override
+  public void afterSchedulerEventHandled(SchedulerEvent event) {
+    try {
+      switch (event.getType()) {
+        case NODE_ADDED:
+          update(((NodeAddedSchedulerEvent) event).getAddedRMNode().getNodeID());
+          break;
+
+        case NODE_UPDATE:
+          update(((NodeUpdateSchedulerEvent) event).getRMNode().getNodeID());
+          break;
+
+        case NODE_REMOVED:
+          onNodeRemoved((NodeRemovedSchedulerEvent) event);
+          break;
+
+        default:
+          break;
+      }
+    } catch (ClassCastException e) {
+      LOGGER.error("incorrect event object", e);
+    }
+  }
+
+  @Override
+  public void beforeCompletedContainer(RMContainer rmContainer, ContainerStatus containerStatus, RMContainerEventType event) {
+    if (rmContainer == null || rmContainer.getContainer() == null) {
+      return;
+    }
+    NodeId nodeId = rmContainer.getContainer().getNodeId();
+    NodeContainers containers = nodeContainers.get(nodeId.getHost());
+    if (containers == null || !containers.nodeId.equals(nodeId)) {
+      return;
+    }
+    synchronized (containers) {
+      if (containers.remove(rmContainer.getContainerId())) {
+        nodeStats.put(nodeId.getHost(), containers.toNodeStats());
+      }
+    }
+  }
+
+  private void update(NodeId nodeId) {
+    SchedulerNode schedulerNode = yarnScheduler.getSchedulerNode(nodeId);
+    if (schedulerNode == null) {
+      return;
+    }
+    // keep track of only one node per host
+    NodeContainers containers = nodeContainers.get(nodeId.getHost());
+    if (containers == null || !containers.nodeId.equals(nodeId)) {
+      containers = new NodeContainers(nodeId, clock.currentTimeMillis());
+      nodeContainers.put(nodeId.getHost(), containers);
+    }
+    synchronized (containers) {
+      if (schedulerNode.getNumContainers() != containers.size()) {
+        containers.reconcile(schedulerNode.getRunningContainers());
+      } else {
+        containers.confirmAMContainers();
+      }
+      containers.total = schedulerNode.getTotalResource();
+      nodeStats.put(nodeId.getHost(), containers.toNodeStats());
+    }
+  }
+
+  private void onNodeRemoved(NodeRemovedSchedulerEvent event) {
+    NodeId nodeId = event.getRemovedRMNode().getNodeID();
+    NodeContainers containers = nodeContainers.get(nodeId.getHost());
+    if (containers != null && containers.nodeId.equals(nodeId)) {
+      nodeContainers.remove(nodeId.getHost());
+      nodeStats.remove(nodeId.getHost());
+    }
+  }
+
+  /**
+   * Containers tracked for a NM, guarded by its own monitor since containers complete outside of the
+   * scheduler event handling.
+   */
+  private static class NodeContainers {
+    private final NodeId nodeId;
+    private final long registeredMillis;
+    private final Map<ContainerId, RMContainer> containers = new HashMap<>();
+    // The AM flag is set once the App Master pulled its container, checked again on the next heartbeat
+    private List<RMContainer> unconfirmed = new ArrayList<>();
+    private int amContainers;
+    private long containerCreationMillis;
+    private int usedMemoryMB;
+    private int usedVCores;
+    private Resource total = Resource.newInstance(0, 0);
+
+    NodeContainers(NodeId nodeId, long registeredMillis) {
+      this.nodeId = nodeId;
+      this.registeredMillis = registeredMillis;
+    }
+
+    int size() {
+      return containers.size();
+    }
+
+    void reconcile(List<RMContainer> running) {
+      confirmAMContainers();
+      Map<ContainerId, RMContainer> completed = new HashMap<>(containers);
+      for (RMContainer container : running) {
+        if (completed.remove(container.getContainerId()) == null) {
+          add(container);
+        }
+      }
+      for (ContainerId containerId : completed.keySet()) {
+        remove(containerId);
+      }
+    }
+
+    void confirmAMContainers() {
+      if (unconfirmed.isEmpty()) {
+        return;
+      }
+      for (RMContainer container : unconfirmed) {
+        if (container.isAMContainer()) {
+          amContainers++;
+        }
+      }
+      unconfirmed = new ArrayList<>();
+    }
+
+    private void add(RMContainer container) {
+      containers.put(container.getContainerId(), container);
+      if (container.isAMContainer()) {
+        amContainers++;
+      } else {
+        unconfirmed.add(container);
+      }
+      containerCreationMillis += container.getCreationTime();
+      usedMemoryMB += container.getAllocatedResource().getMemory();
+      usedVCores += container.getAllocatedResource().getVirtualCores();
+    }
+
+    boolean remove(ContainerId containerId) {
+      RMContainer container = containers.remove(containerId);
+      if (container == null) {
+        return false;
+      }
+      // unconfirmed containers were not counted as App Masters yet
+      if (!unconfirmed.remove(container) && container.isAMContainer()) {
+        amContainers--;
+      }
+      containerCreationMillis -= container.getCreationTime();
+      usedMemoryMB -= container.getAllocatedResource().getMemory();
+      usedVCores -= container.getAllocatedResource().getVirtualCores();
+      return true;
+    }
+
+    NodeStats toNodeStats() {
+      return new NodeStats(nodeId, registeredMillis, amContainers, containers.size(), containerCreationMillis,
+          usedMemoryMB, usedVCores, total);
+    }
+  }
+
+  /**
+   * Containers running on a NM and the resources they use.
+   */
+  public static class NodeStats {
+    private final NodeId nodeId;
+    private final long registeredMillis;
+    private final int amContainers;
+    private final int containers;
+    private final long containerCreationMillis;
+    private final int usedMemoryMB;
+    private final int usedVCores;
+    private final int totalMemoryMB;
+    private final int totalVCores;
+
+    NodeStats(NodeId nodeId, long registeredMillis, int amContainers, int containers, long containerCreationMillis,
+              int usedMemoryMB, int usedVCores, Resource total) {
+      this.nodeId = nodeId;
+      this.registeredMillis = registeredMillis;
+      this.amContainers = amContainers;
+      this.containers = containers;
+      this.containerCreationMillis = containerCreationMillis;
+      this.usedMemoryMB = usedMemoryMB;
+      this.usedVCores = usedVCores;
+      this.totalMemoryMB = total.getMemory();
+      this.totalVCores = total.getVirtualCores();
+    }
+
+    NodeStats(NodeId nodeId, long registeredMillis, List<RMContainer> runningContainers, Resource used, Resource total) {
+      this.nodeId = nodeId;
+      this.registeredMillis = registeredMillis;
+      int ams = 0;
+      long creationMillis = 0;
+      for (RMContainer container : runningContainers) {
+        if (container.isAMContainer()) {
+          ams++;
+        }
+        creationMillis += container.getCreationTime();
+      }
+      this.amContainers = ams;
+      this.containers = runningContainers.size();
+      this.containerCreationMillis = creationMillis;
+      this.usedMemoryMB = used.getMemory();
+      this.usedVCores = used.getVirtualCores();
+      this.totalMemoryMB = total.getMemory();
+      this.totalVCores = total.getVirtualCores();
+    }
+
+    public NodeId getNodeId() {
+      return nodeId;
+    }
+
+    /**
+     * @return the time the RM first saw the NM
+     */
+    public long getRegisteredMillis() {
+      return registeredMillis;
+    }
+
+    public int getAMContainers() {
+      return amContainers;
+    }
+
+    public int getContainers() {
+      return containers;
+    }
+
+    /**
+     * @param now
+     * @return the sum of the time the running containers have been running for
+     */
+    public long getContainerMillis(long now) {
+      return Math.max(containers * now - containerCreationMillis, 0);
+    }
+
+    public int getUsedMemoryMB() {
+      return usedMemoryMB;
+    }
+
+    public int getUsedVCores() {
+      return usedVCores;
+    }
+
+    public int getTotalMemoryMB() {
+      return totalMemoryMB;
+    }
+
+    public int getTotalVCores() {
+      return totalVCores;
+    }
+
+    @Override
+    public String toString() {
+      return nodeId + ": " + containers + " containers including " + amContainers + " App Masters, using " + usedMemoryMB +
+          " MB and " + usedVCores + " vcores of " + totalMemoryMB + " MB and " + totalVCores + " vcores";
+    }
+  }
+}
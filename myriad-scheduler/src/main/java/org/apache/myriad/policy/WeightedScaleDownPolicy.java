@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import java.util.Map;
+import javax.inject.Inject;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.policy.NodeStatistics.NodeStats;
+import org.apache.myriad.state.SchedulerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.inject.Provider;
+
+/**
+ * A scale down policy that combines the scores of other policies. The scores of each policy are
+ * divided by the highest score it gave any of the nodes, and the normalized scores are added up
+ * with the weights configured in {@link org.apache.myriad.configuration.ScaleDownConfiguration#getWeights()}.
+ */
+public class WeightedScaleDownPolicy extends NodeScorePolicy {
+  private static final Logger LOGGER = LoggerFactory.getLogger(WeightedScaleDownPolicy.class);
+
+  public static final String NAME = "weighted";
+
+  private final NodeScorePolicy[] policies;
+  private final float[] weights;
+
+  @Inject
+  public WeightedScaleDownPolicy(SchedulerState schedulerState, NodeStatistics nodeStatistics, MyriadConfiguration cfg,
+                                 Map<String, Provider<NodeScaleDownPolicy>> registry) {
+    this(schedulerState, nodeStatistics, cfg.getScaleDownConfiguration().getWeights(), registry);
+  }
+
+  @VisibleForTesting
+  WeightedScaleDownPolicy(SchedulerState schedulerState, NodeStatistics nodeStatistics, Map<String, Double> weights,
+                          Map<String, Provider<NodeScaleDownPolicy>> registry) {
+    super(schedulerState, nodeStatistics);
+    this.policies = new NodeScorePolicy[weights.size()];
+    this.weights = new float[weights.size()];
+    int i = 0;
+    for (Map.Entry<String, Double> entry : weights.entrySet()) {
+      String name = entry.getKey();
+      Preconditions.checkArgument(!NAME.equals(name), "The %s policy cannot be weighted", NAME);
+      Provider<NodeScaleDownPolicy> provider = registry.get(name);
+      Preconditions.checkArgument(provider != null, "Unknown scale down policy %s", name);
+      NodeScaleDownPolicy policy = provider.get();
+      Preconditions.checkArgument(policy instanceof NodeScorePolicy, "Scale down policy %s does not score nodes", name);
+      this.policies[i] = (NodeScorePolicy) policy;
+      this.weights[i] = entry.getValue().floatValue();
+      LOGGER.info("Weighting scale down policy {} by {}", name, entry.getValue());
+      i++;
+    }
+  }
+
+  @Override
+  public float[] score(NodeStats[] nodes, long now) {
+    float[] scores = new float[nodes.length];
+    for (int p = 0; p < policies.length; p++) {
+      float[] policyScores = policies[p].score(nodes, now);
+      float max = 0;
+      for (int i = 0; i < nodes.length; i++) {
+        if (nodes[i] != null && policyScores[i] > max) {
+          max = policyScores[i];
+        }
+      }
+      if (max > 0) {
+        float factor = weights[p] / max;
+        for (int i = 0; i < nodes.length; i++) {
+          scores[i] += Math.max(policyScores[i], 0) * factor;
+        }
+      }
+    }
+    return scores;
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+/**
+ * Source of the current time for the scheduler components that keep timers, e.g. cooldowns, hold windows
+ * and retry backoffs. It is bound once in the {@link org.apache.myriad.MyriadModule}, so tests and the
+ * simulator replace that binding instead of the way each component reads the time.
+ */
+public class Clock {
+  public static final Clock SYSTEM = new Clock();
+
+  /**
+   * @return the current time in milliseconds
+   */
+  public long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import javax.inject.Inject;
+import org.apache.myriad.configuration.ForecastConfiguration;
+import org.apache.myriad.configuration.MyriadConfiguration;
+
+/**
+ * Forecasts the demand of the YARN cluster, its allocated plus pending resources, so NMs can
+ * be flexed up before recurring load arrives rather than after it is pending.
+ * <p/>
+ * Samples are aggregated into fixed length buckets by their peak. Every closed bucket updates
+ * an additive Holt-Winters model per resource: an exponentially weighted level, a trend and
+ * one seasonal offset per bucket of the season. Until a full season was recorded the forecast
+ * is the exponentially weighted level. The forecast is the peak of the model over the buckets
+ * up to the lead time.
+ * <p/>
+ * The state is a few primitive arrays of one season, it is not thread-safe and meant to be
+ * updated by the Rebalancer only.
+ */
+public class DemandForecaster {
+  private final boolean enabled;
+  private final long bucketMs;
+  private final int horizon;
+  private final Series memory;
+  private final Series vCores;
+
+  private long bucket = -1;
+  private long peakMB;
+  private long peakVCores;
+
+  @Inject
+  public DemandForecaster(MyriadConfiguration cfg) {
+    this(cfg.getAutoscalerConfiguration().getForecastConfiguration());
+  }
+
+  @VisibleForTesting
+  DemandForecaster(ForecastConfiguration forecastCfg) {
+    this.enabled = forecastCfg.isEnabled();
+    this.bucketMs = Math.max(forecastCfg.getBucketMs(), 1);
+    int seasonBuckets = (int) Math.max(forecastCfg.getSeasonMs() / bucketMs, 1);
+    // The open bucket plus the buckets up to the lead time
+    this.horizon = (int) ((forecastCfg.getLeadTimeMs() + bucketMs - 1) / bucketMs) + 1;
+    this.memory = new Series(seasonBuckets, forecastCfg);
+    this.vCores = new Series(seasonBuckets, forecastCfg);
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records the demand sampled at the given time. Buckets no sample was recorded in repeat the
+   * peak of the last bucket, for at most a season.
+   */
+  public void record(long now, long demandMB, long demandVCores) {
+    long index = now / bucketMs;
+    if (bucket < 0) {
+      bucket = index;
+    } else if (index > bucket) {
+      for (long closed = Math.max(bucket, index - memory.length()); closed < index; closed++) {
+        memory.add(closed, peakMB);
+        vCores.add(closed, peakVCores);
+      }
+      bucket = index;
+      peakMB = 0;
+      peakVCores = 0;
+    }
+    peakMB = Math.max(peakMB, demandMB);
+    peakVCores = Math.max(peakVCores, demandVCores);
+  }
+
+  public long getForecastMB() {
+    return memory.forecast(horizon);
+  }
+
+  public long getForecastVCores() {
+    return vCores.forecast(horizon);
+  }
+
+  /**
+   * Holt-Winters model of one resource
+   */
+  private static class Series {
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final long[] peaks;
+    private final double[] seasonal;
+    private long samples;
+    private long last;
+    private double level;
+    private double trend;
+
+    Series(int length, ForecastConfiguration cfg) {
+      this.alpha = cfg.getLevelSmoothing();
+      this.beta = cfg.getTrendSmoothing();
+      this.gamma = cfg.getSeasonalSmoothing();
+      this.peaks = new long[length];
+      this.seasonal = new double[length];
+    }
+
+    int length() {
+      return seasonal.length;
+    }
+
+    void add(long bucket, long value) {
+      int i = (int) (bucket % seasonal.length);
+      peaks[i] = value;
+      samples++;
+      last = bucket;
+      if (samples < seasonal.length) {
+        level = samples == 1 ? value : alpha * value + (1 - alpha) * level;
+      } else if (samples == seasonal.length) {
+        // The first season initializes the level and the seasonal offsets
+        double sum = 0;
+        for (long peak : peaks) {
+          sum += peak;
+        }
+        level = sum / peaks.length;
+        trend = 0;
+        for (int j = 0; j < peaks.length; j++) {
+          seasonal[j] = peaks[j] - level;
+        }
+      } else {
+        double previous = level;
+        level = alpha * (value - seasonal[i]) + (1 - alpha) * (level + trend);
+        trend = beta * (level - previous) + (1 - beta) * trend;
+        seasonal[i] = gamma * (value - level) + (1 - gamma) * seasonal[i];
+      }
+    }
+
+    long forecast(int horizon) {
+      if (samples == 0) {
+        return 0;
+      }
+      boolean seasonality = samples >= seasonal.length;
+      double peak = 0;
+      for (int h = 1; h <= horizon; h++) {
+        double value = level + h * trend + (seasonality ? seasonal[(int) ((last + h) % seasonal.length)] : 0);
+        peak = Math.max(peak, value);
+      }
+      return (long) Math.ceil(peak);
+    }
+  }
+}
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flex request queued by the {@link FlexOperationQueue}. Requests of the same kind for the same
+ * profile or service that arrive while the operation is still queued are coalesced into it.
+ * <p/>
+ * Flex ups are launching until all their tasks are running or ended, the progress of the tasks is
+ * read from the {@link FlexUpOperation} of the flex up. Threads streaming the progress wait in
+ * {@link #awaitChange(long, long)} for the operation to change instead of polling it.
+ */
+public class FlexOperation {
+  /**
+   * Kind of flex request
+   */
+  public enum Type {
+    FLEX_UP,
+    FLEX_DOWN,
+    FLEX_UP_SERVICE,
+    FLEX_DOWN_SERVICE
+  }
+
+  /**
+   * Lifecycle of an operation
+   */
+  public enum Status {
+    QUEUED,
+    RUNNING,
+    LAUNCHING,
+    COMPLETED,
+    FAILED,
+    EXPIRED
+  }
+
+  private final long id;
+  private final Type type;
+  private final String name;
+  private final String constraint;
+  private final long submittedMillis;
+  private int instances;
+  private int requests = 1;
+  private Status status = Status.QUEUED;
+  private long startedMillis;
+  private long completedMillis;
+  private String message;
+  private FlexUpOperation launch;
+  private FlexUpOperation.Progress progress;
+  private long version;
+
+  public FlexOperation(long id, Type type, String name, String constraint, int instances, long submittedMillis) {
+    this.id = id;
+    this.type = type;
+    this.name = name;
+    this.constraint = constraint;
+    this.instances = instances;
+    this.submittedMillis = submittedMillis;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the profile of cluster flex requests or the service of service flex requests
+   */
+  public String getName() {
+    return name;
+  }
+
+  public String getConstraint() {
+    return constraint;
+  }
+
+  public long getSubmittedMillis() {
+    return submittedMillis;
+  }
+
+  public synchronized int getInstances() {
+    return instances;
+  }
+
+  /**
+   * @return number of requests coalesced into the operation
+   */
+  public synchronized int getRequests() {
+    return requests;
+  }
+
+  public synchronized Status getStatus() {
+    return status;
+  }
+
+  public synchronized long getStartedMillis() {
+    return startedMillis;
+  }
+
+  public synchronized long getCompletedMillis() {
+    return completedMillis;
+  }
+
+  public synchronized String getMessage() {
+    return message;
+  }
+
+  /**
+   * @return the tasks launched by a flex up, or null if the operation is no flex up or did not run yet
+   */
+  public synchronized FlexUpOperation getLaunch() {
+    return launch;
+  }
+
+  public synchronized boolean isFinished() {
+    return status == Status.COMPLETED || status == Status.FAILED || status == Status.EXPIRED;
+  }
+
+  /**
+   * @return number of changes of the operation so far
+   */
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Waits for the operation to change.
+   *
+   * @param seenVersion version of the operation the caller saw last
+   * @param timeoutMs
+   * @return the current version, equal to seenVersion if the operation did not change in time
+   * @throws InterruptedException
+   */
+  public synchronized long awaitChange(long seenVersion, long timeoutMs) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    long remaining = timeoutMs;
+    while (version == seenVersion && remaining > 0) {
+      wait(remaining);
+      remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+    return version;
+  }
+
+  /**
+   * @return time from the submission until the operation completed or failed, or -1 if it did not finish yet
+   */
+  public synchronized long getTimeToCompletionMs() {
+    return isFinished() ? completedMillis - submittedMillis : -1;
+  }
+
+  synchronized void coalesce(int moreInstances) {
+    instances += moreInstances;
+    requests++;
+    changed();
+  }
+
+  synchronized void started(long now) {
+    startedMillis = now;
+    status = Status.RUNNING;
+    changed();
+  }
+
+  synchronized void launching(FlexUpOperation launch) {
+    this.launch = launch;
+    status = Status.LAUNCHING;
+    changed();
+  }
+
+  /**
+   * Records the progress of the tasks of a flex up, waking up the waiting threads if it changed.
+   */
+  synchronized void progressed(FlexUpOperation.Progress progress) {
+    if (!progress.equals(this.progress)) {
+      this.progress = progress;
+      changed();
+    }
+  }
+
+  synchronized void completed(long now) {
+    status = Status.COMPLETED;
+    completedMillis = now;
+    changed();
+  }
+
+  synchronized void failed(long now, String message) {
+    finished(Status.FAILED, now, message);
+  }
+
+  synchronized void expired(long now, String message) {
+    finished(Status.EXPIRED, now, message);
+  }
+
+  private void finished(Status status, long now, String message) {
+    this.status = status;
+    completedMillis = now;
+    this.message = message;
+    changed();
+  }
+
+  private void changed() {
+    version++;
+    notifyAll();
+  }
+
+  @Override
+  public String toString() {
+    return "FlexOperation{id=" + id + ", type=" + type + ", name=" + name + ", instances=" + getInstances() + "}";
+  }
+}
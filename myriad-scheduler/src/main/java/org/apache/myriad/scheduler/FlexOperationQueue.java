@@ -0,0 +1,226 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+
+import org.apache.myriad.configuration.FlexOperationsConfiguration;
+import org.apache.myriad.configuration.MyriadBadConfigurationException;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.constraints.ConstraintFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executes the flex requests of the REST API one at a time on a thread of its own, so request threads
+ * return as soon as a request is queued and flex requests never mutate the scheduler state concurrently.
+ * <p/>
+ * Every request is answered with a {@link FlexOperation} clients poll for its progress. A request of the
+ * same kind for the same profile or service and constraint as a queued operation is coalesced into it,
+ * unless the coalesced service flex up would exceed the max instances of the service.
+ * Once {@link FlexOperationsConfiguration#getMaxQueuedOperations()} operations are queued, requests that
+ * can not be coalesced are rejected. A flex up whose tasks did not all launch within
+ * {@link FlexOperationsConfiguration#getLaunchTimeoutMs()} expires. Finished operations are kept for polling up to
+ * {@link FlexOperationsConfiguration#getRetainedOperations()}.
+ */
+public class FlexOperationQueue {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FlexOperationQueue.class);
+
+  public static final long PROGRESS_CHECK_INTERVAL_MS = 1000;
+
+  private final MyriadOperations myriadOperations;
+  private final ServiceProfileManager profileManager;
+  private final ScheduledExecutorService executor;
+  private final Clock clock;
+  private final int maxQueuedOperations;
+  private final int retainedOperations;
+  private final long launchTimeoutMs;
+
+  // Guarded by this
+  private final Map<Long, FlexOperation> operations = new LinkedHashMap<>();
+  private final Map<String, FlexOperation> queued = new HashMap<>();
+
+  @Inject
+  public FlexOperationQueue(MyriadConfiguration cfg, MyriadOperations myriadOperations, ServiceProfileManager profileManager,
+                            Clock clock) {
+    this(cfg, myriadOperations, profileManager, clock, Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("myriad-flex-%d").setDaemon(true).build()));
+  }
+
+  @VisibleForTesting
+  FlexOperationQueue(MyriadConfiguration cfg, MyriadOperations myriadOperations, ServiceProfileManager profileManager,
+                     Clock clock, ScheduledExecutorService executor) {
+    this.myriadOperations = myriadOperations;
+    this.profileManager = profileManager;
+    this.clock = clock;
+    this.executor = executor;
+    this.maxQueuedOperations = cfg.getFlexOperationsConfiguration().getMaxQueuedOperations();
+    this.retainedOperations = cfg.getFlexOperationsConfiguration().getRetainedOperations();
+    this.launchTimeoutMs = cfg.getFlexOperationsConfiguration().getLaunchTimeoutMs();
+  }
+
+  /**
+   * Queues a flex request, or coalesces it into a queued operation of the same kind.
+   *
+   * @param type
+   * @param name       profile of cluster flex requests or service of service flex requests
+   * @param constraint constraint of cluster flex requests, may be null
+   * @param instances
+   * @return the operation that executes the request
+   * @throws RejectedExecutionException if too many operations are queued already
+   * @throws MyriadBadConfigurationException if coalescing a service flex up exceeds the max instances of the service
+   */
+  public synchronized FlexOperation submit(FlexOperation.Type type, String name, String constraint, int instances)
+      throws MyriadBadConfigurationException {
+    String key = type + "/" + name + "/" + constraint;
+    FlexOperation operation = queued.get(key);
+    if (operation != null) {
+      if (type == FlexOperation.Type.FLEX_UP_SERVICE) {
+        // Requests are validated on their own, so the coalesced total has to be validated again
+        myriadOperations.checkServiceInstances(operation.getInstances() + instances, name);
+      }
+      operation.coalesce(instances);
+      LOGGER.info("Coalesced request for {} instances into {}", instances, operation);
+      return operation;
+    }
+    if (queued.size() >= maxQueuedOperations) {
+      throw new RejectedExecutionException("Too many flex operations queued: " + queued.size());
+    }
+    operation = new FlexOperation(myriadOperations.nextOperationId(), type, name, constraint, instances, clock.currentTimeMillis());
+    operations.put(operation.getId(), operation);
+    queued.put(key, operation);
+    final FlexOperation execute = operation;
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        execute(execute);
+      }
+    });
+    LOGGER.info("Queued {}", operation);
+    return operation;
+  }
+
+  public synchronized FlexOperation getOperation(long id) {
+    return operations.get(id);
+  }
+
+  public synchronized List<FlexOperation> getOperations() {
+    return new ArrayList<>(operations.values());
+  }
+
+  private void execute(FlexOperation operation) {
+    synchronized (this) {
+      queued.remove(operation.getType() + "/" + operation.getName() + "/" + operation.getConstraint());
+      operation.started(clock.currentTimeMillis());
+    }
+    int instances = operation.getInstances();
+    try {
+      switch (operation.getType()) {
+        case FLEX_UP:
+          operation.launching(myriadOperations.flexUpCluster(profileManager.get(operation.getName()), instances,
+              ConstraintFactory.createConstraint(operation.getConstraint())));
+          break;
+        case FLEX_UP_SERVICE:
+          operation.launching(myriadOperations.flexUpAService(instances, operation.getName()));
+          break;
+        case FLEX_DOWN:
+          myriadOperations.flexDownCluster(profileManager.get(operation.getName()),
+              ConstraintFactory.createConstraint(operation.getConstraint()), instances);
+          operation.completed(clock.currentTimeMillis());
+          break;
+        case FLEX_DOWN_SERVICE:
+          myriadOperations.flexDownAService(instances, operation.getName());
+          operation.completed(clock.currentTimeMillis());
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown flex operation type " + operation.getType());
+      }
+    } catch (MyriadBadConfigurationException | RuntimeException e) {
+      LOGGER.error("Failed to execute " + operation, e);
+      operation.failed(clock.currentTimeMillis(), e.getMessage());
+    }
+    if (operation.getStatus() == FlexOperation.Status.LAUNCHING) {
+      checkProgress(operation);
+    } else {
+      retire();
+    }
+  }
+
+  /**
+   * Completes a flex up once none of its tasks is pending or staging anymore, expires it once it launched
+   * for longer than the launch timeout, checks again later otherwise.
+   */
+  private void checkProgress(final FlexOperation operation) {
+    FlexUpOperation.Progress progress = operation.getLaunch().getProgress();
+    operation.progressed(progress);
+    long now = clock.currentTimeMillis();
+    if (progress.isComplete()) {
+      operation.completed(now);
+      LOGGER.info("Completed {} in {} ms", operation, operation.getTimeToCompletionMs());
+      retire();
+      return;
+    }
+    if (now - operation.getStartedMillis() >= launchTimeoutMs) {
+      // The pending tasks stay pending, they are launched once offers arrive
+      operation.expired(now, "Tasks not launched within " + launchTimeoutMs + " ms, " + progress.getPending() +
+          " pending and " + progress.getStaging() + " staging");
+      LOGGER.warn("Expired {}: {}", operation, operation.getMessage());
+      retire();
+      return;
+    }
+    executor.schedule(new Runnable() {
+      @Override
+      public void run() {
+        checkProgress(operation);
+      }
+    }, PROGRESS_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Drops the oldest finished operations beyond the number retained
+   */
+  private synchronized void retire() {
+    int finished = 0;
+    for (FlexOperation operation : operations.values()) {
+      if (operation.isFinished()) {
+        finished++;
+      }
+    }
+    for (Iterator<FlexOperation> iterator = operations.values().iterator(); finished > retainedOperations
+        && iterator.hasNext(); ) {
+      if (iterator.next().isFinished()) {
+        iterator.remove();
+        finished--;
+      }
+    }
+  }
+}
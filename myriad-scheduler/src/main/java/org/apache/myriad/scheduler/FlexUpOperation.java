@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.mesos.Protos;
+import org.apache.myriad.state.SchedulerState;
+import org.apache.myriad.state.SchedulerState.TaskState;
+import org.apache.myriad.state.SchedulerStateSnapshot;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Handle to the tasks added by a flex up, whose progress is read from the published scheduler state
+ * snapshot, so polling it never blocks on the scheduler state.
+ */
+public class FlexUpOperation {
+  private final long id;
+  private final String profile;
+  private final long startedMillis;
+  private final List<Protos.TaskID> taskIds;
+  private final SchedulerState schedulerState;
+
+  public FlexUpOperation(long id, String profile, long startedMillis, List<Protos.TaskID> taskIds,
+                         SchedulerState schedulerState) {
+    this.id = id;
+    this.profile = profile;
+    this.startedMillis = startedMillis;
+    this.taskIds = ImmutableList.copyOf(taskIds);
+    this.schedulerState = schedulerState;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getProfile() {
+    return profile;
+  }
+
+  public long getStartedMillis() {
+    return startedMillis;
+  }
+
+  public List<Protos.TaskID> getTaskIds() {
+    return taskIds;
+  }
+
+  public int getInstances() {
+    return taskIds.size();
+  }
+
+  public Progress getProgress() {
+    SchedulerStateSnapshot snapshot = schedulerState.getSnapshot();
+    Progress progress = new Progress();
+    for (Protos.TaskID taskId : taskIds) {
+      TaskState state = snapshot.getTaskState(taskId);
+      if (state == null || state == TaskState.KILLABLE || state == TaskState.LOST) {
+        progress.ended++;
+      } else if (state == TaskState.PENDING) {
+        progress.pending++;
+      } else if (state == TaskState.STAGING) {
+        progress.staging++;
+      } else {
+        progress.active++;
+      }
+    }
+    return progress;
+  }
+
+  @Override
+  public String toString() {
+    return "FlexUpOperation{id=" + id + ", profile=" + profile + ", instances=" + taskIds.size() + "}";
+  }
+
+  /**
+   * Number of the tasks of the operation in each state
+   */
+  public static class Progress {
+    private int pending;
+    private int staging;
+    private int active;
+    private int ended;
+
+    public int getPending() {
+      return pending;
+    }
+
+    public int getStaging() {
+      return staging;
+    }
+
+    public int getActive() {
+      return active;
+    }
+
+    /**
+     * @return tasks that were flexed down, killed or lost
+     */
+    public int getEnded() {
+      return ended;
+    }
+
+    /**
+     * @return true if no task is waiting to be launched or to start anymore
+     */
+    public boolean isComplete() {
+      return pending == 0 && staging == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Progress)) {
+        return false;
+      }
+      Progress other = (Progress) o;
+      return pending == other.pending && staging == other.staging && active == other.active && ended == other.ended;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(pending, staging, active, ended);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.mesos.Protos;
+import org.apache.myriad.scheduler.fgs.ContainerTaskStore;
+import org.apache.myriad.scheduler.fgs.Node;
+import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
+import org.apache.myriad.scheduler.fgs.YarnNodeCapacityManager;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+import org.apache.myriad.state.SchedulerState.TaskState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Reacts to lost slaves and executors without waiting for Mesos to send TASK_LOST for every task.
+ * <p/>
+ * The tasks launched on the slave, or by the lost executor, are found through the slave index of the
+ * {@link SchedulerState} and moved back to pending in one batch, so they are relaunched with the next offers.
+ * Killable tasks are removed instead. The offers held for the host are dropped and its YARN capacity is set to
+ * zero, so no containers are placed on a node manager that is gone. The time until a relaunched task runs again
+ * is recorded as its time to replacement.
+ */
+public class LostSlaveManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(LostSlaveManager.class);
+
+  public static final String PREFIX = "myriad.failures";
+  private static final Resource ZERO_RESOURCE = Resource.newInstance(0, 0);
+
+  private final SchedulerState schedulerState;
+  private final OfferLifecycleManager offerLifecycleManager;
+  private final NodeStore nodeStore;
+  private final YarnNodeCapacityManager yarnNodeCapacityManager;
+  private final ContainerTaskStore containerTaskStore;
+  private final Clock clock;
+  private final ConcurrentHashMap<Protos.TaskID, Long> lostTasks;
+  private final Meter slavesLost;
+  private final Meter executorsLost;
+  private final Meter tasksLost;
+  private final Timer timeToReplacement;
+
+  @Inject
+  public LostSlaveManager(SchedulerState schedulerState, OfferLifecycleManager offerLifecycleManager, NodeStore nodeStore,
+                          YarnNodeCapacityManager yarnNodeCapacityManager, ContainerTaskStore containerTaskStore,
+                          MetricRegistry registry, Clock clock) {
+    this.schedulerState = schedulerState;
+    this.offerLifecycleManager = offerLifecycleManager;
+    this.nodeStore = nodeStore;
+    this.yarnNodeCapacityManager = yarnNodeCapacityManager;
+    this.containerTaskStore = containerTaskStore;
+    this.clock = clock;
+    this.lostTasks = new ConcurrentHashMap<>(200, 0.75f, 50);
+    this.slavesLost = registry.meter(MetricRegistry.name(PREFIX, "slaves", "lost"));
+    this.executorsLost = registry.meter(MetricRegistry.name(PREFIX, "executors", "lost"));
+    this.tasksLost = registry.meter(MetricRegistry.name(PREFIX, "tasks", "lost"));
+    this.timeToReplacement = registry.timer(MetricRegistry.name(PREFIX, "tasks", "time-to-replacement"));
+  }
+
+  public void slaveLost(Protos.SlaveID slaveId) {
+    slavesLost.mark();
+    List<Protos.TaskID> taskIds = new ArrayList<>(schedulerState.getTaskIds(slaveId));
+    LOGGER.info("Slave {} lost with {} tasks", slaveId.getValue(), taskIds.size());
+    tasksLost(taskIds);
+  }
+
+  public void executorLost(Protos.ExecutorID executorId, Protos.SlaveID slaveId) {
+    executorsLost.mark();
+    List<Protos.TaskID> taskIds = new ArrayList<>();
+    for (Protos.TaskID taskId : schedulerState.getTaskIds(slaveId)) {
+      NodeTask task = schedulerState.getTask(taskId);
+      if (task != null && task.getExecutorInfo() != null && executorId.equals(task.getExecutorInfo().getExecutorId())) {
+        taskIds.add(taskId);
+      }
+    }
+    LOGGER.info("Executor {} of slave {} lost with {} tasks", executorId.getValue(), slaveId.getValue(), taskIds.size());
+    tasksLost(taskIds);
+  }
+
+  /**
+   * Called when a task runs, records the time to replacement if it was relaunched after its slave or executor was lost.
+   *
+   * @param taskId
+   */
+  public void taskRunning(Protos.TaskID taskId) {
+    Long lostAt = lostTasks.remove(taskId);
+    if (lostAt != null) {
+      timeToReplacement.update(clock.currentTimeMillis() - lostAt, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void tasksLost(List<Protos.TaskID> taskIds) {
+    Set<String> hostnames = new HashSet<>();
+    long now = clock.currentTimeMillis();
+    schedulerState.beginBatch();
+    try {
+      for (Protos.TaskID taskId : taskIds) {
+        NodeTask task = schedulerState.getTask(taskId);
+        TaskState state = schedulerState.getSnapshot().getTaskState(taskId);
+        if (task == null || state == TaskState.PENDING) {
+          continue;
+        }
+        if (task.getHostname() != null) {
+          hostnames.add(task.getHostname());
+        }
+        tasksLost.mark();
+        if (state == TaskState.KILLABLE) {
+          schedulerState.removeTask(taskId);
+          LOGGER.info("Removed killable, lost task with id {}", taskId.getValue());
+        } else {
+          schedulerState.makeTaskPending(taskId);
+          lostTasks.put(taskId, now);
+          LOGGER.info("Marked as pending lost task with id {}", taskId.getValue());
+        }
+      }
+    } finally {
+      schedulerState.endBatch();
+    }
+    for (String hostname : hostnames) {
+      hostLost(hostname);
+    }
+  }
+
+  private void hostLost(String hostname) {
+    offerLifecycleManager.dropOffers(hostname);
+    for (Protos.TaskID taskId : containerTaskStore.getTaskIds(hostname)) {
+      containerTaskStore.remove(taskId);
+    }
+    Node node = nodeStore.getNode(hostname);
+    if (node != null) {
+      yarnNodeCapacityManager.setNodeCapacity(node.getNode().getRMNode(), ZERO_RESOURCE);
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.myriad.scheduler;
 
 import com.google.common.base.Preconditions;
+import java.util.Collection;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import javax.inject.Inject;
@@ -117,6 +118,52 @@ public class MyriadDriverManager {
     return driverStatus;
   }
 
+  /**
+   * Kills a batch of tasks while holding the driver lock only once.
+   *
+   * @param taskIds
+   * @return driver status
+   */
+  public Status kill(final Collection<TaskID> taskIds) {
+    this.driverLock.lock();
+    try {
+      if (isRunning()) {
+        for (TaskID taskId : taskIds) {
+          this.driverStatus = driver.kill(taskId);
+        }
+        LOGGER.info("Kill initiated for {} tasks with status: {}", taskIds.size(), this.driverStatus);
+      } else {
+        LOGGER.warn("Cannot kill {} tasks, driver is not running", taskIds.size());
+      }
+    } finally {
+      this.driverLock.unlock();
+    }
+
+    return driverStatus;
+  }
+
+  /**
+   * Asks Mesos to send the latest status of the tasks again.
+   *
+   * @param statuses last known statuses of the tasks
+   * @return driver status
+   */
+  public Status reconcile(final Collection<Protos.TaskStatus> statuses) {
+    this.driverLock.lock();
+    try {
+      if (isRunning()) {
+        this.driverStatus = driver.getDriver().reconcileTasks(statuses);
+        LOGGER.info("Reconciliation requested for {} tasks with status: {}", statuses.size(), this.driverStatus);
+      } else {
+        LOGGER.warn("Cannot reconcile {} tasks, driver is not running", statuses.size());
+      }
+    } finally {
+      this.driverLock.unlock();
+    }
+
+    return driverStatus;
+  }
+
   public Status getDriverStatus() {
     return this.driverStatus;
   }
@@ -18,10 +18,11 @@
  */
 package org.apache.myriad.scheduler;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
 import org.apache.mesos.Protos;
@@ -55,16 +56,21 @@ public class MyriadOperations {
   private MyriadDriverManager driverManager;
   private MyriadWebServer myriadWebServer;
   private MyriadStateStore myriadStateStore;
+  private NodeDrainer nodeDrainer;
+  private final Clock clock;
+  private final AtomicLong operationIds = new AtomicLong();
 
   @Inject
   public MyriadOperations(MyriadConfiguration cfg, SchedulerState schedulerState,
-      NodeScaleDownPolicy nodeScaleDownPolicy, MyriadDriverManager driverManager,
-      MyriadWebServer myriadWebServer, RMContext rmContext) {
+      NodeScaleDownPolicy nodeScaleDownPolicy, NodeDrainer nodeDrainer, MyriadDriverManager driverManager,
+      MyriadWebServer myriadWebServer, RMContext rmContext, Clock clock) {
     this.cfg = cfg;
     this.schedulerState = schedulerState;
     this.nodeScaleDownPolicy = nodeScaleDownPolicy;
+    this.nodeDrainer = nodeDrainer;
     this.driverManager = driverManager;
     this.myriadWebServer = myriadWebServer;
+    this.clock = clock;
     if (rmContext.getStateStore() instanceof MyriadStateStore) {
       myriadStateStore = (MyriadStateStore) rmContext.getStateStore();
     }
@@ -75,8 +81,20 @@ public class MyriadOperations {
     return schedulerState;
   }
 
-  public void flexUpCluster(ServiceResourceProfile serviceResourceProfile, int instances, Constraint constraint) {
-    Collection<NodeTask> nodes = new HashSet<>();
+  /**
+   * @return a new id of the single sequence flex ups and the operations of the {@link FlexOperationQueue} share
+   */
+  public long nextOperationId() {
+    return operationIds.incrementAndGet();
+  }
+
+  /**
+   * Adds the NMs as pending tasks in a single state mutation.
+   *
+   * @return a handle to poll the progress of the launch of the NMs
+   */
+  public FlexUpOperation flexUpCluster(ServiceResourceProfile serviceResourceProfile, int instances, Constraint constraint) {
+    Collection<NodeTask> nodes = new ArrayList<>(instances);
     for (int i = 0; i < instances; i++) {
       NodeTask nodeTask = new NodeTask(serviceResourceProfile, constraint);
       nodeTask.setTaskPrefix(NodeManagerConfiguration.DEFAULT_NM_TASK_PREFIX);
@@ -84,7 +102,9 @@ public class MyriadOperations {
     }
 
     LOGGER.info("Adding {} NM instances to cluster", nodes.size());
-    this.schedulerState.addNodes(nodes);
+    List<Protos.TaskID> taskIds = this.schedulerState.addNodes(nodes);
+    return new FlexUpOperation(nextOperationId(), serviceResourceProfile.getName(), clock.currentTimeMillis(), taskIds,
+        schedulerState);
   }
 
   public void flexDownCluster(ServiceResourceProfile serviceResourceProfile, Constraint constraint, int numInstancesToScaleDown) {
@@ -114,11 +134,38 @@ public class MyriadOperations {
    *
    * @param instances
    * @param serviceName
-   * 
+   * @return a handle to poll the progress of the launch of the instances
+   *
+   * @throws MyriadBadConfigurationException if total number of instances in active, staging, and pending
+   *                                         states exceeds the ServiceConfiguration.maxInstances
+   */
+  public FlexUpOperation flexUpAService(int instances, String serviceName) throws MyriadBadConfigurationException {
+    checkServiceInstances(instances, serviceName);
+    final ServiceConfiguration auxTaskConf = cfg.getServiceConfiguration(serviceName).get();
+    final Double cpu = auxTaskConf.getCpus();
+    final Double mem = auxTaskConf.getJvmMaxMemoryMB();
+
+    Collection<NodeTask> nodes = new ArrayList<>(instances);
+    for (int i = 0; i < instances; i++) {
+      NodeTask nodeTask = new NodeTask(new ServiceResourceProfile(serviceName, cpu, mem, auxTaskConf.getPorts()), null);
+      nodeTask.setTaskPrefix(serviceName);
+      nodes.add(nodeTask);
+    }
+
+    LOGGER.info("Adding {} {} instances to cluster", nodes.size(), serviceName);
+    List<Protos.TaskID> taskIds = this.schedulerState.addNodes(nodes);
+    return new FlexUpOperation(nextOperationId(), serviceName, clock.currentTimeMillis(), taskIds, schedulerState);
+  }
+
+  /**
+   * Checks that flexing up a service by the instances does not exceed its max instances
+   *
+   * @param instances
+   * @param serviceName
    * @throws MyriadBadConfigurationException if total number of instances in active, staging, and pending
    *                                         states exceeds the ServiceConfiguration.maxInstances
    */
-  public void flexUpAService(int instances, String serviceName) throws MyriadBadConfigurationException {
+  public void checkServiceInstances(int instances, String serviceName) throws MyriadBadConfigurationException {
     final ServiceConfiguration auxTaskConf = cfg.getServiceConfiguration(serviceName).get();
 
     if (auxTaskConf.getMaxInstances().isPresent()) {
@@ -135,19 +182,6 @@ public class MyriadOperations {
         }
       }
     }
-
-    final Double cpu = auxTaskConf.getCpus();
-    final Double mem = auxTaskConf.getJvmMaxMemoryMB();
-
-    Collection<NodeTask> nodes = new HashSet<>();
-    for (int i = 0; i < instances; i++) {
-      NodeTask nodeTask = new NodeTask(new ServiceResourceProfile(serviceName, cpu, mem, auxTaskConf.getPorts()), null);
-      nodeTask.setTaskPrefix(serviceName);
-      nodes.add(nodeTask);
-    }
-
-    LOGGER.info("Adding {} {} instances to cluster", nodes.size(), serviceName);
-    this.schedulerState.addNodes(nodes);
   }
 
   /**
@@ -210,30 +244,40 @@ public class MyriadOperations {
 
   private int flexDownPendingTasks(ServiceResourceProfile profile, Constraint constraint, int numInstancesToScaleDown) {
     return numInstancesToScaleDown > 0 ? flexDownTasks(schedulerState.getPendingTaskIDsForProfile(profile), profile, constraint,
-        numInstancesToScaleDown) : 0;
+        numInstancesToScaleDown, false) : 0;
   }
 
   private int flexDownStagingTasks(ServiceResourceProfile profile, Constraint constraint, int numInstancesToScaleDown) {
     return numInstancesToScaleDown > 0 ? flexDownTasks(schedulerState.getStagingTaskIDsForProfile(profile), profile, constraint,
-        numInstancesToScaleDown) : 0;
+        numInstancesToScaleDown, false) : 0;
   }
 
   private int flexDownActiveTasks(ServiceResourceProfile profile, Constraint constraint, int numInstancesToScaleDown) {
     if (numInstancesToScaleDown > 0) {
-      List<Protos.TaskID> activeTasksForProfile = Lists.newArrayList(schedulerState.getActiveTaskIDsForProfile(profile));
+      List<Protos.TaskID> activeTasksForProfile = Lists.newArrayList();
+      for (Protos.TaskID taskID : schedulerState.getActiveTaskIDsForProfile(profile)) {
+        // NMs that are draining have already been flexed down
+        if (!nodeDrainer.isDraining(taskID)) {
+          activeTasksForProfile.add(taskID);
+        }
+      }
       nodeScaleDownPolicy.apply(activeTasksForProfile);
-      return flexDownTasks(activeTasksForProfile, profile, constraint, numInstancesToScaleDown);
+      return flexDownTasks(activeTasksForProfile, profile, constraint, numInstancesToScaleDown, nodeDrainer.isEnabled());
     }
     return 0;
   }
 
   private int flexDownTasks(Collection<Protos.TaskID> taskIDs, ServiceResourceProfile profile, Constraint constraint,
-                            int numInstancesToScaleDown) {
+                            int numInstancesToScaleDown, boolean drain) {
     int numInstancesScaledDown = 0;
     for (Protos.TaskID taskID : taskIDs) {
       NodeTask nodeTask = schedulerState.getTask(taskID);
       if (nodeTask.getProfile().getName().equals(profile.getName()) && meetsConstraint(nodeTask, constraint)) {
-        this.schedulerState.makeTaskKillable(taskID);
+        if (drain) {
+          nodeDrainer.drain(taskID);
+        } else {
+          this.schedulerState.makeTaskKillable(taskID);
+        }
         numInstancesScaledDown++;
         if (numInstancesScaledDown == numInstancesToScaleDown) {
           break;
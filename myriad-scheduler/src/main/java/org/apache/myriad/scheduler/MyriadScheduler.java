@@ -36,19 +36,137 @@ import org.apache.myriad.scheduler.event.RegisteredEvent;
 import org.apache.myriad.scheduler.event.ResourceOffersEvent;
 import org.apache.myriad.scheduler.event.SlaveLostEvent;
 import org.apache.myriad.scheduler.event.StatusUpdateEvent;
+import org.apache.myriad.scheduler.event.journal.EventJournal;
 
-import com.lmax.disruptor.EventTranslator;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import com.lmax.disruptor.EventTranslatorVararg;
 
 /**
  * The Myriad implementation of the Mesos Scheduler callback interface, where the method implementations
  * publish Myriad framework events corresponding to the Mesos callbacks.
+ * <p/>
+ * The translators are stateless and shared, so publishing an event does not allocate a translator
+ * capturing the callback arguments. When the {@link EventJournal} is enabled, the callbacks are
+ * recorded in the order Mesos invokes them before they are published. Events are stamped with the
+ * time they are published, to measure how long they wait in the ring buffer.
  */
 public class MyriadScheduler implements Scheduler {
+  private static final EventTranslatorThreeArg<RegisteredEvent, SchedulerDriver, Protos.FrameworkID, Protos.MasterInfo>
+      REGISTERED_TRANSLATOR = new EventTranslatorThreeArg<RegisteredEvent, SchedulerDriver, Protos.FrameworkID, Protos.MasterInfo>() {
+        @Override
+        public void translateTo(RegisteredEvent event, long sequence, SchedulerDriver driver, Protos.FrameworkID frameworkId,
+                                Protos.MasterInfo masterInfo) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setFrameworkId(frameworkId);
+          event.setMasterInfo(masterInfo);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<ReRegisteredEvent, SchedulerDriver, Protos.MasterInfo> REREGISTERED_TRANSLATOR =
+      new EventTranslatorTwoArg<ReRegisteredEvent, SchedulerDriver, Protos.MasterInfo>() {
+        @Override
+        public void translateTo(ReRegisteredEvent event, long sequence, SchedulerDriver driver, Protos.MasterInfo masterInfo) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setMasterInfo(masterInfo);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<ResourceOffersEvent, SchedulerDriver, List<Protos.Offer>> RESOURCE_OFFERS_TRANSLATOR =
+      new EventTranslatorTwoArg<ResourceOffersEvent, SchedulerDriver, List<Protos.Offer>>() {
+        @Override
+        public void translateTo(ResourceOffersEvent event, long sequence, SchedulerDriver driver, List<Protos.Offer> offers) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setOffers(offers);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<OfferRescindedEvent, SchedulerDriver, Protos.OfferID> OFFER_RESCINDED_TRANSLATOR =
+      new EventTranslatorTwoArg<OfferRescindedEvent, SchedulerDriver, Protos.OfferID>() {
+        @Override
+        public void translateTo(OfferRescindedEvent event, long sequence, SchedulerDriver driver, Protos.OfferID offerId) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setOfferId(offerId);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<StatusUpdateEvent, SchedulerDriver, Protos.TaskStatus> STATUS_UPDATE_TRANSLATOR =
+      new EventTranslatorTwoArg<StatusUpdateEvent, SchedulerDriver, Protos.TaskStatus>() {
+        @Override
+        public void translateTo(StatusUpdateEvent event, long sequence, SchedulerDriver driver, Protos.TaskStatus status) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setStatus(status);
+        }
+      };
+
+  // Framework messages and lost executors carry four arguments and are rare, the varargs array is acceptable
+  private static final EventTranslatorVararg<FrameworkMessageEvent> FRAMEWORK_MESSAGE_TRANSLATOR =
+      new EventTranslatorVararg<FrameworkMessageEvent>() {
+        @Override
+        public void translateTo(FrameworkMessageEvent event, long sequence, Object... args) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver((SchedulerDriver) args[0]);
+          event.setExecutorId((Protos.ExecutorID) args[1]);
+          event.setSlaveId((Protos.SlaveID) args[2]);
+          event.setBytes((byte[]) args[3]);
+        }
+      };
+
+  private static final EventTranslatorOneArg<DisconnectedEvent, SchedulerDriver> DISCONNECTED_TRANSLATOR =
+      new EventTranslatorOneArg<DisconnectedEvent, SchedulerDriver>() {
+        @Override
+        public void translateTo(DisconnectedEvent event, long sequence, SchedulerDriver driver) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<SlaveLostEvent, SchedulerDriver, Protos.SlaveID> SLAVE_LOST_TRANSLATOR =
+      new EventTranslatorTwoArg<SlaveLostEvent, SchedulerDriver, Protos.SlaveID>() {
+        @Override
+        public void translateTo(SlaveLostEvent event, long sequence, SchedulerDriver driver, Protos.SlaveID slaveId) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setSlaveId(slaveId);
+        }
+      };
+
+  private static final EventTranslatorVararg<ExecutorLostEvent> EXECUTOR_LOST_TRANSLATOR =
+      new EventTranslatorVararg<ExecutorLostEvent>() {
+        @Override
+        public void translateTo(ExecutorLostEvent event, long sequence, Object... args) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver((SchedulerDriver) args[0]);
+          event.setExecutorId((Protos.ExecutorID) args[1]);
+          event.setSlaveId((Protos.SlaveID) args[2]);
+          event.setExitStatus((Integer) args[3]);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<ErrorEvent, SchedulerDriver, String> ERROR_TRANSLATOR =
+      new EventTranslatorTwoArg<ErrorEvent, SchedulerDriver, String>() {
+        @Override
+        public void translateTo(ErrorEvent event, long sequence, SchedulerDriver driver, String message) {
+          event.setPublishedNanos(System.nanoTime());
+          event.setDriver(driver);
+          event.setMessage(message);
+        }
+      };
+
   private org.apache.myriad.DisruptorManager disruptorManager;
+  private EventJournal journal;
 
   @Inject
-  public MyriadScheduler(final MyriadConfiguration cfg, final org.apache.myriad.DisruptorManager disruptorManager) {
+  public MyriadScheduler(final MyriadConfiguration cfg, final org.apache.myriad.DisruptorManager disruptorManager,
+                         final EventJournal journal) {
     this.disruptorManager = disruptorManager;
+    this.journal = journal;
   }
 
   /**
@@ -56,14 +174,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void registered(final SchedulerDriver driver, final Protos.FrameworkID frameworkId, final Protos.MasterInfo masterInfo) {
-    disruptorManager.getRegisteredEventDisruptor().publishEvent(new EventTranslator<RegisteredEvent>() {
-      @Override
-      public void translateTo(RegisteredEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setFrameworkId(frameworkId);
-        event.setMasterInfo(masterInfo);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.registered(frameworkId, masterInfo);
+    }
+    disruptorManager.getRegisteredEventPublisher().publishEvent(REGISTERED_TRANSLATOR, driver, frameworkId, masterInfo);
   }
 
   /**
@@ -71,13 +185,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void reregistered(final SchedulerDriver driver, final Protos.MasterInfo masterInfo) {
-    disruptorManager.getReRegisteredEventDisruptor().publishEvent(new EventTranslator<ReRegisteredEvent>() {
-      @Override
-      public void translateTo(ReRegisteredEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setMasterInfo(masterInfo);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.reregistered(masterInfo);
+    }
+    disruptorManager.getReRegisteredEventPublisher().publishEvent(REREGISTERED_TRANSLATOR, driver, masterInfo);
   }
 
   /**
@@ -85,13 +196,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void resourceOffers(final SchedulerDriver driver, final List<Protos.Offer> offers) {
-    disruptorManager.getResourceOffersEventDisruptor().publishEvent(new EventTranslator<ResourceOffersEvent>() {
-      @Override
-      public void translateTo(ResourceOffersEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setOffers(offers);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.resourceOffers(offers);
+    }
+    disruptorManager.getResourceOffersEventPublisher().publishEvent(RESOURCE_OFFERS_TRANSLATOR, driver, offers);
   }
 
   /**
@@ -99,13 +207,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void offerRescinded(final SchedulerDriver driver, final Protos.OfferID offerId) {
-    disruptorManager.getOfferRescindedEventDisruptor().publishEvent(new EventTranslator<OfferRescindedEvent>() {
-      @Override
-      public void translateTo(OfferRescindedEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setOfferId(offerId);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.offerRescinded(offerId);
+    }
+    disruptorManager.getOfferRescindedEventPublisher().publishEvent(OFFER_RESCINDED_TRANSLATOR, driver, offerId);
   }
 
   /**
@@ -113,13 +218,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void statusUpdate(final SchedulerDriver driver, final Protos.TaskStatus status) {
-    disruptorManager.getStatusUpdateEventDisruptor().publishEvent(new EventTranslator<StatusUpdateEvent>() {
-      @Override
-      public void translateTo(StatusUpdateEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setStatus(status);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.statusUpdate(status);
+    }
+    disruptorManager.getStatusUpdateEventPublisher().publishEvent(STATUS_UPDATE_TRANSLATOR, driver, status);
   }
 
   /**
@@ -128,15 +230,11 @@ public class MyriadScheduler implements Scheduler {
   @Override
   public void frameworkMessage(final SchedulerDriver driver, final Protos.ExecutorID executorId, final Protos.SlaveID slaveId,
                                final byte[] bytes) {
-    disruptorManager.getFrameworkMessageEventDisruptor().publishEvent(new EventTranslator<FrameworkMessageEvent>() {
-      @Override
-      public void translateTo(FrameworkMessageEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setBytes(bytes);
-        event.setExecutorId(executorId);
-        event.setSlaveId(slaveId);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.frameworkMessage(executorId, slaveId, bytes);
+    }
+    disruptorManager.getFrameworkMessageEventPublisher().publishEvent(FRAMEWORK_MESSAGE_TRANSLATOR, driver, executorId,
+        slaveId, bytes);
   }
 
   /**
@@ -144,12 +242,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void disconnected(final SchedulerDriver driver) {
-    disruptorManager.getDisconnectedEventDisruptor().publishEvent(new EventTranslator<DisconnectedEvent>() {
-      @Override
-      public void translateTo(DisconnectedEvent event, long sequence) {
-        event.setDriver(driver);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.disconnected();
+    }
+    disruptorManager.getDisconnectedEventPublisher().publishEvent(DISCONNECTED_TRANSLATOR, driver);
   }
 
   /**
@@ -157,13 +253,10 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void slaveLost(final SchedulerDriver driver, final Protos.SlaveID slaveId) {
-    disruptorManager.getSlaveLostEventDisruptor().publishEvent(new EventTranslator<SlaveLostEvent>() {
-      @Override
-      public void translateTo(SlaveLostEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setSlaveId(slaveId);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.slaveLost(slaveId);
+    }
+    disruptorManager.getSlaveLostEventPublisher().publishEvent(SLAVE_LOST_TRANSLATOR, driver, slaveId);
   }
 
   /**
@@ -172,15 +265,11 @@ public class MyriadScheduler implements Scheduler {
   @Override
   public void executorLost(final SchedulerDriver driver, final Protos.ExecutorID executorId, final Protos.SlaveID slaveId,
                            final int exitStatus) {
-    disruptorManager.getExecutorLostEventDisruptor().publishEvent(new EventTranslator<ExecutorLostEvent>() {
-      @Override
-      public void translateTo(ExecutorLostEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setExecutorId(executorId);
-        event.setSlaveId(slaveId);
-        event.setExitStatus(exitStatus);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.executorLost(executorId, slaveId, exitStatus);
+    }
+    disruptorManager.getExecutorLostEventPublisher().publishEvent(EXECUTOR_LOST_TRANSLATOR, driver, executorId,
+        slaveId, exitStatus);
   }
 
   /**
@@ -188,12 +277,9 @@ public class MyriadScheduler implements Scheduler {
    */
   @Override
   public void error(final SchedulerDriver driver, final String message) {
-    disruptorManager.getErrorEventDisruptor().publishEvent(new EventTranslator<ErrorEvent>() {
-      @Override
-      public void translateTo(ErrorEvent event, long sequence) {
-        event.setDriver(driver);
-        event.setMessage(message);
-      }
-    });
+    if (journal.isEnabled()) {
+      journal.error(message);
+    }
+    disruptorManager.getErrorEventPublisher().publishEvent(ERROR_TRANSLATOR, driver, message);
   }
 }
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.configuration.ScaleDownConfiguration;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.scheduler.fgs.Node;
+import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
+import org.apache.myriad.scheduler.fgs.YarnNodeCapacityManager;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link NodeDrainer} drains the NMs of active tasks that are flexed down before they are killed, so
+ * the containers running on them and the map outputs they serve are not lost.
+ * <p/>
+ * Draining sets the capacity of the NM to zero, so the YARN scheduler places no new containers on it,
+ * and declines the offers for its host. The drainer runs periodically and marks a task killable for the
+ * {@link TaskTerminator} once no container runs on its NM anymore, or once it drained for
+ * {@link ScaleDownConfiguration#getDrainTimeoutMs()}.
+ */
+public class NodeDrainer implements Runnable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(NodeDrainer.class);
+
+  private static final Resource ZERO_RESOURCE = Resource.newInstance(0, 0);
+
+  private final boolean enabled;
+  private final long timeoutMillis;
+  private final SchedulerState schedulerState;
+  private final NodeStore nodeStore;
+  private final YarnNodeCapacityManager yarnNodeCapacityManager;
+  private final OfferLifecycleManager offerLifecycleManager;
+  private final NodeStatistics nodeStatistics;
+  private final Clock clock;
+  private final ConcurrentMap<TaskID, Drain> drains = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, TaskID> drainingHosts = new ConcurrentHashMap<>();
+
+  @Inject
+  public NodeDrainer(MyriadConfiguration cfg, SchedulerState schedulerState, NodeStore nodeStore,
+                     YarnNodeCapacityManager yarnNodeCapacityManager, OfferLifecycleManager offerLifecycleManager,
+                     NodeStatistics nodeStatistics, Clock clock) {
+    ScaleDownConfiguration conf = cfg.getScaleDownConfiguration();
+    this.enabled = conf.isDrainEnabled();
+    this.timeoutMillis = conf.getDrainTimeoutMs();
+    this.schedulerState = schedulerState;
+    this.nodeStore = nodeStore;
+    this.yarnNodeCapacityManager = yarnNodeCapacityManager;
+    this.offerLifecycleManager = offerLifecycleManager;
+    this.nodeStatistics = nodeStatistics;
+    this.clock = clock;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Starts draining the NM of an active task, or marks the task killable if its NM is not known.
+   *
+   * @param taskId
+   */
+  public void drain(TaskID taskId) {
+    NodeTask task = schedulerState.getTask(taskId);
+    Node node = task != null && task.getHostname() != null ? nodeStore.getNode(task.getHostname()) : null;
+    if (node == null) {
+      LOGGER.info("NM of task {} is not registered, killing it without draining", taskId.getValue());
+      schedulerState.makeTaskKillable(taskId);
+      return;
+    }
+    String hostname = task.getHostname();
+    long now = clock.currentTimeMillis();
+    Drain drain = new Drain(taskId, hostname, now, now + timeoutMillis, runningContainers(hostname));
+    if (drains.putIfAbsent(taskId, drain) != null) {
+      return;
+    }
+    drainingHosts.put(hostname, taskId);
+    offerLifecycleManager.declineOutstandingOffers(hostname);
+    yarnNodeCapacityManager.setNodeCapacity(node.getNode().getRMNode(), ZERO_RESOURCE);
+    LOGGER.info("Draining NM of task {} on host {} with {} running containers", taskId.getValue(), hostname,
+        drain.getInitialContainers());
+  }
+
+  public boolean isDraining(TaskID taskId) {
+    return drains.containsKey(taskId);
+  }
+
+  public boolean isDraining(String hostname) {
+    return drainingHosts.containsKey(hostname);
+  }
+
+  public Collection<Drain> getDrains() {
+    return Collections.unmodifiableCollection(drains.values());
+  }
+
+  /**
+   * Marks the tasks killable whose NMs drained or timed out, and stops tracking tasks that
+   * are no longer active.
+   */
+  @Override
+  public void run() {
+    if (drains.isEmpty()) {
+      return;
+    }
+    long now = clock.currentTimeMillis();
+    for (Drain drain : drains.values()) {
+      TaskID taskId = drain.getTaskId();
+      NodeTask task = schedulerState.getTask(taskId);
+      if (task == null) {
+        finish(drain);
+        continue;
+      }
+      // A task that left ACTIVE was killed already or is pending for relaunch after its slave was lost
+      if (!schedulerState.getActiveTaskIds().contains(taskId)) {
+        LOGGER.info("Stopped draining NM of task {} on host {}, the task is no longer active", taskId.getValue(),
+            drain.getHostname());
+        finish(drain);
+        continue;
+      }
+      drain.runningContainers = runningContainers(drain.getHostname());
+      if (drain.runningContainers == 0 || now >= drain.getDeadlineMillis()) {
+        LOGGER.info("Killing NM of task {} on host {} after draining for {} ms with {} running containers", taskId.getValue(),
+            drain.getHostname(), now - drain.getStartMillis(), drain.runningContainers);
+        schedulerState.makeTaskKillable(taskId);
+        finish(drain);
+      }
+    }
+  }
+
+  private void finish(Drain drain) {
+    drains.remove(drain.getTaskId());
+    drainingHosts.remove(drain.getHostname(), drain.getTaskId());
+  }
+
+  private int runningContainers(String hostname) {
+    NodeStatistics.NodeStats stats = nodeStatistics.getNodeStats(hostname);
+    return stats != null ? stats.getContainers() : 0;
+  }
+
+  /**
+   * Progress of draining the NM of a task
+   */
+  public static class Drain {
+    private final TaskID taskId;
+    private final String hostname;
+    private final long startMillis;
+    private final long deadlineMillis;
+    private final int initialContainers;
+    private volatile int runningContainers;
+
+    Drain(TaskID taskId, String hostname, long startMillis, long deadlineMillis, int initialContainers) {
+      this.taskId = taskId;
+      this.hostname = hostname;
+      this.startMillis = startMillis;
+      this.deadlineMillis = deadlineMillis;
+      this.initialContainers = initialContainers;
+      this.runningContainers = initialContainers;
+    }
+
+    public TaskID getTaskId() {
+      return taskId;
+    }
+
+    public String getHostname() {
+      return hostname;
+    }
+
+    public long getStartMillis() {
+      return startMillis;
+    }
+
+    public long getDeadlineMillis() {
+      return deadlineMillis;
+    }
+
+    public int getInitialContainers() {
+      return initialContainers;
+    }
+
+    public int getRunningContainers() {
+      return runningContainers;
+    }
+  }
+}
@@ -18,9 +18,17 @@
  */
 package org.apache.myriad.scheduler;
 
-import java.util.Set;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import javax.inject.Inject;
+import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.QueueMetrics;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.ResourceScheduler;
 import org.apache.mesos.Protos;
+import org.apache.myriad.configuration.AutoscalerConfiguration;
+import org.apache.myriad.configuration.MyriadConfiguration;
 import org.apache.myriad.configuration.NodeManagerConfiguration;
 import org.apache.myriad.state.SchedulerState;
 import org.slf4j.Logger;
@@ -29,74 +37,282 @@ import org.slf4j.LoggerFactory;
 /**
  * {@link Rebalancer} is responsible for scaling registered YARN clusters as per
  * configured rules and policies.
+ * <p/>
+ * It reads the root queue metrics of the YARN scheduler Myriad runs in. NMs are flexed up once
+ * the pending resources exceed the available resources, plus the capacity of the NMs that are
+ * not launched yet, for a number of consecutive evaluations. A NM is flexed down once nothing
+ * is pending for a number of consecutive evaluations and its capacity is available. Cooldowns
+ * limit how often the cluster is flexed, and the number of NMs per profile is kept within the
+ * configured bounds. Without configured min instances, a small NM is flexed up whenever no NM of
+ * any profile is active or launching.
+ * <p/>
+ * As NMs take minutes to launch, the demand can optionally be forecast by the {@link DemandForecaster}.
+ * NMs are then flexed up once the forecast demand exceeds the capacity, and capacity the forecast
+ * demand needs is not flexed down.
  */
 public class Rebalancer implements Runnable {
   private static final Logger LOGGER = LoggerFactory.getLogger(Rebalancer.class);
 
+  private final AutoscalerConfiguration cfg;
   private final SchedulerState schedulerState;
   private final MyriadOperations myriadOperations;
   private final ServiceProfileManager profileManager;
+  private final NodeDrainer nodeDrainer;
+  private final DemandForecaster forecaster;
+  private final RMContext rmContext;
+  private final Clock clock;
+
+  private int scaleUpStreak;
+  private int scaleDownStreak;
+  private long lastScaleUpMillis = Long.MIN_VALUE;
+  private long lastScaleDownMillis = Long.MIN_VALUE;
 
   @Inject
-  public Rebalancer(SchedulerState schedulerState, MyriadOperations myriadOperations, ServiceProfileManager profileManager) {
+  public Rebalancer(MyriadConfiguration cfg, SchedulerState schedulerState, MyriadOperations myriadOperations,
+      ServiceProfileManager profileManager, NodeDrainer nodeDrainer, DemandForecaster forecaster, RMContext rmContext,
+      Clock clock) {
+    this.cfg = cfg.getAutoscalerConfiguration();
     this.schedulerState = schedulerState;
     this.myriadOperations = myriadOperations;
     this.profileManager = profileManager;
+    this.nodeDrainer = nodeDrainer;
+    this.forecaster = forecaster;
+    this.rmContext = rmContext;
+    this.clock = clock;
   }
 
   @Override
   public void run() {
-    final Set<Protos.TaskID> activeIds = schedulerState.getActiveTaskIds(NodeManagerConfiguration.DEFAULT_NM_TASK_PREFIX);
-    final Set<Protos.TaskID> pendingIds = schedulerState.getPendingTaskIds(NodeManagerConfiguration.DEFAULT_NM_TASK_PREFIX);
-    LOGGER.info("Active {}, Pending {}", activeIds.size(), pendingIds.size());
-    if (activeIds.size() < 1 && pendingIds.size() < 1) {
-      myriadOperations.flexUpCluster(profileManager.get("small"), 1, null);
-    }
-    //            RestAdapter restAdapter = new RestAdapter.Builder()
-    //                    .setEndpoint("http://" + host + ":" + port)
-    //                    .setLogLevel(LogLevel.FULL).build();
-    //            YARNResourceManagerService service = restAdapter
-    //                    .create(YARNResourceManagerService.class);
-    //
-    //            ClusterMetrics metrics = service.metrics().getClusterMetrics();
-    //            AppsResponse appsResponse = service.apps("ACCEPTED");
-    //
-    //            int acceptedApps = 0;
-    //
-    //            if (appsResponse == null || appsResponse.getApps() == null
-    //                    || appsResponse.getApps().getApps() == null) {
-    //                acceptedApps = 0;
-    //            } else {
-    //                acceptedApps = appsResponse.getApps().getApps().size();
-    //            }
-    //            LOGGER.info("Metrics: {}", metrics);
-    //            LOGGER.info("Apps: {}", appsResponse);
-    //
-    //            long availableMB = metrics.getAvailableMB();
-    //            long allocatedMB = metrics.getAllocatedMB();
-    //            long reservedMB = metrics.getReservedMB();
-    //            int activeNodes = metrics.getActiveNodes();
-    //            int unhealthyNodes = metrics.getUnhealthyNodes();
-    //            int appsPending = metrics.getAppsPending();
-    //            int appsRunning = metrics.getAppsRunning();
-
-    //            if (activeNodes == 0 && appsPending > 0) {
-    //                LOGGER.info(
-    //                        "Flexing up for condition: activeNodes ({}) == 0 && appsPending ({}) > 0",
-    //                        activeNodes, appsPending);
-    //                this.myriadOperations.flexUpCluster(clusterId, 1, "small");
-    //            } else if (appsPending == 0 && appsRunning == 0 && activeNodes > 0) {
-    //                LOGGER.info(
-    //                        "Flexing down for condition: appsPending ({}) == 0 && appsRunning ({}) == 0 && activeNodes ({}) > 0",
-    //                        appsPending, appsRunning, activeNodes);
-    //                this.myriadOperations.flexDownCluster(cluster, 1);
-    //            } else if (acceptedApps > 0) {
-    //                LOGGER.info("Flexing up for condition: acceptedApps ({}) > 0",
-    //                        acceptedApps);
-    //                this.myriadOperations.flexUpCluster(clusterId, 1, "small");
-    //            } else {
-    //                LOGGER.info("Nothing to rebalance");
-    //                this.schedulerState.releaseLock(clusterId);
-    //            }
+    try {
+      rebalance(clock.currentTimeMillis());
+    } catch (RuntimeException e) {
+      // Keeps the rebalancer scheduled
+      LOGGER.error("Failed to rebalance", e);
+    }
+  }
+
+  private void rebalance(long now) {
+    Map<String, Instances> instances = getInstances();
+    if (flexUpToMinInstances(instances)) {
+      lastScaleUpMillis = now;
+      scaleUpStreak = 0;
+      scaleDownStreak = 0;
+      return;
+    }
+
+    QueueMetrics metrics = getQueueMetrics();
+    if (metrics == null) {
+      return;
+    }
+    long pendingMB = metrics.getPendingMB();
+    long pendingVCores = metrics.getPendingVirtualCores();
+    long availableMB = metrics.getAvailableMB();
+    long availableVCores = metrics.getAvailableVirtualCores();
+    long allocatedMB = metrics.getAllocatedMB();
+    long allocatedVCores = metrics.getAllocatedVirtualCores();
+    long incomingMB = 0;
+    long incomingVCores = 0;
+    for (Instances profileInstances : instances.values()) {
+      incomingMB += profileInstances.launching * profileInstances.memoryMB;
+      incomingVCores += profileInstances.launching * profileInstances.vCores;
+    }
+    long shortfallMB = Math.max(pendingMB - availableMB - incomingMB, 0);
+    long shortfallVCores = Math.max(pendingVCores - availableVCores - incomingVCores, 0);
+    boolean demand = (metrics.getPendingContainers() > 0 && (shortfallMB > 0 || shortfallVCores > 0)) ||
+        (metrics.getAppsPending() > 0 && availableMB + incomingMB <= 0);
+    boolean idle = metrics.getPendingContainers() == 0 && metrics.getAppsPending() == 0;
+
+    // Capacity the forecast demand exceeds the allocated, available and launching capacity by
+    long forecastMB = 0;
+    long forecastVCores = 0;
+    if (forecaster.isEnabled()) {
+      forecaster.record(now, allocatedMB + pendingMB, allocatedVCores + pendingVCores);
+      forecastMB = forecaster.getForecastMB();
+      forecastVCores = forecaster.getForecastVCores();
+    }
+    long forecastShortfallMB = Math.max(forecastMB - allocatedMB - availableMB - incomingMB, 0);
+    long forecastShortfallVCores = Math.max(forecastVCores - allocatedVCores - availableVCores - incomingVCores, 0);
+    boolean forecastDemand = forecastShortfallMB > 0 || forecastShortfallVCores > 0;
+
+    scaleUpStreak = demand ? scaleUpStreak + 1 : 0;
+    scaleDownStreak = idle ? scaleDownStreak + 1 : 0;
+    LOGGER.debug("Pending {} MB {} vcores {} containers {} apps, available {} MB {} vcores, launching {} MB {} vcores, " +
+        "forecast {} MB {} vcores", pendingMB, pendingVCores, metrics.getPendingContainers(), metrics.getAppsPending(),
+        availableMB, availableVCores, incomingMB, incomingVCores, forecastMB, forecastVCores);
+
+    if ((scaleUpStreak >= cfg.getScaleUpIntervals() || forecastDemand) &&
+        lastScaleUpMillis <= now - cfg.getScaleUpCooldownMs()) {
+      if (flexUp(instances, Math.max(shortfallMB, forecastShortfallMB), Math.max(shortfallVCores, forecastShortfallVCores))) {
+        lastScaleUpMillis = now;
+        scaleUpStreak = 0;
+        scaleDownStreak = 0;
+      }
+    } else if (!forecastDemand && scaleDownStreak >= cfg.getScaleDownIntervals() &&
+        Math.max(lastScaleUpMillis, lastScaleDownMillis) <= now - cfg.getScaleDownCooldownMs()) {
+      // Capacity the forecast demand needs is not flexed down
+      long spareMB = Math.min(availableMB, allocatedMB + availableMB + incomingMB - forecastMB);
+      long spareVCores = Math.min(availableVCores, allocatedVCores + availableVCores + incomingVCores - forecastVCores);
+      if (flexDown(instances, spareMB, spareVCores)) {
+        lastScaleDownMillis = now;
+        scaleDownStreak = 0;
+      }
+    }
+  }
+
+  private boolean flexUpToMinInstances(Map<String, Instances> instances) {
+    if (!cfg.getMinInstances().isPresent()) {
+      return flexUpFirstNodeManager();
+    }
+    boolean flexedUp = false;
+    for (Instances profileInstances : instances.values()) {
+      int missing = profileInstances.min - profileInstances.count();
+      if (missing > 0) {
+        LOGGER.info("Flexing up {} NMs with profile '{}' to keep {} running", missing, profileInstances.profile.getName(),
+            profileInstances.min);
+        myriadOperations.flexUpCluster(profileInstances.profile, missing, null);
+        flexedUp = true;
+      }
+    }
+    return flexedUp;
+  }
+
+  private boolean flexUpFirstNodeManager() {
+    String prefix = NodeManagerConfiguration.DEFAULT_NM_TASK_PREFIX;
+    if (!schedulerState.getActiveTaskIds(prefix).isEmpty() || !schedulerState.getStagingTaskIds(prefix).isEmpty() ||
+        !schedulerState.getPendingTaskIds(prefix).isEmpty()) {
+      return false;
+    }
+    ServiceResourceProfile profile = profileManager.get(AutoscalerConfiguration.DEFAULT_MIN_INSTANCES_PROFILE);
+    if (profile == null) {
+      LOGGER.warn("Profile '{}' does not exist, no NM is flexed up", AutoscalerConfiguration.DEFAULT_MIN_INSTANCES_PROFILE);
+      return false;
+    }
+    LOGGER.info("Flexing up a NM with profile '{}' as no NM is running", profile.getName());
+    myriadOperations.flexUpCluster(profile, 1, null);
+    return true;
+  }
+
+  /**
+   * Flexes up the profile whose NMs cover the shortfall with the least capacity left unused,
+   * or the most capacity if no profile is allowed enough NMs to cover it. Fewer, larger NMs
+   * are preferred for the same capacity, as every NM adds the resources of its executor.
+   */
+  private boolean flexUp(Map<String, Instances> instances, long shortfallMB, long shortfallVCores) {
+    Instances best = null;
+    int bestCount = 0;
+    boolean bestCovers = false;
+    long bestMB = 0;
+    for (Instances profileInstances : instances.values()) {
+      int room = profileInstances.max - profileInstances.count();
+      if (room <= 0 || profileInstances.memoryMB <= 0 || profileInstances.vCores <= 0) {
+        continue;
+      }
+      long needed = Math.max(divideRoundingUp(shortfallMB, profileInstances.memoryMB),
+          divideRoundingUp(shortfallVCores, profileInstances.vCores));
+      int count = (int) Math.max(Math.min(needed, Math.min(room, cfg.getMaxScaleUpInstances())), 1);
+      long memoryMB = count * profileInstances.memoryMB;
+      boolean covers = count >= needed;
+      boolean better = covers ? !bestCovers || memoryMB < bestMB || (memoryMB == bestMB && count < bestCount) :
+          !bestCovers && memoryMB > bestMB;
+      if (best == null || better) {
+        best = profileInstances;
+        bestCount = count;
+        bestCovers = covers;
+        bestMB = memoryMB;
+      }
+    }
+    if (best == null) {
+      LOGGER.info("Demand exceeds the available resources, but all profiles reached their max instances");
+      return false;
+    }
+    LOGGER.info("Flexing up {} NMs with profile '{}' for a shortfall of {} MB and {} vcores", bestCount,
+        best.profile.getName(), shortfallMB, shortfallVCores);
+    myriadOperations.flexUpCluster(best.profile, bestCount, null);
+    return true;
+  }
+
+  /**
+   * Flexes down a NM of the largest profile above its min instances whose capacity is available.
+   */
+  private boolean flexDown(Map<String, Instances> instances, long availableMB, long availableVCores) {
+    Instances best = null;
+    for (Instances profileInstances : instances.values()) {
+      if (profileInstances.count() <= profileInstances.min || profileInstances.memoryMB > availableMB ||
+          profileInstances.vCores > availableVCores) {
+        continue;
+      }
+      if (best == null || profileInstances.memoryMB > best.memoryMB) {
+        best = profileInstances;
+      }
+    }
+    if (best == null) {
+      return false;
+    }
+    LOGGER.info("Flexing down a NM with profile '{}', {} MB and {} vcores are available", best.profile.getName(),
+        availableMB, availableVCores);
+    myriadOperations.flexDownCluster(best.profile, null, 1);
+    return true;
+  }
+
+  private Map<String, Instances> getInstances() {
+    Map<String, Integer> minInstances = cfg.getMinInstances().or(Collections.<String, Integer>emptyMap());
+    Map<String, Integer> maxInstances = cfg.getMaxInstances();
+    TreeSet<String> names = new TreeSet<>(minInstances.keySet());
+    names.addAll(maxInstances.keySet());
+
+    Map<String, Instances> instances = new TreeMap<>();
+    for (String name : names) {
+      ServiceResourceProfile profile = profileManager.get(name);
+      if (profile == null) {
+        LOGGER.warn("Profile '{}' does not exist, it is not rebalanced", name);
+        continue;
+      }
+      Integer min = minInstances.get(name);
+      Integer max = maxInstances.get(name);
+      Instances profileInstances = new Instances(profile, min == null ? 0 : min, max == null ? 0 : max);
+      for (Protos.TaskID taskId : schedulerState.getActiveTaskIDsForProfile(profile)) {
+        if (!nodeDrainer.isDraining(taskId)) {
+          profileInstances.active++;
+        }
+      }
+      profileInstances.launching = schedulerState.getStagingTaskIDsForProfile(profile).size() +
+          schedulerState.getPendingTaskIDsForProfile(profile).size();
+      instances.put(name, profileInstances);
+    }
+    return instances;
+  }
+
+  private QueueMetrics getQueueMetrics() {
+    ResourceScheduler scheduler = rmContext.getScheduler();
+    return scheduler == null ? null : scheduler.getRootQueueMetrics();
+  }
+
+  private static long divideRoundingUp(long value, long divisor) {
+    return (value + divisor - 1) / divisor;
+  }
+
+  /**
+   * Number of NMs and NM capacity of a profile
+   */
+  private static class Instances {
+    private final ServiceResourceProfile profile;
+    private final int min;
+    private final int max;
+    private final long memoryMB;
+    private final long vCores;
+    private int active;
+    private int launching;
+
+    Instances(ServiceResourceProfile profile, int min, int max) {
+      this.profile = profile;
+      this.min = min;
+      this.max = Math.max(min, max);
+      this.memoryMB = profile.getMemory().longValue();
+      this.vCores = profile.getCpus().longValue();
+    }
+
+    int count() {
+      return active + launching;
+    }
   }
 }
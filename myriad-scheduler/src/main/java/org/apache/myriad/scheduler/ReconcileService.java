@@ -19,65 +19,157 @@
 package org.apache.myriad.scheduler;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import org.apache.mesos.Protos;
 import org.apache.mesos.SchedulerDriver;
-import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.state.SchedulerState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * {@link ReconcileService} is responsible for reconciling tasks with the mesos master
+ * <p/>
+ * A reconciliation runs on its own scheduled thread, so (re)registration handlers return right away. It tracks
+ * the tasks that have not sent a status update since it started. Every round it explicitly reconciles those tasks,
+ * in chunks of at most {@link #MAX_RECONCILE_CHUNK_SIZE} tasks, and schedules the next round with an exponentially
+ * growing delay. Once all tasks reported or after {@link #MAX_RECONCILE_ATTEMPTS} rounds, it finishes with an
+ * implicit reconciliation so the master also reports the tasks Myriad does not know about.
  */
 public class ReconcileService {
   private static final Logger LOGGER = LoggerFactory.getLogger(ReconcileService.class);
 
   public static final long DEFAULT_RECONCILATION_DELAY_MS = 10000;
+  public static final long MAX_RECONCILATION_DELAY_MS = 300000;
   public static final long MAX_RECONCILE_ATTEMPTS = 10;
+  public static final int MAX_RECONCILE_CHUNK_SIZE = 500;
 
-  private org.apache.myriad.state.SchedulerState state;
-  private MyriadConfiguration cfg;
-  private Date lastReconcileTime;
+  private final SchedulerState state;
+  private final ScheduledExecutorService executor;
+  private final long initialDelayMs;
+  private final int chunkSize;
+  private volatile Reconciliation current;
 
   @Inject
-  public ReconcileService(org.apache.myriad.state.SchedulerState state, MyriadConfiguration cfg) {
+  public ReconcileService(SchedulerState state) {
+    this(state, Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("myriad-reconcile-%d")
+        .setDaemon(true).build()), DEFAULT_RECONCILATION_DELAY_MS, MAX_RECONCILE_CHUNK_SIZE);
+  }
+
+  @VisibleForTesting
+  ReconcileService(SchedulerState state, ScheduledExecutorService executor, long initialDelayMs, int chunkSize) {
     this.state = state;
-    this.cfg = cfg;
+    this.executor = executor;
+    this.initialDelayMs = initialDelayMs;
+    this.chunkSize = chunkSize;
   }
 
-  public void reconcile(SchedulerDriver driver) {
-    Collection<Protos.TaskStatus> taskStatuses = state.getTaskStatuses();
+  /**
+   * Starts reconciling all tasks with a status and returns without waiting for the reconciliation.
+   * A reconciliation that is still running is abandoned.
+   *
+   * @param driver
+   */
+  public synchronized void reconcile(SchedulerDriver driver) {
+    if (current != null) {
+      current.cancel();
+    }
+    ConcurrentHashMap<Protos.TaskID, Protos.TaskStatus> unreported = new ConcurrentHashMap<>(200, 0.75f, 50);
+    for (Protos.TaskStatus status : state.getTaskStatuses()) {
+      unreported.put(status.getTaskId(), status);
+    }
+    LOGGER.info("Reconciling {} tasks.", unreported.size());
+    current = new Reconciliation(driver, unreported);
+    executor.execute(current);
+  }
 
-    if (taskStatuses.size() == 0) {
-      return;
+  /**
+   * Called for every status update, completes the reconciliation as soon as all tasks reported.
+   *
+   * @param taskId
+   */
+  public void taskReported(Protos.TaskID taskId) {
+    Reconciliation reconciliation = current;
+    if (reconciliation != null) {
+      reconciliation.reported(taskId);
     }
-    LOGGER.info("Reconciling {} tasks.", taskStatuses.size());
+  }
 
-    driver.reconcileTasks(taskStatuses);
+  public boolean isReconciling() {
+    return current != null;
+  }
 
-    lastReconcileTime = new Date();
+  private class Reconciliation implements Runnable {
+    private final SchedulerDriver driver;
+    private final ConcurrentHashMap<Protos.TaskID, Protos.TaskStatus> unreported;
+    private int attempt;
+    private boolean done;
+    private ScheduledFuture<?> next;
 
-    int attempt = 1;
+    Reconciliation(SchedulerDriver driver, ConcurrentHashMap<Protos.TaskID, Protos.TaskStatus> unreported) {
+      this.driver = driver;
+      this.unreported = unreported;
+    }
 
-    while (attempt <= MAX_RECONCILE_ATTEMPTS) {
-      try {
-        // TODO(mohit): Using exponential backoff here, maybe backoff strategy should be configurable.
-        Thread.sleep(DEFAULT_RECONCILATION_DELAY_MS * attempt);
-      } catch (InterruptedException e) {
-        LOGGER.error("Interrupted", e);
-      }
-      Collection<Protos.TaskStatus> notYetReconciled = new ArrayList<>();
-      for (Protos.TaskStatus status : state.getTaskStatuses()) {
-        if (status.getTimestamp() < lastReconcileTime.getTime()) {
-          notYetReconciled.add(status);
+    @Override
+    public void run() {
+      synchronized (ReconcileService.this) {
+        if (done) {
+          return;
+        }
+        if (unreported.isEmpty() || attempt >= MAX_RECONCILE_ATTEMPTS) {
+          finish();
+          return;
         }
+        attempt++;
+        LOGGER.info("Reconcile attempt {} for {} tasks", attempt, unreported.size());
+        List<Protos.TaskStatus> chunk = new ArrayList<>(Math.min(chunkSize, unreported.size()));
+        for (Protos.TaskStatus status : unreported.values()) {
+          chunk.add(status);
+          if (chunk.size() == chunkSize) {
+            driver.reconcileTasks(chunk);
+            chunk = new ArrayList<>(chunkSize);
+          }
+        }
+        if (!chunk.isEmpty()) {
+          driver.reconcileTasks(chunk);
+        }
+        long delay = Math.min(initialDelayMs << (attempt - 1), MAX_RECONCILATION_DELAY_MS);
+        next = executor.schedule(this, delay, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    void reported(Protos.TaskID taskId) {
+      if (unreported.remove(taskId) != null && unreported.isEmpty()) {
+        executor.execute(this);
+      }
+    }
+
+    private void finish() {
+      if (unreported.isEmpty()) {
+        LOGGER.info("All tasks reconciled after {} attempts", attempt);
+      } else {
+        LOGGER.warn("{} tasks not reconciled after {} attempts", unreported.size(), attempt);
+      }
+      driver.reconcileTasks(Collections.<Protos.TaskStatus>emptyList());
+      cancel();
+      current = null;
+    }
+
+    private void cancel() {
+      done = true;
+      if (next != null) {
+        next.cancel(false);
       }
-      LOGGER.info("Reconcile attempt {} for {} tasks", attempt, notYetReconciled.size());
-      driver.reconcileTasks(notYetReconciled);
-      lastReconcileTime = new Date();
-      attempt++;
     }
   }
 }
@@ -0,0 +1,242 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Status;
+import org.apache.mesos.Protos.TaskID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * {@link TaskKillQueue} kills Mesos tasks as soon as they are enqueued, without waiting
+ * for the {@link TaskTerminator} to poll {@link org.apache.myriad.state.SchedulerState}.
+ * Requests that arrive within a few milliseconds of each other are coalesced into one
+ * batch, so the driver lock is taken once per batch rather than once per task.
+ * <p/>
+ * Like the {@link TaskTerminator}, a task stays tracked until Mesos confirms the kill with a terminal
+ * status update, see {@link #taskTerminated(TaskID)}. Unconfirmed kills, and kills the driver did not
+ * accept, are retried with an exponential backoff of up to {@link #MAX_RETRY_DELAY_MS}. As in the
+ * {@link TaskTerminator}, a task is also reconciled after {@link TaskTerminator#ESCALATION_ATTEMPTS} attempts,
+ * in case the status update was lost, and its kill is reported as abandoned after
+ * {@link TaskTerminator#MAX_ATTEMPTS} attempts, but still retried.
+ */
+public class TaskKillQueue implements Runnable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskKillQueue.class);
+
+  public static final long DEFAULT_BATCH_WINDOW_MS = 5;
+  public static final long DEFAULT_RETRY_DELAY_MS = 1000;
+  public static final long MAX_RETRY_DELAY_MS = 60000;
+  public static final int MAX_BATCH_SIZE = 256;
+
+  private final BlockingQueue<TaskID> queue;
+  private final MyriadDriverManager driverManager;
+  private final Clock clock;
+  private final Map<TaskID, Kill> unconfirmed;
+  private final Meter kills;
+  private final Meter retries;
+  private final Meter escalations;
+  private final Meter abandoned;
+
+  @Inject
+  public TaskKillQueue(MyriadDriverManager driverManager, MetricRegistry registry, Clock clock) {
+    this.driverManager = driverManager;
+    this.clock = clock;
+    this.queue = new LinkedBlockingQueue<>();
+    this.unconfirmed = new ConcurrentHashMap<>(1024, 0.75f, 50);
+    this.kills = registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "container-kills"));
+    this.retries = registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "container-kills", "retried"));
+    this.escalations = registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "container-kills", "escalated"));
+    this.abandoned = registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "container-kills", "abandoned"));
+  }
+
+  public void enqueue(TaskID taskId) {
+    queue.offer(taskId);
+  }
+
+  /**
+   * Called with the terminal status update of a task, stops retrying its kill.
+   *
+   * @param taskId
+   */
+  public void taskTerminated(TaskID taskId) {
+    unconfirmed.remove(taskId);
+  }
+
+  public int size() {
+    return queue.size();
+  }
+
+  /**
+   * @return number of killed tasks whose termination Mesos did not confirm yet
+   */
+  public int getUnconfirmedCount() {
+    return unconfirmed.size();
+  }
+
+  /**
+   * Blocks until a kill request arrives or an unconfirmed kill is due, waits up to
+   * {@link #DEFAULT_BATCH_WINDOW_MS} for further requests and then kills the whole batch.
+   */
+  @Override
+  public void run() {
+    List<TaskID> batch = new ArrayList<>(MAX_BATCH_SIZE);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        long delay = getNextAttemptDelayMs();
+        TaskID first = delay < 0 ? queue.take() : queue.poll(delay, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEFAULT_BATCH_WINDOW_MS);
+          while (batch.size() < MAX_BATCH_SIZE) {
+            TaskID next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+              break;
+            }
+            batch.add(next);
+          }
+        }
+        try {
+          killBatch(batch);
+        } catch (RuntimeException e) {
+          // The tasks are tracked as unconfirmed already, so their kills are retried
+          LOGGER.error("Failed to kill batch of {} tasks", batch.size(), e);
+        }
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.info("TaskKillQueue interrupted, {} kill requests left unprocessed", queue.size() + batch.size());
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Kills the tasks of the batch along with the unconfirmed kills that are due for a retry.
+   *
+   * @param batch newly enqueued tasks
+   */
+  @VisibleForTesting
+  protected void killBatch(List<TaskID> batch) {
+    long now = clock.currentTimeMillis();
+    for (TaskID taskId : batch) {
+      if (!unconfirmed.containsKey(taskId)) {
+        unconfirmed.put(taskId, new Kill(now));
+      }
+    }
+    List<TaskID> toKill = new ArrayList<>();
+    for (Map.Entry<TaskID, Kill> entry : unconfirmed.entrySet()) {
+      if (entry.getValue().nextAttemptMillis <= now) {
+        toKill.add(entry.getKey());
+      }
+    }
+    if (toKill.isEmpty()) {
+      return;
+    }
+
+    Status driverStatus = driverManager.getDriverStatus();
+    if (Status.DRIVER_RUNNING != driverStatus) {
+      LOGGER.warn("Cannot kill {} tasks because Mesos Driver is not running. Status: {}. Retrying in {} ms", toKill.size(),
+          driverStatus, DEFAULT_RETRY_DELAY_MS);
+      retryAt(toKill, now + DEFAULT_RETRY_DELAY_MS);
+      return;
+    }
+    List<Protos.TaskStatus> reconcileBatch = new ArrayList<>();
+    for (TaskID taskId : toKill) {
+      Kill kill = unconfirmed.get(taskId);
+      if (kill != null) {
+        if (kill.attempts >= TaskTerminator.MAX_ATTEMPTS) {
+          LOGGER.error("Kill of task {} was not confirmed after {} attempts, retrying every {} ms", taskId, kill.attempts,
+              MAX_RETRY_DELAY_MS);
+          abandoned.mark();
+        }
+        kill.attempts++;
+        kill.nextAttemptMillis = now + Math.min(MAX_RETRY_DELAY_MS, DEFAULT_RETRY_DELAY_MS << Math.min(kill.attempts - 1, 16));
+        if (kill.attempts > 1) {
+          LOGGER.warn("Retrying kill of task {}, attempt {}", taskId, kill.attempts);
+          retries.mark();
+        }
+        if (kill.attempts > TaskTerminator.ESCALATION_ATTEMPTS) {
+          // Placeholder tasks have no stored status, Mesos reconciles a task by its id
+          reconcileBatch.add(Protos.TaskStatus.newBuilder().setTaskId(taskId).setState(Protos.TaskState.TASK_RUNNING)
+              .build());
+          escalations.mark();
+        }
+      }
+    }
+    LOGGER.debug("Killing batch of {} tasks", toKill.size());
+    driverStatus = driverManager.kill(toKill);
+    kills.mark(toKill.size());
+    if (Status.DRIVER_RUNNING != driverStatus) {
+      LOGGER.warn("Kill of {} tasks returned driver status {}. Retrying in {} ms", toKill.size(), driverStatus,
+          DEFAULT_RETRY_DELAY_MS);
+      retryAt(toKill, now + DEFAULT_RETRY_DELAY_MS);
+    } else if (!reconcileBatch.isEmpty()) {
+      driverManager.reconcile(reconcileBatch);
+    }
+  }
+
+  private void retryAt(List<TaskID> taskIds, long attemptMillis) {
+    for (TaskID taskId : taskIds) {
+      Kill kill = unconfirmed.get(taskId);
+      if (kill != null) {
+        kill.nextAttemptMillis = attemptMillis;
+      }
+    }
+  }
+
+  /**
+   * @return time until the next kill is due to be retried, 0 if one is overdue or -1 if no kill is unconfirmed
+   */
+  private long getNextAttemptDelayMs() {
+    if (unconfirmed.isEmpty()) {
+      return -1;
+    }
+    long next = Long.MAX_VALUE;
+    for (Kill kill : unconfirmed.values()) {
+      next = Math.min(next, kill.nextAttemptMillis);
+    }
+    return next == Long.MAX_VALUE ? -1 : Math.max(0, next - clock.currentTimeMillis());
+  }
+
+  /**
+   * Attempts to kill a task that Mesos did not confirm yet, only updated by the killing thread
+   */
+  private static class Kill {
+    private volatile int attempts;
+    private volatile long nextAttemptMillis;
+
+    Kill(long nextAttemptMillis) {
+      this.nextAttemptMillis = nextAttemptMillis;
+    }
+  }
+}
@@ -18,103 +18,256 @@
  */
 package org.apache.myriad.scheduler;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
-import org.apache.commons.collections.CollectionUtils;
+import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.Status;
 import org.apache.mesos.Protos.TaskID;
 import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
 import org.apache.myriad.state.NodeTask;
 import org.apache.myriad.state.SchedulerState;
+import org.apache.myriad.state.SchedulerStateListener;
+import org.apache.myriad.state.SchedulerStateSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Sets;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 
 /**
- * {@link TaskTerminator} is basically a reaper process responsible for killing
- * tasks marked as Killable by {@link MyriadOperations} that are stored
- * within a {@link SchedulerState} object
+ * {@link TaskTerminator} kills the tasks marked as Killable by {@link MyriadOperations} that are stored
+ * within a {@link SchedulerState} object.
+ * <p/>
+ * Tasks are queued for termination as soon as the {@link SchedulerState} makes them killable and are
+ * terminated in batches, so the driver lock is taken once per batch like the {@link TaskKillQueue} does.
+ * Tasks that were pending are removed right away, as they were never launched. Other tasks stay killable
+ * until Mesos confirms the kill with a status update. Unconfirmed kills are retried with an exponential
+ * backoff; after {@link #ESCALATION_ATTEMPTS} attempts the task is also reconciled, in case the status
+ * update was lost. After {@link #MAX_ATTEMPTS} attempts the kill is reported as abandoned, but the task
+ * is neither forgotten nor removed, as it may still run, and its kill keeps being retried every
+ * {@link #MAX_RETRY_DELAY_MS}.
+ * <p/>
+ * The time from a task becoming killable until it is removed is recorded as the kill latency.
  */
-public class TaskTerminator implements Runnable {
+public class TaskTerminator implements Runnable, SchedulerStateListener {
   private static final Logger LOGGER = LoggerFactory.getLogger(TaskTerminator.class);
 
+  public static final String PREFIX = "myriad.tasks";
+  public static final long DEFAULT_RETRY_DELAY_MS = 1000;
+  public static final long MAX_RETRY_DELAY_MS = 60000;
+  public static final int ESCALATION_ATTEMPTS = 3;
+  public static final int MAX_ATTEMPTS = 10;
+
   private final SchedulerState schedulerState;
   private final MyriadDriverManager driverManager;
   private final OfferLifecycleManager offerLifeCycleManager;
+  private final Clock clock;
+  private final BlockingQueue<KillRequest> requests = new LinkedBlockingQueue<>();
+  private final ConcurrentHashMap<TaskID, Long> killableSince = new ConcurrentHashMap<>(200, 0.75f, 50);
+  private final Timer killLatency;
+  private final Meter kills;
+  private final Meter retries;
+  private final Meter escalations;
+  private final Meter abandoned;
+
+  // Only accessed by the terminating thread
+  private final Map<TaskID, Kill> unconfirmed = new HashMap<>();
 
   @Inject
   public TaskTerminator(SchedulerState schedulerState, MyriadDriverManager driverManager,
-                        OfferLifecycleManager offerLifecycleManager) {
+                        OfferLifecycleManager offerLifecycleManager, MetricRegistry registry, Clock clock) {
     this.schedulerState = schedulerState;
     this.driverManager = driverManager;
     this.offerLifeCycleManager = offerLifecycleManager;
+    this.clock = clock;
+    this.killLatency = registry.timer(MetricRegistry.name(PREFIX, "kill-latency"));
+    this.kills = registry.meter(MetricRegistry.name(PREFIX, "kills"));
+    this.retries = registry.meter(MetricRegistry.name(PREFIX, "kills", "retried"));
+    this.escalations = registry.meter(MetricRegistry.name(PREFIX, "kills", "escalated"));
+    this.abandoned = registry.meter(MetricRegistry.name(PREFIX, "kills", "abandoned"));
+    schedulerState.addListener(this);
+  }
+
+  @Override
+  public void taskKillable(TaskID taskId, SchedulerState.TaskState previous) {
+    killableSince.putIfAbsent(taskId, clock.currentTimeMillis());
+    requests.offer(new KillRequest(taskId, previous == SchedulerState.TaskState.PENDING));
+  }
+
+  @Override
+  public void taskRemoved(TaskID taskId) {
+    Long since = killableSince.remove(taskId);
+    if (since != null) {
+      killLatency.update(clock.currentTimeMillis() - since, TimeUnit.MILLISECONDS);
+    }
   }
 
   /**
-   * Encapsulates logic that retrieves the collection of killable tasks from the
-   * SchedulerState object. If a task is in pending state, the task is simply 
-   * removed from SchedulerState. Any tasks in a running state were not successfully
-   * killed by Mesos or the callback failed, so the another kill attempt is made.
+   * Terminates the tasks that were killable before the terminator started, for instance when the state
+   * was recovered from the state store, and then terminates tasks as they become killable until interrupted.
    */
   @Override
-  public void run() { 
-    //If there are 1..n killable tasks, proceed; otherwise, simply return
-    if (CollectionUtils.isNotEmpty(schedulerState.getKillableTaskIds())) {
-      /*
-       * Clone the killable task collection, iterate through all tasks, and 
-       * process any pending and/or non-pending tasks
-       */
-      Set<TaskID> killableTasks = Sets.newHashSet(schedulerState.getKillableTaskIds());
-      Status driverStatus = driverManager.getDriverStatus();
+  public void run() {
+    for (TaskID taskId : schedulerState.getKillableTaskIds()) {
+      killableSince.putIfAbsent(taskId, clock.currentTimeMillis());
+      requests.offer(new KillRequest(taskId, false));
+    }
+    List<KillRequest> batch = new ArrayList<>(TaskKillQueue.MAX_BATCH_SIZE);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        long delay = getNextAttemptDelayMs();
+        KillRequest first = delay < 0 ? requests.take() : requests.poll(delay, TimeUnit.MILLISECONDS);
+        if (first != null) {
+          batch.add(first);
+          requests.drainTo(batch, TaskKillQueue.MAX_BATCH_SIZE - 1);
+        }
+        try {
+          terminate(batch);
+        } catch (RuntimeException e) {
+          // Kills that were sent are retried as unconfirmed, the terminator keeps running
+          LOGGER.error("Failed to terminate batch of {} tasks", batch.size(), e);
+        }
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.info("TaskTerminator interrupted, {} kill requests left unprocessed", requests.size());
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Terminates the queued tasks and retries the kills that are due without blocking.
+   */
+  public void terminate() {
+    List<KillRequest> batch = new ArrayList<>();
+    requests.drainTo(batch);
+    terminate(batch);
+  }
+
+  private void terminate(List<KillRequest> batch) {
+    long now = clock.currentTimeMillis();
+    SchedulerStateSnapshot snapshot = schedulerState.getSnapshot();
+    Set<TaskID> killable = snapshot.getTaskIds(SchedulerState.TaskState.KILLABLE);
+    Set<TaskID> toKill = new LinkedHashSet<>();
+    for (KillRequest request : batch) {
+      if (!killable.contains(request.taskId)) {
+        continue;
+      }
+      if (request.pending) {
+        // The task has not been launched, so it is simply removed
+        LOGGER.info("Removing pending task {}", request.taskId);
+        schedulerState.removeTask(request.taskId);
+      } else if (!unconfirmed.containsKey(request.taskId)) {
+        unconfirmed.put(request.taskId, new Kill());
+        toKill.add(request.taskId);
+      }
+    }
+    for (Iterator<Map.Entry<TaskID, Kill>> iterator = unconfirmed.entrySet().iterator(); iterator.hasNext(); ) {
+      Map.Entry<TaskID, Kill> entry = iterator.next();
+      if (!killable.contains(entry.getKey())) {
+        iterator.remove();
+        killableSince.remove(entry.getKey());
+      } else if (entry.getValue().nextAttemptMillis <= now) {
+        toKill.add(entry.getKey());
+      }
+    }
+    if (toKill.isEmpty()) {
+      return;
+    }
 
-      //TODO (hokiegeek2) Can the DriverManager be restarted? If not, should the ResourceManager stop?
-      if (Status.DRIVER_RUNNING != driverStatus) {
-        LOGGER.warn("Cannot kill tasks because Mesos Driver is not running. Status: {}", driverStatus);
-        return;
+    Status driverStatus = driverManager.getDriverStatus();
+    if (Status.DRIVER_RUNNING != driverStatus) {
+      LOGGER.warn("Cannot kill {} tasks because Mesos Driver is not running. Status: {}. Retrying in {} ms", toKill.size(),
+          driverStatus, DEFAULT_RETRY_DELAY_MS);
+      for (TaskID taskId : toKill) {
+        unconfirmed.get(taskId).nextAttemptMillis = now + DEFAULT_RETRY_DELAY_MS;
       }
+      return;
+    }
 
-      for (TaskID taskIdToKill : killableTasks) {
-        LOGGER.info("Received task kill request for task: {}", taskIdToKill);
-        if (isPendingTask(taskIdToKill)) {
-          handlePendingTask(taskIdToKill);
-        } else {
-          handleNonPendingTask(taskIdToKill);
-        }
+    List<TaskID> killBatch = new ArrayList<>(toKill.size());
+    List<Protos.TaskStatus> reconcileBatch = new ArrayList<>();
+    for (TaskID taskId : toKill) {
+      Kill kill = unconfirmed.get(taskId);
+      NodeTask task = snapshot.getTask(taskId);
+      if (kill.attempts >= MAX_ATTEMPTS) {
+        LOGGER.error("Kill of task {} was not confirmed after {} attempts, retrying every {} ms", taskId, kill.attempts,
+            MAX_RETRY_DELAY_MS);
+        abandoned.mark();
+      }
+      kill.attempts++;
+      kill.nextAttemptMillis = now + (kill.attempts >= MAX_ATTEMPTS ? MAX_RETRY_DELAY_MS :
+          Math.min(MAX_RETRY_DELAY_MS, DEFAULT_RETRY_DELAY_MS << (kill.attempts - 1)));
+      if (kill.attempts > 1) {
+        LOGGER.warn("Retrying kill of task {}, attempt {}", taskId, kill.attempts);
+        retries.mark();
       }
+      if (kill.attempts > ESCALATION_ATTEMPTS && task != null && task.getTaskStatus() != null) {
+        reconcileBatch.add(task.getTaskStatus());
+        escalations.mark();
+      }
+      // Decline additional offers for the host of the task, so no task is launched on it while it is killed
+      if (task != null) {
+        offerLifeCycleManager.declineOutstandingOffers(task.getHostname());
+      }
+      killBatch.add(taskId);
+    }
+    if (!killBatch.isEmpty()) {
+      /*
+       * Removal of the killed tasks must be done following invocation of statusUpdate callback method
+       * which constitutes acknowledgement from Mesos that the kill task request succeeded.
+       */
+      LOGGER.info("Killing {} tasks", killBatch.size());
+      driverManager.kill(killBatch);
+      kills.mark(killBatch.size());
+    }
+    if (!reconcileBatch.isEmpty()) {
+      driverManager.reconcile(reconcileBatch);
     }
   }
-  
-  private void handlePendingTask(TaskID taskId) {
-    /*
-     * since task is pending and has not started, simply remove 
-     * it from SchedulerState task collection
-     */
-    schedulerState.removeTask(taskId);
+
+  /**
+   * @return time until the next kill is due to be retried, 0 if one is overdue or -1 if no kill is unconfirmed
+   */
+  private long getNextAttemptDelayMs() {
+    if (unconfirmed.isEmpty()) {
+      return -1;
+    }
+    long next = Long.MAX_VALUE;
+    for (Kill kill : unconfirmed.values()) {
+      next = Math.min(next, kill.nextAttemptMillis);
+    }
+    return Math.max(0, next - clock.currentTimeMillis());
   }
-  
-  private void handleNonPendingTask(TaskID taskId) { 
-    /*
-     * Kill the task and decline additional offers for it, but hold off removing from SchedulerState. 
-     * Removal of the killable task must be done following invocation of statusUpdate callback method
-     * which constitutes acknowledgement from Mesos that the kill task request succeeded.
-     */
-    Status status = this.driverManager.kill(taskId);
-    NodeTask task = schedulerState.getTask(taskId);
-
-    if (task != null) {
-      offerLifeCycleManager.declineOutstandingOffers(task.getHostname());
-    } 
-    if (status.equals(Status.DRIVER_RUNNING)) {
-      LOGGER.info("Kill request for {} was submitted to a running SchedulerDriver", taskId);
-    } else {
-      LOGGER.warn("Kill task request for {} submitted to non-running SchedulerDriver, may fail", taskId);
+
+  private static class KillRequest {
+    private final TaskID taskId;
+    private final boolean pending;
+
+    KillRequest(TaskID taskId, boolean pending) {
+      this.taskId = taskId;
+      this.pending = pending;
     }
   }
 
-  private boolean isPendingTask(TaskID taskId) {
-    return this.schedulerState.getPendingTaskIds().contains(taskId);
+  /**
+   * Attempts to kill a task that Mesos did not confirm yet
+   */
+  private static class Kill {
+    private int attempts;
+    private long nextAttemptMillis;
   }
-}
\ No newline at end of file
+}
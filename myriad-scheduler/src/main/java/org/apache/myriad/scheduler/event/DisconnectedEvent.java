@@ -23,7 +23,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * Event to disconnect from mesos
  */
-public class DisconnectedEvent {
+public class DisconnectedEvent extends TimestampedEvent {
   private SchedulerDriver driver;
 
   public SchedulerDriver getDriver() {
@@ -34,4 +34,8 @@ public class DisconnectedEvent {
     this.driver = driver;
   }
 
+  @Override
+  public void clear() {
+    this.driver = null;
+  }
 }
@@ -23,7 +23,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * Error event in the system
  */
-public class ErrorEvent {
+public class ErrorEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private String message;
 
@@ -43,4 +43,9 @@ public class ErrorEvent {
     this.message = message;
   }
 
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.message = null;
+  }
 }
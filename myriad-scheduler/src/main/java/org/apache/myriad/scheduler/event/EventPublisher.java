@@ -0,0 +1,40 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event;
+
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import com.lmax.disruptor.EventTranslatorVararg;
+
+/**
+ * Publishes events of a single type, regardless of whether the type has a ring buffer of its own
+ * or shares one with other event types.
+ *
+ * @param <T> the event type
+ */
+public interface EventPublisher<T> {
+  <A> void publishEvent(EventTranslatorOneArg<T, A> translator, A arg0);
+
+  <A, B> void publishEvent(EventTranslatorTwoArg<T, A, B> translator, A arg0, B arg1);
+
+  <A, B, C> void publishEvent(EventTranslatorThreeArg<T, A, B, C> translator, A arg0, B arg1, C arg2);
+
+  void publishEvent(EventTranslatorVararg<T> translator, Object... args);
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event;
+
+import com.lmax.disruptor.EventFactory;
+
+/**
+ * The Myriad framework events published for the Mesos scheduler callbacks
+ */
+public enum EventType {
+  REGISTERED("registered", 64, new RegisteredEventFactory()),
+  RE_REGISTERED("reRegistered", 64, new ReRegisteredEventFactory()),
+  RESOURCE_OFFERS("resourceOffers", 1024, new ResourceOffersEventFactory()),
+  OFFER_RESCINDED("offerRescinded", 1024, new OfferRescindedEventFactory()),
+  STATUS_UPDATE("statusUpdate", 1024, new StatusUpdateEventFactory()),
+  FRAMEWORK_MESSAGE("frameworkMessage", 1024, new FrameworkMessageEventFactory()),
+  DISCONNECTED("disconnected", 1024, new DisconnectedEventFactory()),
+  SLAVE_LOST("slaveLost", 1024, new SlaveLostEventFactory()),
+  EXECUTOR_LOST("executorLost", 1024, new ExecutorLostEventFactory()),
+  ERROR("error", 1024, new ErrorEventFactory());
+
+  private final String name;
+  private final int defaultRingSize;
+  private final EventFactory<? extends ClearableEvent> factory;
+
+  EventType(String name, int defaultRingSize, EventFactory<? extends ClearableEvent> factory) {
+    this.name = name;
+    this.defaultRingSize = defaultRingSize;
+    this.factory = factory;
+  }
+
+  /**
+   * @return the name the event type is configured with
+   */
+  public String getName() {
+    return name;
+  }
+
+  public int getDefaultRingSize() {
+    return defaultRingSize;
+  }
+
+  public ClearableEvent newEvent() {
+    return factory.newInstance();
+  }
+
+  public static EventType fromName(String name) {
+    for (EventType type : values()) {
+      if (type.name.equals(name)) {
+        return type;
+      }
+    }
+    throw new IllegalArgumentException("Unknown event type: " + name);
+  }
+}
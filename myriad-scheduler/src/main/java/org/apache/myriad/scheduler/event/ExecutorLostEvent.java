@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * executor lost event
  */
-public class ExecutorLostEvent {
+public class ExecutorLostEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.ExecutorID executorId;
   private Protos.SlaveID slaveId;
@@ -62,4 +62,11 @@ public class ExecutorLostEvent {
     this.exitStatus = exitStatus;
   }
 
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.executorId = null;
+    this.slaveId = null;
+    this.exitStatus = 0;
+  }
 }
@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * framework message event
  */
-public class FrameworkMessageEvent {
+public class FrameworkMessageEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.ExecutorID executorId;
   private Protos.SlaveID slaveId;
@@ -62,4 +62,11 @@ public class FrameworkMessageEvent {
     this.bytes = bytes;
   }
 
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.executorId = null;
+    this.slaveId = null;
+    this.bytes = null;
+  }
 }
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event;
+
+import java.util.EnumMap;
+import java.util.Set;
+
+/**
+ * Slot of a ring buffer shared by several event types. The slot preallocates an event of
+ * each type and carries the type of the event that was published to it.
+ */
+public class MultiplexedEvent implements ClearableEvent {
+  private final EnumMap<EventType, ClearableEvent> events = new EnumMap<>(EventType.class);
+  private EventType type;
+
+  public MultiplexedEvent(Set<EventType> types) {
+    for (EventType eventType : types) {
+      events.put(eventType, eventType.newEvent());
+    }
+  }
+
+  /**
+   * Selects the event type published to this slot.
+   *
+   * @param type
+   * @return the event of the type to translate the published values into
+   */
+  public ClearableEvent select(EventType type) {
+    ClearableEvent event = events.get(type);
+    if (event == null) {
+      throw new IllegalArgumentException("Event type " + type + " is not published to this ring");
+    }
+    this.type = type;
+    return event;
+  }
+
+  public EventType getType() {
+    return type;
+  }
+
+  public ClearableEvent getEvent() {
+    return type != null ? events.get(type) : null;
+  }
+
+  @Override
+  public void clear() {
+    if (type != null) {
+      events.get(type).clear();
+      type = null;
+    }
+  }
+}
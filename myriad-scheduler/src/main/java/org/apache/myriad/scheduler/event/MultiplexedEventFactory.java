@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event;
+
+import com.lmax.disruptor.EventFactory;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * multiplexed event factory
+ */
+public class MultiplexedEventFactory implements EventFactory<MultiplexedEvent> {
+  private final Set<EventType> types;
+
+  public MultiplexedEventFactory(Set<EventType> types) {
+    this.types = EnumSet.copyOf(types);
+  }
+
+  @Override
+  public MultiplexedEvent newInstance() {
+    return new MultiplexedEvent(types);
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event;
+
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorThreeArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import com.lmax.disruptor.EventTranslatorVararg;
+import com.lmax.disruptor.RingBuffer;
+
+/**
+ * Publishes events of one type to a ring buffer shared with other event types. The event is
+ * translated into the slot's preallocated event of the type, so publishing does not allocate.
+ *
+ * @param <T> the event type
+ */
+public class MultiplexedEventPublisher<T extends ClearableEvent> implements EventPublisher<T> {
+  private final RingBuffer<MultiplexedEvent> ringBuffer;
+  private final EventType type;
+  private final Class<T> eventClass;
+
+  public MultiplexedEventPublisher(RingBuffer<MultiplexedEvent> ringBuffer, EventType type, Class<T> eventClass) {
+    this.ringBuffer = ringBuffer;
+    this.type = type;
+    this.eventClass = eventClass;
+  }
+
+  @Override
+  public <A> void publishEvent(EventTranslatorOneArg<T, A> translator, A arg0) {
+    long sequence = ringBuffer.next();
+    try {
+      translator.translateTo(select(sequence), sequence, arg0);
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+  }
+
+  @Override
+  public <A, B> void publishEvent(EventTranslatorTwoArg<T, A, B> translator, A arg0, B arg1) {
+    long sequence = ringBuffer.next();
+    try {
+      translator.translateTo(select(sequence), sequence, arg0, arg1);
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+  }
+
+  @Override
+  public <A, B, C> void publishEvent(EventTranslatorThreeArg<T, A, B, C> translator, A arg0, B arg1, C arg2) {
+    long sequence = ringBuffer.next();
+    try {
+      translator.translateTo(select(sequence), sequence, arg0, arg1, arg2);
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+  }
+
+  @Override
+  public void publishEvent(EventTranslatorVararg<T> translator, Object... args) {
+    long sequence = ringBuffer.next();
+    try {
+      translator.translateTo(select(sequence), sequence, args);
+    } finally {
+      ringBuffer.publish(sequence);
+    }
+  }
+
+  private T select(long sequence) {
+    return eventClass.cast(ringBuffer.get(sequence).select(type));
+  }
+}
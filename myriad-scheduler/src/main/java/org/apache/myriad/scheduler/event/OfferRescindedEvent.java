@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * offer rescinded event
  */
-public class OfferRescindedEvent {
+public class OfferRescindedEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.OfferID offerId;
 
@@ -48,4 +48,10 @@ public class OfferRescindedEvent {
   public String toString() {
     return "OfferRescindedEvent [driver=" + driver + ", offerId=" + offerId + "]";
   }
-}
\ No newline at end of file
+
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.offerId = null;
+  }
+}
@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * Mesos re-register event
  */
-public class ReRegisteredEvent {
+public class ReRegisteredEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.MasterInfo masterInfo;
 
@@ -43,4 +43,10 @@ public class ReRegisteredEvent {
   public void setMasterInfo(Protos.MasterInfo masterInfo) {
     this.masterInfo = masterInfo;
   }
+
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.masterInfo = null;
+  }
 }
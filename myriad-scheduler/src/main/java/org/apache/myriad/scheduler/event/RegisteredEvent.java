@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * mesos register event
  */
-public class RegisteredEvent {
+public class RegisteredEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.FrameworkID frameworkId;
   private Protos.MasterInfo masterInfo;
@@ -53,4 +53,10 @@ public class RegisteredEvent {
     this.masterInfo = masterInfo;
   }
 
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.frameworkId = null;
+    this.masterInfo = null;
+  }
 }
@@ -25,7 +25,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * resource offer event
  */
-public class ResourceOffersEvent {
+public class ResourceOffersEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private List<Protos.Offer> offers;
 
@@ -44,4 +44,10 @@ public class ResourceOffersEvent {
   public void setOffers(List<Protos.Offer> offers) {
     this.offers = offers;
   }
+
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.offers = null;
+  }
 }
@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * mesos slave lost event
  */
-public class SlaveLostEvent {
+public class SlaveLostEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.SlaveID slaveId;
 
@@ -43,4 +43,10 @@ public class SlaveLostEvent {
   public void setSlaveId(Protos.SlaveID slaveId) {
     this.slaveId = slaveId;
   }
+
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.slaveId = null;
+  }
 }
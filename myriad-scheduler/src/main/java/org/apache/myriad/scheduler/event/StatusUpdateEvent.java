@@ -24,7 +24,7 @@ import org.apache.mesos.SchedulerDriver;
 /**
  * mesos status update event
  */
-public class StatusUpdateEvent {
+public class StatusUpdateEvent extends TimestampedEvent {
   private SchedulerDriver driver;
   private Protos.TaskStatus status;
 
@@ -44,4 +44,9 @@ public class StatusUpdateEvent {
     this.status = status;
   }
 
+  @Override
+  public void clear() {
+    this.driver = null;
+    this.status = null;
+  }
 }
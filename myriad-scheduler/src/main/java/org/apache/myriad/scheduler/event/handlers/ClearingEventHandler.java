@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import com.codahale.metrics.Histogram;
+import com.lmax.disruptor.EventHandler;
+import org.apache.myriad.scheduler.event.ClearableEvent;
+
+/**
+ * Runs the wrapped handler and clears the event afterwards on the same thread, so
+ * ring buffer slots do not retain references until they are reused. Without a wrapped
+ * handler it only clears the event, for rings where it runs after all other handlers.
+ * <p/>
+ * As it sees every event of the ring, it optionally records the size of the batches the
+ * consumer is handed, which shows how far the consumer falls behind the publishers.
+ */
+public class ClearingEventHandler<T extends ClearableEvent> implements EventHandler<T> {
+  private final EventHandler<T> handler;
+  private final Histogram batchSizes;
+  private int batchSize;
+
+  public ClearingEventHandler() {
+    this(null, null);
+  }
+
+  public ClearingEventHandler(EventHandler<T> handler) {
+    this(handler, null);
+  }
+
+  public ClearingEventHandler(EventHandler<T> handler, Histogram batchSizes) {
+    this.handler = handler;
+    this.batchSizes = batchSizes;
+  }
+
+  @Override
+  public void onEvent(T event, long sequence, boolean endOfBatch) throws Exception {
+    try {
+      if (handler != null) {
+        handler.onEvent(event, sequence, endOfBatch);
+      }
+    } finally {
+      event.clear();
+      if (batchSizes != null) {
+        batchSize++;
+        if (endOfBatch) {
+          batchSizes.update(batchSize);
+          batchSize = 0;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.lmax.disruptor.EventHandler;
+import java.util.EnumMap;
+import org.apache.myriad.scheduler.event.EventType;
+import org.apache.myriad.scheduler.event.MultiplexedEvent;
+
+/**
+ * Read-only handler of a multiplexed ring that meters the rate of each event type. It runs on
+ * a consumer of its own, in parallel to the handler that mutates the scheduler state.
+ */
+public class EventMetricsHandler implements EventHandler<MultiplexedEvent> {
+  private static final String METRICS_PREFIX = "myriad.events";
+
+  private final EnumMap<EventType, Meter> meters = new EnumMap<>(EventType.class);
+
+  public EventMetricsHandler(MetricRegistry registry) {
+    for (EventType type : EventType.values()) {
+      meters.put(type, registry.meter(MetricRegistry.name(METRICS_PREFIX, type.getName())));
+    }
+  }
+
+  @Override
+  public void onEvent(MultiplexedEvent event, long sequence, boolean endOfBatch) throws Exception {
+    if (event.getType() != null) {
+      meters.get(event.getType()).mark();
+    }
+  }
+}
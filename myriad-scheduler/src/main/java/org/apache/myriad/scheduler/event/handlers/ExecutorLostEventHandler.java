@@ -19,24 +19,34 @@
 package org.apache.myriad.scheduler.event.handlers;
 
 import com.lmax.disruptor.EventHandler;
+import javax.inject.Inject;
 import org.apache.mesos.Protos.ExecutorID;
 import org.apache.mesos.Protos.SlaveID;
+import org.apache.myriad.scheduler.LostSlaveManager;
 import org.apache.myriad.scheduler.event.ExecutorLostEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * handles and logs executor lost events
+ * handles executor lost events by moving the tasks of the executor back to pending
  */
 public class ExecutorLostEventHandler implements EventHandler<ExecutorLostEvent> {
   private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorLostEventHandler.class);
 
+  private final LostSlaveManager lostSlaveManager;
+
+  @Inject
+  public ExecutorLostEventHandler(LostSlaveManager lostSlaveManager) {
+    this.lostSlaveManager = lostSlaveManager;
+  }
+
   @Override
   public void onEvent(ExecutorLostEvent event, long sequence, boolean endOfBatch) throws Exception {
     ExecutorID executorId = event.getExecutorId();
     SlaveID slaveId = event.getSlaveId();
     int exitStatus = event.getExitStatus();
     LOGGER.info("Executor {} of slave {} lost with exit status: {}", executorId, slaveId, exitStatus);
+    lostSlaveManager.executorLost(executorId, slaveId);
   }
 
 }
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import com.lmax.disruptor.EventHandler;
+import java.util.EnumMap;
+import org.apache.myriad.scheduler.event.ClearableEvent;
+import org.apache.myriad.scheduler.event.EventType;
+import org.apache.myriad.scheduler.event.MultiplexedEvent;
+
+/**
+ * Dispatches the events of a ring buffer shared by several event types to the handler of each type.
+ */
+public class MultiplexedEventHandler implements EventHandler<MultiplexedEvent> {
+  private final EnumMap<EventType, EventHandler<ClearableEvent>> handlers = new EnumMap<>(EventType.class);
+
+  /**
+   * Registers the handler of an event type, must be called before the ring buffer is started.
+   *
+   * @param type
+   * @param handler
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends ClearableEvent> void register(EventType type, EventHandler<T> handler) {
+    handlers.put(type, (EventHandler<ClearableEvent>) handler);
+  }
+
+  @Override
+  public void onEvent(MultiplexedEvent event, long sequence, boolean endOfBatch) throws Exception {
+    EventHandler<ClearableEvent> handler = handlers.get(event.getType());
+    if (handler != null) {
+      handler.onEvent(event.getEvent(), sequence, endOfBatch);
+    }
+  }
+}
@@ -19,18 +19,33 @@
 package org.apache.myriad.scheduler.event.handlers;
 
 import com.lmax.disruptor.EventHandler;
+import javax.inject.Inject;
 import org.apache.myriad.scheduler.event.OfferRescindedEvent;
+import org.apache.myriad.scheduler.fgs.OfferHoldPolicy;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * handles and logs offer rescinded events
+ * handles and logs offer rescinded events, dropping the offer and releasing
+ * fine-grained scaling offer holds
  */
 public class OfferRescindedEventHandler implements EventHandler<OfferRescindedEvent> {
   private static final Logger LOGGER = LoggerFactory.getLogger(OfferRescindedEventHandler.class);
 
+  private final OfferLifecycleManager offerLifecycleManager;
+  private final OfferHoldPolicy offerHoldPolicy;
+
+  @Inject
+  public OfferRescindedEventHandler(OfferLifecycleManager offerLifecycleManager, OfferHoldPolicy offerHoldPolicy) {
+    this.offerLifecycleManager = offerLifecycleManager;
+    this.offerHoldPolicy = offerHoldPolicy;
+  }
+
   @Override
   public void onEvent(OfferRescindedEvent event, long sequence, boolean endOfBatch) throws Exception {
     LOGGER.info("OfferRescindedEvent for offer id: {} for scheuler {}", event.getOfferId().toString(), event.getDriver().getClass().getName());
+    offerLifecycleManager.removeOffer(event.getOfferId());
+    offerHoldPolicy.offerRescinded();
   }
 }
\ No newline at end of file
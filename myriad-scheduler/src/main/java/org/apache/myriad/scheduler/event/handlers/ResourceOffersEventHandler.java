@@ -142,25 +142,32 @@ public class ResourceOffersEventHandler implements EventHandler<ResourceOffersEv
             ResourceOfferContainer resourceOfferContainer = new ResourceOfferContainer(offer, taskToLaunch.getProfile(), role);
             if (SchedulerUtils.isUniqueHostname(offer, taskToLaunch, launchedTasks)
                 && resourceOfferContainer.satisfies(taskToLaunch.getProfile(), constraint)) {
+              boolean staged = false;
               try {
                 final TaskInfo task = taskFactoryMap.get(taskPrefix).createTask(resourceOfferContainer,
                     schedulerState.getFrameworkID().get(), pendingTaskId, taskToLaunch);
                 LOGGER.info("Launching task: {} using offer: {}", task.getTaskId().getValue(), offer.getId());
                 LOGGER.debug("Launching task: {} with profile: {} using offer: {}", task, profile, offer);
-                driver.launchTasks(Collections.singleton(offer.getId()), Collections.singleton(task));
-                schedulerState.makeTaskStaging(pendingTaskId);
                 // For every NM Task that we launch, we currently
                 // need to backup the ExecutorInfo for that NM Task in the State Store.
                 // Without this, we will not be able to launch tasks corresponding to yarn
                 // containers. This is specially important in case the RM restarts.
+                // The new slave is recorded before the launch, a relaunched task still carries the
+                // slave it was lost on and status updates from the new slave would be ignored otherwise.
                 taskToLaunch.setExecutorInfo(task.getExecutor());
                 taskToLaunch.setHostname(offer.getHostname());
                 taskToLaunch.setSlaveId(offer.getSlaveId());
                 schedulerState.addTask(pendingTaskId, taskToLaunch);
+                schedulerState.makeTaskStaging(pendingTaskId);
+                staged = true;
+                driver.launchTasks(Collections.singleton(offer.getId()), Collections.singleton(task));
                 iterator.remove(); // remove the used offer from offers list
                 break;
               } catch (Throwable t) {
                 LOGGER.error("Exception thrown while trying to create a task for {}", taskPrefix, t);
+                if (staged) {
+                  schedulerState.makeTaskPending(pendingTaskId);
+                }
               }
             }
           }
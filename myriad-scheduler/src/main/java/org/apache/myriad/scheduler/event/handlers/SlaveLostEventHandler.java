@@ -19,22 +19,31 @@
 package org.apache.myriad.scheduler.event.handlers;
 
 import com.lmax.disruptor.EventHandler;
+import javax.inject.Inject;
 import org.apache.mesos.Protos.SlaveID;
+import org.apache.myriad.scheduler.LostSlaveManager;
 import org.apache.myriad.scheduler.event.SlaveLostEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * handles and logs mesos slave lost events
+ * handles mesos slave lost events by moving the tasks of the slave back to pending
  */
 public class SlaveLostEventHandler implements EventHandler<SlaveLostEvent> {
   private static final Logger LOGGER = LoggerFactory.getLogger(SlaveLostEventHandler.class);
 
-  //TODO (hokiegeek2) Research how else Myriad should respond to this event
+  private final LostSlaveManager lostSlaveManager;
+
+  @Inject
+  public SlaveLostEventHandler(LostSlaveManager lostSlaveManager) {
+    this.lostSlaveManager = lostSlaveManager;
+  }
+
   @Override
   public void onEvent(SlaveLostEvent event, long sequence, boolean endOfBatch) throws Exception {
     SlaveID slaveId = event.getSlaveId();
     LOGGER.info("Slave {} lost!", slaveId);
+    lostSlaveManager.slaveLost(slaveId);
   }
 
 }
@@ -23,7 +23,11 @@ import javax.inject.Inject;
 import org.apache.mesos.Protos.TaskID;
 import org.apache.mesos.Protos.TaskState;
 import org.apache.mesos.Protos.TaskStatus;
+import org.apache.myriad.scheduler.LostSlaveManager;
+import org.apache.myriad.scheduler.ReconcileService;
+import org.apache.myriad.scheduler.TaskKillQueue;
 import org.apache.myriad.scheduler.event.StatusUpdateEvent;
+import org.apache.myriad.scheduler.fgs.ContainerTaskStore;
 import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
 import org.apache.myriad.state.NodeTask;
 import org.apache.myriad.state.SchedulerState;
@@ -40,11 +44,21 @@ public class StatusUpdateEventHandler implements EventHandler<StatusUpdateEvent>
 
   private final SchedulerState schedulerState;
   private final OfferLifecycleManager offerLifecycleManager;
+  private final ContainerTaskStore containerTaskStore;
+  private final TaskKillQueue taskKillQueue;
+  private final ReconcileService reconcileService;
+  private final LostSlaveManager lostSlaveManager;
 
   @Inject
-  public StatusUpdateEventHandler(SchedulerState schedulerState, OfferLifecycleManager offerLifecycleManager) {
+  public StatusUpdateEventHandler(SchedulerState schedulerState, OfferLifecycleManager offerLifecycleManager,
+                                  ContainerTaskStore containerTaskStore, TaskKillQueue taskKillQueue,
+                                  ReconcileService reconcileService, LostSlaveManager lostSlaveManager) {
     this.schedulerState = schedulerState;
     this.offerLifecycleManager = offerLifecycleManager;
+    this.containerTaskStore = containerTaskStore;
+    this.taskKillQueue = taskKillQueue;
+    this.reconcileService = reconcileService;
+    this.lostSlaveManager = lostSlaveManager;
   }
   
   /**
@@ -60,12 +74,27 @@ public class StatusUpdateEventHandler implements EventHandler<StatusUpdateEvent>
    * 6. TASK_KILLED: decline outstanding offers, removed killed tasks from SchedulerState
    * 7. TASK_LOST: decline outstanding offers, remove killable, lost tasks from SchedulerState,
    *    mark as pending non-killable, lost tasks
+   *
+   * Status updates for YARN container placeholder tasks are handled entirely in memory
+   * by the ContainerTaskStore and the TaskKillQueue and never touch SchedulerState. Status updates sent from another
+   * slave than the one a task was last launched on are ignored, they are late updates of a
+   * lost slave for a task that was already relaunched.
    */
   @Override
   public void onEvent(StatusUpdateEvent event, long sequence, boolean endOfBatch) throws Exception {
     TaskStatus status = event.getStatus();
-    this.schedulerState.updateTask(status);
+    if (ContainerTaskStore.isContainerTask(status.getTaskId())) {
+      handleContainerTaskStatus(status);
+      return;
+    }
     TaskID taskId = status.getTaskId();
+    if (isFromPreviousSlave(status, schedulerState.getTask(taskId))) {
+      LOGGER.info("Ignoring status update for task: {} | state: {} from previous slave {}", taskId.getValue(),
+          status.getState(), status.getSlaveId().getValue());
+      return;
+    }
+    this.schedulerState.updateTask(status);
+    reconcileService.taskReported(taskId);
     NodeTask task = schedulerState.getTask(taskId);
     if (task == null) {
       LOGGER.warn("Task: {} not found, status: {}", taskId.getValue(), status.getState());
@@ -84,6 +113,7 @@ public class StatusUpdateEventHandler implements EventHandler<StatusUpdateEvent>
         break;
       case TASK_RUNNING:
         schedulerState.makeTaskActive(taskId);
+        lostSlaveManager.taskRunning(taskId);
         break;
       case TASK_FINISHED:
         cleanupTask(taskId, task, "finished");
@@ -103,6 +133,28 @@ public class StatusUpdateEventHandler implements EventHandler<StatusUpdateEvent>
     }
   }
 
+  private static boolean isFromPreviousSlave(TaskStatus status, NodeTask task) {
+    return task != null && task.getSlaveId() != null && status.hasSlaveId() && !status.getSlaveId().equals(
+        task.getSlaveId());
+  }
+
+  private void handleContainerTaskStatus(TaskStatus status) {
+    TaskID taskId = status.getTaskId();
+    LOGGER.debug("Status Update for container task: {} | state: {}", taskId.getValue(), status.getState());
+    switch (status.getState()) {
+      case TASK_FINISHED:
+      case TASK_FAILED:
+      case TASK_KILLED:
+      case TASK_LOST:
+      case TASK_ERROR:
+        containerTaskStore.remove(taskId);
+        taskKillQueue.taskTerminated(taskId);
+        break;
+      default:
+        break;
+    }
+  }
+
   private void cleanupFailedTask(TaskID taskId, NodeTask task, String stopReason) {
     offerLifecycleManager.declineOutstandingOffers(task.getHostname());
     /*
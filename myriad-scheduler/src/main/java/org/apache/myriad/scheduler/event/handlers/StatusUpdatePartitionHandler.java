@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import com.lmax.disruptor.EventHandler;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.scheduler.event.StatusUpdateEvent;
+import org.apache.myriad.state.SchedulerState;
+
+/**
+ * Consumer of one partition of the status update ring. Every partition consumer sees all status updates and
+ * handles those of the task ids hashed to its partition, so the updates of a task are handled in order by a
+ * single thread while updates of different tasks are handled in parallel.
+ * <p/>
+ * The mutations of a batch of handled status updates are persisted to the state store once, at the end
+ * of the batch.
+ */
+public class StatusUpdatePartitionHandler implements EventHandler<StatusUpdateEvent> {
+  private final EventHandler<StatusUpdateEvent> handler;
+  private final SchedulerState schedulerState;
+  private final int partition;
+  private final int partitions;
+  private boolean inBatch;
+
+  public StatusUpdatePartitionHandler(EventHandler<StatusUpdateEvent> handler, SchedulerState schedulerState, int partition,
+                                      int partitions) {
+    this.handler = handler;
+    this.schedulerState = schedulerState;
+    this.partition = partition;
+    this.partitions = partitions;
+  }
+
+  @Override
+  public void onEvent(StatusUpdateEvent event, long sequence, boolean endOfBatch) throws Exception {
+    try {
+      if (partitions == 1 || partition(event.getStatus().getTaskId(), partitions) == partition) {
+        if (!inBatch) {
+          schedulerState.beginBatch();
+          inBatch = true;
+        }
+        handler.onEvent(event, sequence, endOfBatch);
+      }
+    } finally {
+      if (endOfBatch && inBatch) {
+        inBatch = false;
+        schedulerState.endBatch();
+      }
+    }
+  }
+
+  public static int partition(TaskID taskId, int partitions) {
+    return (taskId.getValue().hashCode() & Integer.MAX_VALUE) % partitions;
+  }
+}
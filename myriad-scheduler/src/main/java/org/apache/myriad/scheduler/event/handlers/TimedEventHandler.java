@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Timer;
+import com.lmax.disruptor.EventHandler;
+import java.util.concurrent.TimeUnit;
+import org.apache.myriad.scheduler.event.EventType;
+import org.apache.myriad.scheduler.event.TimestampedEvent;
+
+/**
+ * Runs the wrapped handler and times the events of one type: the time an event waited in the
+ * ring buffer from being published until the handler picked it up, and the time the handler
+ * took to handle it.
+ * <p/>
+ * The timers keep the last {@link #WINDOW_SIZE} samples rather than a decaying sample of about a
+ * thousand, so the 99.9th percentile reflects the recent tail of the distribution.
+ */
+public class TimedEventHandler<T extends TimestampedEvent> implements EventHandler<T> {
+  public static final String METRICS_PREFIX = "myriad.events";
+  public static final int WINDOW_SIZE = 10000;
+
+  private final EventHandler<T> handler;
+  private final Timer queueWait;
+  private final Timer serviceTime;
+
+  public TimedEventHandler(EventType type, EventHandler<T> handler, MetricRegistry registry) {
+    this.handler = handler;
+    this.queueWait = timer(registry, MetricRegistry.name(METRICS_PREFIX, type.getName(), "queue-wait"));
+    this.serviceTime = timer(registry, MetricRegistry.name(METRICS_PREFIX, type.getName(), "service-time"));
+  }
+
+  @Override
+  public void onEvent(T event, long sequence, boolean endOfBatch) throws Exception {
+    long start = System.nanoTime();
+    if (event.getPublishedNanos() != 0) {
+      queueWait.update(start - event.getPublishedNanos(), TimeUnit.NANOSECONDS);
+    }
+    try {
+      handler.onEvent(event, sequence, endOfBatch);
+    } finally {
+      serviceTime.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Gets or registers a timer backed by a sliding window of the last {@link #WINDOW_SIZE} samples.
+   */
+  public static Timer timer(MetricRegistry registry, String name) {
+    Metric metric = registry.getMetrics().get(name);
+    if (metric instanceof Timer) {
+      return (Timer) metric;
+    }
+    return registry.register(name, new Timer(new SlidingWindowReservoir(WINDOW_SIZE)));
+  }
+
+  /**
+   * Gets or registers a histogram backed by a sliding window of the last {@link #WINDOW_SIZE} samples.
+   */
+  public static Histogram histogram(MetricRegistry registry, String name) {
+    Metric metric = registry.getMetrics().get(name);
+    if (metric instanceof Histogram) {
+      return (Histogram) metric;
+    }
+    return registry.register(name, new Histogram(new SlidingWindowReservoir(WINDOW_SIZE)));
+  }
+}
@@ -0,0 +1,286 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.journal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.apache.mesos.Protos;
+import org.apache.myriad.configuration.EventJournalConfiguration;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.Clock;
+import org.apache.myriad.scheduler.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.MessageLite;
+
+/**
+ * Append-only journal of the Mesos scheduler callbacks, written to memory-mapped segment files.
+ * <p/>
+ * A segment starts with {@link #MAGIC} followed by records of the form
+ * <pre>
+ *   int length | byte event type | long timestamp | fields
+ * </pre>
+ * where length covers the bytes after it. Protobuf messages, byte arrays and strings are written as an int
+ * length, -1 for null, followed by their bytes. The zero filled remainder of a segment reads as a zero length,
+ * which ends the segment. Segments are named so that they sort in the order they were written, and
+ * the oldest segments beyond the configured max segments are deleted once a new segment is opened.
+ * Use {@link EventJournalReader} to replay a journal.
+ */
+public class EventJournal implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventJournal.class);
+
+  public static final int MAGIC = 0x4d594a31;
+  static final String SEGMENT_PREFIX = "events-";
+  static final String SEGMENT_SUFFIX = ".journal";
+  static final int HEADER_SIZE = 4 + 1 + 8;
+
+  private final boolean enabled;
+  private final File directory;
+  private final int segmentSize;
+  private final int maxSegments;
+  private final Clock clock;
+  private ByteBuffer record = ByteBuffer.allocate(4096);
+  private long segmentIndex;
+  private MappedByteBuffer segment;
+
+  @Inject
+  public EventJournal(MyriadConfiguration cfg, Clock clock) {
+    this(cfg.getEventBusConfiguration().getJournalConfiguration(), clock);
+  }
+
+  private EventJournal(EventJournalConfiguration conf, Clock clock) {
+    this(conf.isEnabled(), new File(conf.getDirectory()), conf.getSegmentSizeMB() * 1024 * 1024, conf.getMaxSegments(),
+        clock);
+  }
+
+  @VisibleForTesting
+  EventJournal(boolean enabled, File directory, int segmentSize, int maxSegments, Clock clock) {
+    this.enabled = enabled;
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+    this.clock = clock;
+    if (enabled) {
+      LOGGER.info("Recording Mesos callbacks to journal in {}", directory.getAbsolutePath());
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public synchronized void registered(Protos.FrameworkID frameworkId, Protos.MasterInfo masterInfo) {
+    begin(EventType.REGISTERED);
+    putMessage(frameworkId);
+    putMessage(masterInfo);
+    append();
+  }
+
+  public synchronized void reregistered(Protos.MasterInfo masterInfo) {
+    begin(EventType.RE_REGISTERED);
+    putMessage(masterInfo);
+    append();
+  }
+
+  public synchronized void resourceOffers(List<Protos.Offer> offers) {
+    begin(EventType.RESOURCE_OFFERS);
+    ensureCapacity(4);
+    record.putInt(offers.size());
+    for (Protos.Offer offer : offers) {
+      putMessage(offer);
+    }
+    append();
+  }
+
+  public synchronized void offerRescinded(Protos.OfferID offerId) {
+    begin(EventType.OFFER_RESCINDED);
+    putMessage(offerId);
+    append();
+  }
+
+  public synchronized void statusUpdate(Protos.TaskStatus status) {
+    begin(EventType.STATUS_UPDATE);
+    putMessage(status);
+    append();
+  }
+
+  public synchronized void frameworkMessage(Protos.ExecutorID executorId, Protos.SlaveID slaveId, byte[] bytes) {
+    begin(EventType.FRAMEWORK_MESSAGE);
+    putMessage(executorId);
+    putMessage(slaveId);
+    putBytes(bytes);
+    append();
+  }
+
+  public synchronized void disconnected() {
+    begin(EventType.DISCONNECTED);
+    append();
+  }
+
+  public synchronized void slaveLost(Protos.SlaveID slaveId) {
+    begin(EventType.SLAVE_LOST);
+    putMessage(slaveId);
+    append();
+  }
+
+  public synchronized void executorLost(Protos.ExecutorID executorId, Protos.SlaveID slaveId, int exitStatus) {
+    begin(EventType.EXECUTOR_LOST);
+    putMessage(executorId);
+    putMessage(slaveId);
+    ensureCapacity(4);
+    record.putInt(exitStatus);
+    append();
+  }
+
+  public synchronized void error(String message) {
+    begin(EventType.ERROR);
+    putBytes(message == null ? null : message.getBytes(StandardCharsets.UTF_8));
+    append();
+  }
+
+  /**
+   * Flushes the current segment to disk.
+   */
+  @Override
+  public synchronized void close() {
+    if (segment != null) {
+      segment.force();
+      segment = null;
+    }
+  }
+
+  private void begin(EventType type) {
+    record.clear();
+    record.position(4);
+    record.put((byte) type.ordinal());
+    record.putLong(clock.currentTimeMillis());
+  }
+
+  private void putMessage(MessageLite message) {
+    if (message == null) {
+      ensureCapacity(4);
+      record.putInt(-1);
+      return;
+    }
+    int size = message.getSerializedSize();
+    ensureCapacity(4 + size);
+    record.putInt(size);
+    try {
+      CodedOutputStream output = CodedOutputStream.newInstance(record.array(), record.position(), size);
+      message.writeTo(output);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not serialize " + message.getClass().getSimpleName(), e);
+    }
+    record.position(record.position() + size);
+  }
+
+  private void putBytes(byte[] bytes) {
+    if (bytes == null) {
+      ensureCapacity(4);
+      record.putInt(-1);
+      return;
+    }
+    ensureCapacity(4 + bytes.length);
+    record.putInt(bytes.length);
+    record.put(bytes);
+  }
+
+  private void ensureCapacity(int bytes) {
+    if (record.remaining() < bytes) {
+      ByteBuffer larger = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+      record.flip();
+      larger.put(record);
+      record = larger;
+    }
+  }
+
+  private void append() {
+    int length = record.position();
+    record.putInt(0, length - 4);
+    // Keep room for the zero length that ends the segment
+    if (length + 4 > segmentSize - 4) {
+      LOGGER.error("Dropping journal record of {} bytes, it is larger than the segment size of {} bytes", length, segmentSize);
+      return;
+    }
+    try {
+      if (segment == null || segment.remaining() < length + 4) {
+        nextSegment();
+      }
+      record.flip();
+      segment.put(record);
+    } catch (IOException e) {
+      LOGGER.error("Failed to append to the event journal", e);
+    }
+  }
+
+  private void nextSegment() throws IOException {
+    close();
+    if (segmentIndex == 0) {
+      segmentIndex = lastSegmentIndex() + 1;
+    } else {
+      segmentIndex++;
+    }
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create journal directory " + directory);
+    }
+    File file = new File(directory, String.format("%s%019d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+    segment.putInt(MAGIC);
+    LOGGER.info("Opened journal segment {}", file);
+    deleteOldestSegments();
+  }
+
+  private void deleteOldestSegments() {
+    if (maxSegments <= 0) {
+      return;
+    }
+    List<File> segments = EventJournalReader.listSegments(directory);
+    for (File file : segments.subList(0, Math.max(segments.size() - maxSegments, 0))) {
+      if (file.delete()) {
+        LOGGER.info("Deleted journal segment {}", file);
+      } else {
+        LOGGER.warn("Could not delete journal segment {}", file);
+      }
+    }
+  }
+
+  private long lastSegmentIndex() {
+    long last = 0;
+    for (File file : EventJournalReader.listSegments(directory)) {
+      String name = file.getName();
+      last = Math.max(last, Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+    }
+    return last;
+  }
+}
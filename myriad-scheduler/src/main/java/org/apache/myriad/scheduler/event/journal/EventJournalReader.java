@@ -0,0 +1,183 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.journal;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Scheduler;
+import org.apache.mesos.SchedulerDriver;
+import org.apache.myriad.scheduler.event.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+/**
+ * Replays a journal written by {@link EventJournal} into a Mesos {@link Scheduler}, calling the scheduler
+ * callbacks in the order they were recorded and as fast as the scheduler accepts them.
+ */
+public class EventJournalReader {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventJournalReader.class);
+
+  private final File directory;
+
+  public EventJournalReader(File directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Replays all segments of the journal.
+   *
+   * @param scheduler the scheduler the callbacks are replayed to
+   * @param driver    the driver passed to the callbacks
+   * @return the number of replayed events
+   * @throws IOException if a segment cannot be read or is corrupt
+   */
+  public long replay(Scheduler scheduler, SchedulerDriver driver) throws IOException {
+    long events = 0;
+    for (File file : listSegments(directory)) {
+      events += replay(file, scheduler, driver);
+    }
+    return events;
+  }
+
+  private long replay(File file, Scheduler scheduler, SchedulerDriver driver) throws IOException {
+    MappedByteBuffer segment;
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+      segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (segment.remaining() < 4 || segment.getInt() != EventJournal.MAGIC) {
+      throw new IOException(file + " is not a journal segment");
+    }
+    long events = 0;
+    while (segment.remaining() >= 4) {
+      int length = segment.getInt();
+      if (length == 0) {
+        break;
+      }
+      int end = segment.position() + length;
+      EventType type = EventType.values()[segment.get()];
+      segment.getLong();
+      dispatch(type, segment, scheduler, driver);
+      if (segment.position() != end) {
+        throw new IOException("Corrupt " + type + " record in " + file + " at " + (end - length));
+      }
+      events++;
+    }
+    LOGGER.info("Replayed {} events from {}", events, file);
+    return events;
+  }
+
+  private void dispatch(EventType type, MappedByteBuffer segment, Scheduler scheduler, SchedulerDriver driver)
+      throws InvalidProtocolBufferException {
+    switch (type) {
+      case REGISTERED:
+        scheduler.registered(driver, parseFrameworkId(segment), parseMasterInfo(segment));
+        break;
+      case RE_REGISTERED:
+        scheduler.reregistered(driver, parseMasterInfo(segment));
+        break;
+      case RESOURCE_OFFERS:
+        int count = segment.getInt();
+        List<Protos.Offer> offers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          byte[] offer = getBytes(segment);
+          offers.add(Protos.Offer.parseFrom(offer));
+        }
+        scheduler.resourceOffers(driver, offers);
+        break;
+      case OFFER_RESCINDED:
+        scheduler.offerRescinded(driver, Protos.OfferID.parseFrom(getBytes(segment)));
+        break;
+      case STATUS_UPDATE:
+        scheduler.statusUpdate(driver, Protos.TaskStatus.parseFrom(getBytes(segment)));
+        break;
+      case FRAMEWORK_MESSAGE:
+        scheduler.frameworkMessage(driver, parseExecutorId(segment), parseSlaveId(segment), getBytes(segment));
+        break;
+      case DISCONNECTED:
+        scheduler.disconnected(driver);
+        break;
+      case SLAVE_LOST:
+        scheduler.slaveLost(driver, parseSlaveId(segment));
+        break;
+      case EXECUTOR_LOST:
+        scheduler.executorLost(driver, parseExecutorId(segment), parseSlaveId(segment), segment.getInt());
+        break;
+      case ERROR:
+        byte[] message = getBytes(segment);
+        scheduler.error(driver, message == null ? null : new String(message, StandardCharsets.UTF_8));
+        break;
+    }
+  }
+
+  private static Protos.FrameworkID parseFrameworkId(MappedByteBuffer segment) throws InvalidProtocolBufferException {
+    byte[] bytes = getBytes(segment);
+    return bytes == null ? null : Protos.FrameworkID.parseFrom(bytes);
+  }
+
+  private static Protos.MasterInfo parseMasterInfo(MappedByteBuffer segment) throws InvalidProtocolBufferException {
+    byte[] bytes = getBytes(segment);
+    return bytes == null ? null : Protos.MasterInfo.parseFrom(bytes);
+  }
+
+  private static Protos.ExecutorID parseExecutorId(MappedByteBuffer segment) throws InvalidProtocolBufferException {
+    byte[] bytes = getBytes(segment);
+    return bytes == null ? null : Protos.ExecutorID.parseFrom(bytes);
+  }
+
+  private static Protos.SlaveID parseSlaveId(MappedByteBuffer segment) throws InvalidProtocolBufferException {
+    byte[] bytes = getBytes(segment);
+    return bytes == null ? null : Protos.SlaveID.parseFrom(bytes);
+  }
+
+  private static byte[] getBytes(MappedByteBuffer segment) {
+    int length = segment.getInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    segment.get(bytes);
+    return bytes;
+  }
+
+  static List<File> listSegments(File directory) {
+    File[] files = directory.listFiles(new FilenameFilter() {
+      @Override
+      public boolean accept(File dir, String name) {
+        return name.startsWith(EventJournal.SEGMENT_PREFIX) && name.endsWith(EventJournal.SEGMENT_SUFFIX);
+      }
+    });
+    if (files == null) {
+      return new ArrayList<>();
+    }
+    Arrays.sort(files);
+    return Arrays.asList(files);
+  }
+}
@@ -20,22 +20,35 @@ package org.apache.myriad.scheduler.fgs;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 import org.apache.mesos.Protos;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Represents offers from a slave that have been consumed by Myriad.
+ * <p/>
+ * Instances are immutable so they can be swapped atomically by {@link OfferLifecycleManager}.
  */
 public class ConsumedOffer {
-  private List<Protos.Offer> offers;
+  private final ImmutableList<Protos.Offer> offers;
 
   public ConsumedOffer() {
-    this.offers = new LinkedList<>();
+    this(ImmutableList.<Protos.Offer>of());
+  }
+
+  private ConsumedOffer(ImmutableList<Protos.Offer> offers) {
+    this.offers = offers;
   }
 
-  public void add(Protos.Offer offer) {
-    offers.add(offer);
+  /**
+   * Returns a new ConsumedOffer holding the offers of this one plus the given offer.
+   *
+   * @param offer
+   * @return consumed offer
+   */
+  public ConsumedOffer with(Protos.Offer offer) {
+    return new ConsumedOffer(ImmutableList.<Protos.Offer>builder().addAll(offers).add(offer).build());
   }
 
   public List<Protos.Offer> getOffers() {
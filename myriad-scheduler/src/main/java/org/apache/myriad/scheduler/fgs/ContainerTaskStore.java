@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.fgs;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.mesos.Protos;
+import org.apache.myriad.executor.ContainerTaskStatusRequest;
+
+/**
+ * An in-memory store of the Mesos placeholder tasks launched for YARN containers.
+ * <p/>
+ * Placeholder tasks only live as long as the corresponding YARN container and are
+ * re-derived from the RM's own state after a restart, so unlike the tasks tracked by
+ * {@link org.apache.myriad.state.SchedulerState} they are never written to the state store.
+ */
+public class ContainerTaskStore {
+  private final ConcurrentHashMap<Protos.TaskID, String> taskHosts;
+
+  public ContainerTaskStore() {
+    this.taskHosts = new ConcurrentHashMap<>(1024, 0.75f, 50);
+  }
+
+  /**
+   * Determines if the task id belongs to a placeholder task launched for a YARN container.
+   *
+   * @param taskId
+   * @return true if the task is a YARN container placeholder task
+   */
+  public static boolean isContainerTask(Protos.TaskID taskId) {
+    return taskId.getValue().startsWith(ContainerTaskStatusRequest.YARN_CONTAINER_TASK_ID_PREFIX);
+  }
+
+  public void add(Protos.TaskID taskId, String hostname) {
+    taskHosts.put(taskId, hostname);
+  }
+
+  public boolean remove(Protos.TaskID taskId) {
+    return taskHosts.remove(taskId) != null;
+  }
+
+  public boolean contains(Protos.TaskID taskId) {
+    return taskHosts.containsKey(taskId);
+  }
+
+  public String getHostname(Protos.TaskID taskId) {
+    return taskHosts.get(taskId);
+  }
+
+  /**
+   * Returns the ids of all placeholder tasks running on the given host.
+   *
+   * @param hostname
+   * @return set of task ids
+   */
+  public Set<Protos.TaskID> getTaskIds(String hostname) {
+    Set<Protos.TaskID> taskIds = new HashSet<>();
+    for (Map.Entry<Protos.TaskID, String> entry : taskHosts.entrySet()) {
+      if (entry.getValue().equals(hostname)) {
+        taskIds.add(entry.getKey());
+      }
+    }
+    return taskIds;
+  }
+
+  public int size() {
+    return taskHosts.size();
+  }
+}
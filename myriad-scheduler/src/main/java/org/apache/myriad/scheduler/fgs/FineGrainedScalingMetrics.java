@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.fgs;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.apache.hadoop.yarn.api.records.Resource;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+/**
+ * Dropwizard metrics describing how fine-grained scaling uses the Mesos offers, both
+ * cluster-wide and per host. All metrics are registered under {@link #PREFIX}.
+ */
+public class FineGrainedScalingMetrics {
+  public static final String PREFIX = "myriad.fgs";
+
+  private final MetricRegistry registry;
+
+  private final Counter offersHeld;
+  private final Timer offerHeldTime;
+  private final Meter offersConsumed;
+  private final Meter offersDeclined;
+  private final Meter offersDeclinedUnused;
+  private final Histogram containersPerOffer;
+  private final Meter capacityUpdates;
+  private final Timer offerHoldTimeToAllocation;
+  private final Meter offerHoldsExpired;
+  private final Meter offerHoldsReleased;
+  private final Counter reconciliations;
+  private final Histogram memoryDrift;
+  private final Histogram cpuDrift;
+  private final Timer allocationHandlingTime;
+
+  @Inject
+  public FineGrainedScalingMetrics(MetricRegistry registry) {
+    this.registry = registry;
+    this.offersHeld = registry.counter(MetricRegistry.name(PREFIX, "offers", "held"));
+    this.offerHeldTime = registry.timer(MetricRegistry.name(PREFIX, "offers", "held-time"));
+    this.offersConsumed = registry.meter(MetricRegistry.name(PREFIX, "offers", "consumed"));
+    this.offersDeclined = registry.meter(MetricRegistry.name(PREFIX, "offers", "declined"));
+    this.offersDeclinedUnused = registry.meter(MetricRegistry.name(PREFIX, "offers", "declined-unused"));
+    this.containersPerOffer = registry.histogram(MetricRegistry.name(PREFIX, "containers-per-offer"));
+    this.capacityUpdates = registry.meter(MetricRegistry.name(PREFIX, "capacity-updates"));
+    this.offerHoldTimeToAllocation = registry.timer(MetricRegistry.name(PREFIX, "offers", "hold", "time-to-allocation"));
+    this.offerHoldsExpired = registry.meter(MetricRegistry.name(PREFIX, "offers", "hold", "expired"));
+    this.offerHoldsReleased = registry.meter(MetricRegistry.name(PREFIX, "offers", "hold", "released"));
+    this.reconciliations = registry.counter(MetricRegistry.name(PREFIX, "used-resources", "reconciliations"));
+    this.memoryDrift = registry.histogram(MetricRegistry.name(PREFIX, "used-resources", "drift", "memory"));
+    this.cpuDrift = registry.histogram(MetricRegistry.name(PREFIX, "used-resources", "drift", "vcores"));
+    this.allocationHandlingTime = registry.timer(MetricRegistry.name(PREFIX, "allocation-handling-time"));
+  }
+
+  public void offerHeld() {
+    offersHeld.inc();
+  }
+
+  /**
+   * Records an offer leaving its feed, either consumed by a heartbeat or declined.
+   *
+   * @param heldNanos time the offer spent in the feed
+   */
+  public void offerReleased(long heldNanos) {
+    offersHeld.dec();
+    offerHeldTime.update(heldNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Records an offer that was put back into its feed by an offer hold leaving the feed again. Its held
+   * time was recorded when it was first consumed, the hold itself is recorded by {@link #offerHoldHit(long)}.
+   */
+  public void putBackOfferReleased() {
+    offersHeld.dec();
+  }
+
+  public void offerConsumed() {
+    offersConsumed.mark();
+  }
+
+  public void offerDeclined() {
+    offersDeclined.mark();
+  }
+
+  /**
+   * Records the outcome of a YARN scheduling run against the offers consumed for a host.
+   * The offers consumed by one heartbeat count as a single offer for containers-per-offer.
+   *
+   * @param hostname
+   * @param offers number of consumed offers
+   * @param containers number of containers launched using the offers
+   * @param offered resources of the consumed offers
+   * @param used resources allocated to the launched containers
+   */
+  public void offersUsed(String hostname, int offers, int containers, Resource offered, Resource used) {
+    if (containers == 0) {
+      offersDeclinedUnused.mark(offers);
+    }
+    containersPerOffer.update(containers);
+    incrementResources(MetricRegistry.name(PREFIX, "offered"), offered);
+    incrementResources(MetricRegistry.name(PREFIX, "used"), used);
+    incrementResources(MetricRegistry.name(PREFIX, "hosts", hostname, "offered"), offered);
+    incrementResources(MetricRegistry.name(PREFIX, "hosts", hostname, "used"), used);
+  }
+
+  /**
+   * Records containers placed on held offers, i.e. an allocation that did not need a
+   * new round trip to the Mesos allocator.
+   *
+   * @param heldMillis time between the start of the hold and the allocation
+   */
+  public void offerHoldHit(long heldMillis) {
+    offerHoldTimeToAllocation.update(heldMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public void offerHoldExpired() {
+    offerHoldsExpired.mark();
+  }
+
+  public void offerHoldReleased() {
+    offerHoldsReleased.mark();
+  }
+
+  public void capacityUpdated() {
+    capacityUpdates.mark();
+  }
+
+  /**
+   * Records a reconciliation of the incrementally tracked used resources of a node.
+   *
+   * @param memoryDrift absolute difference in memory between tracked and reported usage
+   * @param cpuDrift absolute difference in vcores between tracked and reported usage
+   */
+  public void usedResourcesReconciled(int memoryDrift, int cpuDrift) {
+    this.reconciliations.inc();
+    this.memoryDrift.update(memoryDrift);
+    this.cpuDrift.update(cpuDrift);
+  }
+
+  /**
+   * Records the time the YARN scheduler thread spent handling the containers a scheduler pass
+   * allocated on a node, which extends the time the scheduler lock is held.
+   *
+   * @param nanos
+   */
+  public void allocationHandled(long nanos) {
+    allocationHandlingTime.update(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private void incrementResources(String name, Resource resource) {
+    registry.counter(MetricRegistry.name(name, "memory")).inc(resource.getMemory());
+    registry.counter(MetricRegistry.name(name, "vcores")).inc(resource.getVirtualCores());
+  }
+}
@@ -20,8 +20,13 @@ package org.apache.myriad.scheduler.fgs;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import javax.inject.Inject;
+import org.apache.hadoop.yarn.api.records.ContainerId;
 import org.apache.hadoop.yarn.api.records.ContainerState;
 import org.apache.hadoop.yarn.api.records.ContainerStatus;
 import org.apache.hadoop.yarn.api.records.NodeId;
@@ -30,13 +35,16 @@ import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeStatusEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.AbstractYarnScheduler;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
 import org.apache.hadoop.yarn.util.resource.Resources;
 import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.Offer;
 import org.apache.myriad.configuration.NodeManagerConfiguration;
 import org.apache.myriad.scheduler.MyriadDriver;
+import org.apache.myriad.scheduler.NodeDrainer;
 import org.apache.myriad.scheduler.SchedulerUtils;
 import org.apache.myriad.scheduler.yarn.interceptor.BaseInterceptor;
 import org.apache.myriad.scheduler.yarn.interceptor.InterceptorRegistry;
@@ -46,6 +54,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Handles node manager heartbeat.
+ * <p/>
+ * The resources used by containers on a node are tracked incrementally by {@link Node}
+ * and only reconciled against the containers reported in the heartbeat every
+ * {@link NodeManagerConfiguration#getUsedResourcesReconcileInterval()} heartbeats. The
+ * difference found on reconciliation is reported by {@link FineGrainedScalingMetrics}.
  */
 public class NMHeartBeatHandler extends BaseInterceptor {
   @VisibleForTesting
@@ -58,11 +71,14 @@ public class NMHeartBeatHandler extends BaseInterceptor {
   private final NodeStore nodeStore;
   private final SchedulerState state;
   private final NodeManagerConfiguration conf;
+  private final FineGrainedScalingMetrics metrics;
+  private final NodeDrainer nodeDrainer;
 
   @Inject
   public NMHeartBeatHandler(InterceptorRegistry registry, AbstractYarnScheduler yarnScheduler, MyriadDriver myriadDriver,
                             YarnNodeCapacityManager yarnNodeCapacityMgr, OfferLifecycleManager offerLifecycleMgr,
-                            NodeStore nodeStore, SchedulerState state, NodeManagerConfiguration conf) {
+                            NodeStore nodeStore, SchedulerState state, NodeManagerConfiguration conf,
+                            FineGrainedScalingMetrics metrics, NodeDrainer nodeDrainer) {
 
     if (registry != null) {
       registry.register(this);
@@ -75,6 +91,8 @@ public class NMHeartBeatHandler extends BaseInterceptor {
     this.nodeStore = nodeStore;
     this.state = state;
     this.conf = conf;
+    this.metrics = metrics;
+    this.nodeDrainer = nodeDrainer;
   }
 
   @Override
@@ -87,6 +105,16 @@ public class NMHeartBeatHandler extends BaseInterceptor {
     };
   }
 
+  @Override
+  public Set<SchedulerEventType> getSchedulerEventTypes() {
+    return EnumSet.noneOf(SchedulerEventType.class);
+  }
+
+  @Override
+  public Set<RMNodeEventType> getRMNodeEventTypes() {
+    return EnumSet.of(RMNodeEventType.STARTED, RMNodeEventType.STATUS_UPDATE);
+  }
+
   @Override
   public void beforeRMNodeEventHandled(RMNodeEvent event, RMContext context) {
     switch (event.getType()) {
@@ -135,12 +163,19 @@ public class NMHeartBeatHandler extends BaseInterceptor {
       host.snapshotRunningContainers();
     }
 
+    // Draining NMs keep the zero capacity they were set to
+    if (nodeDrainer.isDraining(hostName)) {
+      offerLifecycleMgr.declineOutstandingOffers(hostName);
+      return;
+    }
+
     /*
      * Set the new node capacity which is the sum of the current node resources plus those offered by Mesos. 
      * If the sum is greater than the max capacity of the node, reject the offer.
      */
     Resource offeredResources = getNewResourcesOfferedByMesos(hostName);
-    Resource currentResources = getResourcesUnderUse(statusEvent);
+    Resource currentResources = (host != null) ? getTrackedResourcesUnderUse(host, statusEvent) :
+        getResourcesUnderUse(statusEvent);
     
     if (offerWithinResourceLimits(currentResources, offeredResources)) {
       yarnNodeCapacityMgr.setNodeCapacity(rmNode, Resources.add(currentResources, offeredResources));
@@ -184,17 +219,55 @@ public class NMHeartBeatHandler extends BaseInterceptor {
   @VisibleForTesting
   protected Resource getResourcesUnderUse(RMNodeStatusEvent statusEvent) {
     Resource usedResources = Resource.newInstance(0, 0);
+    for (Resource resource : getContainersUnderUse(statusEvent).values()) {
+      Resources.addTo(usedResources, resource);
+    }
+    return usedResources;
+  }
+
+  /**
+   * Returns the resources in use tracked by the node, reconciling them with the
+   * containers reported in the heartbeat if the node is due for reconciliation.
+   * Containers the heartbeat reports as complete are released right away instead of
+   * waiting for the scheduler's completion callback.
+   */
+  @VisibleForTesting
+  protected Resource getTrackedResourcesUnderUse(Node host, RMNodeStatusEvent statusEvent) {
+    if (!host.isReconcileDue(conf.getUsedResourcesReconcileInterval())) {
+      for (ContainerStatus status : statusEvent.getContainers()) {
+        if (status.getState() == ContainerState.COMPLETE) {
+          host.removeAllocatedContainer(status.getContainerId());
+        }
+      }
+    } else {
+      Resource tracked = host.getAllocatedResources();
+      host.resetAllocatedContainers(getContainersUnderUse(statusEvent));
+      Resource reported = host.getAllocatedResources();
+
+      int memory = Math.abs(tracked.getMemory() - reported.getMemory());
+      int cores = Math.abs(tracked.getVirtualCores() - reported.getVirtualCores());
+      metrics.usedResourcesReconciled(memory, cores);
+      if ((memory != 0 || cores != 0) && logger.isDebugEnabled()) {
+        logger.debug("Reconciled used resources for host {}, tracked {} but heartbeat reported {}",
+            host.getNode().getNodeName(), tracked, reported);
+      }
+    }
+    return host.getAllocatedResources();
+  }
+
+  private Map<ContainerId, Resource> getContainersUnderUse(RMNodeStatusEvent statusEvent) {
+    Map<ContainerId, Resource> containers = new HashMap<>();
     for (ContainerStatus status : statusEvent.getContainers()) {
       if (containerInUse(status)) {
         RMContainer rmContainer = yarnScheduler.getRMContainer(status.getContainerId());
         // (sdaingade) This check is needed as RMContainer information may not be populated
         // immediately after a RM restart.
         if (rmContainer != null) {
-          Resources.addTo(usedResources, rmContainer.getAllocatedResource());
+          containers.put(status.getContainerId(), rmContainer.getAllocatedResource());
         }
       }
     }
-    return usedResources;
+    return containers;
   }
   
   private boolean containerInUse(ContainerStatus status) {
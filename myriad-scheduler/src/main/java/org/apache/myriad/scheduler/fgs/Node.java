@@ -18,10 +18,15 @@
  */
 package org.apache.myriad.scheduler.fgs;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import org.apache.hadoop.yarn.api.records.ContainerId;
+import org.apache.hadoop.yarn.api.records.Resource;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerNode;
+import org.apache.hadoop.yarn.util.resource.Resources;
 import org.apache.mesos.Protos;
 
 /**
@@ -50,6 +55,15 @@ public class Node {
    */
   private Set<RMContainer> containerSnapshot;
 
+  /**
+   * Resources allocated to containers on this node, maintained incrementally from
+   * container allocation and completion callbacks and periodically reconciled
+   * against the NodeManager heartbeat.
+   */
+  private final Map<ContainerId, Resource> allocatedContainers = new HashMap<>();
+  private final Resource allocatedResources = Resource.newInstance(0, 0);
+  private int heartbeatsSinceReconcile = -1;
+
   public Node(SchedulerNode node) {
     this.node = node;
   }
@@ -85,4 +99,50 @@ public class Node {
   public Set<RMContainer> getContainerSnapshot() {
     return this.containerSnapshot;
   }
+
+  public synchronized void addAllocatedContainer(ContainerId containerId, Resource resource) {
+    Resource previous = allocatedContainers.put(containerId, resource);
+    if (previous != null) {
+      Resources.subtractFrom(allocatedResources, previous);
+    }
+    Resources.addTo(allocatedResources, resource);
+  }
+
+  public synchronized void removeAllocatedContainer(ContainerId containerId) {
+    Resource previous = allocatedContainers.remove(containerId);
+    if (previous != null) {
+      Resources.subtractFrom(allocatedResources, previous);
+    }
+  }
+
+  /**
+   * Replaces the tracked containers with the given view, typically the one derived from
+   * a full scan of the NodeManager heartbeat.
+   *
+   * @param containers
+   */
+  public synchronized void resetAllocatedContainers(Map<ContainerId, Resource> containers) {
+    allocatedContainers.clear();
+    allocatedResources.setMemory(0);
+    allocatedResources.setVirtualCores(0);
+    for (Map.Entry<ContainerId, Resource> entry : containers.entrySet()) {
+      addAllocatedContainer(entry.getKey(), entry.getValue());
+    }
+    heartbeatsSinceReconcile = 0;
+  }
+
+  public synchronized Resource getAllocatedResources() {
+    return Resources.clone(allocatedResources);
+  }
+
+  /**
+   * Counts a heartbeat and returns true if the node was never reconciled or
+   * interval heartbeats went by since the last reconciliation.
+   *
+   * @param interval
+   * @return true if the node is due for reconciliation
+   */
+  public synchronized boolean isReconcileDue(int interval) {
+    return heartbeatsSinceReconcile < 0 || ++heartbeatsSinceReconcile >= interval;
+  }
 }
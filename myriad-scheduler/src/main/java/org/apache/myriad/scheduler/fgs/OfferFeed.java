@@ -18,6 +18,7 @@
  */
 package org.apache.myriad.scheduler.fgs;
 
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import org.apache.mesos.Protos;
 
@@ -25,14 +26,28 @@ import org.apache.mesos.Protos;
  * Feed of Mesos offers for a node.
  */
 public class OfferFeed {
-  private ConcurrentLinkedQueue<Protos.Offer> queue;
+  private ConcurrentLinkedQueue<HeldOffer> queue;
+  private final FineGrainedScalingMetrics metrics;
 
-  public OfferFeed() {
+  public OfferFeed(FineGrainedScalingMetrics metrics) {
     this.queue = new ConcurrentLinkedQueue<>();
+    this.metrics = metrics;
   }
 
   public void add(Protos.Offer offer) {
-    queue.add(offer);
+    queue.add(new HeldOffer(offer, System.nanoTime(), false));
+    metrics.offerHeld();
+  }
+
+  /**
+   * Puts back an offer a heartbeat consumed without using it, so the next heartbeat consumes it again.
+   * The time the offer spends in the feed after it was put back is not recorded as held time.
+   *
+   * @param offer
+   */
+  public void putBack(Protos.Offer offer) {
+    queue.add(new HeldOffer(offer, System.nanoTime(), true));
+    metrics.offerHeld();
   }
 
   /**
@@ -40,6 +55,50 @@ public class OfferFeed {
    * empty.
    */
   public Protos.Offer poll() {
-    return queue.poll();
+    HeldOffer held = queue.poll();
+    if (held == null) {
+      return null;
+    }
+    released(held);
+    return held.offer;
+  }
+
+  /**
+   * Removes the offer with the given id from the feed.
+   *
+   * @param offerId
+   * @return true if the offer was in the feed
+   */
+  public boolean remove(Protos.OfferID offerId) {
+    Iterator<HeldOffer> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      HeldOffer held = iterator.next();
+      if (held.offer.getId().equals(offerId)) {
+        iterator.remove();
+        released(held);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void released(HeldOffer held) {
+    if (held.putBack) {
+      metrics.putBackOfferReleased();
+    } else {
+      metrics.offerReleased(System.nanoTime() - held.addedNanos);
+    }
+  }
+
+  private static class HeldOffer {
+    private final Protos.Offer offer;
+    private final long addedNanos;
+    private final boolean putBack;
+
+    HeldOffer(Protos.Offer offer, long addedNanos, boolean putBack) {
+      this.offer = offer;
+      this.addedNanos = addedNanos;
+      this.putBack = putBack;
+    }
   }
 }
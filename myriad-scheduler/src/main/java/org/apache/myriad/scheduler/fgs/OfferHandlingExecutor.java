@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.fgs;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.inject.Inject;
+
+import org.apache.myriad.configuration.FineGrainedScalingConfiguration;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Runs the Mesos driver calls that follow a YARN scheduler pass on a node, i.e. launching the tasks of
+ * newly allocated containers and declining unused offers.
+ * <p/>
+ * With {@link FineGrainedScalingConfiguration#isAsyncOfferHandling()} the calls run one after the other
+ * on a Myriad thread, so they do not extend the time the YARN scheduler lock is held. Otherwise they run
+ * right away on the calling thread.
+ */
+public class OfferHandlingExecutor implements Executor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OfferHandlingExecutor.class);
+
+  private final ExecutorService executor;
+
+  @Inject
+  public OfferHandlingExecutor(MyriadConfiguration cfg) {
+    this(cfg.getFineGrainedScalingConfiguration().isAsyncOfferHandling() ? Executors.newSingleThreadExecutor(
+        new ThreadFactoryBuilder().setNameFormat("myriad-offer-handling-%d").setDaemon(true).build()) : null);
+  }
+
+  @VisibleForTesting
+  OfferHandlingExecutor(ExecutorService executor) {
+    this.executor = executor;
+  }
+
+  public boolean isAsync() {
+    return executor != null;
+  }
+
+  @Override
+  public void execute(final Runnable command) {
+    if (executor == null) {
+      command.run();
+      return;
+    }
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          command.run();
+        } catch (RuntimeException e) {
+          LOGGER.error("Failed to handle offers", e);
+        }
+      }
+    });
+  }
+
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.fgs;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+
+import org.apache.myriad.configuration.FineGrainedScalingConfiguration;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decides whether the capacity of offers a scheduler pass placed no container on is kept
+ * on the node for a few more heartbeats instead of being declined right away. Holding the
+ * capacity avoids a Mesos allocation round trip for every new job when jobs are submitted
+ * in bursts.
+ * <p/>
+ * The hold lasts at most {@link FineGrainedScalingConfiguration#getOfferHoldHeartbeats()}
+ * heartbeats and {@link FineGrainedScalingConfiguration#getOfferHoldMs()} milliseconds. The
+ * number of heartbeats adapts to the node's recent allocations: holds that expire unused halve
+ * the next hold, allocations on the node grow it back. Holds are released for
+ * {@link FineGrainedScalingConfiguration#getOfferHoldBackoffMs()} once Mesos rescinds an offer,
+ * as that signals other frameworks are waiting for resources.
+ */
+public class OfferHoldPolicy {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OfferHoldPolicy.class);
+
+  private final int maxHoldHeartbeats;
+  private final long maxHoldMillis;
+  private final long backoffMillis;
+  private final FineGrainedScalingMetrics metrics;
+  private final Clock clock;
+  private final ConcurrentHashMap<String, HoldState> holds;
+  private volatile long backoffUntilMillis;
+
+  @Inject
+  public OfferHoldPolicy(MyriadConfiguration cfg, FineGrainedScalingMetrics metrics, Clock clock) {
+    FineGrainedScalingConfiguration conf = cfg.getFineGrainedScalingConfiguration();
+    this.maxHoldHeartbeats = conf.getOfferHoldHeartbeats();
+    this.maxHoldMillis = conf.getOfferHoldMs();
+    this.backoffMillis = conf.getOfferHoldBackoffMs();
+    this.metrics = metrics;
+    this.clock = clock;
+    this.holds = new ConcurrentHashMap<>(200, 0.75f, 50);
+  }
+
+  /**
+   * Called when a scheduler pass placed no container on the offers consumed for the host.
+   *
+   * @param hostname
+   * @return true if the offers should be held, false if they should be declined
+   */
+  public boolean shouldHold(String hostname) {
+    HoldState state = getHoldState(hostname);
+    long now = clock.currentTimeMillis();
+
+    if (now < backoffUntilMillis) {
+      if (state.isHolding()) {
+        state.release();
+        metrics.offerHoldReleased();
+      }
+      return false;
+    }
+
+    if (!state.isHolding()) {
+      int heartbeats = state.allowedHeartbeats(maxHoldHeartbeats);
+      if (heartbeats == 0) {
+        return false;
+      }
+      state.start(now, heartbeats);
+    }
+
+    if (++state.heartbeatsHeld > state.heartbeatsAllowed || now - state.startMillis >= maxHoldMillis) {
+      state.expire();
+      metrics.offerHoldExpired();
+      LOGGER.debug("Hold on offers for host {} expired", hostname);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Called when a scheduler pass placed containers on the offers consumed for the host.
+   *
+   * @param hostname
+   */
+  public void containersAllocated(String hostname) {
+    HoldState state = getHoldState(hostname);
+    if (state.isHolding()) {
+      metrics.offerHoldHit(clock.currentTimeMillis() - state.startMillis);
+    }
+    state.hit();
+  }
+
+  /**
+   * Releases all holds for the back-off period, called when Mesos rescinds an offer.
+   */
+  public void offerRescinded() {
+    backoffUntilMillis = clock.currentTimeMillis() + backoffMillis;
+    LOGGER.info("Offer rescinded, not holding offers for {} ms", backoffMillis);
+  }
+
+  public boolean isHolding(String hostname) {
+    HoldState state = holds.get(hostname);
+    return state != null && state.isHolding();
+  }
+
+  private HoldState getHoldState(String hostname) {
+    HoldState state = holds.get(hostname);
+    if (state == null) {
+      HoldState newState = new HoldState();
+      state = holds.putIfAbsent(hostname, newState);
+      if (state == null) {
+        state = newState;
+      }
+    }
+    return state;
+  }
+
+  /**
+   * Hold bookkeeping of a host. Only accessed from the YARN scheduler thread.
+   */
+  private static class HoldState {
+    private double score = 1.0;
+    private long startMillis = -1;
+    private int heartbeatsHeld;
+    private int heartbeatsAllowed;
+
+    boolean isHolding() {
+      return startMillis >= 0;
+    }
+
+    int allowedHeartbeats(int maxHeartbeats) {
+      return (int) Math.round(maxHeartbeats * score);
+    }
+
+    void start(long now, int heartbeats) {
+      startMillis = now;
+      heartbeatsHeld = 0;
+      heartbeatsAllowed = heartbeats;
+    }
+
+    void hit() {
+      score = score * 0.5 + 0.5;
+      startMillis = -1;
+    }
+
+    void expire() {
+      score = score * 0.5;
+      startMillis = -1;
+    }
+
+    void release() {
+      startMillis = -1;
+    }
+  }
+}
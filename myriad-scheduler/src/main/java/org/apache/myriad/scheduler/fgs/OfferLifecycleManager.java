@@ -18,9 +18,13 @@
  */
 package org.apache.myriad.scheduler.fgs;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 
@@ -35,27 +39,33 @@ import com.google.common.base.Optional;
 
 /**
  * Manages the Mesos offers tracked by Myriad.
+ * <p/>
+ * Consumed offers are marked from the RM node event thread and drained from the
+ * scheduler thread. Each host has its own slot holding an immutable {@link ConsumedOffer}
+ * that is replaced atomically, so hosts never contend with each other and no offer
+ * is lost between a mark and a drain.
  */
 public class OfferLifecycleManager {
   private static final Logger LOGGER = LoggerFactory.getLogger(OfferLifecycleManager.class);
 
-  private Map<String, OfferFeed> offerFeedMap;
-
-  /**
-   * !!! Not thread safe !!!
-   */
-  private final Map<String, ConsumedOffer> consumedOfferMap;
+  private final ConcurrentMap<String, OfferFeed> offerFeedMap;
+  private final ConcurrentMap<String, AtomicReference<ConsumedOffer>> consumedOfferMap;
+  // Offers put back into their feed by an offer hold, they are not counted as consumed again
+  private final Set<Protos.OfferID> heldOfferIds;
 
   private final NodeStore nodeStore;
   private final MyriadDriver myriadDriver;
+  private final FineGrainedScalingMetrics metrics;
 
   @Inject
-  public OfferLifecycleManager(NodeStore nodeStore, MyriadDriver myriadDriver) {
+  public OfferLifecycleManager(NodeStore nodeStore, MyriadDriver myriadDriver, FineGrainedScalingMetrics metrics) {
 
     this.offerFeedMap = new ConcurrentHashMap<>(200, 0.75f, 50);
-    this.consumedOfferMap = new HashMap<>(200, 0.75f);
+    this.consumedOfferMap = new ConcurrentHashMap<>(200, 0.75f, 50);
+    this.heldOfferIds = Collections.newSetFromMap(new ConcurrentHashMap<Protos.OfferID, Boolean>(200, 0.75f, 50));
     this.nodeStore = nodeStore;
     this.myriadDriver = myriadDriver;
+    this.metrics = metrics;
   }
 
   /**
@@ -69,8 +79,11 @@ public class OfferLifecycleManager {
   protected OfferFeed getOfferFeed(String hostname) {
     OfferFeed feed = offerFeedMap.get(hostname);
     if (feed == null) {
-      feed = new OfferFeed();
-      offerFeedMap.put(hostname, feed);
+      OfferFeed newFeed = new OfferFeed(metrics);
+      feed = offerFeedMap.putIfAbsent(hostname, newFeed);
+      if (feed == null) {
+        feed = newFeed;
+      }
     }
     return feed;
   }
@@ -84,7 +97,9 @@ public class OfferLifecycleManager {
   }
   
   public void declineOffer(Protos.Offer offer) {
+    heldOfferIds.remove(offer.getId());
     myriadDriver.getDriver().declineOffer(offer.getId());
+    metrics.offerDeclined();
     LOGGER.debug("Declined offer {}", offer.getId());
   }
 
@@ -101,34 +116,97 @@ public class OfferLifecycleManager {
         LOGGER.debug("addResourceOffers: caching offer for host {}, offer id {}", hostname, offer.getId().getValue());
       } else {
         myriadDriver.getDriver().declineOffer(offer.getId());
+        metrics.offerDeclined();
         LOGGER.debug("Declined offer for unregistered host {}", hostname);
       }
     }
   }
 
-  public void markAsConsumed(Protos.Offer offer) {
-    ConsumedOffer consumedOffer = consumedOfferMap.get(offer.getHostname());
-    if (consumedOffer == null) {
-      consumedOffer = new ConsumedOffer();
-      consumedOfferMap.put(offer.getHostname(), consumedOffer);
+  /**
+   * Puts offers that were consumed but not used by a scheduler pass back into the feeds of their hosts,
+   * so the next heartbeats consume them again. They are not counted as new offers.
+   *
+   * @param offers
+   */
+  public void holdOffers(Collection<Protos.Offer> offers) {
+    for (Protos.Offer offer : offers) {
+      heldOfferIds.add(offer.getId());
+      getOfferFeed(offer.getHostname()).putBack(offer);
     }
+  }
 
-    consumedOffer.add(offer);
+  /**
+   * Drops a rescinded offer from the feed it is cached in.
+   *
+   * @param offerId
+   */
+  public void removeOffer(Protos.OfferID offerId) {
+    heldOfferIds.remove(offerId);
+    for (Map.Entry<String, OfferFeed> entry : offerFeedMap.entrySet()) {
+      if (entry.getValue().remove(offerId)) {
+        LOGGER.debug("Removed rescinded offer {} for host {}", offerId.getValue(), entry.getKey());
+        return;
+      }
+    }
+  }
+
+  public void markAsConsumed(Protos.Offer offer) {
+    AtomicReference<ConsumedOffer> slot = getConsumedOfferSlot(offer.getHostname());
+    ConsumedOffer current;
+    ConsumedOffer updated;
+    do {
+      current = slot.get();
+      updated = (current == null ? new ConsumedOffer() : current).with(offer);
+    } while (!slot.compareAndSet(current, updated));
+    if (!heldOfferIds.remove(offer.getId())) {
+      metrics.offerConsumed();
+    }
   }
 
   @VisibleForTesting
   protected ConsumedOffer getConsumedOffer(String hostname) {
-    ConsumedOffer cOffer = consumedOfferMap.get(hostname);
-    if (cOffer == null) {
-      cOffer = new ConsumedOffer();
-      consumedOfferMap.put(hostname, cOffer);
-    }    
-    
-    return cOffer;
+    ConsumedOffer cOffer = getConsumedOfferSlot(hostname).get();
+    return cOffer == null ? new ConsumedOffer() : cOffer;
   }
-  
+
+  /**
+   * Atomically removes and returns the offers consumed for the host.
+   *
+   * @param hostname
+   * @return consumed offer or null if no offer was consumed since the last drain
+   */
   public ConsumedOffer drainConsumedOffer(String hostname) {
-    return consumedOfferMap.remove(hostname);
+    AtomicReference<ConsumedOffer> slot = consumedOfferMap.get(hostname);
+    return slot == null ? null : slot.getAndSet(null);
+  }
+
+  private AtomicReference<ConsumedOffer> getConsumedOfferSlot(String hostname) {
+    AtomicReference<ConsumedOffer> slot = consumedOfferMap.get(hostname);
+    if (slot == null) {
+      AtomicReference<ConsumedOffer> newSlot = new AtomicReference<>();
+      slot = consumedOfferMap.putIfAbsent(hostname, newSlot);
+      if (slot == null) {
+        slot = newSlot;
+      }
+    }
+    return slot;
+  }
+
+  /**
+   * Drops the offers cached and consumed for a host that left the cluster, without declining them.
+   *
+   * @param hostname
+   */
+  public void dropOffers(String hostname) {
+    OfferFeed feed = offerFeedMap.remove(hostname);
+    consumedOfferMap.remove(hostname);
+    int dropped = 0;
+    Protos.Offer offer;
+    while (feed != null && (offer = feed.poll()) != null) {
+      heldOfferIds.remove(offer.getId());
+      dropped++;
+    }
+    LOGGER.info("Dropped {} offers for lost host {}", dropped, hostname);
   }
 
   public void declineOutstandingOffers(String hostname) {
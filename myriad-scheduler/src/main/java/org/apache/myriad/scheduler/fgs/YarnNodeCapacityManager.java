@@ -18,6 +18,7 @@
  */
 package org.apache.myriad.scheduler.fgs;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -36,6 +37,7 @@ import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.AbstractYarnScheduler;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerApplicationAttempt;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerNode;
@@ -43,6 +45,7 @@ import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeAddedSc
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeResourceUpdateSchedulerEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
 import org.apache.hadoop.yarn.util.resource.Resources;
 import org.apache.mesos.Protos;
 import org.apache.myriad.configuration.NodeManagerConfiguration;
@@ -50,6 +53,7 @@ import org.apache.myriad.executor.ContainerTaskStatusRequest;
 import org.apache.myriad.scheduler.MyriadDriver;
 import org.apache.myriad.scheduler.ResourceUtils;
 import org.apache.myriad.scheduler.SchedulerUtils;
+import org.apache.myriad.scheduler.TaskKillQueue;
 import org.apache.myriad.scheduler.TaskUtils;
 import org.apache.myriad.scheduler.yarn.interceptor.BaseInterceptor;
 import org.apache.myriad.scheduler.yarn.interceptor.InterceptorRegistry;
@@ -81,6 +85,11 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
   private final OfferLifecycleManager offerLifecycleMgr;
   private final NodeStore nodeStore;
   private final SchedulerState state;
+  private final ContainerTaskStore containerTaskStore;
+  private final TaskKillQueue taskKillQueue;
+  private final FineGrainedScalingMetrics metrics;
+  private final OfferHoldPolicy offerHoldPolicy;
+  private final OfferHandlingExecutor offerHandlingExecutor;
   private static final Lock yarnSchedulerLock = new ReentrantLock();
   private static final Resource ZERO_RESOURCE = Resource.newInstance(0, 0);
   private TaskUtils taskUtils;
@@ -88,7 +97,9 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
   @Inject
   public YarnNodeCapacityManager(InterceptorRegistry registry, AbstractYarnScheduler yarnScheduler, RMContext rmContext,
                                  MyriadDriver myriadDriver, OfferLifecycleManager offerLifecycleMgr, NodeStore nodeStore,
-                                 SchedulerState state, TaskUtils taskUtils) {
+                                 SchedulerState state, TaskUtils taskUtils, ContainerTaskStore containerTaskStore,
+                                 TaskKillQueue taskKillQueue, FineGrainedScalingMetrics metrics,
+                                 OfferHoldPolicy offerHoldPolicy, OfferHandlingExecutor offerHandlingExecutor) {
     if (registry != null) {
       registry.register(this);
     }
@@ -99,6 +110,11 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
     this.nodeStore = nodeStore;
     this.state = state;
     this.taskUtils = taskUtils;
+    this.containerTaskStore = containerTaskStore;
+    this.taskKillQueue = taskKillQueue;
+    this.metrics = metrics;
+    this.offerHoldPolicy = offerHoldPolicy;
+    this.offerHandlingExecutor = offerHandlingExecutor;
   }
 
   @Override
@@ -111,8 +127,19 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
     };
   }
 
+  @Override
+  public Set<SchedulerEventType> getSchedulerEventTypes() {
+    return EnumSet.of(SchedulerEventType.NODE_ADDED, SchedulerEventType.NODE_UPDATE);
+  }
+
+  @Override
+  public Set<RMNodeEventType> getRMNodeEventTypes() {
+    return EnumSet.noneOf(RMNodeEventType.class);
+  }
+
   private Protos.TaskID containerToTaskId(RMContainer container) {
-    return Protos.TaskID.newBuilder().setValue("yarn_" + container.getContainerId()).build();
+    return Protos.TaskID.newBuilder().setValue(
+        ContainerTaskStatusRequest.YARN_CONTAINER_TASK_ID_PREFIX + container.getContainerId().toString()).build();
   }
 
   @Override
@@ -122,6 +149,12 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
 
   @Override
   public void beforeCompletedContainer(RMContainer rmContainer, ContainerStatus containerStatus, RMContainerEventType type) {
+    if (containersNotNull(rmContainer)) {
+      Node node = retrieveNode(rmContainer);
+      if (node != null) {
+        node.removeAllocatedContainer(rmContainer.getContainerId());
+      }
+    }
     if (type.equals(RMContainerEventType.KILL) || type.equals(RMContainerEventType.RELEASED)) {
       LOGGER.info("{} completed with exit status {}, killing cooresponding mesos task.", rmContainer.getContainerId().toString(), type);
       removeYarnTask(rmContainer);
@@ -130,12 +163,19 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
 
   private void removeYarnTask(RMContainer rmContainer) {
     if (containersNotNull(rmContainer)){
-      Protos.TaskID taskId = containerToTaskId(rmContainer);
+      final Protos.TaskID taskId = containerToTaskId(rmContainer);
       /*
-       * Mark the task as killable within the ServerState object to flag the task 
-       * for the TaskTerminator daemon to kill the task
+       * Placeholder tasks are not persisted, hand the task straight to the kill queue
+       * instead of flagging it in SchedulerState for the TaskTerminator daemon. The kill
+       * goes through the OfferHandlingExecutor, so it follows the launch of the task
        */
-      state.makeTaskKillable(taskId);
+      containerTaskStore.remove(taskId);
+      offerHandlingExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          taskKillQueue.enqueue(taskId);
+        }
+      });
       
       Node node = retrieveNode(rmContainer);
       if (node != null) {
@@ -197,52 +237,89 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
    * Checks if any containers were allocated in the current scheduler run and
    * launches the corresponding Mesos tasks. It also updates the node
    * capacity depending on what portion of the consumed offers were actually
-   * used.
+   * used. If no container was allocated, the {@link OfferHoldPolicy} decides
+   * whether the offers are held for the next heartbeats or declined.
+   * <p/>
+   * The node capacity and the tracked containers are updated right away, while the
+   * tasks are launched and the offers declined through the {@link OfferHandlingExecutor},
+   * from the containers and offers captured here. Containers that completed before their
+   * task was launched are skipped, their kill is queued on the same executor after the launch.
    */
   @VisibleForTesting
   protected void handleContainerAllocation(RMNode rmNode) {
-    String host = rmNode.getNodeID().getHost();
+    long start = System.nanoTime();
+    final String host = rmNode.getNodeID().getHost();
 
-    ConsumedOffer consumedOffer = offerLifecycleMgr.drainConsumedOffer(host);
+    final ConsumedOffer consumedOffer = offerLifecycleMgr.drainConsumedOffer(host);
     if (consumedOffer == null) {
       LOGGER.debug("No offer consumed for {}", host);
       return;
     }
 
-    Node node = nodeStore.getNode(host);
+    final Node node = nodeStore.getNode(host);
     Set<RMContainer> containersBeforeSched = node.getContainerSnapshot();
     Set<RMContainer> containersAfterSched = new HashSet<>(node.getNode().getRunningContainers());
 
     Set<RMContainer> containersAllocatedByMesosOffer = (containersBeforeSched == null) ? containersAfterSched : Sets.difference(
         containersAfterSched, containersBeforeSched);
 
-    if (containersAllocatedByMesosOffer.isEmpty()) {
+    if (containersAllocatedByMesosOffer.isEmpty() && offerHoldPolicy.shouldHold(host)) {
+      // Keep the capacity and hand the offers back to the feed, the next heartbeat consumes them again
+      LOGGER.debug("No containers allocated using Mesos offers for host: {}, holding {} offers", host,
+          consumedOffer.getOffers().size());
+      offerLifecycleMgr.holdOffers(consumedOffer.getOffers());
+    } else if (containersAllocatedByMesosOffer.isEmpty()) {
       LOGGER.debug("No containers allocated using Mesos offers for host: {}", host);
-      for (Protos.Offer offer : consumedOffer.getOffers()) {
-        offerLifecycleMgr.declineOffer(offer);
-      }
-      decrementNodeCapacity(rmNode, OfferUtils.getYarnResourcesFromMesosOffers(consumedOffer.getOffers()));
+      final Resource resOffered = OfferUtils.getYarnResourcesFromMesosOffers(consumedOffer.getOffers());
+      decrementNodeCapacity(rmNode, resOffered);
+      offerHandlingExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          for (Protos.Offer offer : consumedOffer.getOffers()) {
+            offerLifecycleMgr.declineOffer(offer);
+          }
+          metrics.offersUsed(host, consumedOffer.getOffers().size(), 0, resOffered, ZERO_RESOURCE);
+        }
+      });
     } else {
       LOGGER.debug("Containers allocated using Mesos offers for host: {} count: {}", host, containersAllocatedByMesosOffer.size());
+      offerHoldPolicy.containersAllocated(host);
 
-      // Identify the Mesos tasks that need to be launched
-      List<Protos.TaskInfo> tasks = Lists.newArrayList();
+      // Track the containers, the Mesos tasks launching them are built from this copy
+      final List<RMContainer> containers = Lists.newArrayList(containersAllocatedByMesosOffer);
       Resource resUsed = Resource.newInstance(0, 0);
 
-      for (RMContainer newContainer : containersAllocatedByMesosOffer) {
-        tasks.add(getTaskInfoForContainer(newContainer, consumedOffer, node));
+      for (RMContainer newContainer : containers) {
+        containerTaskStore.add(containerToTaskId(newContainer), host);
+        node.addAllocatedContainer(newContainer.getContainerId(), newContainer.getAllocatedResource());
         resUsed = Resources.add(resUsed, newContainer.getAllocatedResource());
       }
 
       // Reduce node capacity to account for unused offers
-      Resource resOffered = OfferUtils.getYarnResourcesFromMesosOffers(consumedOffer.getOffers());
-      Resource resUnused = Resources.subtract(resOffered, resUsed);
-      decrementNodeCapacity(rmNode, resUnused);
-      myriadDriver.getDriver().launchTasks(consumedOffer.getOfferIds(), tasks);
+      final Resource resOffered = OfferUtils.getYarnResourcesFromMesosOffers(consumedOffer.getOffers());
+      final Resource resAllocated = resUsed;
+      decrementNodeCapacity(rmNode, Resources.subtract(resOffered, resUsed));
+      offerHandlingExecutor.execute(new Runnable() {
+        @Override
+        public void run() {
+          // Identify the Mesos tasks that need to be launched
+          List<Protos.TaskInfo> tasks = Lists.newArrayListWithCapacity(containers.size());
+          for (RMContainer newContainer : containers) {
+            if (containerTaskStore.contains(containerToTaskId(newContainer))) {
+              tasks.add(getTaskInfoForContainer(newContainer, consumedOffer, node));
+            } else {
+              LOGGER.debug("{} completed before its task was launched", newContainer.getContainerId());
+            }
+          }
+          metrics.offersUsed(host, consumedOffer.getOffers().size(), tasks.size(), resOffered, resAllocated);
+          myriadDriver.getDriver().launchTasks(consumedOffer.getOfferIds(), tasks);
+        }
+      });
     }
 
     // No need to hold on to the snapshot anymore
     node.removeContainerSnapshot();
+    metrics.allocationHandled(System.nanoTime() - start);
   }
 
   /**
@@ -302,6 +379,7 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
       // the event is handled by the scheduler asynchronously
       rmContext.getDispatcher().getEventHandler().handle(new NodeResourceUpdateSchedulerEvent(rmNode, ResourceOption.newInstance(
           rmNode.getTotalCapability(), RMNode.OVER_COMMIT_TIMEOUT_MILLIS_DEFAULT)));
+      metrics.capacityUpdated();
     } finally {
       yarnSchedulerLock.unlock();
     }
@@ -311,8 +389,7 @@ public class YarnNodeCapacityManager extends BaseInterceptor {
 
     Protos.Offer offer = consumedOffer.getOffers().get(0);
     Container container = rmContainer.getContainer();
-    Protos.TaskID taskId = Protos.TaskID.newBuilder().setValue(
-        ContainerTaskStatusRequest.YARN_CONTAINER_TASK_ID_PREFIX + container.getId().toString()).build();
+    Protos.TaskID taskId = containerToTaskId(rmContainer);
 
     // TODO (sdaingade) Remove ExecutorInfo from the Node object
     // as this is now cached in the NodeTask object in scheduler state.
@@ -19,7 +19,9 @@
 package org.apache.myriad.scheduler.yarn.interceptor;
 
 import java.io.IOException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.yarn.api.records.ContainerId;
@@ -29,28 +31,46 @@ import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.AbstractYarnScheduler;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerApplicationAttempt;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
 
 /**
  * A no-op interceptor whose sole purpose is to serve as a base class
  * for other interceptors. Child interceptors can selectively override the
- * required methods.
+ * required methods. Child interceptors should also narrow the event types they are
+ * invoked for to the ones they handle.
  */
 public class BaseInterceptor implements YarnSchedulerInterceptor {
+  /**
+   * Filter allowing callbacks for all nodes, which is not evaluated when dispatching events.
+   */
+  public static final CallBackFilter ALLOW_ALL_NODES = new CallBackFilter() {
+    @Override
+    public boolean allowCallBacksForNode(NodeId nodeManager) {
+      return true;
+    }
+  };
+
   // restrict the constructor
   protected BaseInterceptor() {
   }
 
   @Override
   public CallBackFilter getCallBackFilter() {
-    return new CallBackFilter() {
-      @Override
-      public boolean allowCallBacksForNode(NodeId nodeManager) {
-        return true;
-      }
-    };
+    return ALLOW_ALL_NODES;
+  }
+
+  @Override
+  public Set<SchedulerEventType> getSchedulerEventTypes() {
+    return EnumSet.allOf(SchedulerEventType.class);
+  }
+
+  @Override
+  public Set<RMNodeEventType> getRMNodeEventTypes() {
+    return EnumSet.allOf(RMNodeEventType.class);
   }
 
   @Override
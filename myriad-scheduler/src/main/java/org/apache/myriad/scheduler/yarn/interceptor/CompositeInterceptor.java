@@ -22,8 +22,12 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.yarn.api.records.ContainerId;
 import org.apache.hadoop.yarn.api.records.ContainerStatus;
@@ -32,6 +36,7 @@ import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.AbstractYarnScheduler;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerApplicationAttempt;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeAddedSchedulerEvent;
@@ -39,6 +44,7 @@ import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeRemoved
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeResourceUpdateSchedulerEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -48,11 +54,16 @@ import org.slf4j.LoggerFactory;
  * <p/>
  * The {@link CompositeInterceptor} allows other interceptors to be registered via {@link InterceptorRegistry}
  * and passes control to the registered interceptors whenever a event/method call is being intercepted.
+ * <p/>
+ * The event types and {@link CallBackFilter} of each interceptor are looked up when it is registered, and
+ * the interceptors are indexed by the event types they handle. Dispatching an event therefore only visits
+ * the interceptors interested in its type, and evaluates the filter of each of them once.
  */
 public class CompositeInterceptor implements YarnSchedulerInterceptor, InterceptorRegistry {
   private static final Logger LOGGER = LoggerFactory.getLogger(CompositeInterceptor.class);
 
   private Map<Class<?>, YarnSchedulerInterceptor> interceptors = Maps.newLinkedHashMap();
+  private volatile Dispatch dispatch = new Dispatch(interceptors.values());
   private YarnSchedulerInterceptor myriadInitInterceptor;
 
   /**
@@ -69,34 +80,44 @@ public class CompositeInterceptor implements YarnSchedulerInterceptor, Intercept
   }
 
   @Override
-  public void register(YarnSchedulerInterceptor interceptor) {
+  public synchronized void register(YarnSchedulerInterceptor interceptor) {
     interceptors.put(interceptor.getClass(), interceptor);
-    LOGGER.info("Registered {} into the registry.", interceptor.getClass().getName());
+    dispatch = new Dispatch(interceptors.values());
+    LOGGER.info("Registered {} into the registry for scheduler events {} and RMNode events {}.",
+        interceptor.getClass().getName(), interceptor.getSchedulerEventTypes(), interceptor.getRMNodeEventTypes());
   }
 
   @Override
   public CallBackFilter getCallBackFilter() {
-    return new CallBackFilter() {
-      @Override
-      public boolean allowCallBacksForNode(NodeId nodeManager) {
-        return true;
-      }
-    };
+    return BaseInterceptor.ALLOW_ALL_NODES;
+  }
+
+  @Override
+  public Set<SchedulerEventType> getSchedulerEventTypes() {
+    return EnumSet.allOf(SchedulerEventType.class);
+  }
+
+  @Override
+  public Set<RMNodeEventType> getRMNodeEventTypes() {
+    return EnumSet.allOf(RMNodeEventType.class);
   }
 
   @Override
   public void beforeReleaseContainers(List<ContainerId> containers, SchedulerApplicationAttempt attempt){
     if (containers != null && attempt != null) {
-      for (YarnSchedulerInterceptor interceptor : interceptors.values()) {
+      NodeId[] nodeIds = new NodeId[containers.size()];
+      for (int i = 0; i < nodeIds.length; i++) {
+        nodeIds[i] = attempt.getRMContainer(containers.get(i)).getContainer().getNodeId();
+      }
+      for (Registration registration : dispatch.all) {
         List<ContainerId> filteredContainers = new ArrayList<>();
-        for (ContainerId containerId: containers) {
-          NodeId nodeId = attempt.getRMContainer(containerId).getContainer().getNodeId();
-          if ((nodeId != null && interceptor.getCallBackFilter().allowCallBacksForNode(nodeId))) {
-            filteredContainers.add(containerId);
+        for (int i = 0; i < nodeIds.length; i++) {
+          if (nodeIds[i] != null && registration.allows(nodeIds[i])) {
+            filteredContainers.add(containers.get(i));
           }
         }
         if (!filteredContainers.isEmpty()) {
-          interceptor.beforeReleaseContainers(filteredContainers, attempt);
+          registration.interceptor.beforeReleaseContainers(filteredContainers, attempt);
         }
       }
     }
@@ -105,9 +126,9 @@ public class CompositeInterceptor implements YarnSchedulerInterceptor, Intercept
   public void beforeCompletedContainer(RMContainer rmContainer, ContainerStatus containerStatus, RMContainerEventType event) {
     if (rmContainer != null && rmContainer.getContainer() != null) {
       NodeId nodeId = rmContainer.getContainer().getNodeId();
-      for (YarnSchedulerInterceptor interceptor : interceptors.values()) {
-        if (interceptor.getCallBackFilter().allowCallBacksForNode(nodeId)) {
-          interceptor.beforeCompletedContainer(rmContainer, containerStatus, event);
+      for (Registration registration : dispatch.all) {
+        if (registration.allows(nodeId)) {
+          registration.interceptor.beforeCompletedContainer(rmContainer, containerStatus, event);
         }
       }
     }
@@ -130,29 +151,46 @@ public class CompositeInterceptor implements YarnSchedulerInterceptor, Intercept
 
   @Override
   public void beforeRMNodeEventHandled(RMNodeEvent event, RMContext context) {
-    for (YarnSchedulerInterceptor interceptor : interceptors.values()) {
-      if (interceptor.getCallBackFilter().allowCallBacksForNode(event.getNodeId())) {
-        interceptor.beforeRMNodeEventHandled(event, context);
+    Registration[] registrations = dispatch.rmNodeEvents.get(event.getType());
+    if (registrations.length == 0) {
+      return;
+    }
+    NodeId nodeId = event.getNodeId();
+    for (Registration registration : registrations) {
+      if (registration.allows(nodeId)) {
+        registration.interceptor.beforeRMNodeEventHandled(event, context);
       }
     }
   }
 
   @Override
   public void beforeSchedulerEventHandled(SchedulerEvent event) {
-    for (YarnSchedulerInterceptor interceptor : interceptors.values()) {
-      final NodeId nodeId = getNodeIdForSchedulerEvent(event);
-      if (nodeId != null && interceptor.getCallBackFilter().allowCallBacksForNode(nodeId)) {
-        interceptor.beforeSchedulerEventHandled(event);
+    Registration[] registrations = dispatch.schedulerEvents.get(event.getType());
+    if (registrations.length == 0) {
+      return;
+    }
+    NodeId nodeId = getNodeIdForSchedulerEvent(event);
+    if (nodeId != null) {
+      for (Registration registration : registrations) {
+        if (registration.allows(nodeId)) {
+          registration.interceptor.beforeSchedulerEventHandled(event);
+        }
       }
     }
   }
 
   @Override
   public void afterSchedulerEventHandled(SchedulerEvent event) {
-    for (YarnSchedulerInterceptor interceptor : interceptors.values()) {
-      NodeId nodeId = getNodeIdForSchedulerEvent(event);
-      if (nodeId != null && interceptor.getCallBackFilter().allowCallBacksForNode(nodeId)) {
-        interceptor.afterSchedulerEventHandled(event);
+    Registration[] registrations = dispatch.schedulerEvents.get(event.getType());
+    if (registrations.length == 0) {
+      return;
+    }
+    NodeId nodeId = getNodeIdForSchedulerEvent(event);
+    if (nodeId != null) {
+      for (Registration registration : registrations) {
+        if (registration.allows(nodeId)) {
+          registration.interceptor.afterSchedulerEventHandled(event);
+        }
       }
     }
   }
@@ -170,4 +208,58 @@ public class CompositeInterceptor implements YarnSchedulerInterceptor, Intercept
     }
     return null;
   }
+
+  /**
+   * Registered interceptor with the filter it returned when it was registered.
+   */
+  private static class Registration {
+    private final YarnSchedulerInterceptor interceptor;
+    private final CallBackFilter filter;
+
+    Registration(YarnSchedulerInterceptor interceptor) {
+      this.interceptor = interceptor;
+      CallBackFilter callBackFilter = interceptor.getCallBackFilter();
+      this.filter = callBackFilter == BaseInterceptor.ALLOW_ALL_NODES ? null : callBackFilter;
+    }
+
+    boolean allows(NodeId nodeId) {
+      return filter == null || filter.allowCallBacksForNode(nodeId);
+    }
+  }
+
+  /**
+   * Immutable index of the registered interceptors by the event types they handle, replaced on registration.
+   */
+  private static class Dispatch {
+    private final Registration[] all;
+    private final EnumMap<SchedulerEventType, Registration[]> schedulerEvents = new EnumMap<>(SchedulerEventType.class);
+    private final EnumMap<RMNodeEventType, Registration[]> rmNodeEvents = new EnumMap<>(RMNodeEventType.class);
+
+    Dispatch(Collection<YarnSchedulerInterceptor> interceptors) {
+      List<Registration> registrations = new ArrayList<>(interceptors.size());
+      for (YarnSchedulerInterceptor interceptor : interceptors) {
+        registrations.add(new Registration(interceptor));
+      }
+      this.all = registrations.toArray(new Registration[registrations.size()]);
+
+      for (SchedulerEventType type : SchedulerEventType.values()) {
+        List<Registration> handlers = new ArrayList<>();
+        for (Registration registration : all) {
+          if (registration.interceptor.getSchedulerEventTypes().contains(type)) {
+            handlers.add(registration);
+          }
+        }
+        schedulerEvents.put(type, handlers.toArray(new Registration[handlers.size()]));
+      }
+      for (RMNodeEventType type : RMNodeEventType.values()) {
+        List<Registration> handlers = new ArrayList<>();
+        for (Registration registration : all) {
+          if (registration.interceptor.getRMNodeEventTypes().contains(type)) {
+            handlers.add(registration);
+          }
+        }
+        rmNodeEvents.put(type, handlers.toArray(new Registration[handlers.size()]));
+      }
+    }
+  }
 }
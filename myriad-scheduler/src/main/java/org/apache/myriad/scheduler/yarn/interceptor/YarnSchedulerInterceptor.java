@@ -20,6 +20,7 @@ package org.apache.myriad.scheduler.yarn.interceptor;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.yarn.api.records.ContainerId;
@@ -29,11 +30,13 @@ import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeImpl;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.AbstractYarnScheduler;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerApplicationAttempt;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.YarnScheduler;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
 
 /**
  * Allows interception of YARN's scheduler events (or methods).
@@ -57,12 +60,29 @@ public interface YarnSchedulerInterceptor {
   /**
    * Return an instance of {@link CallBackFilter}. {@link CallBackFilter#allowCallBacksForNode(NodeId)}
    * method is invoked to *determine* if any of the other methods pertaining to a specific node
-   * needs to be invoked or not.
+   * needs to be invoked or not. Consulted once, when the interceptor is registered.
    *
    * @return
    */
   public CallBackFilter getCallBackFilter();
 
+  /**
+   * Returns the types of scheduler events {@link #beforeSchedulerEventHandled(SchedulerEvent)} and
+   * {@link #afterSchedulerEventHandled(SchedulerEvent)} are invoked for. Consulted once, when the
+   * interceptor is registered.
+   *
+   * @return
+   */
+  public Set<SchedulerEventType> getSchedulerEventTypes();
+
+  /**
+   * Returns the types of RMNode events {@link #beforeRMNodeEventHandled(RMNodeEvent, RMContext)} is
+   * invoked for. Consulted once, when the interceptor is registered.
+   *
+   * @return
+   */
+  public Set<RMNodeEventType> getRMNodeEventTypes();
+
   /**
    * Invoked *before* {@link org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FairScheduler#releaseContainers(List,
    * SchedulerApplicationAttempt)}
@@ -21,13 +21,18 @@ package org.apache.myriad.state;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -39,56 +44,106 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 
 /**
  * Encapsulates the state of the all {@link NodeTask} objects managed
  * by a {@link MyriadScheduler} as well as corresponding state update methods.
+ * <p/>
+ * Mutations are applied by one writer at a time and each mutation is committed once: an immutable
+ * {@link SchedulerStateSnapshot} is published and the state store is updated. Readers only use the
+ * published snapshot and never block on the writer. The writer keeps the task sets immutable, so a
+ * mutation only copies the sets it changes and snapshots share all others. The {@link NodeTask} of a
+ * task id is looked up in a concurrent map shared by all snapshots, as are the ids of the tasks
+ * launched on a slave.
+ * <p/>
+ * While a batch is open, see {@link #beginBatch()}, committed mutations are still published to readers
+ * right away but the state store is only updated once at the end of the batch.
  */
 public class SchedulerState {
   private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerState.class);
 
   private static Pattern taskIdPattern = Pattern.compile("\\.");
 
-  private Map<Protos.TaskID, NodeTask> tasks;
+  // Guarded by this, only accessed by the writer
+  private final Map<Protos.TaskID, NodeTask> tasks;
+  private final Map<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> taskIdsForType;
+  private final Map<Protos.TaskID, SlaveID> taskSlaves;
+  private final Map<SlaveID, ImmutableSet<Protos.TaskID>> taskIdsForSlave;
+  // Prefixes and states whose task sets changed since the last published snapshot
+  private final Set<String> changedPrefixes = new HashSet<>();
+  private final Set<TaskState> changedStates = EnumSet.noneOf(TaskState.class);
   private Protos.FrameworkID frameworkId;
   private MyriadStateStore stateStore;
-  private Map<String, SchedulerStateForType> statesForTaskType;
+  private boolean changed;
+  private int openBatches;
+  private boolean storeOutdated;
+
+  // Task ids are unique per scheduler instance by a sequence, and across instances by a random base that
+  // is generated once rather than per task
+  private final String taskIdBase = UUID.randomUUID().toString();
+  private long taskIdSequence;
+
+  private volatile SchedulerStateSnapshot snapshot;
+  private final List<SchedulerStateListener> listeners = new CopyOnWriteArrayList<>();
 
   public SchedulerState(MyriadStateStore stateStore) {
-    this.tasks = new ConcurrentHashMap<>();
+    this.tasks = new ConcurrentHashMap<>(200, 0.75f, 50);
     this.stateStore = stateStore;
-    this.statesForTaskType = new ConcurrentHashMap<>();
+    this.taskIdsForType = new LinkedHashMap<>();
+    this.taskSlaves = new HashMap<>();
+    this.taskIdsForSlave = new ConcurrentHashMap<>(200, 0.75f, 50);
     loadStateStore();
+    publishSnapshot();
   }
 
   /**
    * Making method synchronized, so if someone tries flexup/down at the same time
    * addNodes and removeTask will not put data into an inconsistent state
+   * <p/>
+   * All nodes are added as pending in one mutation, so the state store is updated once however many
+   * nodes are added.
    *
    * @param nodes
+   * @return the ids of the added tasks, in the order of the nodes
    */
-  public synchronized void addNodes(Collection<NodeTask> nodes) {
+  public synchronized List<Protos.TaskID> addNodes(Collection<NodeTask> nodes) {
     if (CollectionUtils.isEmpty(nodes)) {
       LOGGER.info("No nodes to add");
-      return;
+      return Collections.emptyList();
     }
+    List<Protos.TaskID> taskIds = new ArrayList<>(nodes.size());
+    Map<String, List<Protos.TaskID>> taskIdsForPrefix = new HashMap<>();
     for (NodeTask node : nodes) {
-      Protos.TaskID taskId = Protos.TaskID.newBuilder().setValue(String.format("%s.%s.%s", node.getTaskPrefix(),
-          node.getProfile().getName(), UUID.randomUUID())).build();
-      addTask(taskId, node);
-      SchedulerStateForType taskState = this.statesForTaskType.get(node.getTaskPrefix());
-      LOGGER.info("Marked taskId {} pending, size of pending queue for {} is: {}", taskId.getValue(), node.getTaskPrefix(),
-          (taskState == null ? 0 : taskState.getPendingTaskIds().size()));
-      makeTaskPending(taskId);
+      Protos.TaskID taskId = Protos.TaskID.newBuilder().setValue(String.format("%s.%s.%s-%d", node.getTaskPrefix(),
+          node.getProfile().getName(), taskIdBase, ++taskIdSequence)).build();
+      tasks.put(taskId, node);
+      setTaskSlave(taskId, node.getSlaveId());
+      taskIds.add(taskId);
+      String taskPrefix = getTaskPrefix(taskId);
+      List<Protos.TaskID> prefixIds = taskIdsForPrefix.get(taskPrefix);
+      if (prefixIds == null) {
+        prefixIds = new ArrayList<>();
+        taskIdsForPrefix.put(taskPrefix, prefixIds);
+      }
+      prefixIds.add(taskId);
     }
-
+    for (Map.Entry<String, List<Protos.TaskID>> entry : taskIdsForPrefix.entrySet()) {
+      addTaskIds(entry.getKey(), TaskState.PENDING, entry.getValue());
+      LOGGER.info("Marked {} {} tasks pending, size of pending queue is: {}", entry.getValue().size(), entry.getKey(),
+          getTaskIds(entry.getKey(), TaskState.PENDING).size());
+    }
+    commit();
+    return taskIds;
   }
 
   // TODO (sdaingade) Clone NodeTask
   public synchronized void addTask(Protos.TaskID taskId, NodeTask node) {
     this.tasks.put(taskId, node);
-    updateStateStore();
+    setTaskSlave(taskId, node.getSlaveId());
+    commit();
   }
 
   public synchronized void updateTask(Protos.TaskStatus taskStatus) {
@@ -97,84 +152,72 @@ public class SchedulerState {
     if (this.tasks.containsKey(taskId)) {
       this.tasks.get(taskId).setTaskStatus(taskStatus);
     }
-    updateStateStore();
+    commit();
   }
 
   public synchronized void makeTaskPending(Protos.TaskID taskId) {
     Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-    String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-    SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-    if (taskTypeState == null) {
-      taskTypeState = new SchedulerStateForType(taskPrefix);
-      statesForTaskType.put(taskPrefix, taskTypeState);
-    }
-    taskTypeState.makeTaskPending(taskId);
-    updateStateStore();
+    setTaskState(taskId, TaskState.PENDING);
+    commit();
   }
 
   public synchronized void makeTaskStaging(Protos.TaskID taskId) {
     Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-    String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-    SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-    if (taskTypeState == null) {
-      taskTypeState = new SchedulerStateForType(taskPrefix);
-      statesForTaskType.put(taskPrefix, taskTypeState);
-    }
-    taskTypeState.makeTaskStaging(taskId);
-    updateStateStore();
+    setTaskState(taskId, TaskState.STAGING);
+    commit();
   }
 
   public synchronized void makeTaskActive(Protos.TaskID taskId) {
     Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-    String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-    SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-    if (taskTypeState == null) {
-      taskTypeState = new SchedulerStateForType(taskPrefix);
-      statesForTaskType.put(taskPrefix, taskTypeState);
-    }
-    taskTypeState.makeTaskActive(taskId);
-    updateStateStore();
+    setTaskState(taskId, TaskState.ACTIVE);
+    commit();
   }
 
   public synchronized void makeTaskLost(Protos.TaskID taskId) {
     Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-    String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-    SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-    if (taskTypeState == null) {
-      taskTypeState = new SchedulerStateForType(taskPrefix);
-      statesForTaskType.put(taskPrefix, taskTypeState);
-    }
-    taskTypeState.makeTaskLost(taskId);
-    updateStateStore();
+    setTaskState(taskId, TaskState.LOST);
+    commit();
   }
 
   public synchronized void makeTaskKillable(Protos.TaskID taskId) {
     Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-    String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-    SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-    if (taskTypeState == null) {
-      taskTypeState = new SchedulerStateForType(taskPrefix);
-      statesForTaskType.put(taskPrefix, taskTypeState);
+    TaskState previous = getTaskState(taskId);
+    setTaskState(taskId, TaskState.KILLABLE);
+    commit();
+    if (previous != TaskState.KILLABLE) {
+      for (SchedulerStateListener listener : listeners) {
+        listener.taskKillable(taskId, previous);
+      }
     }
-    taskTypeState.makeTaskKillable(taskId);
-    updateStateStore();
+  }
+
+  /**
+   * Registers a listener that is notified of the task transitions committed from now on.
+   *
+   * @param listener
+   */
+  public void addListener(SchedulerStateListener listener) {
+    listeners.add(listener);
+  }
+
+  /**
+   * @return the state as of the last committed mutation
+   */
+  public SchedulerStateSnapshot getSnapshot() {
+    return snapshot;
   }
 
   // TODO (sdaingade) Clone NodeTask
-  public synchronized NodeTask getTask(Protos.TaskID taskId) {
-    return this.tasks.get(taskId);
+  public NodeTask getTask(Protos.TaskID taskId) {
+    return snapshot.getTask(taskId);
   }
 
   /**
    * Return a list of TaskIDs corresponding to all killable tasks
    * @return
    */
-  public synchronized Set<Protos.TaskID> getKillableTaskIds() {
-    Set<Protos.TaskID> returnSet = new HashSet<>();
-    for (Map.Entry<String, SchedulerStateForType> entry : statesForTaskType.entrySet()) {
-      returnSet.addAll(entry.getValue().getKillableTaskIds());
-    }
-    return returnSet;
+  public Set<Protos.TaskID> getKillableTaskIds() {
+    return snapshot.getTaskIds(TaskState.KILLABLE);
   }
 
   /**
@@ -183,60 +226,43 @@ public class SchedulerState {
    * @param taskPrefix
    * @return
    */
-  public synchronized Set<Protos.TaskID> getKillableTaskIds(String taskPrefix) {
-    SchedulerStateForType stateTask = statesForTaskType.get(taskPrefix);
-    return (stateTask == null ? new HashSet<Protos.TaskID>() : stateTask.getKillableTaskIds());
+  public Set<Protos.TaskID> getKillableTaskIds(String taskPrefix) {
+    return snapshot.getTaskIds(TaskState.KILLABLE, taskPrefix);
   }
 
   public synchronized void removeTask(Protos.TaskID taskId) {
-    String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-    SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-    if (taskTypeState != null) {
-      taskTypeState.removeTask(taskId);
+    setTaskState(taskId, null);
+    setTaskSlave(taskId, null);
+    NodeTask removed = this.tasks.remove(taskId);
+    commit();
+    if (removed != null) {
+      for (SchedulerStateListener listener : listeners) {
+        listener.taskRemoved(taskId);
+      }
     }
-    this.tasks.remove(taskId);
-    updateStateStore();
   }
 
-  public synchronized Set<Protos.TaskID> getPendingTaskIds() {
-    Set<Protos.TaskID> returnSet = new HashSet<>();
-    for (Map.Entry<String, SchedulerStateForType> entry : statesForTaskType.entrySet()) {
-      returnSet.addAll(entry.getValue().getPendingTaskIds());
-    }
-    return returnSet;
+  public Set<Protos.TaskID> getPendingTaskIds() {
+    return snapshot.getTaskIds(TaskState.PENDING);
   }
 
-  public synchronized Collection<Protos.TaskID> getPendingTaskIDsForProfile(ServiceResourceProfile serviceProfile) {
-    List<Protos.TaskID> pendingTaskIds = new ArrayList<>();
-    Set<Protos.TaskID> pendingTasks = getPendingTaskIds();
-    for (Map.Entry<Protos.TaskID, NodeTask> entry : tasks.entrySet()) {
-      NodeTask nodeTask = entry.getValue();
-      if (pendingTasks.contains(entry.getKey()) && nodeTask.getProfile().getName().equals(serviceProfile.getName())) {
-        pendingTaskIds.add(entry.getKey());
-      }
-    }
-    return Collections.unmodifiableCollection(pendingTaskIds);
+  public Collection<Protos.TaskID> getPendingTaskIDsForProfile(ServiceResourceProfile serviceProfile) {
+    return getTaskIDsForProfile(snapshot, TaskState.PENDING, serviceProfile);
   }
 
-  public synchronized Set<Protos.TaskID> getPendingTaskIds(String taskPrefix) {
-    SchedulerStateForType stateTask = statesForTaskType.get(taskPrefix);
-    return (stateTask == null ? new HashSet<Protos.TaskID>() : stateTask.getPendingTaskIds());
+  public Set<Protos.TaskID> getPendingTaskIds(String taskPrefix) {
+    return snapshot.getTaskIds(TaskState.PENDING, taskPrefix);
   }
 
-  public synchronized Set<Protos.TaskID> getActiveTaskIds() {
-    Set<Protos.TaskID> returnSet = new HashSet<>();
-    for (Map.Entry<String, SchedulerStateForType> entry : statesForTaskType.entrySet()) {
-      returnSet.addAll(entry.getValue().getActiveTaskIds());
-    }
-    return returnSet;
+  public Set<Protos.TaskID> getActiveTaskIds() {
+    return snapshot.getTaskIds(TaskState.ACTIVE);
   }
 
-  public synchronized Set<Protos.TaskID> getActiveTaskIds(String taskPrefix) {
-    SchedulerStateForType stateTask = statesForTaskType.get(taskPrefix);
-    return (stateTask == null ? new HashSet<Protos.TaskID>() : stateTask.getActiveTaskIds());
+  public Set<Protos.TaskID> getActiveTaskIds(String taskPrefix) {
+    return snapshot.getTaskIds(TaskState.ACTIVE, taskPrefix);
   }
 
-  public synchronized Set<NodeTask> getActiveTasks() {
+  public Set<NodeTask> getActiveTasks() {
     return getTasks(getActiveTaskIds());
   }
 
@@ -256,103 +282,85 @@ public class SchedulerState {
     return getTasks(getPendingTaskIds(taskPrefix));
   }
 
-  public synchronized Set<NodeTask> getTasks(Set<Protos.TaskID> taskIds) {
+  public Set<NodeTask> getTasks(Set<Protos.TaskID> taskIds) {
     Set<NodeTask> nodeTasks = new HashSet<>();
-    if (CollectionUtils.isNotEmpty(taskIds) && CollectionUtils.isNotEmpty(tasks.values())) {
-      for (Map.Entry<Protos.TaskID, NodeTask> entry : tasks.entrySet()) {
-        if (taskIds.contains(entry.getKey())) {
-          nodeTasks.add(entry.getValue());
+    if (CollectionUtils.isNotEmpty(taskIds)) {
+      SchedulerStateSnapshot current = snapshot;
+      for (Protos.TaskID taskId : taskIds) {
+        NodeTask task = current.getTask(taskId);
+        if (task != null) {
+          nodeTasks.add(task);
         }
       }
     }
     return Collections.unmodifiableSet(nodeTasks);
   }
 
-  public synchronized Collection<Protos.TaskID> getActiveTaskIDsForProfile(ServiceResourceProfile serviceProfile) {
-    List<Protos.TaskID> activeTaskIDs = new ArrayList<>();
-    Set<Protos.TaskID> activeTaskIds = getActiveTaskIds();
-    if (CollectionUtils.isNotEmpty(activeTaskIds) && CollectionUtils.isNotEmpty(tasks.values())) {
-      for (Map.Entry<Protos.TaskID, NodeTask> entry : tasks.entrySet()) {
-        NodeTask nodeTask = entry.getValue();
-        if (activeTaskIds.contains(entry.getKey()) && nodeTask.getProfile().getName().equals(serviceProfile.getName())) {
-          activeTaskIDs.add(entry.getKey());
-        }
-      }
-    }
-    return Collections.unmodifiableCollection(activeTaskIDs);
+  public Collection<Protos.TaskID> getActiveTaskIDsForProfile(ServiceResourceProfile serviceProfile) {
+    return getTaskIDsForProfile(snapshot, TaskState.ACTIVE, serviceProfile);
   }
 
   // TODO (sdaingade) Clone NodeTask
-  public synchronized NodeTask getNodeTask(SlaveID slaveId, String taskPrefix) {
+  public NodeTask getNodeTask(SlaveID slaveId, String taskPrefix) {
     if (taskPrefix == null) {
       return null;
     }
-    for (Map.Entry<Protos.TaskID, NodeTask> entry : tasks.entrySet()) {
-      final NodeTask task = entry.getValue();
-      if (task.getSlaveId() != null &&
-          task.getSlaveId().equals(slaveId) &&
-          taskPrefix.equals(task.getTaskPrefix())) {
-        return entry.getValue();
+    for (Protos.TaskID taskId : getTaskIds(slaveId)) {
+      final NodeTask task = snapshot.getTask(taskId);
+      if (task != null && taskPrefix.equals(task.getTaskPrefix())) {
+        return task;
       }
     }
     return null;
   }
 
-  public synchronized Set<NodeTask> getNodeTasks(SlaveID slaveId) {
+  public Set<NodeTask> getNodeTasks(SlaveID slaveId) {
     Set<NodeTask> nodeTasks = Sets.newHashSet();
-    for (Map.Entry<Protos.TaskID, NodeTask> entry : tasks.entrySet()) {
-      final NodeTask task = entry.getValue();
-      if (task.getSlaveId() != null && task.getSlaveId().equals(slaveId)) {
-        nodeTasks.add(entry.getValue());
+    for (Protos.TaskID taskId : getTaskIds(slaveId)) {
+      final NodeTask task = snapshot.getTask(taskId);
+      if (task != null) {
+        nodeTasks.add(task);
       }
     }
     return nodeTasks;
   }
 
-  public Set<Protos.TaskID> getStagingTaskIds() {
-    Set<Protos.TaskID> returnSet = new HashSet<>();
-    for (Map.Entry<String, SchedulerStateForType> entry : statesForTaskType.entrySet()) {
-      returnSet.addAll(entry.getValue().getStagingTaskIds());
-    }
-    return returnSet;
+  /**
+   * Returns the ids of the tasks launched on a slave, looked up in an index maintained as tasks are added.
+   *
+   * @param slaveId
+   * @return set of task ids
+   */
+  public Set<Protos.TaskID> getTaskIds(SlaveID slaveId) {
+    ImmutableSet<Protos.TaskID> taskIds = taskIdsForSlave.get(slaveId);
+    return taskIds == null ? ImmutableSet.<Protos.TaskID>of() : taskIds;
   }
 
-  public synchronized Collection<Protos.TaskID> getStagingTaskIDsForProfile(ServiceResourceProfile serviceProfile) {
-    List<Protos.TaskID> stagingTaskIDs = new ArrayList<>();
+  public Set<Protos.TaskID> getStagingTaskIds() {
+    return snapshot.getTaskIds(TaskState.STAGING);
+  }
 
-    Set<Protos.TaskID> stagingTasks = getStagingTaskIds();
-    for (Map.Entry<Protos.TaskID, NodeTask> entry : tasks.entrySet()) {
-      NodeTask nodeTask = entry.getValue();
-      if (stagingTasks.contains(entry.getKey()) && nodeTask.getProfile().getName().equals(serviceProfile.getName())) {
-        stagingTaskIDs.add(entry.getKey());
-      }
-    }
-    return Collections.unmodifiableCollection(stagingTaskIDs);
+  public Collection<Protos.TaskID> getStagingTaskIDsForProfile(ServiceResourceProfile serviceProfile) {
+    return getTaskIDsForProfile(snapshot, TaskState.STAGING, serviceProfile);
   }
 
   public Set<Protos.TaskID> getStagingTaskIds(String taskPrefix) {
-    SchedulerStateForType stateTask = statesForTaskType.get(taskPrefix);
-    return (stateTask == null ? new HashSet<Protos.TaskID>() : stateTask.getStagingTaskIds());
+    return snapshot.getTaskIds(TaskState.STAGING, taskPrefix);
   }
 
   public Set<Protos.TaskID> getLostTaskIds() {
-    Set<Protos.TaskID> returnSet = new HashSet<>();
-    for (Map.Entry<String, SchedulerStateForType> entry : statesForTaskType.entrySet()) {
-      returnSet.addAll(entry.getValue().getLostTaskIds());
-    }
-    return returnSet;
+    return snapshot.getTaskIds(TaskState.LOST);
   }
 
   public Set<Protos.TaskID> getLostTaskIds(String taskPrefix) {
-    SchedulerStateForType stateTask = statesForTaskType.get(taskPrefix);
-    return (stateTask == null ? new HashSet<Protos.TaskID>() : stateTask.getLostTaskIds());
+    return snapshot.getTaskIds(TaskState.LOST, taskPrefix);
   }
 
   // TODO (sdaingade) Currently cannot return unmodifiableCollection
   // as this will break ReconcileService code
-  public synchronized Collection<Protos.TaskStatus> getTaskStatuses() {
-    Collection<Protos.TaskStatus> taskStatuses = new ArrayList<>(this.tasks.size());
-    Collection<NodeTask> tasks = this.tasks.values();
+  public Collection<Protos.TaskStatus> getTaskStatuses() {
+    Collection<NodeTask> tasks = snapshot.getTasks().values();
+    Collection<Protos.TaskStatus> taskStatuses = new ArrayList<>(tasks.size());
     for (NodeTask task : tasks) {
       Protos.TaskStatus taskStatus = task.getTaskStatus();
       if (taskStatus != null) {
@@ -363,28 +371,194 @@ public class SchedulerState {
     return taskStatuses;
   }
 
-  public synchronized boolean hasTask(Protos.TaskID taskID) {
-    return this.tasks.containsKey(taskID);
+  public boolean hasTask(Protos.TaskID taskID) {
+    return snapshot.getTasks().containsKey(taskID);
   }
 
-  public synchronized Optional<Protos.FrameworkID> getFrameworkID() {
-    return Optional.fromNullable(frameworkId);
+  public Optional<Protos.FrameworkID> getFrameworkID() {
+    return snapshot.getFrameworkId();
   }
 
   public synchronized void setFrameworkId(Protos.FrameworkID newFrameworkId) {
     this.frameworkId = newFrameworkId;
-    updateStateStore();
+    this.changed = true;
+    commit();
+  }
+
+  private static Collection<Protos.TaskID> getTaskIDsForProfile(SchedulerStateSnapshot snapshot, TaskState state,
+                                                                ServiceResourceProfile serviceProfile) {
+    List<Protos.TaskID> taskIDs = new ArrayList<>();
+    for (Protos.TaskID taskId : snapshot.getTaskIds(state)) {
+      NodeTask nodeTask = snapshot.getTask(taskId);
+      if (nodeTask != null && nodeTask.getProfile().getName().equals(serviceProfile.getName())) {
+        taskIDs.add(taskId);
+      }
+    }
+    return Collections.unmodifiableCollection(taskIDs);
+  }
+
+  private static String getTaskPrefix(Protos.TaskID taskId) {
+    return taskIdPattern.split(taskId.getValue())[0];
+  }
+
+  private TaskState getTaskState(Protos.TaskID taskId) {
+    EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds = taskIdsForType.get(getTaskPrefix(taskId));
+    if (typeIds != null) {
+      for (Map.Entry<TaskState, ImmutableSet<Protos.TaskID>> entry : typeIds.entrySet()) {
+        if (entry.getValue().contains(taskId)) {
+          return entry.getKey();
+        }
+      }
+    }
+    return null;
   }
 
-  private synchronized void updateStateStore() {
+  private Set<Protos.TaskID> getTaskIds(String taskPrefix, TaskState state) {
+    EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds = taskIdsForType.get(taskPrefix);
+    return typeIds == null ? ImmutableSet.<Protos.TaskID>of() : typeIds.get(state);
+  }
+
+  /**
+   * Moves the task to the state, or removes it from all states if the state is null. Only the
+   * sets the task leaves and enters are copied.
+   */
+  private void setTaskState(Protos.TaskID taskId, TaskState state) {
+    String taskPrefix = getTaskPrefix(taskId);
+    EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds = taskIdsForType.get(taskPrefix);
+    if (typeIds == null) {
+      if (state == null) {
+        return;
+      }
+      typeIds = new EnumMap<>(TaskState.class);
+      for (TaskState taskState : TaskState.values()) {
+        typeIds.put(taskState, ImmutableSet.<Protos.TaskID>of());
+      }
+      taskIdsForType.put(taskPrefix, typeIds);
+    }
+    if (state != null && typeIds.get(state).contains(taskId)) {
+      return;
+    }
+    for (Map.Entry<TaskState, ImmutableSet<Protos.TaskID>> entry : typeIds.entrySet()) {
+      if (entry.getKey() != state && entry.getValue().contains(taskId)) {
+        ImmutableSet.Builder<Protos.TaskID> ids = ImmutableSet.builder();
+        for (Protos.TaskID id : entry.getValue()) {
+          if (!id.equals(taskId)) {
+            ids.add(id);
+          }
+        }
+        entry.setValue(ids.build());
+        markChanged(taskPrefix, entry.getKey());
+      }
+    }
+    if (state != null) {
+      typeIds.put(state, ImmutableSet.<Protos.TaskID>builder().addAll(typeIds.get(state)).add(taskId).build());
+      markChanged(taskPrefix, state);
+    }
+  }
+
+  /**
+   * Adds new tasks, which are in no state yet, to a state with a single copy of its set.
+   */
+  private void addTaskIds(String taskPrefix, TaskState state, Collection<Protos.TaskID> taskIds) {
+    EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds = taskIdsForType.get(taskPrefix);
+    if (typeIds == null) {
+      typeIds = new EnumMap<>(TaskState.class);
+      for (TaskState taskState : TaskState.values()) {
+        typeIds.put(taskState, ImmutableSet.<Protos.TaskID>of());
+      }
+      taskIdsForType.put(taskPrefix, typeIds);
+    }
+    typeIds.put(state, ImmutableSet.<Protos.TaskID>builder().addAll(typeIds.get(state)).addAll(taskIds).build());
+    markChanged(taskPrefix, state);
+  }
+
+  private void markChanged(String taskPrefix, TaskState state) {
+    changedPrefixes.add(taskPrefix);
+    changedStates.add(state);
+    changed = true;
+  }
+
+  /**
+   * Indexes the task under the slave it was launched on, or removes it from the index if the slave is null.
+   */
+  private void setTaskSlave(Protos.TaskID taskId, SlaveID slaveId) {
+    SlaveID previous = slaveId == null ? taskSlaves.remove(taskId) : taskSlaves.put(taskId, slaveId);
+    if (Objects.equals(previous, slaveId)) {
+      return;
+    }
+    if (previous != null) {
+      ImmutableSet.Builder<Protos.TaskID> ids = ImmutableSet.builder();
+      for (Protos.TaskID id : taskIdsForSlave.get(previous)) {
+        if (!id.equals(taskId)) {
+          ids.add(id);
+        }
+      }
+      ImmutableSet<Protos.TaskID> remaining = ids.build();
+      if (remaining.isEmpty()) {
+        taskIdsForSlave.remove(previous);
+      } else {
+        taskIdsForSlave.put(previous, remaining);
+      }
+    }
+    if (slaveId != null) {
+      taskIdsForSlave.put(slaveId, ImmutableSet.<Protos.TaskID>builder().addAll(getTaskIds(slaveId)).add(taskId).build());
+    }
+  }
+
+  /**
+   * Opens a batch of mutations, the state store is updated once when the batch is ended instead of on every
+   * mutation. Batches of several threads may overlap, the state store is updated at the end of each of them.
+   */
+  public synchronized void beginBatch() {
+    openBatches++;
+  }
+
+  /**
+   * Ends a batch opened by {@link #beginBatch()} and updates the state store with the mutations committed
+   * since the last update.
+   */
+  public synchronized void endBatch() {
+    Preconditions.checkState(openBatches > 0, "No batch to end");
+    openBatches--;
+    if (storeOutdated) {
+      storeOutdated = false;
+      updateStateStore();
+    }
+  }
+
+  /**
+   * Publishes the applied mutations to readers and, unless a batch is open, to the state store.
+   */
+  private void commit() {
+    if (changed) {
+      publishSnapshot();
+      changed = false;
+    }
+    if (openBatches > 0) {
+      storeOutdated = true;
+    } else {
+      updateStateStore();
+    }
+  }
+
+  private void publishSnapshot() {
+    this.snapshot = snapshot == null ? new SchedulerStateSnapshot(frameworkId, tasks, taskIdsForType) :
+        snapshot.next(frameworkId, taskIdsForType, changedPrefixes, changedStates);
+    changedPrefixes.clear();
+    changedStates.clear();
+  }
+
+  private void updateStateStore() {
     if (this.stateStore == null) {
       LOGGER.debug("Could not update state to state store as HA is disabled");
       return;
     }
 
     try {
-      StoreContext sc = new StoreContext(frameworkId, tasks, getPendingTaskIds(), getStagingTaskIds(), getActiveTaskIds(),
-          getLostTaskIds(), getKillableTaskIds());
+      SchedulerStateSnapshot current = snapshot;
+      StoreContext sc = new StoreContext(frameworkId, tasks, current.getTaskIds(TaskState.PENDING),
+          current.getTaskIds(TaskState.STAGING), current.getTaskIds(TaskState.ACTIVE), current.getTaskIds(TaskState.LOST),
+          current.getTaskIds(TaskState.KILLABLE));
       stateStore.storeMyriadState(sc);
     } catch (Exception e) {
       LOGGER.error("Failed to update scheduler state to state store", e);
@@ -402,6 +576,9 @@ public class SchedulerState {
       if (sc != null) {
         this.frameworkId = sc.getFrameworkId();
         this.tasks.putAll(sc.getTasks());
+        for (Map.Entry<Protos.TaskID, NodeTask> entry : sc.getTasks().entrySet()) {
+          setTaskSlave(entry.getKey(), entry.getValue().getSlaveId());
+        }
         convertToThis(TaskState.PENDING, sc.getPendingTasks());
         convertToThis(TaskState.STAGING, sc.getStagingTasks());
         convertToThis(TaskState.ACTIVE, sc.getActiveTasks());
@@ -410,8 +587,8 @@ public class SchedulerState {
         LOGGER.info("Loaded Myriad state from state store successfully.");
         LOGGER.debug("State Store state includes frameworkId: {}, pending tasks count: {}, staging tasks count: {} " +
                      "active tasks count: {}, lost tasks count: {}, and killable tasks count: {}", frameworkId.getValue(),
-                      this.getPendingTaskIds().size(), this.getStagingTaskIds().size(), this.getActiveTaskIds().size(),
-                      this.getLostTaskIds().size(), this.getKillableTaskIds().size());
+                      sc.getPendingTasks().size(), sc.getStagingTasks().size(), sc.getActiveTasks().size(),
+                      sc.getLostTasks().size(), sc.getKillableTasks().size());
       }
     } catch (Exception e) {
       LOGGER.error("Failed to read scheduler state from state store", e);
@@ -420,135 +597,8 @@ public class SchedulerState {
 
   private void convertToThis(TaskState taskType, Set<Protos.TaskID> taskIds) {
     for (Protos.TaskID taskId : taskIds) {
-      String taskPrefix = taskIdPattern.split(taskId.getValue())[0];
-      SchedulerStateForType taskTypeState = statesForTaskType.get(taskPrefix);
-      if (taskTypeState == null) {
-        taskTypeState = new SchedulerStateForType(taskPrefix);
-        statesForTaskType.put(taskPrefix, taskTypeState);
-      }
-      switch (taskType) {
-        case PENDING:
-          taskTypeState.makeTaskPending(taskId);
-          break;
-        case STAGING:
-          taskTypeState.makeTaskStaging(taskId);
-          break;
-        case ACTIVE:
-          taskTypeState.makeTaskActive(taskId);
-          break;
-        case KILLABLE:
-          taskTypeState.makeTaskKillable(taskId);
-          break;
-        case LOST:
-          taskTypeState.makeTaskLost(taskId);
-          break;
-      }
-    }
-  }
-
-  /**
-   * Class to keep all the tasks states for a particular taskPrefix together
-   */
-  private static class SchedulerStateForType {
-
-    private final String taskPrefix;
-    private Set<Protos.TaskID> pendingTasks;
-    private Set<Protos.TaskID> stagingTasks;
-    private Set<Protos.TaskID> activeTasks;
-    private Set<Protos.TaskID> lostTasks;
-    private Set<Protos.TaskID> killableTasks;
-
-    public SchedulerStateForType(String taskPrefix) {
-      this.taskPrefix = taskPrefix;
-      // Since Sets.newConcurrentHashSet is available only starting form Guava version 15
-      // and so far (Hadoop 2.7) uses guava 13 we can not easily use it
-      this.pendingTasks = Collections.newSetFromMap(new ConcurrentHashMap<Protos.TaskID, Boolean>());
-      this.stagingTasks = Collections.newSetFromMap(new ConcurrentHashMap<Protos.TaskID, Boolean>());
-      this.activeTasks = Collections.newSetFromMap(new ConcurrentHashMap<Protos.TaskID, Boolean>());
-      this.lostTasks = Collections.newSetFromMap(new ConcurrentHashMap<Protos.TaskID, Boolean>());
-      this.killableTasks = Collections.newSetFromMap(new ConcurrentHashMap<Protos.TaskID, Boolean>());
-
-    }
-
-    @SuppressWarnings("unused")
-    public String getTaskPrefix() {
-      return taskPrefix;
-    }
-
-    public synchronized void makeTaskPending(Protos.TaskID taskId) {
-      Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-
-      pendingTasks.add(taskId);
-      stagingTasks.remove(taskId);
-      activeTasks.remove(taskId);
-      lostTasks.remove(taskId);
-      killableTasks.remove(taskId);
-    }
-
-    public synchronized void makeTaskStaging(Protos.TaskID taskId) {
-      Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-      pendingTasks.remove(taskId);
-      stagingTasks.add(taskId);
-      activeTasks.remove(taskId);
-      lostTasks.remove(taskId);
-      killableTasks.remove(taskId);
-    }
-
-    public synchronized void makeTaskActive(Protos.TaskID taskId) {
-      Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-      pendingTasks.remove(taskId);
-      stagingTasks.remove(taskId);
-      activeTasks.add(taskId);
-      lostTasks.remove(taskId);
-      killableTasks.remove(taskId);
+      setTaskState(taskId, taskType);
     }
-
-    public synchronized void makeTaskLost(Protos.TaskID taskId) {
-      Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-      pendingTasks.remove(taskId);
-      stagingTasks.remove(taskId);
-      activeTasks.remove(taskId);
-      lostTasks.add(taskId);
-      killableTasks.remove(taskId);
-    }
-
-    public synchronized void makeTaskKillable(Protos.TaskID taskId) {
-      Objects.requireNonNull(taskId, "taskId cannot be empty or null");
-      pendingTasks.remove(taskId);
-      stagingTasks.remove(taskId);
-      activeTasks.remove(taskId);
-      lostTasks.remove(taskId);
-      killableTasks.add(taskId);
-    }
-
-    public synchronized void removeTask(Protos.TaskID taskId) {
-      this.pendingTasks.remove(taskId);
-      this.stagingTasks.remove(taskId);
-      this.activeTasks.remove(taskId);
-      this.lostTasks.remove(taskId);
-      this.killableTasks.remove(taskId);
-    }
-
-    public synchronized Set<Protos.TaskID> getPendingTaskIds() {
-      return Collections.unmodifiableSet(this.pendingTasks);
-    }
-
-    public Set<Protos.TaskID> getActiveTaskIds() {
-      return Collections.unmodifiableSet(this.activeTasks);
-    }
-
-    public synchronized Set<Protos.TaskID> getStagingTaskIds() {
-      return Collections.unmodifiableSet(this.stagingTasks);
-    }
-
-    public synchronized Set<Protos.TaskID> getLostTaskIds() {
-      return Collections.unmodifiableSet(this.lostTasks);
-    }
-
-    public synchronized Set<Protos.TaskID> getKillableTaskIds() {
-      return Collections.unmodifiableSet(this.killableTasks);
-    }
-
   }
 
   /**
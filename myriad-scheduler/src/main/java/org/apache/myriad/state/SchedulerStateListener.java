@@ -0,0 +1,35 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.state;
+
+import org.apache.mesos.Protos;
+
+/**
+ * Notified of the task transitions of {@link SchedulerState} once they are committed. Listeners are
+ * called while the state is locked, so they must return quickly and must not mutate the state.
+ */
+public interface SchedulerStateListener {
+  /**
+   * @param taskId
+   * @param previous the state the task was in before it was made killable, or null if it was in none
+   */
+  void taskKillable(Protos.TaskID taskId, SchedulerState.TaskState previous);
+
+  void taskRemoved(Protos.TaskID taskId);
+}
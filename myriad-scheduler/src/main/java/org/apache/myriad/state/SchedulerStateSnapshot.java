@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.state;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.mesos.Protos;
+import org.apache.myriad.state.SchedulerState.TaskState;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * View of the task sets of the {@link SchedulerState} as of a committed mutation. Snapshots are
+ * published by the writer after every mutation, so readers never block on or observe
+ * a partially applied mutation of the task sets. Consecutive snapshots share the task sets a mutation
+ * did not change, and a snapshot only copies the task sets of the prefixes and rebuilds
+ * the unions of the states the mutations since the previous snapshot changed.
+ * <p/>
+ * Only the task sets and the framework id are immutable. The tasks, see {@link #getTasks()} and
+ * {@link #getTask(Protos.TaskID)}, are not copied but read from the live tasks of the scheduler state:
+ * a task may have been added, removed or updated since the snapshot was taken, so its details may not
+ * match the task sets of the snapshot. Copying them would make every mutation O(tasks).
+ */
+public final class SchedulerStateSnapshot {
+  private final Optional<Protos.FrameworkID> frameworkId;
+  private final Map<Protos.TaskID, NodeTask> tasks;
+  private final ImmutableMap<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> taskIdsForType;
+  private final EnumMap<TaskState, ImmutableSet<Protos.TaskID>> taskIds = new EnumMap<>(TaskState.class);
+
+  SchedulerStateSnapshot(Protos.FrameworkID frameworkId, Map<Protos.TaskID, NodeTask> tasks,
+                         Map<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> taskIdsForType) {
+    this(null, frameworkId, Collections.unmodifiableMap(tasks), taskIdsForType, taskIdsForType.keySet(),
+        EnumSet.allOf(TaskState.class));
+  }
+
+  private SchedulerStateSnapshot(SchedulerStateSnapshot previous, Protos.FrameworkID frameworkId,
+                                 Map<Protos.TaskID, NodeTask> tasks,
+                                 Map<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> taskIdsForType,
+                                 Set<String> changedPrefixes, Set<TaskState> changedStates) {
+    this.frameworkId = Optional.fromNullable(frameworkId);
+    this.tasks = tasks;
+    ImmutableMap.Builder<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> byType = ImmutableMap.builder();
+    for (Map.Entry<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> entry : taskIdsForType.entrySet()) {
+      EnumMap<TaskState, ImmutableSet<Protos.TaskID>> previousIds = previous == null ? null :
+          previous.taskIdsForType.get(entry.getKey());
+      byType.put(entry.getKey(), previousIds == null || changedPrefixes.contains(entry.getKey()) ?
+          new EnumMap<>(entry.getValue()) : previousIds);
+    }
+    this.taskIdsForType = byType.build();
+    for (TaskState state : TaskState.values()) {
+      taskIds.put(state, previous == null || changedStates.contains(state) ? union(state) : previous.taskIds.get(state));
+    }
+  }
+
+  /**
+   * @param frameworkId
+   * @param taskIdsForType  the task sets of the scheduler state after the mutations
+   * @param changedPrefixes prefixes whose task sets the mutations changed since this snapshot
+   * @param changedStates   states whose task sets the mutations changed since this snapshot
+   * @return the snapshot after the mutations
+   */
+  SchedulerStateSnapshot next(Protos.FrameworkID frameworkId,
+                              Map<String, EnumMap<TaskState, ImmutableSet<Protos.TaskID>>> taskIdsForType,
+                              Set<String> changedPrefixes, Set<TaskState> changedStates) {
+    return new SchedulerStateSnapshot(this, frameworkId, tasks, taskIdsForType, changedPrefixes, changedStates);
+  }
+
+  public Optional<Protos.FrameworkID> getFrameworkId() {
+    return frameworkId;
+  }
+
+  /**
+   * @return a read-only view of the live tasks, not of the tasks as of the snapshot
+   */
+  public Map<Protos.TaskID, NodeTask> getTasks() {
+    return tasks;
+  }
+
+  /**
+   * @param taskId
+   * @return the live task, or null if it was removed, possibly after the snapshot was taken
+   */
+  public NodeTask getTask(Protos.TaskID taskId) {
+    return tasks.get(taskId);
+  }
+
+  /**
+   * @param taskId
+   * @return the state of the task, or null if the task is in none of the states
+   */
+  public TaskState getTaskState(Protos.TaskID taskId) {
+    for (EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds : taskIdsForType.values()) {
+      for (Map.Entry<TaskState, ImmutableSet<Protos.TaskID>> entry : typeIds.entrySet()) {
+        if (entry.getValue().contains(taskId)) {
+          return entry.getKey();
+        }
+      }
+    }
+    return null;
+  }
+
+  public Set<Protos.TaskID> getTaskIds(TaskState state) {
+    return taskIds.get(state);
+  }
+
+  public Set<Protos.TaskID> getTaskIds(TaskState state, String taskPrefix) {
+    EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds = taskIdsForType.get(taskPrefix);
+    return typeIds == null ? ImmutableSet.<Protos.TaskID>of() : typeIds.get(state);
+  }
+
+  private ImmutableSet<Protos.TaskID> union(TaskState state) {
+    if (taskIdsForType.size() == 1) {
+      return taskIdsForType.values().iterator().next().get(state);
+    }
+    ImmutableSet.Builder<Protos.TaskID> ids = ImmutableSet.builder();
+    for (EnumMap<TaskState, ImmutableSet<Protos.TaskID>> typeIds : taskIdsForType.values()) {
+      ids.addAll(typeIds.get(state));
+    }
+    return ids.build();
+  }
+}
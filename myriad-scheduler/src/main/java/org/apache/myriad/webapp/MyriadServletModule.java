@@ -24,6 +24,8 @@ import com.sun.jersey.guice.spi.container.servlet.GuiceContainer;
 import org.apache.myriad.api.ClustersResource;
 import org.apache.myriad.api.ConfigurationResource;
 import org.apache.myriad.api.ControllerResource;
+import org.apache.myriad.api.MetricsResource;
+import org.apache.myriad.api.OperationsResource;
 import org.apache.myriad.api.SchedulerStateResource;
 import org.apache.myriad.api.ArtifactsResource;
 import org.codehaus.jackson.jaxrs.JacksonJaxbJsonProvider;
@@ -40,6 +42,9 @@ public class MyriadServletModule extends ServletModule {
     bind(SchedulerStateResource.class);
     bind(ControllerResource.class);
     bind(ArtifactsResource.class);
+    bind(MetricsResource.class);
+    // Singleton, the open progress streams are counted across requests
+    bind(OperationsResource.class).in(Scopes.SINGLETON);
     bind(GuiceContainer.class);
     bind(JacksonJaxbJsonProvider.class).in(Scopes.SINGLETON);
 
@@ -57,13 +57,17 @@ import org.apache.mesos.Protos.SlaveID;
 import org.apache.mesos.Protos.Value.Type;
 import org.apache.mesos.SchedulerDriver;
 import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.scheduler.Clock;
 import org.apache.myriad.scheduler.ExtendedResourceProfile;
 import org.apache.myriad.scheduler.MockSchedulerDriver;
 import org.apache.myriad.scheduler.MyriadDriver;
 import org.apache.myriad.scheduler.MyriadDriverManager;
 import org.apache.myriad.scheduler.NMProfile;
+import org.apache.myriad.scheduler.NodeDrainer;
 import org.apache.myriad.scheduler.ServiceResourceProfile;
 import org.apache.myriad.scheduler.constraints.LikeConstraint;
+import org.apache.myriad.scheduler.fgs.NodeStore;
 import org.apache.myriad.scheduler.yarn.MyriadCapacityScheduler;
 import org.apache.myriad.scheduler.yarn.MyriadFairScheduler;
 import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
@@ -101,12 +105,17 @@ public class TestObjectFactory {
    * @return RMContainer
    */
   public static RMContainer getRMContainer(RMNode node, RMContext context, int appId, int cores, int memory) {
+    return getRMContainer(node, context, appId, cores, memory, System.currentTimeMillis());
+  }
+
+  public static RMContainer getRMContainer(RMNode node, RMContext context, int appId, int cores, int memory, long creationTime) {
     ContainerId containerId = ContainerId.newContainerId(ApplicationAttemptId.newInstance(
         ApplicationId.newInstance(123456789, 1), 1), appId);
 
     Container container = Container.newInstance(containerId, node.getNodeID(), node.getHttpAddress(),
         Resources.createResource(memory, cores), null, null);
-    return new RMContainerImpl(container, containerId.getApplicationAttemptId(), node.getNodeID(), "user1", context);
+    return new RMContainerImpl(container, containerId.getApplicationAttemptId(), node.getNodeID(), "user1", context,
+        creationTime);
   }
 
   public static RMNodeStatusEvent getRMStatusEvent(RMNode node) {
@@ -242,6 +251,18 @@ public class TestObjectFactory {
     return new MyriadDriver(driver);
   }
 
+  /**
+   * Returns a NodeDrainer for tests that do not drain registered NMs
+   *
+   * @param cfg
+   * @param state
+   * @return NodeDrainer
+   */
+  public static NodeDrainer getNodeDrainer(MyriadConfiguration cfg, SchedulerState state) {
+    return new NodeDrainer(cfg, state, new NodeStore(), null, null, new NodeStatistics(getInterceptorRegistry(),
+        getYarnScheduler(), Clock.SYSTEM), Clock.SYSTEM);
+  }
+
   public static InterceptorRegistry getInterceptorRegistry() {
     return new CompositeInterceptor();
   }
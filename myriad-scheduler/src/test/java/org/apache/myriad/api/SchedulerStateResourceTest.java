@@ -25,6 +25,7 @@ import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.FrameworkID;
 import org.apache.mesos.Protos.TaskID;
 import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.TestObjectFactory;
 import org.apache.myriad.api.model.GetSchedulerStateResponse;
 import org.apache.myriad.scheduler.ServiceResourceProfile;
 import org.apache.myriad.scheduler.constraints.LikeConstraint;
@@ -45,7 +46,8 @@ public class SchedulerStateResourceTest extends BaseConfigurableTest {
   @Before
   public void setUp() throws Exception {
     super.setUp();
-    resource = new SchedulerStateResource(cfg, getSchedulerState());
+    SchedulerState state = getSchedulerState();
+    resource = new SchedulerStateResource(cfg, state, TestObjectFactory.getNodeDrainer(cfg, state));
   }
 
   private SchedulerState getSchedulerState() throws Exception {
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import org.apache.hadoop.yarn.server.resourcemanager.metrics.SystemMetricsPublisher;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerImpl;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FSSchedulerNode;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.scheduler.ManualClock;
+import org.apache.myriad.scheduler.ServiceResourceProfile;
+import org.apache.myriad.scheduler.yarn.MyriadFairScheduler;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.Before;
+
+/**
+ * Fixture for the tests of the scale down policies that score nodes
+ */
+public abstract class BaseNodeScorePolicyTest extends BaseConfigurableTest {
+  protected MockRMContext context;
+  protected SchedulerState state;
+  protected TestFairScheduler scheduler;
+  protected NodeStatistics statistics;
+  protected ManualClock clock = new ManualClock(1000000L);
+  private ServiceResourceProfile profile;
+  private int containerId;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    context = new MockRMContext();
+    context.setDispatcher(TestObjectFactory.getMockDispatcher());
+    context.setSystemMetricsPublisher(new SystemMetricsPublisher());
+    state = TestObjectFactory.getSchedulerState(cfg, "/tmp/node-score-policy-test");
+    scheduler = new TestFairScheduler();
+    scheduler.setRMContext(context);
+    statistics = new NodeStatistics(TestObjectFactory.getInterceptorRegistry(), scheduler, clock);
+    profile = TestObjectFactory.getServiceResourceProfile("small", 2.0, 2048.0, null, null);
+  }
+
+  /**
+   * Adds a node running the given App Master and other containers and publishes its statistics.
+   */
+  protected RMNode addNode(String host, int ams, int containers) {
+    RMNode node = TestObjectFactory.getRMNode(host, 8888, 10240, 10);
+    FSSchedulerNode schedulerNode = new FSSchedulerNode(node, false);
+    scheduler.putNode(schedulerNode);
+    addContainers(node, ams, containers);
+    return node;
+  }
+
+  protected void addContainers(RMNode node, int ams, int containers) {
+    FSSchedulerNode schedulerNode = (FSSchedulerNode) scheduler.getSchedulerNode(node.getNodeID());
+    for (int i = 0; i < ams + containers; i++) {
+      RMContainerImpl container = (RMContainerImpl) TestObjectFactory.getRMContainer(node, context, ++containerId, 1, 512,
+          clock.currentTimeMillis());
+      container.setAMContainer(i < ams);
+      schedulerNode.allocateContainer(container);
+    }
+    statistics.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(node));
+  }
+
+  protected TaskID addTask(String name, String host) {
+    TaskID taskId = taskIdOf(name);
+    state.addTask(taskId, TestObjectFactory.getNodeTask(host, profile));
+    return taskId;
+  }
+
+  protected static TaskID taskIdOf(String name) {
+    return TaskID.newBuilder().setValue("nm.small." + name).build();
+  }
+
+  /**
+   * Fair scheduler whose nodes are added directly instead of through node added events
+   */
+  protected static class TestFairScheduler extends MyriadFairScheduler {
+    void putNode(FSSchedulerNode node) {
+      nodes.put(node.getNodeID(), node);
+    }
+  }
+}
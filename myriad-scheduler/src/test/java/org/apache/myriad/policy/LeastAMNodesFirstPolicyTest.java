@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeRemovedSchedulerEvent;
+import org.apache.mesos.Protos.TaskID;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Unit tests for LeastAMNodesFirstPolicy
+ */
+public class LeastAMNodesFirstPolicyTest extends BaseNodeScorePolicyTest {
+  private LeastAMNodesFirstPolicy policy;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    policy = new LeastAMNodesFirstPolicy(state, statistics);
+  }
+
+  @Test
+  public void testSortsByAMsThenContainers() throws Exception {
+    addNode("host-two-ams", 2, 2);
+    addNode("host-one-am", 1, 3);
+    addNode("host-no-am", 0, 4);
+    addNode("host-idle", 0, 0);
+
+    TaskID unregistered = addTask("unregistered", "host-unregistered");
+    TaskID unknown = taskIdOf("unknown");
+    List<TaskID> taskIds = Lists.newArrayList(addTask("two-ams", "host-two-ams"), addTask("one-am", "host-one-am"),
+        addTask("no-am", "host-no-am"), addTask("idle", "host-idle"), unregistered, unknown);
+    policy.apply(taskIds);
+
+    assertEquals(Lists.newArrayList(unregistered, unknown, taskIdOf("idle"), taskIdOf("no-am"),
+        taskIdOf("one-am"), taskIdOf("two-ams")), taskIds);
+  }
+
+  @Test
+  public void testCountsFollowNodeUpdates() throws Exception {
+    addNode("host-one", 1, 1);
+    RMNode nodeTwo = addNode("host-two", 0, 1);
+    TaskID taskOne = addTask("one", "host-one");
+    TaskID taskTwo = addTask("two", "host-two");
+
+    List<TaskID> taskIds = Lists.newArrayList(taskOne, taskTwo);
+    policy.apply(taskIds);
+    assertEquals(Lists.newArrayList(taskTwo, taskOne), taskIds);
+
+    // Two AMs start on the second node
+    addContainers(nodeTwo, 2, 0);
+    policy.apply(taskIds);
+    assertEquals(Lists.newArrayList(taskOne, taskTwo), taskIds);
+
+    // A removed node no longer counts
+    statistics.afterSchedulerEventHandled(new NodeRemovedSchedulerEvent(nodeTwo));
+    policy.apply(taskIds);
+    assertEquals(Lists.newArrayList(taskTwo, taskOne), taskIds);
+  }
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerImpl;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.SchedulerNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
+import org.junit.Test;
+
+/**
+ * Unit tests for NodeStatistics
+ */
+public class NodeStatisticsTest extends BaseNodeScorePolicyTest {
+
+  @Test
+  public void testCompletedContainersAreRemovedBeforeHeartbeat() throws Exception {
+    RMNode node = addNode("host-one", 1, 2);
+    assertStats("host-one", 1, 3, 1536);
+
+    SchedulerNode schedulerNode = scheduler.getSchedulerNode(node.getNodeID());
+    for (RMContainer container : schedulerNode.getRunningContainers()) {
+      if (container.isAMContainer()) {
+        statistics.beforeCompletedContainer(container, null, RMContainerEventType.FINISHED);
+        schedulerNode.releaseContainer(container.getContainer());
+      }
+    }
+    assertStats("host-one", 0, 2, 1024);
+
+    statistics.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(node));
+    assertStats("host-one", 0, 2, 1024);
+  }
+
+  @Test
+  public void testContainersCompletedWithoutCallbackAreReconciled() throws Exception {
+    RMNode node = addNode("host-one", 0, 2);
+    SchedulerNode schedulerNode = scheduler.getSchedulerNode(node.getNodeID());
+    schedulerNode.releaseContainer(schedulerNode.getRunningContainers().get(0).getContainer());
+
+    statistics.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(node));
+    assertStats("host-one", 0, 1, 512);
+  }
+
+  @Test
+  public void testAMFlagSetAfterAllocationIsCountedOnNextHeartbeat() throws Exception {
+    RMNode node = addNode("host-one", 0, 1);
+    RMContainerImpl container = (RMContainerImpl) scheduler.getSchedulerNode(node.getNodeID())
+        .getRunningContainers().get(0);
+    container.setAMContainer(true);
+    assertStats("host-one", 0, 1, 512);
+
+    statistics.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(node));
+    assertStats("host-one", 1, 1, 512);
+  }
+
+  private void assertStats(String host, int amContainers, int containers, int usedMemoryMB) {
+    NodeStatistics.NodeStats stats = statistics.getNodeStats(host);
+    assertEquals(amContainers, stats.getAMContainers());
+    assertEquals(containers, stats.getContainers());
+    assertEquals(usedMemoryMB, stats.getUsedMemoryMB());
+  }
+}
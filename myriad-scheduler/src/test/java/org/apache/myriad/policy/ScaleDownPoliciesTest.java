@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.mesos.Protos.TaskID;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.google.inject.Provider;
+
+/**
+ * Unit tests for the scale down policies besides LeastAMNodesFirstPolicy
+ */
+public class ScaleDownPoliciesTest extends BaseNodeScorePolicyTest {
+
+  @Test
+  public void testLeastAllocatedResourcesFirst() throws Exception {
+    addNode("host-busy", 0, 8);
+    addNode("host-idle", 0, 0);
+    addNode("host-light", 1, 1);
+    List<TaskID> taskIds = Lists.newArrayList(addTask("busy", "host-busy"), addTask("idle", "host-idle"),
+        addTask("light", "host-light"));
+
+    new LeastAllocatedResourcesFirstPolicy(state, statistics).apply(taskIds);
+    assertEquals(Lists.newArrayList(taskIdOf("idle"), taskIdOf("light"), taskIdOf("busy")), taskIds);
+  }
+
+  @Test
+  public void testYoungestNodeManagerFirst() throws Exception {
+    RMNode old = addNode("host-old", 0, 1);
+    clock.advance(1000);
+    addNode("host-young", 0, 1);
+    clock.advance(1000);
+    // Heartbeats of registered nodes keep their registration time
+    addContainers(old, 0, 1);
+    List<TaskID> taskIds = Lists.newArrayList(addTask("old", "host-old"), addTask("young", "host-young"));
+
+    new YoungestNodeManagerFirstPolicy(state, statistics).apply(taskIds);
+    assertEquals(Lists.newArrayList(taskIdOf("young"), taskIdOf("old")), taskIds);
+  }
+
+  @Test
+  public void testLeastContainerWorkFirst() throws Exception {
+    addNode("host-long-running", 0, 1);
+    clock.advance(10000);
+    addNode("host-many-new", 0, 3);
+    clock.advance(1000);
+    addNode("host-am", 1, 0);
+    clock.advance(1000);
+    List<TaskID> taskIds = Lists.newArrayList(addTask("long-running", "host-long-running"),
+        addTask("many-new", "host-many-new"), addTask("am", "host-am"));
+
+    // The AM ran for 1s and counts twice, the three new containers for 2s each, the long running one for 12s
+    new LeastContainerWorkFirstPolicy(state, statistics).apply(taskIds);
+    assertEquals(Lists.newArrayList(taskIdOf("am"), taskIdOf("many-new"), taskIdOf("long-running")), taskIds);
+  }
+
+  @Test
+  public void testWeighted() throws Exception {
+    addNode("host-two-ams", 2, 0);
+    addNode("host-many-containers", 0, 8);
+    addNode("host-one-am", 1, 0);
+    List<TaskID> taskIds = Lists.newArrayList(addTask("two-ams", "host-two-ams"),
+        addTask("many-containers", "host-many-containers"), addTask("one-am", "host-one-am"));
+
+    // AMs dominate: two AMs normalize to 1, one AM to about 0.56 and no AM with 8 containers to 0.33
+    apply(taskIds, 1.0, 0.5);
+    assertEquals(Lists.newArrayList(taskIdOf("one-am"), taskIdOf("many-containers"), taskIdOf("two-ams")), taskIds);
+
+    // Allocated resources dominate: the 8 containers use the largest share of their node
+    apply(taskIds, 0.1, 1.0);
+    assertEquals(Lists.newArrayList(taskIdOf("one-am"), taskIdOf("two-ams"), taskIdOf("many-containers")), taskIds);
+  }
+
+  private void apply(List<TaskID> taskIds, double amWeight, double allocatedWeight) {
+    final LeastAMNodesFirstPolicy leastAMs = new LeastAMNodesFirstPolicy(state, statistics);
+    final LeastAllocatedResourcesFirstPolicy leastAllocated = new LeastAllocatedResourcesFirstPolicy(state, statistics);
+    Map<String, Provider<NodeScaleDownPolicy>> registry = new HashMap<>();
+    registry.put(LeastAMNodesFirstPolicy.NAME, new Provider<NodeScaleDownPolicy>() {
+      @Override
+      public NodeScaleDownPolicy get() {
+        return leastAMs;
+      }
+    });
+    registry.put(LeastAllocatedResourcesFirstPolicy.NAME, new Provider<NodeScaleDownPolicy>() {
+      @Override
+      public NodeScaleDownPolicy get() {
+        return leastAllocated;
+      }
+    });
+    Map<String, Double> weights = new HashMap<>();
+    weights.put(LeastAMNodesFirstPolicy.NAME, amWeight);
+    weights.put(LeastAllocatedResourcesFirstPolicy.NAME, allocatedWeight);
+    new WeightedScaleDownPolicy(state, statistics, weights, registry).apply(taskIds);
+  }
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.myriad.state.SchedulerState;
+
+import com.google.inject.Provider;
+
+/**
+ * Creates the built-in scale down policies by name, as the MyriadModule binds them
+ */
+public final class ScaleDownPolicyFactory {
+  private ScaleDownPolicyFactory() {
+  }
+
+  public static NodeScaleDownPolicy create(String name, final SchedulerState state, final NodeStatistics statistics,
+                                           Map<String, Double> weights) {
+    switch (name) {
+      case LeastAMNodesFirstPolicy.NAME:
+        return new LeastAMNodesFirstPolicy(state, statistics);
+      case LeastAllocatedResourcesFirstPolicy.NAME:
+        return new LeastAllocatedResourcesFirstPolicy(state, statistics);
+      case YoungestNodeManagerFirstPolicy.NAME:
+        return new YoungestNodeManagerFirstPolicy(state, statistics);
+      case LeastContainerWorkFirstPolicy.NAME:
+        return new LeastContainerWorkFirstPolicy(state, statistics);
+      case WeightedScaleDownPolicy.NAME:
+        Map<String, Provider<NodeScaleDownPolicy>> registry = new HashMap<>();
+        for (final String component : weights.keySet()) {
+          registry.put(component, new Provider<NodeScaleDownPolicy>() {
+            @Override
+            public NodeScaleDownPolicy get() {
+              return create(component, state, statistics, null);
+            }
+          });
+        }
+        return new WeightedScaleDownPolicy(state, statistics, weights, registry);
+      default:
+        throw new IllegalArgumentException("Unknown scale down policy " + name);
+    }
+  }
+}
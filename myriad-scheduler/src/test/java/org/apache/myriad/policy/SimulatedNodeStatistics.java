@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.policy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerImpl;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.scheduler.Clock;
+import org.apache.myriad.simulator.SimulatedYarnCluster;
+
+/**
+ * NodeStatistics of the NMs registered with a simulated YARN cluster, built when a policy asks for them
+ */
+public class SimulatedNodeStatistics extends NodeStatistics {
+  private final SimulatedYarnCluster yarnCluster;
+  private final RMContext context;
+
+  public SimulatedNodeStatistics(SimulatedYarnCluster yarnCluster, Clock clock, RMContext context) {
+    super(TestObjectFactory.getInterceptorRegistry(), TestObjectFactory.getYarnScheduler(), clock);
+    this.yarnCluster = yarnCluster;
+    this.context = context;
+  }
+
+  @Override
+  public NodeStats getNodeStats(String host) {
+    SimulatedYarnCluster.Node node = yarnCluster.getNode(host);
+    if (node == null) {
+      return null;
+    }
+    RMNode rmNode = TestObjectFactory.getRMNode(host, 8888, (int) node.getMemoryMB(), (int) node.getVCores());
+    List<RMContainer> containers = new ArrayList<>();
+    for (SimulatedYarnCluster.Container container : node.getContainers()) {
+      RMContainerImpl rmContainer = (RMContainerImpl) TestObjectFactory.getRMContainer(rmNode, context,
+          container.getAppId(), container.getResource().getVirtualCores(), container.getResource().getMemory(),
+          container.getStartMillis());
+      rmContainer.setAMContainer(container.isAM());
+      containers.add(rmContainer);
+    }
+    return new NodeStats(rmNode.getNodeID(), node.getRegisteredMillis(), containers,
+        Resource.newInstance((int) node.getUsedMB(), (int) node.getUsedVCores()), rmNode.getTotalCapability());
+  }
+
+  @Override
+  public Map<String, NodeStats> getNodeStats() {
+    Map<String, NodeStats> stats = new HashMap<>();
+    for (SimulatedYarnCluster.Node node : yarnCluster.getNodes()) {
+      stats.put(node.getHost(), getNodeStats(node.getHost()));
+    }
+    return stats;
+  }
+}
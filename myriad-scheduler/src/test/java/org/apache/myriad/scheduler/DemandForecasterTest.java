@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.myriad.configuration.ForecastConfiguration;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+/**
+ * Unit tests for DemandForecaster
+ */
+public class DemandForecasterTest {
+  private static final long BUCKET_MS = 60000;
+  private static final int SEASON_BUCKETS = 10;
+
+  private DemandForecaster forecaster;
+
+  @Before
+  public void setUp() throws Exception {
+    ForecastConfiguration cfg = new ObjectMapper(new YAMLFactory()).readValue("enabled: true\nbucketMs: " + BUCKET_MS +
+        "\nseasonMs: " + BUCKET_MS * SEASON_BUCKETS + "\nleadTimeMs: " + 2 * BUCKET_MS, ForecastConfiguration.class);
+    forecaster = new DemandForecaster(cfg);
+  }
+
+  private long demand(long bucket) {
+    // An hourly job, scaled to buckets 5 and 6 of every season
+    long position = bucket % SEASON_BUCKETS;
+    return position == 5 || position == 6 ? 10240 : 2048;
+  }
+
+  private void record(long bucket, long demandMB) {
+    forecaster.record(bucket * BUCKET_MS, demandMB, demandMB / 1024);
+    // The peak of a bucket is recorded
+    forecaster.record(bucket * BUCKET_MS + BUCKET_MS / 2, demandMB / 2, 0);
+  }
+
+  @Test
+  public void testForecastBeforeFullSeason() throws Exception {
+    assertEquals(0, forecaster.getForecastMB());
+    for (long bucket = 0; bucket < 4; bucket++) {
+      record(bucket, 2048);
+    }
+    assertEquals(2048, forecaster.getForecastMB());
+    assertEquals(2, forecaster.getForecastVCores());
+  }
+
+  @Test
+  public void testForecastRecurringLoad() throws Exception {
+    for (long bucket = 0; bucket < 3 * SEASON_BUCKETS + 1; bucket++) {
+      record(bucket, demand(bucket));
+    }
+
+    // Right after a season started only the baseline is forecast
+    long forecastMB = forecaster.getForecastMB();
+    assertTrue("Forecast " + forecastMB, forecastMB >= 2048 && forecastMB < 4096);
+
+    // The spike in bucket 5 is forecast the lead time ahead, before any of it is recorded
+    for (long bucket = 3 * SEASON_BUCKETS + 1; bucket <= 3 * SEASON_BUCKETS + 3; bucket++) {
+      record(bucket, demand(bucket));
+    }
+    forecastMB = forecaster.getForecastMB();
+    assertTrue("Forecast " + forecastMB, forecastMB > 9216);
+    assertTrue(forecaster.getForecastVCores() >= 9);
+  }
+
+  @Test
+  public void testGapsRepeatLastPeak() throws Exception {
+    record(0, 4096);
+    forecaster.record(5 * BUCKET_MS, 0, 0);
+    assertEquals(4096, forecaster.getForecastMB());
+  }
+}
@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos;
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.configuration.MyriadBadConfigurationException;
+import org.apache.myriad.policy.LeastAMNodesFirstPolicy;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for FlexOperationQueue
+ */
+public class FlexOperationQueueTest extends BaseConfigurableTest {
+  private SchedulerState state;
+  private ManualExecutor executor;
+  private ManualClock clock;
+  private FlexOperationQueue queue;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    state = new SchedulerState(null);
+    state.setFrameworkId(Protos.FrameworkID.newBuilder().setValue("mock-framework").build());
+    MyriadDriverManager manager = TestObjectFactory.getMyriadDriverManager();
+    manager.startDriver();
+    LeastAMNodesFirstPolicy policy = new LeastAMNodesFirstPolicy(state, new NodeStatistics(new CompositeInterceptor(),
+        TestObjectFactory.getYarnScheduler(), Clock.SYSTEM));
+    clock = new ManualClock(1000000L);
+    MyriadOperations operations = new MyriadOperations(cfg, state, policy, TestObjectFactory.getNodeDrainer(cfg, state),
+        manager, null, new MockRMContext(), clock);
+    ServiceProfileManager profileManager = new ServiceProfileManager();
+    profileManager.add(new ServiceResourceProfile("small", 0.1, 512.0, new HashMap<String, Long>()));
+    executor = new ManualExecutor();
+    queue = new FlexOperationQueue(cfg, operations, profileManager, clock, executor);
+  }
+
+  @Test
+  public void testCoalesceQueuedRequests() throws Exception {
+    FlexOperation operation = queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 1);
+    assertSame(operation, queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 2));
+    assertEquals(3, operation.getInstances());
+    assertEquals(2, operation.getRequests());
+    assertEquals(FlexOperation.Status.QUEUED, operation.getStatus());
+    assertNotEquals(operation.getId(), queue.submit(FlexOperation.Type.FLEX_DOWN, "small", null, 1).getId());
+
+    executor.runAll();
+    assertEquals(3, state.getPendingTaskIds().size() + state.getKillableTaskIds().size());
+    assertNotEquals(operation.getId(), queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 1).getId());
+  }
+
+  @Test
+  public void testCoalescedServiceFlexUpIsCheckedAgainstMaxInstances() throws Exception {
+    FlexOperation operation = queue.submit(FlexOperation.Type.FLEX_UP_SERVICE, "jobhistory", null, 1);
+    assertSame(operation, queue.submit(FlexOperation.Type.FLEX_UP_SERVICE, "jobhistory", null, 1));
+    try {
+      queue.submit(FlexOperation.Type.FLEX_UP_SERVICE, "jobhistory", null, 1);
+      throw new AssertionError("Expected the request to be rejected");
+    } catch (MyriadBadConfigurationException e) {
+      // expected
+    }
+    assertEquals(2, operation.getInstances());
+
+    executor.runAll();
+    assertEquals(FlexOperation.Status.LAUNCHING, operation.getStatus());
+    assertEquals(2, state.getPendingTaskIds().size());
+  }
+
+  @Test
+  public void testFlexUpCompletesOnceTasksRun() throws Exception {
+    FlexOperation operation = queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 2);
+    executor.runAll();
+    assertEquals(FlexOperation.Status.LAUNCHING, operation.getStatus());
+    assertEquals(2, operation.getLaunch().getProgress().getPending());
+    assertEquals(-1, operation.getTimeToCompletionMs());
+
+    for (Protos.TaskID taskId : operation.getLaunch().getTaskIds()) {
+      state.makeTaskActive(taskId);
+    }
+    executor.runAll();
+    assertEquals(FlexOperation.Status.COMPLETED, operation.getStatus());
+    assertEquals(2, operation.getLaunch().getProgress().getActive());
+    assertTrue(operation.getTimeToCompletionMs() >= 0);
+  }
+
+  @Test
+  public void testFlexUpExpiresWithoutOffers() throws Exception {
+    FlexOperation operation = queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 2);
+    executor.runAll();
+    assertNotEquals(operation.getId(), operation.getLaunch().getId());
+
+    clock.advance(cfg.getFlexOperationsConfiguration().getLaunchTimeoutMs() - 1);
+    executor.runAll();
+    assertEquals(FlexOperation.Status.LAUNCHING, operation.getStatus());
+
+    clock.advance(1);
+    executor.runAll();
+    assertEquals(FlexOperation.Status.EXPIRED, operation.getStatus());
+    assertTrue(operation.isFinished());
+    // The tasks are still launched once offers arrive
+    assertEquals(2, state.getPendingTaskIds().size());
+    // Expired operations are not checked anymore
+    assertTrue(executor.tasks.isEmpty());
+  }
+
+  @Test
+  public void testProgressWakesWaitingThreads() throws Exception {
+    FlexOperation operation = queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 1);
+    executor.runAll();
+    long version = operation.getVersion();
+    assertEquals(version, operation.awaitChange(version, 1));
+
+    state.makeTaskStaging(operation.getLaunch().getTaskIds().get(0));
+    executor.runAll();
+    assertTrue(operation.awaitChange(version, 1) > version);
+  }
+
+  @Test
+  public void testFailedOperation() throws Exception {
+    FlexOperation operation = queue.submit(FlexOperation.Type.FLEX_UP_SERVICE, "jobhistory", null, 3);
+    executor.runAll();
+    assertEquals(FlexOperation.Status.FAILED, operation.getStatus());
+    assertNull(operation.getLaunch());
+    assertTrue(state.getPendingTaskIds().isEmpty());
+  }
+
+  @Test
+  public void testRejectWhenQueueIsFull() throws Exception {
+    int maxQueued = cfg.getFlexOperationsConfiguration().getMaxQueuedOperations();
+    for (int i = 0; i < maxQueued; i++) {
+      queue.submit(FlexOperation.Type.FLEX_UP, "small", "hostname LIKE host-" + i, 1);
+    }
+    try {
+      queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 1);
+      throw new AssertionError("Expected the request to be rejected");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    // Requests that are coalesced are still accepted
+    assertEquals(2, queue.submit(FlexOperation.Type.FLEX_UP, "small", "hostname LIKE host-0", 1).getInstances());
+
+    executor.runAll();
+    queue.submit(FlexOperation.Type.FLEX_UP, "small", null, 1);
+  }
+
+  /**
+   * Runs submitted and scheduled tasks on the test thread when asked to
+   */
+  private static class ManualExecutor extends ScheduledThreadPoolExecutor {
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    ManualExecutor() {
+      super(1);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      tasks.add(command);
+      return null;
+    }
+
+    void runAll() {
+      List<Runnable> run = new ArrayList<>(tasks);
+      tasks.clear();
+      for (Runnable task : run) {
+        task.run();
+      }
+    }
+  }
+}
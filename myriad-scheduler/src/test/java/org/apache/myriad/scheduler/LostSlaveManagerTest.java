@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.metrics.SystemMetricsPublisher;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FSSchedulerNode;
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.ExecutorID;
+import org.apache.mesos.Protos.SlaveID;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.executor.ContainerTaskStatusRequest;
+import org.apache.myriad.scheduler.fgs.ContainerTaskStore;
+import org.apache.myriad.scheduler.fgs.FineGrainedScalingMetrics;
+import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferHandlingExecutor;
+import org.apache.myriad.scheduler.fgs.OfferHoldPolicy;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
+import org.apache.myriad.scheduler.fgs.YarnNodeCapacityManager;
+import org.apache.myriad.scheduler.yarn.MyriadFairScheduler;
+import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for LostSlaveManager
+ */
+public class LostSlaveManagerTest extends BaseConfigurableTest {
+  private static final String HOST = "localhost-one";
+
+  private final ManualClock clock = new ManualClock();
+  private RMNode rmNode;
+  private SchedulerState state;
+  private OfferLifecycleManager offerLifecycleManager;
+  private ContainerTaskStore containerTaskStore;
+  private MetricRegistry registry;
+  private LostSlaveManager manager;
+  private NodeTask task;
+  private SlaveID slaveId;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    MockRMContext context = new MockRMContext();
+    context.setDispatcher(TestObjectFactory.getMockDispatcher());
+    context.setSystemMetricsPublisher(new SystemMetricsPublisher());
+    rmNode = TestObjectFactory.getRMNode(HOST, 8800, Resource.newInstance(4096, 4));
+    FSSchedulerNode schedulerNode = new FSSchedulerNode(rmNode, false);
+    NodeStore nodeStore = new NodeStore();
+    nodeStore.add(schedulerNode);
+    MyriadFairScheduler scheduler = TestObjectFactory.getMyriadFairScheduler(context);
+    scheduler.addNode(schedulerNode);
+
+    registry = new MetricRegistry();
+    FineGrainedScalingMetrics metrics = new FineGrainedScalingMetrics(registry);
+    MyriadDriver driver = TestObjectFactory.getMyriadDriver(new MockSchedulerDriver());
+    offerLifecycleManager = new OfferLifecycleManager(nodeStore, driver, metrics);
+    containerTaskStore = new ContainerTaskStore();
+    state = new SchedulerState(null);
+    YarnNodeCapacityManager capacityManager = new YarnNodeCapacityManager(new CompositeInterceptor(), scheduler, context,
+        driver, offerLifecycleManager, nodeStore, state, new TaskUtils(cfg), containerTaskStore,
+        new TaskKillQueue(new MyriadDriverManager(driver), new MetricRegistry(), clock), metrics,
+        new OfferHoldPolicy(cfg, metrics, clock),
+        new OfferHandlingExecutor(cfg));
+    manager = new LostSlaveManager(state, offerLifecycleManager, nodeStore, capacityManager, containerTaskStore, registry,
+        clock);
+
+    task = TestObjectFactory.getNodeTask("medium", HOST, 1.0, 1024.0, 1L, 2L);
+    slaveId = task.getSlaveId();
+  }
+
+  @Test
+  public void testSlaveLost() throws Exception {
+    TaskID active = addTask("nm.medium.1", task);
+    state.makeTaskActive(active);
+    TaskID killable = addTask("nm.medium.2", TestObjectFactory.getNodeTask("medium", HOST, 1.0, 1024.0, 1L, 2L));
+    state.makeTaskKillable(killable);
+    TaskID otherSlave = addTask("nm.medium.3", TestObjectFactory.getNodeTask("medium", "localhost-two", 1.0, 1024.0, 1L,
+        2L));
+    state.makeTaskActive(otherSlave);
+    TaskID containerTask = TaskID.newBuilder().setValue(ContainerTaskStatusRequest.YARN_CONTAINER_TASK_ID_PREFIX + "1")
+        .build();
+    containerTaskStore.add(containerTask, HOST);
+    Protos.Offer offer = TestObjectFactory.getOffer(HOST, slaveId.getValue(), "framework", "offer-1", 1.0, 1024.0);
+    offerLifecycleManager.addOffers(offer);
+    offerLifecycleManager.markAsConsumed(offer);
+
+    clock.set(1000);
+    manager.slaveLost(slaveId);
+    assertTrue(state.getPendingTaskIds().contains(active));
+    assertFalse(state.hasTask(killable));
+    assertTrue(state.getActiveTaskIds().contains(otherSlave));
+    assertFalse(containerTaskStore.contains(containerTask));
+    assertNull(offerLifecycleManager.drainConsumedOffer(HOST));
+    assertEquals(0, rmNode.getTotalCapability().getMemory());
+    assertEquals(0, rmNode.getTotalCapability().getVirtualCores());
+    assertEquals(2, registry.meter(MetricRegistry.name(LostSlaveManager.PREFIX, "tasks", "lost")).getCount());
+
+    clock.set(1500);
+    manager.taskRunning(otherSlave);
+    manager.taskRunning(active);
+    manager.taskRunning(active);
+    assertEquals(1, registry.timer(MetricRegistry.name(LostSlaveManager.PREFIX, "tasks", "time-to-replacement"))
+        .getCount());
+  }
+
+  @Test
+  public void testExecutorLost() throws Exception {
+    TaskID nodeManager = addTask("nm.medium.1", task);
+    state.makeTaskActive(nodeManager);
+    NodeTask service = TestObjectFactory.getNodeTask("medium", HOST, 1.0, 1024.0, 1L, 2L);
+    service.setExecutorInfo(Protos.ExecutorInfo.newBuilder(service.getExecutorInfo()).setExecutorId(
+        ExecutorID.newBuilder().setValue("other")).build());
+    TaskID serviceTask = addTask("jobhistory.medium.1", service);
+    state.makeTaskActive(serviceTask);
+
+    manager.executorLost(task.getExecutorInfo().getExecutorId(), slaveId);
+    assertEquals(1, state.getPendingTaskIds().size());
+    assertTrue(state.getPendingTaskIds().contains(nodeManager));
+    assertTrue(state.getActiveTaskIds().contains(serviceTask));
+  }
+
+  private TaskID addTask(String id, NodeTask nodeTask) {
+    TaskID taskId = TaskID.newBuilder().setValue(id).build();
+    state.addTask(taskId, nodeTask);
+    return taskId;
+  }
+}
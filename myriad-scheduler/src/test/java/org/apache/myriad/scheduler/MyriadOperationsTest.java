@@ -18,6 +18,8 @@
 package org.apache.myriad.scheduler;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
 
@@ -35,6 +37,7 @@ import org.apache.myriad.BaseConfigurableTest;
 import org.apache.myriad.TestObjectFactory;
 import org.apache.myriad.configuration.MyriadBadConfigurationException;
 import org.apache.myriad.policy.LeastAMNodesFirstPolicy;
+import org.apache.myriad.policy.NodeStatistics;
 import org.apache.myriad.scheduler.constraints.Constraint;
 import org.apache.myriad.scheduler.constraints.LikeConstraint;
 import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
@@ -67,11 +70,12 @@ public class MyriadOperationsTest extends BaseConfigurableTest {
     MyriadDriverManager manager = TestObjectFactory.getMyriadDriverManager();
     MyriadWebServer webServer = TestObjectFactory.getMyriadWebServer(cfg);
     CompositeInterceptor registry = new CompositeInterceptor();
-    LeastAMNodesFirstPolicy policy = new LeastAMNodesFirstPolicy(registry, scheduler, sState);
+    LeastAMNodesFirstPolicy policy = new LeastAMNodesFirstPolicy(sState, new NodeStatistics(registry, scheduler, Clock.SYSTEM));
 
     manager.startDriver();
 
-    return new MyriadOperations(cfg, sState, policy, manager, webServer, generateRMContext(scheduler));
+    return new MyriadOperations(cfg, sState, policy, TestObjectFactory.getNodeDrainer(cfg, sState), manager, webServer,
+        generateRMContext(scheduler), Clock.SYSTEM);
   }
   private void generateProfiles() {
     small = new ServiceResourceProfile("small", new Double(0.1), new Double(512.0), new HashMap<String, Long>());
@@ -106,6 +110,29 @@ public class MyriadOperationsTest extends BaseConfigurableTest {
     assertEquals(0, ops.getSchedulerState().getPendingTaskIds().size());
   }
 
+  @Test
+  public void testFlexUpOperationProgress() throws Exception {
+    MyriadOperations ops = initialize();
+    FlexUpOperation operation = ops.flexUpCluster(small, 3, constraint);
+    assertEquals(3, operation.getInstances());
+    assertEquals(3, operation.getProgress().getPending());
+    assertFalse(operation.getProgress().isComplete());
+
+    SchedulerState state = ops.getSchedulerState();
+    state.makeTaskStaging(operation.getTaskIds().get(0));
+    state.makeTaskActive(operation.getTaskIds().get(1));
+    state.removeTask(operation.getTaskIds().get(2));
+    FlexUpOperation.Progress progress = operation.getProgress();
+    assertEquals(0, progress.getPending());
+    assertEquals(1, progress.getStaging());
+    assertEquals(1, progress.getActive());
+    assertEquals(1, progress.getEnded());
+
+    state.makeTaskActive(operation.getTaskIds().get(0));
+    assertTrue(operation.getProgress().isComplete());
+    assertTrue(ops.flexUpCluster(small, 1, constraint).getId() > operation.getId());
+  }
+
   @Test
   public void testFlexUpAndFlexDownService() throws Exception {
     MyriadOperations ops = initialize();
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.metrics.SystemMetricsPublisher;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FSSchedulerNode;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.scheduler.fgs.ContainerTaskStore;
+import org.apache.myriad.scheduler.fgs.FineGrainedScalingMetrics;
+import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferHandlingExecutor;
+import org.apache.myriad.scheduler.fgs.OfferHoldPolicy;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
+import org.apache.myriad.scheduler.fgs.YarnNodeCapacityManager;
+import org.apache.myriad.scheduler.yarn.MyriadFairScheduler;
+import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for NodeDrainer
+ */
+public class NodeDrainerTest extends BaseConfigurableTest {
+  private static final String HOST = "localhost-one";
+
+  private final ManualClock clock = new ManualClock();
+  private MockRMContext context;
+  private RMNode rmNode;
+  private FSSchedulerNode schedulerNode;
+  private SchedulerState state;
+  private NodeStatistics statistics;
+  private NodeDrainer drainer;
+  private TaskID taskId;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    context = new MockRMContext();
+    context.setDispatcher(TestObjectFactory.getMockDispatcher());
+    context.setSystemMetricsPublisher(new SystemMetricsPublisher());
+    rmNode = TestObjectFactory.getRMNode(HOST, 8800, Resource.newInstance(4096, 4));
+    schedulerNode = new FSSchedulerNode(rmNode, false);
+    NodeStore nodeStore = new NodeStore();
+    nodeStore.add(schedulerNode);
+    MyriadFairScheduler scheduler = TestObjectFactory.getMyriadFairScheduler(context);
+    scheduler.addNode(schedulerNode);
+
+    FineGrainedScalingMetrics metrics = new FineGrainedScalingMetrics(new MetricRegistry());
+    MyriadDriver driver = TestObjectFactory.getMyriadDriver(new MockSchedulerDriver());
+    OfferLifecycleManager offerLifecycleManager = new OfferLifecycleManager(nodeStore, driver, metrics);
+    state = new SchedulerState(null);
+    YarnNodeCapacityManager capacityManager = new YarnNodeCapacityManager(new CompositeInterceptor(), scheduler, context,
+        driver, offerLifecycleManager, nodeStore, state, new TaskUtils(cfg), new ContainerTaskStore(),
+        new TaskKillQueue(new MyriadDriverManager(driver), new MetricRegistry(), clock), metrics,
+        new OfferHoldPolicy(cfg, metrics, clock),
+        new OfferHandlingExecutor(cfg));
+    statistics = new NodeStatistics(new CompositeInterceptor(), scheduler, clock);
+    drainer = new NodeDrainer(cfg, state, nodeStore, capacityManager, offerLifecycleManager, statistics, clock);
+
+    taskId = TaskID.newBuilder().setValue("nm.medium.1").build();
+    state.addTask(taskId, TestObjectFactory.getNodeTask("medium", HOST, 1.0, 1024.0, 1L, 2L));
+    state.makeTaskActive(taskId);
+  }
+
+  @Test
+  public void testKillsDrainedNode() throws Exception {
+    RMContainer container = addContainer(1);
+    drainer.drain(taskId);
+    assertTrue(drainer.isDraining(taskId));
+    assertTrue(drainer.isDraining(HOST));
+    assertEquals(0, rmNode.getTotalCapability().getMemory());
+    assertEquals(0, rmNode.getTotalCapability().getVirtualCores());
+    assertEquals(1, drainer.getDrains().iterator().next().getInitialContainers());
+
+    drainer.run();
+    assertTrue(state.getActiveTaskIds().contains(taskId));
+
+    schedulerNode.releaseContainer(container.getContainer());
+    statistics.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(rmNode));
+    drainer.run();
+    assertTrue(state.getKillableTaskIds().contains(taskId));
+    assertFalse(drainer.isDraining(taskId));
+    assertFalse(drainer.isDraining(HOST));
+  }
+
+  @Test
+  public void testKillsNodeAfterTimeout() throws Exception {
+    addContainer(1);
+    drainer.drain(taskId);
+    clock.advance(cfg.getScaleDownConfiguration().getDrainTimeoutMs() - 1);
+    drainer.run();
+    assertTrue(state.getActiveTaskIds().contains(taskId));
+
+    clock.advance(1);
+    drainer.run();
+    assertTrue(state.getKillableTaskIds().contains(taskId));
+    assertTrue(drainer.getDrains().isEmpty());
+  }
+
+  @Test
+  public void testStopsDrainingTaskPendingForRelaunch() throws Exception {
+    addContainer(1);
+    drainer.drain(taskId);
+    // The slave of the NM was lost, the task is relaunched
+    state.makeTaskPending(taskId);
+    drainer.run();
+    assertTrue(state.getPendingTaskIds().contains(taskId));
+    assertFalse(state.getKillableTaskIds().contains(taskId));
+    assertFalse(drainer.isDraining(taskId));
+    assertFalse(drainer.isDraining(HOST));
+  }
+
+  @Test
+  public void testKillsUnregisteredNodeRightAway() throws Exception {
+    TaskID unregistered = TaskID.newBuilder().setValue("nm.medium.2").build();
+    state.addTask(unregistered, TestObjectFactory.getNodeTask("medium", "localhost-two", 1.0, 1024.0, 1L, 2L));
+    state.makeTaskActive(unregistered);
+    drainer.drain(unregistered);
+    assertTrue(state.getKillableTaskIds().contains(unregistered));
+    assertFalse(drainer.isDraining(unregistered));
+  }
+
+  private RMContainer addContainer(int id) {
+    RMContainer container = TestObjectFactory.getRMContainer(rmNode, context, id, 1, 1024);
+    schedulerNode.allocateContainer(container);
+    statistics.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(rmNode));
+    return container;
+  }
+}
@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.metrics2.impl.MetricsSystemImpl;
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.QueueMetrics;
+import org.apache.mesos.Protos.FrameworkID;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.configuration.ForecastConfiguration;
+import org.apache.myriad.policy.LeastAMNodesFirstPolicy;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.scheduler.yarn.MyriadCapacityScheduler;
+import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+/**
+ * Unit tests for Rebalancer
+ */
+public class RebalancerTest extends BaseConfigurableTest {
+  private static final String USER = "hduser";
+
+  private final ManualClock clock = new ManualClock();
+  private QueueMetrics metrics;
+  private SchedulerState state;
+  private ServiceProfileManager profileManager;
+  private MockRMContext context;
+  private NodeDrainer drainer;
+  private MyriadOperations operations;
+  private Rebalancer rebalancer;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    this.baseStateStoreDirectory = "/tmp/myriad-rebalancer-test";
+    resetStoreState();
+    state = TestObjectFactory.getSchedulerState(cfg, "tmp/myriad-rebalancer-test");
+    state.setFrameworkId(FrameworkID.newBuilder().setValue("mock-framework").build());
+
+    profileManager = new ServiceProfileManager();
+    profileManager.add(getProfile("small", 1, 1024));
+    profileManager.add(getProfile("medium", 2, 2048));
+    profileManager.add(getProfile("large", 4, 4096));
+
+    QueueMetrics.clearQueueMetrics();
+    metrics = QueueMetrics.forQueue(new MetricsSystemImpl(), "root", null, false, new Configuration());
+    context = new MockRMContext();
+    context.setStateStore(TestObjectFactory.getStateStore(new Configuration(), "tmp/myriad-rebalancer-test"));
+    context.setResourceScheduler(new MyriadCapacityScheduler() {
+      @Override
+      public QueueMetrics getRootQueueMetrics() {
+        return metrics;
+      }
+    });
+
+    drainer = TestObjectFactory.getNodeDrainer(cfg, state);
+    operations = new MyriadOperations(cfg, state, new LeastAMNodesFirstPolicy(state,
+        new NodeStatistics(new CompositeInterceptor(), TestObjectFactory.getYarnScheduler(), clock)), drainer,
+        TestObjectFactory.getMyriadDriverManager(), TestObjectFactory.getMyriadWebServer(cfg), context, clock);
+    rebalancer = getRebalancer(new DemandForecaster(cfg));
+  }
+
+  private Rebalancer getRebalancer(DemandForecaster forecaster) {
+    return new Rebalancer(cfg, state, operations, profileManager, drainer, forecaster, context, clock);
+  }
+
+  private DemandForecaster getForecaster(final long forecastMB, final long forecastVCores) throws Exception {
+    return new DemandForecaster(new ObjectMapper(new YAMLFactory()).readValue("enabled: true", ForecastConfiguration.class)) {
+      @Override
+      public long getForecastMB() {
+        return forecastMB;
+      }
+
+      @Override
+      public long getForecastVCores() {
+        return forecastVCores;
+      }
+    };
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    QueueMetrics.clearQueueMetrics();
+  }
+
+  private ServiceResourceProfile getProfile(String name, long cpus, long memory) {
+    return new ExtendedResourceProfile(new NMProfile(name, cpus, memory), 0.2, 256.0, new HashMap<String, Long>());
+  }
+
+  private int instances(String profile) {
+    return state.getPendingTaskIDsForProfile(profileManager.get(profile)).size();
+  }
+
+  @Test
+  public void testFlexUpToMinInstances() throws Exception {
+    rebalancer.run();
+    assertEquals(1, instances("small"));
+    rebalancer.run();
+    assertEquals(1, instances("small"));
+  }
+
+  @Test
+  public void testFlexUpFirstNodeManagerWithoutMinInstances() throws Exception {
+    // No autoscaler is configured, a small NM is flexed up only while no NM of any profile runs
+    rebalancer = new Rebalancer(cfgWithRole, state, operations, profileManager, drainer, new DemandForecaster(cfgWithRole),
+        context, clock);
+    rebalancer.run();
+    assertEquals(1, instances("small"));
+    rebalancer.run();
+    assertEquals(1, instances("small"));
+
+    for (TaskID taskId : state.getPendingTaskIds()) {
+      state.removeTask(taskId);
+    }
+    operations.flexUpCluster(profileManager.get("medium"), 1, null);
+    rebalancer.run();
+    assertEquals(0, instances("small"));
+  }
+
+  @Test
+  public void testFlexUpAfterHysteresisAndCooldown() throws Exception {
+    rebalancer.run();
+    metrics.incrPendingResources(USER, 6, Resource.newInstance(1000, 1));
+
+    // The pending containers have to exceed the capacity for two evaluations, past the cooldown
+    rebalancer.run();
+    assertEquals(0, instances("medium"));
+    rebalancer.run();
+    assertEquals(0, instances("medium"));
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleUpCooldownMs());
+    rebalancer.run();
+
+    // The launching small NM covers 1024 MB and 1 vcore, three medium NMs cover the rest with the least capacity left
+    assertEquals(3, instances("medium"));
+    assertEquals(0, instances("large"));
+
+    // The capacity of the launching NMs covers the pending containers
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleUpCooldownMs());
+    rebalancer.run();
+    rebalancer.run();
+    assertEquals(3, instances("medium"));
+  }
+
+  @Test
+  public void testFlexUpWithinMaxInstances() throws Exception {
+    rebalancer.run();
+    metrics.incrPendingResources(USER, 100, Resource.newInstance(1024, 1));
+    for (int i = 0; i < 10; i++) {
+      clock.advance(cfg.getAutoscalerConfiguration().getScaleUpCooldownMs());
+      rebalancer.run();
+    }
+    assertEquals(1, instances("small"));
+    assertEquals(4, instances("medium"));
+    assertEquals(2, instances("large"));
+  }
+
+  @Test
+  public void testFlexDownWhenIdle() throws Exception {
+    rebalancer.run();
+    metrics.incrPendingResources(USER, 2, Resource.newInstance(1024, 1));
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleUpCooldownMs());
+    rebalancer.run();
+    rebalancer.run();
+    assertEquals(1, instances("medium"));
+
+    // Nothing is pending and the capacity of a medium NM is available, for three evaluations past the cooldown
+    metrics.decrPendingResources(USER, 2, Resource.newInstance(1024, 1));
+    metrics.setAvailableResourcesToQueue(Resource.newInstance(3072, 3));
+    for (int i = 0; i < cfg.getAutoscalerConfiguration().getScaleDownIntervals(); i++) {
+      rebalancer.run();
+    }
+    assertEquals(1, instances("medium"));
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleDownCooldownMs());
+    rebalancer.run();
+    assertEquals(0, instances("medium"));
+
+    // The small NM is kept at its min instances
+    for (int i = 0; i < cfg.getAutoscalerConfiguration().getScaleDownIntervals(); i++) {
+      clock.advance(cfg.getAutoscalerConfiguration().getScaleDownCooldownMs());
+      rebalancer.run();
+    }
+    assertEquals(1, instances("small"));
+  }
+
+  @Test
+  public void testFlexUpAheadOfForecastDemand() throws Exception {
+    rebalancer = getRebalancer(getForecaster(4096, 4));
+    rebalancer.run();
+    assertEquals(1, instances("small"));
+
+    // The forecast demand exceeds the launching small NM, NMs are flexed up past the cooldown without any pending
+    rebalancer.run();
+    assertEquals(0, instances("large"));
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleUpCooldownMs());
+    rebalancer.run();
+    assertEquals(1, instances("large"));
+    assertEquals(0, instances("medium"));
+  }
+
+  @Test
+  public void testKeepCapacityForForecastDemand() throws Exception {
+    rebalancer.run();
+    metrics.incrPendingResources(USER, 2, Resource.newInstance(1024, 1));
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleUpCooldownMs());
+    rebalancer.run();
+    rebalancer.run();
+    assertEquals(1, instances("medium"));
+
+    // The forecast demand needs the available capacity of the medium NM
+    metrics.decrPendingResources(USER, 2, Resource.newInstance(1024, 1));
+    metrics.setAvailableResourcesToQueue(Resource.newInstance(3072, 3));
+    rebalancer = getRebalancer(getForecaster(5000, 5));
+    clock.advance(cfg.getAutoscalerConfiguration().getScaleDownCooldownMs());
+    for (int i = 0; i < cfg.getAutoscalerConfiguration().getScaleDownIntervals() + 1; i++) {
+      rebalancer.run();
+    }
+    assertEquals(1, instances("medium"));
+  }
+}
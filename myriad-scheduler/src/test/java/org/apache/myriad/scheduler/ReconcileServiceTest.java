@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Status;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for ReconcileService
+ */
+public class ReconcileServiceTest {
+  private static final int TASKS = 5;
+
+  private ScheduledExecutorService executor;
+  private SchedulerState state;
+  private RecordingSchedulerDriver driver;
+  private List<TaskID> taskIds;
+
+  @Before
+  public void setUp() throws Exception {
+    executor = Executors.newSingleThreadScheduledExecutor();
+    state = new SchedulerState(null);
+    driver = new RecordingSchedulerDriver();
+    taskIds = new ArrayList<>();
+    for (int i = 0; i < TASKS; i++) {
+      TaskID taskId = TaskID.newBuilder().setValue("nm.medium.task-" + i).build();
+      state.addTask(taskId, TestObjectFactory.getNodeTask("medium", "host-" + i, 1.0, 1024.0, 1L, 2L));
+      state.updateTask(TaskStatus.newBuilder().setTaskId(taskId).setState(Protos.TaskState.TASK_RUNNING).build());
+      taskIds.add(taskId);
+    }
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testReconcileInChunksAndCompleteWhenAllTasksReported() throws Exception {
+    ReconcileService service = new ReconcileService(state, executor, TimeUnit.HOURS.toMillis(1), 2);
+    service.reconcile(driver);
+    assertTrue(service.isReconciling());
+    List<Integer> sizes = driver.awaitReconciliations(3);
+    assertEquals(5, sizes.get(0) + sizes.get(1) + sizes.get(2));
+    assertTrue(sizes.get(0) <= 2 && sizes.get(1) <= 2 && sizes.get(2) <= 2);
+
+    for (TaskID taskId : taskIds) {
+      service.taskReported(taskId);
+    }
+    // Implicit reconciliation once all tasks reported
+    assertEquals(0, (int) driver.awaitReconciliations(4).get(3));
+    awaitCompletion(service);
+  }
+
+  @Test
+  public void testRetryUnreportedTasksOnly() throws Exception {
+    ReconcileService service = new ReconcileService(state, executor, 200, 100);
+    service.reconcile(driver);
+    assertEquals(TASKS, (int) driver.awaitReconciliations(1).get(0));
+
+    for (TaskID taskId : taskIds.subList(1, TASKS)) {
+      service.taskReported(taskId);
+    }
+    assertEquals(1, (int) driver.awaitReconciliations(2).get(1));
+    assertTrue(service.isReconciling());
+
+    service.taskReported(taskIds.get(0));
+    awaitCompletion(service);
+    List<Integer> sizes = driver.awaitReconciliations(1);
+    assertEquals(0, (int) sizes.get(sizes.size() - 1));
+  }
+
+  @Test
+  public void testReconcileWithoutTasksIsImplicit() throws Exception {
+    ReconcileService service = new ReconcileService(new SchedulerState(null), executor, 10, 100);
+    service.reconcile(driver);
+    awaitCompletion(service);
+    assertEquals(0, (int) driver.awaitReconciliations(1).get(0));
+  }
+
+  private static void awaitCompletion(ReconcileService service) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (service.isReconciling() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertFalse(service.isReconciling());
+  }
+
+  private static class RecordingSchedulerDriver extends MockSchedulerDriver {
+    private final List<Integer> reconciliations = new ArrayList<>();
+
+    @Override
+    public synchronized Status reconcileTasks(Collection<TaskStatus> statuses) {
+      reconciliations.add(statuses.size());
+      notifyAll();
+      return Status.DRIVER_RUNNING;
+    }
+
+    synchronized List<Integer> awaitReconciliations(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (reconciliations.size() < count && System.currentTimeMillis() < deadline) {
+        wait(10);
+      }
+      assertTrue(reconciliations.size() >= count);
+      return new ArrayList<>(reconciliations);
+    }
+  }
+}
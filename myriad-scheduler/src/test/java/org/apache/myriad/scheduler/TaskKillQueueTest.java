@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Status;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskStatus;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+
+/**
+ * Unit test for TaskKillQueue class
+ */
+public class TaskKillQueueTest {
+  private static class RecordingSchedulerDriver extends MockSchedulerDriver {
+    private final List<TaskID> killed = new CopyOnWriteArrayList<>();
+    private volatile RuntimeException failure;
+    private volatile int reconciled;
+
+    @Override
+    public Status killTask(TaskID taskId) {
+      RuntimeException e = failure;
+      if (e != null) {
+        failure = null;
+        throw e;
+      }
+      killed.add(taskId);
+      return Protos.Status.DRIVER_RUNNING;
+    }
+
+    @Override
+    public Status reconcileTasks(Collection<TaskStatus> statuses) {
+      reconciled += statuses.size();
+      return Protos.Status.DRIVER_RUNNING;
+    }
+  }
+
+  private TaskID taskId(String value) {
+    return TaskID.newBuilder().setValue(value).build();
+  }
+
+  private void awaitKills(RecordingSchedulerDriver schedulerDriver, int kills) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (schedulerDriver.killed.size() < kills && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void testEnqueuedTasksAreKilled() throws Exception {
+    RecordingSchedulerDriver schedulerDriver = new RecordingSchedulerDriver();
+    MyriadDriverManager driverManager = new MyriadDriverManager(new MyriadDriver(schedulerDriver));
+    driverManager.startDriver();
+    TaskKillQueue queue = new TaskKillQueue(driverManager, new MetricRegistry(), Clock.SYSTEM);
+
+    Thread thread = new Thread(queue);
+    thread.start();
+    try {
+      queue.enqueue(taskId("yarn_container_1"));
+      queue.enqueue(taskId("yarn_container_2"));
+      queue.enqueue(taskId("yarn_container_3"));
+      awaitKills(schedulerDriver, 3);
+    } finally {
+      thread.interrupt();
+      thread.join();
+    }
+    assertEquals(Lists.newArrayList(taskId("yarn_container_1"), taskId("yarn_container_2"), taskId("yarn_container_3")),
+        schedulerDriver.killed);
+    assertEquals(0, queue.size());
+    assertEquals(3, queue.getUnconfirmedCount());
+  }
+
+  @Test
+  public void testKillsAfterDriverFailure() throws Exception {
+    RecordingSchedulerDriver schedulerDriver = new RecordingSchedulerDriver();
+    MyriadDriverManager driverManager = new MyriadDriverManager(new MyriadDriver(schedulerDriver));
+    driverManager.startDriver();
+    TaskKillQueue queue = new TaskKillQueue(driverManager, new MetricRegistry(), Clock.SYSTEM);
+
+    Thread thread = new Thread(queue);
+    thread.start();
+    try {
+      schedulerDriver.failure = new IllegalStateException("driver failure");
+      queue.enqueue(taskId("yarn_container_1"));
+      long deadline = System.currentTimeMillis() + 5000;
+      while (schedulerDriver.failure != null && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      queue.enqueue(taskId("yarn_container_2"));
+      awaitKills(schedulerDriver, 1);
+    } finally {
+      thread.interrupt();
+      thread.join();
+    }
+    assertEquals(taskId("yarn_container_2"), schedulerDriver.killed.get(0));
+    assertEquals(2, queue.getUnconfirmedCount());
+  }
+
+  @Test
+  public void testKillIsRetriedUntilConfirmed() throws Exception {
+    RecordingSchedulerDriver schedulerDriver = new RecordingSchedulerDriver();
+    MyriadDriverManager driverManager = new MyriadDriverManager(new MyriadDriver(schedulerDriver));
+    driverManager.startDriver();
+    ManualClock clock = new ManualClock();
+    TaskKillQueue queue = new TaskKillQueue(driverManager, new MetricRegistry(), clock);
+
+    queue.killBatch(Lists.newArrayList(taskId("yarn_container_1"), taskId("yarn_container_2")));
+    assertEquals(2, schedulerDriver.killed.size());
+
+    clock.advance(TaskKillQueue.DEFAULT_RETRY_DELAY_MS - 1);
+    queue.killBatch(Lists.<TaskID>newArrayList());
+    assertEquals(2, schedulerDriver.killed.size());
+
+    queue.taskTerminated(taskId("yarn_container_1"));
+    clock.advance(1);
+    queue.killBatch(Lists.<TaskID>newArrayList());
+    assertEquals(taskId("yarn_container_2"), schedulerDriver.killed.get(2));
+    assertEquals(1, queue.getUnconfirmedCount());
+
+    // Retries back off up to the max delay but never give up
+    for (int i = 0; i < 100; i++) {
+      clock.advance(TaskKillQueue.MAX_RETRY_DELAY_MS);
+      queue.killBatch(Lists.<TaskID>newArrayList());
+    }
+    assertEquals(103, schedulerDriver.killed.size());
+    queue.taskTerminated(taskId("yarn_container_2"));
+    assertEquals(0, queue.getUnconfirmedCount());
+  }
+
+  @Test
+  public void testUnconfirmedKillsEscalateAndAreReportedAbandoned() throws Exception {
+    RecordingSchedulerDriver schedulerDriver = new RecordingSchedulerDriver();
+    MyriadDriverManager driverManager = new MyriadDriverManager(new MyriadDriver(schedulerDriver));
+    driverManager.startDriver();
+    ManualClock clock = new ManualClock();
+    MetricRegistry registry = new MetricRegistry();
+    TaskKillQueue queue = new TaskKillQueue(driverManager, registry, clock);
+
+    queue.killBatch(Lists.newArrayList(taskId("yarn_container_1")));
+    for (int i = 0; i < 3600 && schedulerDriver.killed.size() < TaskTerminator.MAX_ATTEMPTS; i++) {
+      clock.advance(1000);
+      queue.killBatch(Lists.<TaskID>newArrayList());
+    }
+    assertEquals(TaskTerminator.MAX_ATTEMPTS, schedulerDriver.killed.size());
+    assertEquals(TaskTerminator.MAX_ATTEMPTS - TaskTerminator.ESCALATION_ATTEMPTS, schedulerDriver.reconciled);
+    assertEquals(TaskTerminator.MAX_ATTEMPTS - 1, registry.meter(MetricRegistry.name(TaskTerminator.PREFIX,
+        "container-kills", "retried")).getCount());
+    assertEquals(0, registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "container-kills", "abandoned")).getCount());
+
+    // Past the cap the kill is reported abandoned but still retried until Mesos confirms it
+    clock.advance(TaskKillQueue.MAX_RETRY_DELAY_MS);
+    queue.killBatch(Lists.<TaskID>newArrayList());
+    assertEquals(TaskTerminator.MAX_ATTEMPTS + 1, schedulerDriver.killed.size());
+    assertEquals(1, registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "container-kills", "abandoned")).getCount());
+    assertEquals(1, queue.getUnconfirmedCount());
+
+    queue.taskTerminated(taskId("yarn_container_1"));
+    assertEquals(0, queue.getUnconfirmedCount());
+  }
+
+  @Test
+  public void testBatchIsRetriedWhenDriverNotRunning() throws Exception {
+    RecordingSchedulerDriver schedulerDriver = new RecordingSchedulerDriver();
+    MyriadDriverManager driverManager = new MyriadDriverManager(new MyriadDriver(schedulerDriver));
+    ManualClock clock = new ManualClock();
+    TaskKillQueue queue = new TaskKillQueue(driverManager, new MetricRegistry(), clock);
+
+    queue.killBatch(Lists.newArrayList(taskId("yarn_container_1"), taskId("yarn_container_2")));
+    assertTrue(schedulerDriver.killed.isEmpty());
+    assertEquals(2, queue.getUnconfirmedCount());
+
+    driverManager.startDriver();
+    clock.advance(TaskKillQueue.DEFAULT_RETRY_DELAY_MS);
+    queue.killBatch(Lists.<TaskID>newArrayList());
+    assertEquals(2, schedulerDriver.killed.size());
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Status;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskStatus;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.scheduler.fgs.FineGrainedScalingMetrics;
+import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for TaskTerminator
+ */
+public class TaskTerminatorTest {
+  private static class RecordingSchedulerDriver extends MockSchedulerDriver {
+    private final List<TaskID> killed = new ArrayList<>();
+    private int reconciled;
+
+    @Override
+    public Status killTask(TaskID taskId) {
+      killed.add(taskId);
+      return Protos.Status.DRIVER_RUNNING;
+    }
+
+    @Override
+    public Status reconcileTasks(Collection<TaskStatus> statuses) {
+      reconciled += statuses.size();
+      return Protos.Status.DRIVER_RUNNING;
+    }
+  }
+
+  private final ManualClock clock = new ManualClock();
+  private SchedulerState state;
+  private RecordingSchedulerDriver schedulerDriver;
+  private MetricRegistry registry;
+  private TaskTerminator terminator;
+
+  @Before
+  public void setUp() throws Exception {
+    state = new SchedulerState(null);
+    schedulerDriver = new RecordingSchedulerDriver();
+    MyriadDriver driver = new MyriadDriver(schedulerDriver);
+    MyriadDriverManager driverManager = new MyriadDriverManager(driver);
+    driverManager.startDriver();
+    registry = new MetricRegistry();
+    terminator = new TaskTerminator(state, driverManager, new OfferLifecycleManager(new NodeStore(), driver,
+        new FineGrainedScalingMetrics(registry)), registry, clock);
+  }
+
+  private List<TaskID> addTasks(int count) {
+    List<NodeTask> nodes = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      NodeTask node = TestObjectFactory.getNodeTask("small", "host-" + i, 0.1, 1024.0, Long.valueOf(1), Long.valueOf(2));
+      node.setTaskPrefix("nm");
+      nodes.add(node);
+    }
+    return state.addNodes(nodes);
+  }
+
+  private long killLatencies() {
+    return registry.timer(MetricRegistry.name(TaskTerminator.PREFIX, "kill-latency")).getCount();
+  }
+
+  @Test
+  public void testPendingTasksAreRemovedWithoutKill() throws Exception {
+    TaskID taskId = addTasks(1).get(0);
+    state.makeTaskKillable(taskId);
+    terminator.terminate();
+    assertNull(state.getTask(taskId));
+    assertTrue(schedulerDriver.killed.isEmpty());
+    assertEquals(1, killLatencies());
+  }
+
+  @Test
+  public void testKillableTasksAreKilledInOneBatch() throws Exception {
+    List<TaskID> taskIds = addTasks(3);
+    for (TaskID taskId : taskIds) {
+      state.makeTaskActive(taskId);
+      state.makeTaskKillable(taskId);
+    }
+    terminator.terminate();
+    assertEquals(taskIds, schedulerDriver.killed);
+    assertEquals(3, registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "kills")).getCount());
+
+    // Tasks stay killable until Mesos confirms the kill
+    assertEquals(3, state.getKillableTaskIds().size());
+    clock.advance(250);
+    for (TaskID taskId : taskIds) {
+      state.removeTask(taskId);
+    }
+    assertEquals(3, killLatencies());
+    assertEquals(250, registry.timer(MetricRegistry.name(TaskTerminator.PREFIX, "kill-latency")).getSnapshot().getMax()
+        / 1000000);
+
+    clock.advance(TaskTerminator.MAX_RETRY_DELAY_MS);
+    terminator.terminate();
+    assertEquals(3, schedulerDriver.killed.size());
+  }
+
+  @Test
+  public void testUnconfirmedKillsBackOffEscalateAndAreNeverForgotten() throws Exception {
+    TaskID taskId = addTasks(1).get(0);
+    state.makeTaskActive(taskId);
+    state.updateTask(TaskStatus.newBuilder().setTaskId(taskId).setState(Protos.TaskState.TASK_RUNNING).build());
+    state.makeTaskKillable(taskId);
+
+    terminator.terminate();
+    assertEquals(1, schedulerDriver.killed.size());
+    clock.advance(TaskTerminator.DEFAULT_RETRY_DELAY_MS - 1);
+    terminator.terminate();
+    assertEquals(1, schedulerDriver.killed.size());
+    clock.advance(1);
+    terminator.terminate();
+    assertEquals(2, schedulerDriver.killed.size());
+    // The second retry backs off for twice as long
+    clock.advance(TaskTerminator.DEFAULT_RETRY_DELAY_MS);
+    terminator.terminate();
+    assertEquals(2, schedulerDriver.killed.size());
+    assertEquals(0, schedulerDriver.reconciled);
+
+    for (int i = 0; i < 3600 && schedulerDriver.killed.size() < TaskTerminator.MAX_ATTEMPTS; i++) {
+      clock.advance(1000);
+      terminator.terminate();
+    }
+    assertEquals(TaskTerminator.MAX_ATTEMPTS, schedulerDriver.killed.size());
+    assertEquals(TaskTerminator.MAX_ATTEMPTS - TaskTerminator.ESCALATION_ATTEMPTS, schedulerDriver.reconciled);
+    assertEquals(0, registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "kills", "abandoned")).getCount());
+
+    // Past the cap the task is kept, as it may still run, and its kill is retried at the maximum delay
+    for (int i = 1; i <= 2; i++) {
+      clock.advance(TaskTerminator.MAX_RETRY_DELAY_MS - 1);
+      terminator.terminate();
+      assertEquals(TaskTerminator.MAX_ATTEMPTS + i - 1, schedulerDriver.killed.size());
+      clock.advance(1);
+      terminator.terminate();
+      assertEquals(TaskTerminator.MAX_ATTEMPTS + i, schedulerDriver.killed.size());
+      assertEquals(i, registry.meter(MetricRegistry.name(TaskTerminator.PREFIX, "kills", "abandoned")).getCount());
+    }
+    assertNotNull(state.getTask(taskId));
+    assertTrue(state.getKillableTaskIds().contains(taskId));
+  }
+}
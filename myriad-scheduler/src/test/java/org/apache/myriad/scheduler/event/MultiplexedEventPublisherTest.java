@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.codahale.metrics.MetricRegistry;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.EventTranslatorOneArg;
+import com.lmax.disruptor.EventTranslatorTwoArg;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.dsl.Disruptor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.myriad.scheduler.event.handlers.ClearingEventHandler;
+import org.apache.myriad.scheduler.event.handlers.EventMetricsHandler;
+import org.apache.myriad.scheduler.event.handlers.MultiplexedEventHandler;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for MultiplexedEventPublisher
+ */
+public class MultiplexedEventPublisherTest {
+  private static final EventTranslatorOneArg<DisconnectedEvent, String> DISCONNECTED_TRANSLATOR =
+      new EventTranslatorOneArg<DisconnectedEvent, String>() {
+        @Override
+        public void translateTo(DisconnectedEvent event, long sequence, String arg0) {
+          event.setDriver(null);
+        }
+      };
+
+  private static final EventTranslatorTwoArg<ErrorEvent, Object, String> ERROR_TRANSLATOR =
+      new EventTranslatorTwoArg<ErrorEvent, Object, String>() {
+        @Override
+        public void translateTo(ErrorEvent event, long sequence, Object driver, String message) {
+          event.setMessage(message);
+        }
+      };
+
+  private RingBuffer<MultiplexedEvent> ringBuffer;
+  private List<String> handled;
+  private EventHandler<MultiplexedEvent> handler;
+
+  @Before
+  public void setUp() throws Exception {
+    ringBuffer = RingBuffer.createMultiProducer(new MultiplexedEventFactory(EnumSet.of(EventType.DISCONNECTED,
+        EventType.ERROR)), 8);
+    handled = new ArrayList<>();
+    MultiplexedEventHandler multiplexedHandler = new MultiplexedEventHandler();
+    multiplexedHandler.register(EventType.DISCONNECTED, new EventHandler<DisconnectedEvent>() {
+      @Override
+      public void onEvent(DisconnectedEvent event, long sequence, boolean endOfBatch) throws Exception {
+        handled.add("disconnected");
+      }
+    });
+    multiplexedHandler.register(EventType.ERROR, new EventHandler<ErrorEvent>() {
+      @Override
+      public void onEvent(ErrorEvent event, long sequence, boolean endOfBatch) throws Exception {
+        handled.add("error:" + event.getMessage());
+      }
+    });
+    handler = new ClearingEventHandler<>(multiplexedHandler);
+  }
+
+  @Test
+  public void testEventsAreDispatchedInPublishOrder() throws Exception {
+    new MultiplexedEventPublisher<>(ringBuffer, EventType.ERROR, ErrorEvent.class).publishEvent(ERROR_TRANSLATOR, null, "boom");
+    new MultiplexedEventPublisher<>(ringBuffer, EventType.DISCONNECTED, DisconnectedEvent.class).publishEvent(
+        DISCONNECTED_TRANSLATOR, null);
+
+    assertEquals(1, ringBuffer.getCursor());
+    MultiplexedEvent first = ringBuffer.get(0);
+    assertEquals(EventType.ERROR, first.getType());
+    assertEquals("boom", ((ErrorEvent) first.getEvent()).getMessage());
+
+    handler.onEvent(first, 0, false);
+    handler.onEvent(ringBuffer.get(1), 1, true);
+    assertEquals("[error:boom, disconnected]", handled.toString());
+  }
+
+  @Test
+  public void testSlotIsClearedAfterHandling() throws Exception {
+    new MultiplexedEventPublisher<>(ringBuffer, EventType.ERROR, ErrorEvent.class).publishEvent(ERROR_TRANSLATOR, null, "boom");
+    MultiplexedEvent event = ringBuffer.get(0);
+    ErrorEvent errorEvent = (ErrorEvent) event.getEvent();
+
+    handler.onEvent(event, 0, true);
+    assertNull(event.getType());
+    assertNull(errorEvent.getMessage());
+    assertSame(errorEvent, event.select(EventType.ERROR));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnmultiplexedTypeIsRejected() throws Exception {
+    ringBuffer.get(0).select(EventType.STATUS_UPDATE);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testUnifiedRingPreservesCallbackOrder() throws Exception {
+    final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+    final CountDownLatch cleared = new CountDownLatch(4);
+    MultiplexedEventHandler stateHandler = new MultiplexedEventHandler();
+    stateHandler.register(EventType.ERROR, new EventHandler<ErrorEvent>() {
+      @Override
+      public void onEvent(ErrorEvent event, long sequence, boolean endOfBatch) throws Exception {
+        order.add(event.getMessage());
+      }
+    });
+    stateHandler.register(EventType.DISCONNECTED, new EventHandler<DisconnectedEvent>() {
+      @Override
+      public void onEvent(DisconnectedEvent event, long sequence, boolean endOfBatch) throws Exception {
+        order.add("disconnected");
+      }
+    });
+    MetricRegistry registry = new MetricRegistry();
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    Disruptor<MultiplexedEvent> disruptor = new Disruptor<>(new MultiplexedEventFactory(EnumSet.allOf(EventType.class)), 8,
+        executor);
+    disruptor.handleEventsWith(stateHandler, new EventMetricsHandler(registry)).then(new ClearingEventHandler<MultiplexedEvent>() {
+      @Override
+      public void onEvent(MultiplexedEvent event, long sequence, boolean endOfBatch) throws Exception {
+        super.onEvent(event, sequence, endOfBatch);
+        cleared.countDown();
+      }
+    });
+    RingBuffer<MultiplexedEvent> unified = disruptor.start();
+
+    MultiplexedEventPublisher<ErrorEvent> errors = new MultiplexedEventPublisher<>(unified, EventType.ERROR, ErrorEvent.class);
+    MultiplexedEventPublisher<DisconnectedEvent> disconnects = new MultiplexedEventPublisher<>(unified, EventType.DISCONNECTED,
+        DisconnectedEvent.class);
+    errors.publishEvent(ERROR_TRANSLATOR, null, "first");
+    disconnects.publishEvent(DISCONNECTED_TRANSLATOR, null);
+    errors.publishEvent(ERROR_TRANSLATOR, null, "second");
+    disconnects.publishEvent(DISCONNECTED_TRANSLATOR, null);
+
+    assertTrue(cleared.await(5, TimeUnit.SECONDS));
+    disruptor.shutdown();
+    executor.shutdown();
+    assertEquals("[first, disconnected, second, disconnected]", order.toString());
+    assertEquals(2, registry.meter("myriad.events.error").getCount());
+    assertEquals(2, registry.meter("myriad.events.disconnected").getCount());
+    for (int i = 0; i < 4; i++) {
+      assertNull(unified.get(i).getType());
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.OfferID;
+import org.apache.mesos.Protos.SlaveID;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.scheduler.Clock;
+import org.apache.myriad.scheduler.LostSlaveManager;
+import org.apache.myriad.scheduler.MockSchedulerDriver;
+import org.apache.myriad.scheduler.ReconcileService;
+import org.apache.myriad.scheduler.ServiceResourceProfile;
+import org.apache.myriad.scheduler.TaskFactory;
+import org.apache.myriad.scheduler.TaskUtils;
+import org.apache.myriad.scheduler.event.ResourceOffersEvent;
+import org.apache.myriad.scheduler.event.StatusUpdateEvent;
+import org.apache.myriad.scheduler.offer.OfferBuilder;
+import org.apache.myriad.simulator.SimulatedNMTaskFactory;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for ResourceOffersEventHandler
+ */
+public class ResourceOffersEventHandlerTest extends BaseConfigurableTest {
+  private static final SlaveID LOST_SLAVE = SlaveID.newBuilder().setValue("lost-slave").build();
+
+  private SchedulerState schedulerState;
+  private ResourceOffersEventHandler handler;
+  private TaskID taskId;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    schedulerState = new SchedulerState(null);
+    schedulerState.setFrameworkId(Protos.FrameworkID.newBuilder().setValue("framework").build());
+    Map<String, TaskFactory> taskFactories = new HashMap<>();
+    taskFactories.put("nm", new SimulatedNMTaskFactory(cfg, new TaskUtils(cfg)));
+    handler = new ResourceOffersEventHandler(schedulerState, cfg, taskFactories, null);
+
+    // a task that was running on a lost slave and is pending for relaunch
+    NodeTask task = new NodeTask(new ServiceResourceProfile("small", 1.0, 1024.0, new HashMap<String, Long>()), null);
+    task.setTaskPrefix("nm");
+    task.setHostname("lost-host");
+    task.setSlaveId(LOST_SLAVE);
+    taskId = schedulerState.addNodes(Collections.singletonList(task)).get(0);
+  }
+
+  @Test
+  public void testStatusUpdateOfNewSlaveDuringLaunch() throws Exception {
+    final StatusUpdateEventHandler statusHandler = new StatusUpdateEventHandler(schedulerState, null, null, null,
+        new ReconcileService(schedulerState), new LostSlaveManager(schedulerState, null, null, null, null,
+        new MetricRegistry(), Clock.SYSTEM));
+    // the new slave reports the task running before launchTasks returns
+    offer(new MockSchedulerDriver() {
+      @Override
+      public Protos.Status launchTasks(Collection<OfferID> offerIds, Collection<TaskInfo> tasks) {
+        for (TaskInfo task : tasks) {
+          StatusUpdateEvent event = new StatusUpdateEvent();
+          event.setStatus(Protos.TaskStatus.newBuilder().setTaskId(task.getTaskId()).setSlaveId(task.getSlaveId())
+              .setState(Protos.TaskState.TASK_RUNNING).build());
+          try {
+            statusHandler.onEvent(event, 0, true);
+          } catch (Exception e) {
+            throw new IllegalStateException(e);
+          }
+        }
+        return Protos.Status.DRIVER_RUNNING;
+      }
+    });
+
+    assertTrue(schedulerState.getActiveTaskIds().contains(taskId));
+    assertEquals("new-slave", schedulerState.getTask(taskId).getSlaveId().getValue());
+    assertEquals("new-host", schedulerState.getTask(taskId).getHostname());
+  }
+
+  @Test
+  public void testFailedLaunchLeavesTaskPending() throws Exception {
+    offer(new MockSchedulerDriver() {
+      @Override
+      public Protos.Status launchTasks(Collection<OfferID> offerIds, Collection<TaskInfo> tasks) {
+        throw new IllegalStateException("driver is not running");
+      }
+    });
+
+    assertTrue(schedulerState.getPendingTaskIds().contains(taskId));
+    assertTrue(schedulerState.getStagingTaskIds().isEmpty());
+  }
+
+  private void offer(MockSchedulerDriver driver) throws Exception {
+    List<Protos.Offer> offers = new ArrayList<>();
+    offers.add(new OfferBuilder("offer-1", "new-host", "new-slave")
+        .addScalarResource("cpus", 8.0)
+        .addScalarResource("mem", 16384.0)
+        .addRangeResource("ports", 31000, 32000)
+        .build());
+    ResourceOffersEvent event = new ResourceOffersEvent();
+    event.setDriver(driver);
+    event.setOffers(offers);
+    handler.onEvent(event, 0, true);
+  }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.scheduler.Clock;
+import org.apache.myriad.scheduler.LostSlaveManager;
+import org.apache.myriad.scheduler.ReconcileService;
+import org.apache.myriad.scheduler.event.StatusUpdateEvent;
+import org.apache.myriad.state.MyriadStateStore;
+import org.apache.myriad.state.SchedulerState;
+import org.apache.myriad.state.utils.StoreContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for StatusUpdatePartitionHandler
+ */
+public class StatusUpdatePartitionHandlerTest {
+  private static final int PARTITIONS = 2;
+  private static final int TASKS = 10;
+
+  private CountingStateStore stateStore;
+  private SchedulerState schedulerState;
+  private List<TaskID> taskIds;
+
+  @Before
+  public void setUp() throws Exception {
+    stateStore = new CountingStateStore();
+    schedulerState = new SchedulerState(stateStore);
+    schedulerState.setFrameworkId(Protos.FrameworkID.newBuilder().setValue("framework").build());
+    taskIds = new ArrayList<>();
+    for (int i = 0; i < TASKS; i++) {
+      TaskID taskId = TaskID.newBuilder().setValue("nm.medium.task-" + i).build();
+      schedulerState.addTask(taskId, TestObjectFactory.getNodeTask("medium", "host-" + i, 1.0, 1024.0, 1L, 2L));
+      schedulerState.makeTaskStaging(taskId);
+      taskIds.add(taskId);
+    }
+  }
+
+  @Test
+  public void testPartitionsHandleDisjointTasks() throws Exception {
+    Set<TaskID> handled = new HashSet<>();
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      RecordingStatusUpdateEventHandler handler = new RecordingStatusUpdateEventHandler(schedulerState);
+      publish(new StatusUpdatePartitionHandler(handler, schedulerState, partition, PARTITIONS));
+      for (TaskID taskId : handler.taskIds) {
+        assertEquals(partition, StatusUpdatePartitionHandler.partition(taskId, PARTITIONS));
+        assertTrue(handled.add(taskId));
+      }
+    }
+    assertEquals(TASKS, handled.size());
+    assertEquals(TASKS, schedulerState.getActiveTaskIds().size());
+  }
+
+  @Test
+  public void testStateIsPersistedOncePerBatch() throws Exception {
+    int stores = stateStore.stores;
+    StatusUpdatePartitionHandler handler = new StatusUpdatePartitionHandler(newStatusUpdateEventHandler(), schedulerState,
+        0, 1);
+    publish(handler);
+    assertEquals(stores + 1, stateStore.stores);
+    assertEquals(TASKS, schedulerState.getActiveTaskIds().size());
+
+    // Mutations outside of a batch are persisted right away
+    schedulerState.makeTaskStaging(taskIds.get(0));
+    assertEquals(stores + 2, stateStore.stores);
+  }
+
+  @Test
+  public void testBatchEndsWhenLastEventIsOfOtherPartition() throws Exception {
+    for (int partition = 0; partition < PARTITIONS; partition++) {
+      publish(new StatusUpdatePartitionHandler(newStatusUpdateEventHandler(), schedulerState, partition, PARTITIONS));
+    }
+    // Every batch was ended, so mutations are persisted right away again
+    int stores = stateStore.stores;
+    schedulerState.makeTaskStaging(taskIds.get(0));
+    assertEquals(stores + 1, stateStore.stores);
+    assertFalse(schedulerState.getActiveTaskIds().contains(taskIds.get(0)));
+  }
+
+  private StatusUpdateEventHandler newStatusUpdateEventHandler() {
+    return new StatusUpdateEventHandler(schedulerState, null, null, null, new ReconcileService(schedulerState),
+        new LostSlaveManager(schedulerState, null, null, null, null, new MetricRegistry(),
+        Clock.SYSTEM));
+  }
+
+  private void publish(StatusUpdatePartitionHandler handler) throws Exception {
+    StatusUpdateEvent event = new StatusUpdateEvent();
+    for (int i = 0; i < TASKS; i++) {
+      event.setStatus(Protos.TaskStatus.newBuilder().setTaskId(taskIds.get(i)).setState(Protos.TaskState.TASK_RUNNING)
+          .build());
+      handler.onEvent(event, i, i == TASKS - 1);
+    }
+  }
+
+  private static class RecordingStatusUpdateEventHandler extends StatusUpdateEventHandler {
+    private final List<TaskID> taskIds = new ArrayList<>();
+
+    RecordingStatusUpdateEventHandler(SchedulerState schedulerState) {
+      super(schedulerState, null, null, null, new ReconcileService(schedulerState), new LostSlaveManager(schedulerState,
+          null, null, null, null, new MetricRegistry(), Clock.SYSTEM));
+    }
+
+    @Override
+    public void onEvent(StatusUpdateEvent event, long sequence, boolean endOfBatch) throws Exception {
+      taskIds.add(event.getStatus().getTaskId());
+      super.onEvent(event, sequence, endOfBatch);
+    }
+  }
+
+  private static class CountingStateStore implements MyriadStateStore {
+    private int stores;
+
+    @Override
+    public StoreContext loadMyriadState() throws Exception {
+      return null;
+    }
+
+    @Override
+    public void storeMyriadState(StoreContext storeContext) throws Exception {
+      stores++;
+    }
+
+    @Override
+    public void removeMyriadState() throws Exception {
+    }
+  }
+}
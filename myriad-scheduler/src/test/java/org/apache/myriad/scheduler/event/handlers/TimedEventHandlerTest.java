@@ -0,0 +1,97 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.myriad.scheduler.event.ErrorEvent;
+import org.apache.myriad.scheduler.event.EventType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.lmax.disruptor.EventHandler;
+
+/**
+ * Unit tests for TimedEventHandler and the batch sizes recorded by ClearingEventHandler
+ */
+public class TimedEventHandlerTest {
+  private static final long SERVICE_TIME_MS = 5;
+
+  private MetricRegistry registry;
+  private TimedEventHandler<ErrorEvent> handler;
+
+  @Before
+  public void setUp() throws Exception {
+    registry = new MetricRegistry();
+    handler = new TimedEventHandler<>(EventType.ERROR, new EventHandler<ErrorEvent>() {
+      @Override
+      public void onEvent(ErrorEvent event, long sequence, boolean endOfBatch) throws Exception {
+        Thread.sleep(SERVICE_TIME_MS);
+      }
+    }, registry);
+  }
+
+  @Test
+  public void testTimesQueueWaitAndServiceTime() throws Exception {
+    ErrorEvent event = new ErrorEvent();
+    event.setPublishedNanos(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100));
+    handler.onEvent(event, 0, true);
+
+    Timer queueWait = registry.getTimers().get("myriad.events.error.queue-wait");
+    Timer serviceTime = registry.getTimers().get("myriad.events.error.service-time");
+    assertEquals(1, queueWait.getCount());
+    assertEquals(1, serviceTime.getCount());
+    assertTrue(queueWait.getSnapshot().getMin() >= TimeUnit.MILLISECONDS.toNanos(100));
+    assertTrue(serviceTime.getSnapshot().getMin() >= TimeUnit.MILLISECONDS.toNanos(SERVICE_TIME_MS));
+
+    // Events that were not stamped on publish are not counted as waiting
+    handler.onEvent(new ErrorEvent(), 1, true);
+    assertEquals(1, queueWait.getCount());
+    assertEquals(2, serviceTime.getCount());
+
+    // Handlers of the same type share their timers
+    assertSame(queueWait, TimedEventHandler.timer(registry, "myriad.events.error.queue-wait"));
+  }
+
+  @Test
+  public void testRecordsBatchSizes() throws Exception {
+    Histogram batchSizes = TimedEventHandler.histogram(registry, "myriad.disruptor.error.batch-size");
+    ClearingEventHandler<ErrorEvent> clearingHandler = new ClearingEventHandler<>(handler, batchSizes);
+    ErrorEvent event = new ErrorEvent();
+    long sequence = 0;
+    for (int batch = 1; batch <= 3; batch++) {
+      for (int i = 1; i <= batch; i++) {
+        event.setMessage("error");
+        clearingHandler.onEvent(event, sequence++, i == batch);
+        assertNull(event.getMessage());
+      }
+    }
+    assertEquals(3, batchSizes.getCount());
+    assertEquals(1, batchSizes.getSnapshot().getMin());
+    assertEquals(3, batchSizes.getSnapshot().getMax());
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.journal;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.yarn.conf.YarnConfiguration;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FairScheduler;
+import org.apache.mesos.SchedulerDriver;
+import org.apache.myriad.DisruptorManager;
+import org.apache.myriad.MyriadModule;
+import org.apache.myriad.scheduler.MockSchedulerDriver;
+import org.apache.myriad.scheduler.MyriadScheduler;
+import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.webapp.WebAppGuiceModule;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Replays an event journal through the Disruptor handlers of a scheduler wired against
+ * {@link MockSchedulerDriver} and {@link MockRMContext}, as fast as the handlers consume the events,
+ * and reports the throughput.
+ * <p/>
+ * Usage: EventJournalReplay &lt;journal directory&gt; [config file on the classpath]
+ */
+public class EventJournalReplay {
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: EventJournalReplay <journal directory> [config file]");
+      System.exit(1);
+    }
+    String configFile = args.length > 1 ? args[1] : "myriad-config-test-default.yml";
+    Injector injector = Guice.createInjector(new MyriadModule(configFile, new YarnConfiguration(), new FairScheduler(),
+        new MockRMContext(), new CompositeInterceptor()), new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(SchedulerDriver.class).to(MockSchedulerDriver.class);
+      }
+    }, new WebAppGuiceModule());
+    DisruptorManager disruptorManager = injector.getInstance(DisruptorManager.class);
+    disruptorManager.init(injector);
+
+    long start = System.nanoTime();
+    long events = new EventJournalReader(new File(args[0])).replay(injector.getInstance(MyriadScheduler.class),
+        injector.getInstance(SchedulerDriver.class));
+    disruptorManager.shutdown();
+    long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    System.out.printf("Replayed %d events in %d ms (%d events/s)%n", events, elapsed, events * 1000 / elapsed);
+    System.exit(0);
+  }
+}
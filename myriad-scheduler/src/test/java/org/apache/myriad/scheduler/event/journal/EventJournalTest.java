@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.event.journal;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.mesos.Protos;
+import org.apache.mesos.Scheduler;
+import org.apache.mesos.SchedulerDriver;
+import org.apache.myriad.scheduler.Clock;
+import org.apache.myriad.scheduler.MockSchedulerDriver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for EventJournal and EventJournalReader
+ */
+public class EventJournalTest {
+  private static final Protos.FrameworkID FRAMEWORK_ID = Protos.FrameworkID.newBuilder().setValue("framework").build();
+  private static final Protos.SlaveID SLAVE_ID = Protos.SlaveID.newBuilder().setValue("slave").build();
+  private static final Protos.ExecutorID EXECUTOR_ID = Protos.ExecutorID.newBuilder().setValue("executor").build();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testReplayPreservesOrderAcrossSegments() throws Exception {
+    File directory = folder.newFolder();
+    Protos.MasterInfo masterInfo = Protos.MasterInfo.newBuilder().setId("master").setIp(1).setPort(5050).build();
+
+    try (EventJournal journal = new EventJournal(true, directory, 512, 0, Clock.SYSTEM)) {
+      journal.registered(FRAMEWORK_ID, masterInfo);
+      journal.resourceOffers(Arrays.asList(newOffer("offer-1"), newOffer("offer-2")));
+      for (int i = 0; i < 20; i++) {
+        journal.statusUpdate(Protos.TaskStatus.newBuilder().setTaskId(Protos.TaskID.newBuilder().setValue("task-" + i))
+            .setState(Protos.TaskState.TASK_RUNNING).build());
+      }
+      journal.offerRescinded(Protos.OfferID.newBuilder().setValue("offer-1").build());
+      journal.frameworkMessage(EXECUTOR_ID, SLAVE_ID, new byte[]{1, 2, 3});
+      journal.executorLost(EXECUTOR_ID, SLAVE_ID, 137);
+      journal.slaveLost(SLAVE_ID);
+      journal.disconnected();
+      journal.reregistered(masterInfo);
+      journal.error("lost");
+    }
+    assertTrue(EventJournalReader.listSegments(directory).size() > 1);
+
+    RecordingScheduler scheduler = new RecordingScheduler();
+    assertEquals(29, new EventJournalReader(directory).replay(scheduler, new MockSchedulerDriver()));
+
+    List<String> expected = new ArrayList<>();
+    expected.add("registered framework master");
+    expected.add("resourceOffers offer-1 offer-2");
+    for (int i = 0; i < 20; i++) {
+      expected.add("statusUpdate task-" + i + " TASK_RUNNING");
+    }
+    expected.add("offerRescinded offer-1");
+    expected.add("frameworkMessage executor slave");
+    expected.add("executorLost executor slave 137");
+    expected.add("slaveLost slave");
+    expected.add("disconnected");
+    expected.add("reregistered master");
+    expected.add("error lost");
+    assertEquals(expected, scheduler.events);
+    assertArrayEquals(new byte[]{1, 2, 3}, scheduler.message);
+  }
+
+  @Test
+  public void testJournalAppendsToExistingJournal() throws Exception {
+    File directory = folder.newFolder();
+    try (EventJournal journal = new EventJournal(true, directory, 4096, 0, Clock.SYSTEM)) {
+      journal.slaveLost(SLAVE_ID);
+    }
+    try (EventJournal journal = new EventJournal(true, directory, 4096, 0, Clock.SYSTEM)) {
+      journal.disconnected();
+    }
+    RecordingScheduler scheduler = new RecordingScheduler();
+    assertEquals(2, new EventJournalReader(directory).replay(scheduler, new MockSchedulerDriver()));
+    assertEquals(Arrays.asList("slaveLost slave", "disconnected"), scheduler.events);
+  }
+
+  @Test
+  public void testOldestSegmentsAreDeleted() throws Exception {
+    File directory = folder.newFolder();
+    try (EventJournal journal = new EventJournal(true, directory, 512, 2, Clock.SYSTEM)) {
+      for (int i = 0; i < 100; i++) {
+        journal.statusUpdate(Protos.TaskStatus.newBuilder().setTaskId(Protos.TaskID.newBuilder().setValue("task-" + i))
+            .setState(Protos.TaskState.TASK_RUNNING).build());
+      }
+    }
+    assertEquals(2, EventJournalReader.listSegments(directory).size());
+
+    RecordingScheduler scheduler = new RecordingScheduler();
+    long events = new EventJournalReader(directory).replay(scheduler, new MockSchedulerDriver());
+    assertTrue(events > 0 && events < 100);
+    assertEquals("statusUpdate task-" + (100 - events) + " TASK_RUNNING", scheduler.events.get(0));
+    assertEquals("statusUpdate task-99 TASK_RUNNING", scheduler.events.get(scheduler.events.size() - 1));
+  }
+
+  private static Protos.Offer newOffer(String id) {
+    return Protos.Offer.newBuilder().setId(Protos.OfferID.newBuilder().setValue(id)).setFrameworkId(FRAMEWORK_ID)
+        .setSlaveId(SLAVE_ID).setHostname("localhost").build();
+  }
+
+  private static class RecordingScheduler implements Scheduler {
+    private final List<String> events = new ArrayList<>();
+    private byte[] message;
+
+    @Override
+    public void registered(SchedulerDriver driver, Protos.FrameworkID frameworkId, Protos.MasterInfo masterInfo) {
+      events.add("registered " + frameworkId.getValue() + " " + masterInfo.getId());
+    }
+
+    @Override
+    public void reregistered(SchedulerDriver driver, Protos.MasterInfo masterInfo) {
+      events.add("reregistered " + masterInfo.getId());
+    }
+
+    @Override
+    public void resourceOffers(SchedulerDriver driver, List<Protos.Offer> offers) {
+      StringBuilder event = new StringBuilder("resourceOffers");
+      for (Protos.Offer offer : offers) {
+        event.append(' ').append(offer.getId().getValue());
+      }
+      events.add(event.toString());
+    }
+
+    @Override
+    public void offerRescinded(SchedulerDriver driver, Protos.OfferID offerId) {
+      events.add("offerRescinded " + offerId.getValue());
+    }
+
+    @Override
+    public void statusUpdate(SchedulerDriver driver, Protos.TaskStatus status) {
+      events.add("statusUpdate " + status.getTaskId().getValue() + " " + status.getState());
+    }
+
+    @Override
+    public void frameworkMessage(SchedulerDriver driver, Protos.ExecutorID executorId, Protos.SlaveID slaveId, byte[] data) {
+      events.add("frameworkMessage " + executorId.getValue() + " " + slaveId.getValue());
+      message = data;
+    }
+
+    @Override
+    public void disconnected(SchedulerDriver driver) {
+      events.add("disconnected");
+    }
+
+    @Override
+    public void slaveLost(SchedulerDriver driver, Protos.SlaveID slaveId) {
+      events.add("slaveLost " + slaveId.getValue());
+    }
+
+    @Override
+    public void executorLost(SchedulerDriver driver, Protos.ExecutorID executorId, Protos.SlaveID slaveId, int status) {
+      events.add("executorLost " + executorId.getValue() + " " + slaveId.getValue() + " " + status);
+    }
+
+    @Override
+    public void error(SchedulerDriver driver, String message) {
+      events.add("error " + message);
+    }
+  }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -41,13 +42,20 @@ import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeStatusEvent;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FSSchedulerNode;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
 import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.TaskID;
 import org.apache.myriad.BaseConfigurableTest;
 import org.apache.myriad.TestObjectFactory;
 import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.policy.NodeStatistics;
+import org.apache.myriad.scheduler.Clock;
 import org.apache.myriad.scheduler.MockSchedulerDriver;
 import org.apache.myriad.scheduler.MyriadDriver;
+import org.apache.myriad.scheduler.MyriadDriverManager;
+import org.apache.myriad.scheduler.NodeDrainer;
 import org.apache.myriad.scheduler.ServiceResourceProfile;
+import org.apache.myriad.scheduler.TaskKillQueue;
 import org.apache.myriad.scheduler.TaskUtils;
 import org.apache.myriad.scheduler.yarn.MyriadFairScheduler;
 import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
@@ -57,6 +65,7 @@ import org.apache.myriad.state.SchedulerState;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Lists;
 
 /**
@@ -73,6 +82,9 @@ public class NMHeartBeatHandlerTest extends BaseConfigurableTest {
   private SchedulerState state;
   private MockRMContext context;
   private OfferLifecycleManager olManager;
+  private MetricRegistry metricRegistry;
+  private FineGrainedScalingMetrics metrics;
+  private NodeDrainer drainer;
 
   @Override
   @Before
@@ -105,8 +117,10 @@ public class NMHeartBeatHandlerTest extends BaseConfigurableTest {
     store.add(sNodeOne);
     store.add(sNodeTwo);
     
+    metricRegistry = new MetricRegistry();
+    metrics = new FineGrainedScalingMetrics(metricRegistry);
     MyriadDriver driver = TestObjectFactory.getMyriadDriver(new MockSchedulerDriver());
-    olManager = new OfferLifecycleManager(store, driver);
+    olManager = new OfferLifecycleManager(store, driver, metrics);
     
     state = TestObjectFactory.getSchedulerState(new MyriadConfiguration(), "/tmp/nm-heartbeat-handler-test");
     state.addNodes(Lists.newArrayList(nodeTaskOne, nodeTaskTwo));
@@ -116,9 +130,14 @@ public class NMHeartBeatHandlerTest extends BaseConfigurableTest {
     scheduler.addNode(sNodeTwo);
     
     manager = new YarnNodeCapacityManager(new CompositeInterceptor(), scheduler, 
-            context, driver, olManager, store, state, new TaskUtils(this.cfg));
+            context, driver, olManager, store, state, new TaskUtils(this.cfg), new ContainerTaskStore(),
+            new TaskKillQueue(new MyriadDriverManager(driver), new MetricRegistry(), Clock.SYSTEM), metrics,
+            new OfferHoldPolicy(cfg, metrics, Clock.SYSTEM),
+            new OfferHandlingExecutor(cfg));
+    drainer = new NodeDrainer(cfg, state, store, manager, olManager, new NodeStatistics(new CompositeInterceptor(), scheduler,
+        Clock.SYSTEM), Clock.SYSTEM);
     handler = new NMHeartBeatHandler(new CompositeInterceptor(), scheduler, 
-            driver, manager, olManager, store, state, cfg.getNodeManagerConfiguration());
+            driver, manager, olManager, store, state, cfg.getNodeManagerConfiguration(), metrics, drainer);
   }
 
   @Test
@@ -213,7 +232,49 @@ public class NMHeartBeatHandlerTest extends BaseConfigurableTest {
     assertEquals(2048, nodeTwo.getTotalCapability().getMemory());
     assertEquals(2, nodeTwo.getTotalCapability().getVirtualCores());
   }
-    
+
+  @Test
+  public void testDrainingNodeKeepsZeroCapacity() throws Exception {
+    resetNodeTotalCapability(nodeOne, 2, 1024);
+    TaskID taskId = TaskID.newBuilder().setValue("nm.zero.drained").build();
+    state.addTask(taskId, TestObjectFactory.getNodeTask("localhost-one", profileZero));
+    state.makeTaskActive(taskId);
+    drainer.drain(taskId);
+    assertEquals(0, nodeOne.getTotalCapability().getMemory());
+
+    olManager.addOffers(TestObjectFactory.getOffer("localhost-one", "slave-one", "mock", "offer-one", 1.0, 512.0));
+    handler.beforeRMNodeEventHandled(getRMStatusEvent(nodeOne), context);
+    assertEquals(0, nodeOne.getTotalCapability().getMemory());
+    assertEquals(0, nodeOne.getTotalCapability().getVirtualCores());
+    assertEquals(0, handler.getNewResourcesOfferedByMesos("localhost-one").getMemory());
+  }
+
+  @Test
+  public void testTrackedResourcesUnderUse() throws Exception {
+    Node node = store.getNode("localhost-one");
+    RMNodeStatusEvent event = new RMNodeStatusEvent(nodeOne.getNodeID(),
+        NodeHealthStatusPBImpl.newInstance(true, "HEALTHY", System.currentTimeMillis()),
+        Collections.<ContainerStatus>emptyList(), Collections.<ApplicationId>emptyList(), new NodeHeartbeatResponsePBImpl());
+
+    // The first heartbeat always reconciles
+    assertEquals(Resource.newInstance(0, 0), handler.getTrackedResourcesUnderUse(node, event));
+
+    RMContainer container = TestObjectFactory.getRMContainer(nodeOne, context, 1, 2, 1024);
+    node.addAllocatedContainer(container.getContainerId(), container.getAllocatedResource());
+    assertEquals(Resource.newInstance(1024, 2), handler.getTrackedResourcesUnderUse(node, event));
+
+    // The heartbeat does not report the container, so the next reconciliation drops it
+    int interval = cfg.getNodeManagerConfiguration().getUsedResourcesReconcileInterval();
+    for (int i = 2; i < interval; i++) {
+      assertEquals(Resource.newInstance(1024, 2), handler.getTrackedResourcesUnderUse(node, event));
+    }
+    assertEquals(Resource.newInstance(0, 0), handler.getTrackedResourcesUnderUse(node, event));
+
+    String prefix = MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "used-resources");
+    assertEquals(2, metricRegistry.getCounters().get(MetricRegistry.name(prefix, "reconciliations")).getCount());
+    assertEquals(1024, metricRegistry.getHistograms().get(MetricRegistry.name(prefix, "drift", "memory")).getSnapshot().getMax());
+  }
+
   private RMNodeStatusEvent getRMStatusEvent(RMNode node) {
     NodeId id = node.getNodeID();
     NodeHealthStatus hStatus = NodeHealthStatusPBImpl.newInstance(true, "HEALTHY", System.currentTimeMillis());
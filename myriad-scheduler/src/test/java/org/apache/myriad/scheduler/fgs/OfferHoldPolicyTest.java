@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.fgs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.myriad.BaseConfigurableTest;
+import org.apache.myriad.scheduler.ManualClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Unit tests for OfferHoldPolicy
+ */
+public class OfferHoldPolicyTest extends BaseConfigurableTest {
+  private static final String HOST = "localhost-one";
+
+  private final ManualClock clock = new ManualClock();
+  private MetricRegistry registry;
+  private OfferHoldPolicy policy;
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    registry = new MetricRegistry();
+    policy = new OfferHoldPolicy(cfg, new FineGrainedScalingMetrics(registry), clock);
+  }
+
+  @Test
+  public void testHoldExpiresAfterMaxHeartbeats() throws Exception {
+    int heartbeats = cfg.getFineGrainedScalingConfiguration().getOfferHoldHeartbeats();
+    for (int i = 0; i < heartbeats; i++) {
+      assertTrue(policy.shouldHold(HOST));
+    }
+    assertFalse(policy.shouldHold(HOST));
+    assertEquals(1, registry.meter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "hold", "expired")).getCount());
+  }
+
+  @Test
+  public void testHoldExpiresAfterMaxTime() throws Exception {
+    assertTrue(policy.shouldHold(HOST));
+    clock.advance(cfg.getFineGrainedScalingConfiguration().getOfferHoldMs());
+    assertFalse(policy.shouldHold(HOST));
+  }
+
+  @Test
+  public void testHoldAdaptsToAllocations() throws Exception {
+    // Every hold that expires unused halves the next hold, until offers are no longer held
+    int heartbeats = cfg.getFineGrainedScalingConfiguration().getOfferHoldHeartbeats();
+    int previous = Integer.MAX_VALUE;
+    int held;
+    do {
+      held = 0;
+      while (policy.shouldHold(HOST)) {
+        held++;
+      }
+      assertTrue(held <= heartbeats && held < previous);
+      previous = held;
+    } while (held > 0);
+    assertFalse(policy.isHolding(HOST));
+
+    // Allocations on the node make it eligible for holds again
+    policy.containersAllocated(HOST);
+    assertTrue(policy.shouldHold(HOST));
+    clock.advance(100);
+    policy.containersAllocated(HOST);
+    assertEquals(1, registry.timer(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "hold", "time-to-allocation"))
+        .getCount());
+  }
+
+  @Test
+  public void testRescindReleasesHolds() throws Exception {
+    assertTrue(policy.shouldHold(HOST));
+    policy.offerRescinded();
+    assertFalse(policy.shouldHold(HOST));
+    assertFalse(policy.isHolding(HOST));
+
+    clock.advance(cfg.getFineGrainedScalingConfiguration().getOfferHoldBackoffMs());
+    assertTrue(policy.shouldHold(HOST));
+  }
+}
@@ -21,6 +21,15 @@ package org.apache.myriad.scheduler.fgs;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.apache.hadoop.net.NodeBase;
 import org.apache.hadoop.yarn.api.records.impl.pb.NodeIdPBImpl;
 import org.apache.hadoop.yarn.api.records.impl.pb.ResourcePBImpl;
@@ -37,11 +46,15 @@ import org.apache.myriad.state.MockRMContext;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.codahale.metrics.MetricRegistry;
+
 /**
  * Unit tests for OfferLifeCycleManager
  */
 public class OfferLifeCycleManagerTest {
   OfferLifecycleManager manager;
+  MetricRegistry registry;
+  FineGrainedScalingMetrics metrics;
 
   @Before
   public void setUp() throws Exception {
@@ -51,7 +64,9 @@ public class OfferLifeCycleManagerTest {
             new ResourcePBImpl(), "1.0");
     SchedulerNode node = new FiCaSchedulerNode(rmNode, false);
     store.add(node);
-    manager = new OfferLifecycleManager(store, new MyriadDriver(new MockSchedulerDriver()));
+    registry = new MetricRegistry();
+    metrics = new FineGrainedScalingMetrics(registry);
+    manager = new OfferLifecycleManager(store, new MyriadDriver(new MockSchedulerDriver()), metrics);
   }
   
   @Test
@@ -69,4 +84,94 @@ public class OfferLifeCycleManagerTest {
     Offer cOffer = cOffers.getOffers().get(0);
     assertEquals(offer, cOffer);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testOfferMetrics() throws Exception {
+    Offer offer = TestObjectFactory.getOffer("localhost", "slave-1", "mock-framework", "offer-1", 1.0, 1024.0);
+    manager.addOffers(offer);
+    assertEquals(1, registry.counter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "held")).getCount());
+
+    manager.markAsConsumed(manager.getOfferFeed("localhost").poll());
+    assertEquals(0, registry.counter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "held")).getCount());
+    assertEquals(1, registry.timer(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "held-time")).getCount());
+    assertEquals(1, registry.meter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "consumed")).getCount());
+  }
+
+  @Test
+  public void testHeldOffersAreNotCountedAgain() throws Exception {
+    Offer offer = TestObjectFactory.getOffer("localhost", "slave-1", "mock-framework", "offer-1", 1.0, 1024.0);
+    manager.addOffers(offer);
+    manager.markAsConsumed(manager.getOfferFeed("localhost").poll());
+    for (int i = 0; i < 3; i++) {
+      manager.holdOffers(manager.drainConsumedOffer("localhost").getOffers());
+      assertEquals(1, registry.counter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "held")).getCount());
+      manager.markAsConsumed(manager.getOfferFeed("localhost").poll());
+    }
+    assertEquals(offer, manager.drainConsumedOffer("localhost").getOffers().get(0));
+    assertEquals(0, registry.counter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "held")).getCount());
+    assertEquals(1, registry.timer(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "held-time")).getCount());
+    assertEquals(1, registry.meter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "offers", "consumed")).getCount());
+  }
+
+  @Test
+  public void testConcurrentConsumeAndDrain() throws Exception {
+    final int hosts = 32;
+    final int threadsPerHost = 2;
+    final int offersPerThread = 500;
+    ExecutorService executor = Executors.newFixedThreadPool(hosts * threadsPerHost + 1);
+    final CountDownLatch start = new CountDownLatch(1);
+    final AtomicBoolean consuming = new AtomicBoolean(true);
+
+    List<Future<Integer>> consumers = new ArrayList<>();
+    for (int t = 0; t < hosts * threadsPerHost; t++) {
+      final String host = "host-" + (t % hosts);
+      final String prefix = host + "-thread-" + t;
+      consumers.add(executor.submit(new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          start.await();
+          for (int i = 0; i < offersPerThread; i++) {
+            manager.markAsConsumed(TestObjectFactory.getOffer(host, "slave-" + host, "mock-framework",
+                prefix + "-offer-" + i, 1.0, 1.0));
+          }
+          return offersPerThread;
+        }
+      }));
+    }
+
+    Future<Integer> drainer = executor.submit(new Callable<Integer>() {
+      @Override
+      public Integer call() throws Exception {
+        start.await();
+        int drained = 0;
+        while (consuming.get()) {
+          drained += drainAll(hosts);
+        }
+        return drained + drainAll(hosts);
+      }
+    });
+
+    start.countDown();
+    int consumed = 0;
+    for (Future<Integer> consumer : consumers) {
+      consumed += consumer.get();
+    }
+    consuming.set(false);
+    int drained = drainer.get();
+    executor.shutdown();
+
+    assertEquals(hosts * threadsPerHost * offersPerThread, consumed);
+    assertEquals(consumed, drained);
+  }
+
+  private int drainAll(int hosts) {
+    int drained = 0;
+    for (int h = 0; h < hosts; h++) {
+      ConsumedOffer consumedOffer = manager.drainConsumedOffer("host-" + h);
+      if (consumedOffer != null) {
+        drained += consumedOffer.getOffers().size();
+      }
+    }
+    return drained;
+  }
+}
@@ -19,18 +19,30 @@
 package org.apache.myriad.scheduler.fgs;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hadoop.yarn.api.records.Resource;
 import org.apache.hadoop.yarn.server.resourcemanager.metrics.SystemMetricsPublisher;
 import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainer;
+import org.apache.hadoop.yarn.server.resourcemanager.rmcontainer.RMContainerEventType;
 import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
 import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FSSchedulerNode;
+import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.Offer;
 import org.apache.myriad.BaseConfigurableTest;
 import org.apache.myriad.TestObjectFactory;
 import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.Clock;
 import org.apache.myriad.scheduler.MockSchedulerDriver;
 import org.apache.myriad.scheduler.MyriadDriver;
+import org.apache.myriad.scheduler.MyriadDriverManager;
+import org.apache.myriad.scheduler.TaskKillQueue;
 import org.apache.myriad.scheduler.TaskUtils;
 import org.apache.myriad.scheduler.yarn.MyriadFairScheduler;
 import org.apache.myriad.scheduler.yarn.interceptor.CompositeInterceptor;
@@ -40,6 +52,7 @@ import org.apache.myriad.state.SchedulerState;
 import org.junit.Before;
 import org.junit.Test;
 
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.Lists;
 
 /**
@@ -54,6 +67,12 @@ public class YarnNodeCapacityManagerTest extends BaseConfigurableTest {
   private MockRMContext context;
   private RMContainer containerOne;
   private OfferLifecycleManager olManager;
+  private ContainerTaskStore containerTaskStore;
+  private MetricRegistry registry;
+  private FineGrainedScalingMetrics metrics;
+  private LaunchRecordingDriver schedulerDriver;
+  private MyriadDriver driver;
+  private MyriadFairScheduler scheduler;
 
   @Override
   @Before
@@ -74,15 +93,22 @@ public class YarnNodeCapacityManagerTest extends BaseConfigurableTest {
     store.add(sNodeOne);
     store.add(sNodeTwo);
     
-    MyriadDriver driver = TestObjectFactory.getMyriadDriver(new MockSchedulerDriver());
-    olManager = new OfferLifecycleManager(store, driver);
+    registry = new MetricRegistry();
+    metrics = new FineGrainedScalingMetrics(registry);
+    schedulerDriver = new LaunchRecordingDriver();
+    driver = TestObjectFactory.getMyriadDriver(schedulerDriver);
+    olManager = new OfferLifecycleManager(store, driver, metrics);
     state = TestObjectFactory.getSchedulerState(new MyriadConfiguration(), "/tmp/yarn-node-capacity-manager-test");
-    MyriadFairScheduler scheduler = TestObjectFactory.getMyriadFairScheduler(context);
+    scheduler = TestObjectFactory.getMyriadFairScheduler(context);
+    containerTaskStore = new ContainerTaskStore();
     
     scheduler.addNode(sNodeOne);
     scheduler.addNode(sNodeTwo);
     manager = new YarnNodeCapacityManager(new CompositeInterceptor(), scheduler, 
-              context, driver, olManager, store, state, new TaskUtils(this.cfg));
+              context, driver, olManager, store, state, new TaskUtils(this.cfg), containerTaskStore,
+            new TaskKillQueue(new MyriadDriverManager(driver), new MetricRegistry(), Clock.SYSTEM), metrics,
+            new OfferHoldPolicy(cfg, metrics, Clock.SYSTEM),
+            new OfferHandlingExecutor(cfg));
   }
     
   @Test
@@ -113,4 +139,128 @@ public class YarnNodeCapacityManagerTest extends BaseConfigurableTest {
     assertEquals(1, store.getNode("localhost-one").getNode().getRunningContainers().size());
     assertEquals(1, store.getNode("localhost-one").getContainerSnapshot().size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testHandleContainerAllocationTracksContainerTask() throws Exception {
+    Offer offer = TestObjectFactory.getOffer("localhost-one", "small-localhost-one", "mock-framework", "offer-one", 2.0, 2048.0);
+    sNodeOne.allocateContainer(containerOne);
+    NodeTask task = TestObjectFactory.getNodeTask("small", "localhost-one", Double.valueOf(0.1), Double.valueOf(512.0), 
+        Long.parseLong("1"), Long.parseLong("256"));
+    state.addNodes(Lists.newArrayList(task));
+    olManager.addOffers(offer); 
+    olManager.markAsConsumed(offer);
+    manager.handleContainerAllocation(nodeOne);
+    assertEquals(1, containerTaskStore.size());
+    assertEquals("localhost-one", containerTaskStore.getHostname(
+        Protos.TaskID.newBuilder().setValue("yarn_" + containerOne.getContainerId()).build()));
+    assertEquals(1, registry.histogram(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "containers-per-offer"))
+        .getSnapshot().getMax());
+    assertEquals(1024, registry.counter(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "hosts", "localhost-one", "used",
+        "memory")).getCount());
+  }
+
+  @Test
+  public void testHandleContainerAllocationHoldsUnusedOffers() throws Exception {
+    Offer offer = TestObjectFactory.getOffer("localhost-one", "small-localhost-one", "mock-framework", "offer-one", 2.0, 2048.0);
+    olManager.addOffers(offer);
+    olManager.markAsConsumed(olManager.getOfferFeed("localhost-one").poll());
+    manager.handleContainerAllocation(nodeOne);
+
+    // No container was placed, the capacity is kept and the offer handed back to the feed
+    assertEquals(2048, nodeOne.getTotalCapability().getMemory());
+    assertEquals(4, nodeOne.getTotalCapability().getVirtualCores());
+    assertEquals(offer, olManager.getOfferFeed("localhost-one").poll());
+  }
+
+  @Test
+  public void testAsyncOfferHandling() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    manager = new YarnNodeCapacityManager(new CompositeInterceptor(), scheduler,
+            context, driver, olManager, store, state, new TaskUtils(this.cfg), containerTaskStore,
+            new TaskKillQueue(new MyriadDriverManager(driver), new MetricRegistry(), Clock.SYSTEM), metrics,
+            new OfferHoldPolicy(cfg, metrics, Clock.SYSTEM),
+            new OfferHandlingExecutor(executor));
+    final CountDownLatch blocked = new CountDownLatch(1);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    Offer offer = TestObjectFactory.getOffer("localhost-one", "small-localhost-one", "mock-framework", "offer-one", 2.0, 2048.0);
+    sNodeOne.allocateContainer(containerOne);
+    NodeTask task = TestObjectFactory.getNodeTask("small", "localhost-one", Double.valueOf(0.1), Double.valueOf(512.0),
+        Long.parseLong("1"), Long.parseLong("256"));
+    state.addNodes(Lists.newArrayList(task));
+    olManager.addOffers(offer);
+    olManager.markAsConsumed(offer);
+    manager.handleContainerAllocation(nodeOne);
+
+    // The container is tracked and the capacity updated right away, the task is launched later
+    assertEquals(1, containerTaskStore.size());
+    assertEquals(1024, nodeOne.getTotalCapability().getMemory());
+    assertEquals(0, schedulerDriver.launched);
+    assertEquals(1, registry.timer(MetricRegistry.name(FineGrainedScalingMetrics.PREFIX, "allocation-handling-time")).getCount());
+
+    blocked.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(1, schedulerDriver.launched);
+  }
+
+  @Test
+  public void testAsyncOfferHandlingKillsAfterLaunch() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    TaskKillQueue taskKillQueue = new TaskKillQueue(new MyriadDriverManager(driver), new MetricRegistry(), Clock.SYSTEM);
+    manager = new YarnNodeCapacityManager(new CompositeInterceptor(), scheduler,
+            context, driver, olManager, store, state, new TaskUtils(this.cfg), containerTaskStore,
+            taskKillQueue, metrics, new OfferHoldPolicy(cfg, metrics, Clock.SYSTEM),
+            new OfferHandlingExecutor(executor));
+    final CountDownLatch blocked = new CountDownLatch(1);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          blocked.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+
+    Offer offer = TestObjectFactory.getOffer("localhost-one", "small-localhost-one", "mock-framework", "offer-one", 2.0, 2048.0);
+    sNodeOne.allocateContainer(containerOne);
+    NodeTask task = TestObjectFactory.getNodeTask("small", "localhost-one", Double.valueOf(0.1), Double.valueOf(512.0),
+        Long.parseLong("1"), Long.parseLong("256"));
+    state.addNodes(Lists.newArrayList(task));
+    olManager.addOffers(offer);
+    olManager.markAsConsumed(offer);
+    manager.handleContainerAllocation(nodeOne);
+
+    // The AM releases the container before its task was launched
+    manager.beforeCompletedContainer(containerOne, null, RMContainerEventType.RELEASED);
+    assertEquals(0, containerTaskStore.size());
+    assertEquals(0, taskKillQueue.size());
+
+    blocked.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(0, schedulerDriver.launched);
+    assertEquals(1, taskKillQueue.size());
+  }
+
+  private static class LaunchRecordingDriver extends MockSchedulerDriver {
+    private volatile int launched;
+
+    @Override
+    public Protos.Status launchTasks(Collection<Protos.OfferID> offerIds, Collection<Protos.TaskInfo> tasks) {
+      launched += tasks.size();
+      return null;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.scheduler.yarn.interceptor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.yarn.api.records.NodeId;
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.RMContext;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNode;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.rmnode.RMNodeEventType;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeRemovedSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.NodeUpdateSchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEvent;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.event.SchedulerEventType;
+import org.apache.myriad.TestObjectFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for CompositeInterceptor
+ */
+public class CompositeInterceptorTest {
+  private CompositeInterceptor composite;
+  private RMNode allowedNode;
+  private RMNode filteredNode;
+
+  @Before
+  public void setUp() throws Exception {
+    composite = new CompositeInterceptor();
+    allowedNode = TestObjectFactory.getRMNode("localhost-one", 8800, Resource.newInstance(0, 0));
+    filteredNode = TestObjectFactory.getRMNode("localhost-two", 8800, Resource.newInstance(0, 0));
+  }
+
+  @Test
+  public void testDispatchesByEventType() throws Exception {
+    SchedulerInterceptor nodeUpdates = new SchedulerInterceptor(EnumSet.of(SchedulerEventType.NODE_UPDATE));
+    RMNodeInterceptor nodeStarts = new RMNodeInterceptor(EnumSet.of(RMNodeEventType.STARTED));
+    composite.register(nodeUpdates);
+    composite.register(nodeStarts);
+
+    composite.beforeSchedulerEventHandled(new NodeUpdateSchedulerEvent(allowedNode));
+    composite.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(allowedNode));
+    composite.afterSchedulerEventHandled(new NodeRemovedSchedulerEvent(allowedNode));
+    composite.beforeRMNodeEventHandled(new RMNodeEvent(allowedNode.getNodeID(), RMNodeEventType.STARTED), null);
+    composite.beforeRMNodeEventHandled(new RMNodeEvent(allowedNode.getNodeID(), RMNodeEventType.EXPIRE), null);
+
+    assertEquals(2, nodeUpdates.events.size());
+    assertEquals(0, nodeUpdates.filterCalls);
+    assertEquals(1, nodeStarts.events.size());
+  }
+
+  @Test
+  public void testEvaluatesFilterOncePerEvent() throws Exception {
+    SchedulerInterceptor interceptor = new SchedulerInterceptor(EnumSet.of(SchedulerEventType.NODE_UPDATE));
+    interceptor.allowedNode = allowedNode.getNodeID();
+    composite.register(interceptor);
+    // The filter is looked up once, on registration
+    assertEquals(1, interceptor.filterLookups);
+
+    composite.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(allowedNode));
+    composite.afterSchedulerEventHandled(new NodeUpdateSchedulerEvent(filteredNode));
+    composite.afterSchedulerEventHandled(new NodeRemovedSchedulerEvent(allowedNode));
+
+    assertEquals(1, interceptor.events.size());
+    assertEquals(2, interceptor.filterCalls);
+    assertEquals(1, interceptor.filterLookups);
+  }
+
+  private static class SchedulerInterceptor extends BaseInterceptor {
+    private final Set<SchedulerEventType> types;
+    private final List<SchedulerEvent> events = new ArrayList<>();
+    private NodeId allowedNode;
+    private int filterLookups;
+    private int filterCalls;
+
+    SchedulerInterceptor(Set<SchedulerEventType> types) {
+      this.types = types;
+    }
+
+    @Override
+    public CallBackFilter getCallBackFilter() {
+      filterLookups++;
+      if (allowedNode == null) {
+        return super.getCallBackFilter();
+      }
+      return new CallBackFilter() {
+        @Override
+        public boolean allowCallBacksForNode(NodeId nodeManager) {
+          filterCalls++;
+          return allowedNode.equals(nodeManager);
+        }
+      };
+    }
+
+    @Override
+    public Set<SchedulerEventType> getSchedulerEventTypes() {
+      return types;
+    }
+
+    @Override
+    public Set<RMNodeEventType> getRMNodeEventTypes() {
+      return EnumSet.noneOf(RMNodeEventType.class);
+    }
+
+    @Override
+    public void beforeSchedulerEventHandled(SchedulerEvent event) {
+      events.add(event);
+    }
+
+    @Override
+    public void afterSchedulerEventHandled(SchedulerEvent event) {
+      events.add(event);
+    }
+  }
+
+  private static class RMNodeInterceptor extends BaseInterceptor {
+    private final Set<RMNodeEventType> types;
+    private final List<RMNodeEvent> events = new ArrayList<>();
+
+    RMNodeInterceptor(Set<RMNodeEventType> types) {
+      this.types = types;
+    }
+
+    @Override
+    public Set<SchedulerEventType> getSchedulerEventTypes() {
+      return EnumSet.noneOf(SchedulerEventType.class);
+    }
+
+    @Override
+    public Set<RMNodeEventType> getRMNodeEventTypes() {
+      return types;
+    }
+
+    @Override
+    public void beforeRMNodeEventHandled(RMNodeEvent event, RMContext context) {
+      events.add(event);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.simulator;
+
+import org.apache.mesos.Protos;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.scheduler.ServiceResourceProfile;
+import org.apache.myriad.scheduler.TaskFactory;
+import org.apache.myriad.scheduler.TaskUtils;
+import org.apache.myriad.scheduler.resource.ResourceOfferContainer;
+import org.apache.myriad.state.NodeTask;
+
+/**
+ * Creates NM tasks that consume the same resources of an offer as the NMTaskFactory, without
+ * generating the command line that launches the NM.
+ */
+public class SimulatedNMTaskFactory extends TaskFactory {
+  public SimulatedNMTaskFactory(MyriadConfiguration cfg, TaskUtils taskUtils) {
+    super(cfg, taskUtils, null);
+  }
+
+  @Override
+  public Protos.TaskInfo createTask(ResourceOfferContainer resourceOfferContainer, Protos.FrameworkID frameworkId,
+                                    Protos.TaskID taskId, NodeTask nodeTask) {
+    ServiceResourceProfile profile = nodeTask.getProfile();
+    Protos.CommandInfo commandInfo = Protos.CommandInfo.newBuilder().setValue("true").build();
+    return Protos.TaskInfo.newBuilder()
+        .setName(cfg.getFrameworkName() + "-" + taskId.getValue())
+        .setTaskId(taskId)
+        .setSlaveId(resourceOfferContainer.getSlaveId())
+        .addAllResources(resourceOfferContainer.consumeCpus(profile.getAggregateCpu()))
+        .addAllResources(resourceOfferContainer.consumeMem(profile.getAggregateMemory()))
+        .addAllResources(resourceOfferContainer.consumePorts(profile.getPorts().values()))
+        .setExecutor(getExecutorInfoForSlave(resourceOfferContainer, frameworkId, commandInfo))
+        .build();
+  }
+
+  @Override
+  public Protos.ExecutorInfo getExecutorInfoForSlave(ResourceOfferContainer resourceOfferContainer,
+                                                     Protos.FrameworkID frameworkId, Protos.CommandInfo commandInfo) {
+    return Protos.ExecutorInfo.newBuilder()
+        .setCommand(commandInfo)
+        .setName(EXECUTOR_NAME)
+        .setExecutorId(Protos.ExecutorID.newBuilder().setValue(EXECUTOR_PREFIX + frameworkId.getValue() +
+            resourceOfferContainer.getOfferId() + resourceOfferContainer.getSlaveId().getValue()))
+        .addAllResources(resourceOfferContainer.consumeCpus(taskUtils.getExecutorCpus()))
+        .addAllResources(resourceOfferContainer.consumeMem(taskUtils.getExecutorMemory()))
+        .build();
+  }
+}
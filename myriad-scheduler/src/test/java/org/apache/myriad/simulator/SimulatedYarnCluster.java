@@ -0,0 +1,306 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.simulator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.apache.hadoop.yarn.api.records.ApplicationId;
+import org.apache.hadoop.yarn.api.records.Resource;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.QueueMetrics;
+
+/**
+ * Minimal model of the YARN cluster the simulated NMs register with. Apps are allocated their
+ * containers first-fit on the registered NMs in submission order, and the root QueueMetrics
+ * are kept up to date, so the Rebalancer reads them as it does in the RM. Containers running
+ * on a NM that is removed are lost and requested again.
+ */
+public class SimulatedYarnCluster {
+  private static final String USER = "simulator";
+  private static final long CLUSTER_TIMESTAMP = 1L;
+
+  private final QueueMetrics metrics;
+  private final Map<String, Node> nodes = new LinkedHashMap<>();
+  private final List<App> pendingApps = new LinkedList<>();
+  private final PriorityQueue<Container> running = new PriorityQueue<>(64, new Comparator<Container>() {
+    @Override
+    public int compare(Container c1, Container c2) {
+      return Long.compare(c1.endMillis, c2.endMillis);
+    }
+  });
+  private final List<Long> timesToCapacity = new ArrayList<>();
+
+  private int submittedApps;
+  private long allocatedContainers;
+  private long lostContainers;
+  private long capacityMB;
+  private long capacityVCores;
+  private long allocatedMB;
+  private long allocatedVCores;
+
+  public SimulatedYarnCluster(QueueMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  public void submit(Trace.Job job, long now) {
+    App app = new App(ApplicationId.newInstance(CLUSTER_TIMESTAMP, ++submittedApps), job, now);
+    pendingApps.add(app);
+    metrics.submitApp(USER);
+    metrics.submitAppAttempt(USER);
+    metrics.incrPendingResources(USER, job.getContainers(), app.resource);
+  }
+
+  public void addNode(String host, long memoryMB, long vCores, long now) {
+    removeNode(host);
+    nodes.put(host, new Node(host, memoryMB, vCores, now));
+    capacityMB += memoryMB;
+    capacityVCores += vCores;
+    updateAvailable();
+  }
+
+  public void removeNode(String host) {
+    Node node = nodes.remove(host);
+    if (node == null) {
+      return;
+    }
+    capacityMB -= node.memoryMB;
+    capacityVCores -= node.vCores;
+    for (Container container : node.containers) {
+      running.remove(container);
+      release(container);
+      lostContainers++;
+      App app = container.app;
+      app.pending++;
+      metrics.incrPendingResources(USER, 1, app.resource);
+      if (app.pending == 1) {
+        pendingApps.add(app);
+      }
+    }
+    node.containers.clear();
+    updateAvailable();
+  }
+
+  /**
+   * Finishes the containers that ran for their duration and allocates pending containers.
+   */
+  public void update(long now) {
+    while (!running.isEmpty() && running.peek().endMillis <= now) {
+      Container container = running.poll();
+      container.node.containers.remove(container);
+      release(container);
+    }
+    for (Iterator<App> iterator = pendingApps.iterator(); iterator.hasNext(); ) {
+      App app = iterator.next();
+      Node node;
+      while (app.pending > 0 && (node = findNode(app.resource)) != null) {
+        allocate(app, node, now);
+      }
+      if (app.pending == 0) {
+        iterator.remove();
+        if (app.capacityMillis < 0) {
+          app.capacityMillis = now;
+          timesToCapacity.add(now - app.submitMillis);
+        }
+      }
+    }
+    updateAvailable();
+  }
+
+  private Node findNode(Resource resource) {
+    for (Node node : nodes.values()) {
+      if (node.memoryMB - node.usedMB >= resource.getMemory() && node.vCores - node.usedVCores >= resource.getVirtualCores()) {
+        return node;
+      }
+    }
+    return null;
+  }
+
+  private void allocate(App app, Node node, long now) {
+    boolean am = !app.started;
+    if (am) {
+      app.started = true;
+      metrics.runAppAttempt(app.id, USER);
+    }
+    Container container = new Container(app, node, now, now + app.job.getDurationMs(), am);
+    app.pending--;
+    node.containers.add(container);
+    node.usedMB += app.resource.getMemory();
+    node.usedVCores += app.resource.getVirtualCores();
+    running.add(container);
+    allocatedContainers++;
+    allocatedMB += app.resource.getMemory();
+    allocatedVCores += app.resource.getVirtualCores();
+    metrics.allocateResources(USER, 1, app.resource, true);
+  }
+
+  private void release(Container container) {
+    Resource resource = container.app.resource;
+    container.node.usedMB -= resource.getMemory();
+    container.node.usedVCores -= resource.getVirtualCores();
+    allocatedMB -= resource.getMemory();
+    allocatedVCores -= resource.getVirtualCores();
+    metrics.releaseResources(USER, 1, resource);
+  }
+
+  private void updateAvailable() {
+    metrics.setAvailableResourcesToQueue(Resource.newInstance((int) (capacityMB - allocatedMB),
+        (int) (capacityVCores - allocatedVCores)));
+  }
+
+  public Node getNode(String host) {
+    return nodes.get(host);
+  }
+
+  public Collection<Node> getNodes() {
+    return Collections.unmodifiableCollection(nodes.values());
+  }
+
+  public int getSubmittedApps() {
+    return submittedApps;
+  }
+
+  public List<Long> getTimesToCapacity() {
+    return Collections.unmodifiableList(timesToCapacity);
+  }
+
+  public long getAllocatedContainers() {
+    return allocatedContainers;
+  }
+
+  public long getLostContainers() {
+    return lostContainers;
+  }
+
+  public long getCapacityMB() {
+    return capacityMB;
+  }
+
+  public long getAllocatedMB() {
+    return allocatedMB;
+  }
+
+  /**
+   * NM registered with the simulated RM
+   */
+  public static class Node {
+    private final String host;
+    private final long memoryMB;
+    private final long vCores;
+    private final long registeredMillis;
+    private final List<Container> containers = new ArrayList<>();
+    private long usedMB;
+    private long usedVCores;
+
+    Node(String host, long memoryMB, long vCores, long registeredMillis) {
+      this.host = host;
+      this.memoryMB = memoryMB;
+      this.vCores = vCores;
+      this.registeredMillis = registeredMillis;
+    }
+
+    public String getHost() {
+      return host;
+    }
+
+    public long getMemoryMB() {
+      return memoryMB;
+    }
+
+    public long getVCores() {
+      return vCores;
+    }
+
+    public long getRegisteredMillis() {
+      return registeredMillis;
+    }
+
+    public long getUsedMB() {
+      return usedMB;
+    }
+
+    public long getUsedVCores() {
+      return usedVCores;
+    }
+
+    public List<Container> getContainers() {
+      return Collections.unmodifiableList(containers);
+    }
+  }
+
+  /**
+   * Container allocated to an app
+   */
+  public static class Container {
+    private final App app;
+    private final Node node;
+    private final long startMillis;
+    private final long endMillis;
+    private final boolean am;
+
+    Container(App app, Node node, long startMillis, long endMillis, boolean am) {
+      this.app = app;
+      this.node = node;
+      this.startMillis = startMillis;
+      this.endMillis = endMillis;
+      this.am = am;
+    }
+
+    public int getAppId() {
+      return app.id.getId();
+    }
+
+    public Resource getResource() {
+      return app.resource;
+    }
+
+    public long getStartMillis() {
+      return startMillis;
+    }
+
+    public boolean isAM() {
+      return am;
+    }
+  }
+
+  private static class App {
+    private final ApplicationId id;
+    private final Trace.Job job;
+    private final Resource resource;
+    private final long submitMillis;
+    private int pending;
+    private boolean started;
+    private long capacityMillis = -1;
+
+    App(ApplicationId id, Trace.Job job, long submitMillis) {
+      this.id = id;
+      this.job = job;
+      this.resource = Resource.newInstance(job.getContainerMB(), job.getContainerVCores());
+      this.submitMillis = submitMillis;
+      this.pending = job.getContainers();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.simulator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of simulating a trace with one scale down policy
+ */
+public class SimulationReport {
+  private static final String FORMAT = "%-28s %6s %9s %9s %9s %9s %9s %6s %6s %7s %9s %8s %10s%n";
+
+  private final String policy;
+  private final long durationMs;
+
+  int jobs;
+  int jobsAtCapacity;
+  long containersAllocated;
+  long containersLost;
+  double allocatedMBMillis;
+  double capacityMBMillis;
+  double agentMBMillis;
+  final List<Long> timesToCapacity = new ArrayList<>();
+  int nmsLaunched;
+  int nmsKilled;
+  int peakNMs;
+  long offers;
+  long offersUsed;
+  long offersDeclined;
+  double wastedOfferSeconds;
+
+  SimulationReport(String policy, long durationMs) {
+    this.policy = policy;
+    this.durationMs = durationMs;
+  }
+
+  public String getPolicy() {
+    return policy;
+  }
+
+  public long getDurationMs() {
+    return durationMs;
+  }
+
+  public int getJobs() {
+    return jobs;
+  }
+
+  /**
+   * @return number of jobs all containers of were allocated at once
+   */
+  public int getJobsAtCapacity() {
+    return jobsAtCapacity;
+  }
+
+  public long getContainersAllocated() {
+    return containersAllocated;
+  }
+
+  /**
+   * @return number of containers killed with the NM they ran on
+   */
+  public long getContainersLost() {
+    return containersLost;
+  }
+
+  /**
+   * @return share of the capacity of the registered NMs allocated to containers
+   */
+  public double getUtilization() {
+    return capacityMBMillis == 0 ? 0 : allocatedMBMillis / capacityMBMillis;
+  }
+
+  /**
+   * @return share of the memory of the agents the registered NMs offered to YARN
+   */
+  public double getCapacityShare() {
+    return agentMBMillis == 0 ? 0 : capacityMBMillis / agentMBMillis;
+  }
+
+  /**
+   * @param percentile between 0 and 100
+   * @return time from the submission of a job until all its containers were allocated
+   */
+  public long getTimeToCapacityMs(double percentile) {
+    if (timesToCapacity.isEmpty()) {
+      return 0;
+    }
+    List<Long> sorted = new ArrayList<>(timesToCapacity);
+    Collections.sort(sorted);
+    int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+    return sorted.get(Math.min(Math.max(index, 0), sorted.size() - 1));
+  }
+
+  public long getMeanTimeToCapacityMs() {
+    long sum = 0;
+    for (long time : timesToCapacity) {
+      sum += time;
+    }
+    return timesToCapacity.isEmpty() ? 0 : sum / timesToCapacity.size();
+  }
+
+  public int getNMsLaunched() {
+    return nmsLaunched;
+  }
+
+  public int getNMsKilled() {
+    return nmsKilled;
+  }
+
+  public int getPeakNMs() {
+    return peakNMs;
+  }
+
+  public long getOffers() {
+    return offers;
+  }
+
+  public long getOffersUsed() {
+    return offersUsed;
+  }
+
+  public long getOffersDeclined() {
+    return offersDeclined;
+  }
+
+  /**
+   * @return sum of the time offers were held by Myriad before they were declined
+   */
+  public double getWastedOfferSeconds() {
+    return wastedOfferSeconds;
+  }
+
+  public static String header() {
+    return String.format(FORMAT, "policy", "jobs", "util", "share", "ttc-mean", "ttc-p95", "ttc-max", "NMs", "peak",
+        "lost", "offers", "declined", "offer-secs");
+  }
+
+  @Override
+  public String toString() {
+    return String.format(FORMAT, policy, jobsAtCapacity + "/" + jobs, percent(getUtilization()), percent(getCapacityShare()),
+        seconds(getMeanTimeToCapacityMs()), seconds(getTimeToCapacityMs(95)), seconds(getTimeToCapacityMs(100)),
+        nmsLaunched, peakNMs, containersLost, offers, offersDeclined, String.format("%.1f", wastedOfferSeconds));
+  }
+
+  private static String percent(double share) {
+    return String.format("%.1f%%", share * 100);
+  }
+
+  private static String seconds(long ms) {
+    return String.format("%.0fs", ms / 1000.0);
+  }
+}
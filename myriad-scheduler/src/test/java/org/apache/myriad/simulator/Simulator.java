@@ -0,0 +1,525 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.simulator;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.metrics2.impl.MetricsSystemImpl;
+import org.apache.hadoop.yarn.server.resourcemanager.metrics.SystemMetricsPublisher;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.QueueMetrics;
+import org.apache.hadoop.yarn.server.resourcemanager.scheduler.fair.FSSchedulerNode;
+import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Filters;
+import org.apache.mesos.Protos.Offer;
+import org.apache.mesos.Protos.OfferID;
+import org.apache.mesos.Protos.Status;
+import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskInfo;
+import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.configuration.NodeManagerConfiguration;
+import org.apache.myriad.policy.NodeScaleDownPolicy;
+import org.apache.myriad.policy.ScaleDownPolicyFactory;
+import org.apache.myriad.policy.SimulatedNodeStatistics;
+import org.apache.myriad.scheduler.DemandForecaster;
+import org.apache.myriad.scheduler.ExtendedResourceProfile;
+import org.apache.myriad.scheduler.ManualClock;
+import org.apache.myriad.scheduler.MockSchedulerDriver;
+import org.apache.myriad.scheduler.MyriadDriver;
+import org.apache.myriad.scheduler.MyriadDriverManager;
+import org.apache.myriad.scheduler.MyriadOperations;
+import org.apache.myriad.scheduler.NMProfile;
+import org.apache.myriad.scheduler.NodeDrainer;
+import org.apache.myriad.scheduler.Rebalancer;
+import org.apache.myriad.scheduler.ServiceProfileManager;
+import org.apache.myriad.scheduler.ServiceResourceProfile;
+import org.apache.myriad.scheduler.TaskFactory;
+import org.apache.myriad.scheduler.TaskTerminator;
+import org.apache.myriad.scheduler.TaskUtils;
+import org.apache.myriad.scheduler.event.ResourceOffersEvent;
+import org.apache.myriad.scheduler.event.handlers.ResourceOffersEventHandler;
+import org.apache.myriad.scheduler.fgs.FineGrainedScalingMetrics;
+import org.apache.myriad.scheduler.fgs.NodeStore;
+import org.apache.myriad.scheduler.fgs.OfferHoldPolicy;
+import org.apache.myriad.scheduler.fgs.OfferLifecycleManager;
+import org.apache.myriad.scheduler.offer.OfferBuilder;
+import org.apache.myriad.scheduler.yarn.MyriadCapacityScheduler;
+import org.apache.myriad.state.MockRMContext;
+import org.apache.myriad.state.NodeTask;
+import org.apache.myriad.state.SchedulerState;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+/**
+ * Replays a trace of Mesos agents and YARN jobs against the Myriad scheduler on simulated time, so
+ * scaling and placement policies can be compared offline.
+ * <p/>
+ * Offers of the free resources of every agent are handled by the ResourceOffersEventHandler, NMs
+ * are flexed by the Rebalancer through MyriadOperations, and killed by the TaskTerminator through
+ * a driver that applies launches and kills to the simulated agents. Launched NMs register with a
+ * {@link SimulatedYarnCluster} once they started, which keeps the queue metrics the Rebalancer reads.
+ * Offers of hosts running zero profile NMs are held by the OfferLifecycleManager for as long as the
+ * OfferHoldPolicy holds them; YARN does not allocate containers on fine-grained capacity.
+ * <p/>
+ * Runs from gradle with {@code ./gradlew :myriad-scheduler:simulate -PsimArgs="..."}, see
+ * {@link #main} for the arguments.
+ */
+public class Simulator {
+  public static final String DEFAULT_CONFIG = "myriad-config-simulator.yml";
+  public static final long DEFAULT_TICK_MS = 1000;
+  public static final long DEFAULT_OFFER_INTERVAL_MS = 1000;
+  public static final long DEFAULT_NM_STARTUP_MS = 120000;
+  public static final long DEFAULT_HEARTBEAT_MS = 1000;
+
+  private static final long PORTS_BEGIN = 31000;
+  private static final long PORTS_END = 32000;
+
+  private final MyriadConfiguration cfg;
+  private final Trace trace;
+  private long tickMs = DEFAULT_TICK_MS;
+  private long offerIntervalMs = DEFAULT_OFFER_INTERVAL_MS;
+  private long nmStartupMs = DEFAULT_NM_STARTUP_MS;
+  private long heartbeatMs = DEFAULT_HEARTBEAT_MS;
+
+  public Simulator(MyriadConfiguration cfg, Trace trace) {
+    this.cfg = cfg;
+    this.trace = trace;
+  }
+
+  public Simulator setTickMs(long tickMs) {
+    this.tickMs = tickMs;
+    return this;
+  }
+
+  public Simulator setOfferIntervalMs(long offerIntervalMs) {
+    this.offerIntervalMs = offerIntervalMs;
+    return this;
+  }
+
+  /**
+   * @param nmStartupMs time from the launch of a NM until it registers with the RM, which is
+   *                    dominated by fetching and extracting the Hadoop distribution
+   */
+  public Simulator setNMStartupMs(long nmStartupMs) {
+    this.nmStartupMs = nmStartupMs;
+    return this;
+  }
+
+  public Simulator setHeartbeatMs(long heartbeatMs) {
+    this.heartbeatMs = heartbeatMs;
+    return this;
+  }
+
+  /**
+   * Simulates the trace for the given time with the given scale down policy.
+   */
+  public SimulationReport run(String policy, long durationMs) {
+    return new Simulation(policy, durationMs).run();
+  }
+
+  /**
+   * State of one run, all components are created anew for every run
+   */
+  private class Simulation {
+    private final ManualClock clock = new ManualClock();
+    private final SimulationReport report;
+    private final QueueMetrics metrics;
+    private final SimulatedYarnCluster yarnCluster;
+    private final SchedulerState state;
+    private final NodeStore nodeStore = new NodeStore();
+    private final OfferLifecycleManager offerLifecycleManager;
+    private final OfferHoldPolicy offerHoldPolicy;
+    private final ResourceOffersEventHandler offersHandler;
+    private final NodeDrainer drainer;
+    private final Rebalancer rebalancer;
+    private final TaskTerminator terminator;
+    private final SimulatedDriver driver = new SimulatedDriver();
+
+    private final Map<String, Agent> agents = new LinkedHashMap<>();
+    private final Map<TaskID, Launch> launches = new LinkedHashMap<>();
+    private final Map<OfferID, Long> outstandingOffers = new HashMap<>();
+    private int nextAgent;
+    private int nextJob;
+    private long nextOfferId;
+    private long sequence;
+
+    Simulation(String policy, long durationMs) {
+      report = new SimulationReport(policy, durationMs);
+
+      QueueMetrics.clearQueueMetrics();
+      metrics = QueueMetrics.forQueue(new MetricsSystemImpl(), "root", null, false, new Configuration());
+      yarnCluster = new SimulatedYarnCluster(metrics);
+      MockRMContext context = new MockRMContext();
+      context.setDispatcher(TestObjectFactory.getMockDispatcher());
+      context.setSystemMetricsPublisher(new SystemMetricsPublisher());
+      context.setResourceScheduler(new MyriadCapacityScheduler() {
+        @Override
+        public QueueMetrics getRootQueueMetrics() {
+          return metrics;
+        }
+      });
+
+      state = new SchedulerState(null);
+      state.setFrameworkId(Protos.FrameworkID.newBuilder().setValue("myriad-simulator").build());
+      MyriadDriver myriadDriver = new MyriadDriver(driver);
+      MyriadDriverManager driverManager = new MyriadDriverManager(myriadDriver);
+      driverManager.startDriver();
+
+      FineGrainedScalingMetrics fgsMetrics = new FineGrainedScalingMetrics(new MetricRegistry());
+      offerLifecycleManager = new OfferLifecycleManager(nodeStore, myriadDriver, fgsMetrics);
+      offerHoldPolicy = new OfferHoldPolicy(cfg, fgsMetrics, clock);
+      TaskUtils taskUtils = new TaskUtils(cfg);
+      Map<String, TaskFactory> taskFactories = new HashMap<>();
+      taskFactories.put(NodeManagerConfiguration.DEFAULT_NM_TASK_PREFIX, new SimulatedNMTaskFactory(cfg, taskUtils));
+      offersHandler = new ResourceOffersEventHandler(state, cfg, taskFactories, offerLifecycleManager);
+
+      // NMs are not drained on a capacity manager, the drainer kills them once their containers finished
+      drainer = new NodeDrainer(cfg, state, new NodeStore(), null, offerLifecycleManager,
+          new SimulatedNodeStatistics(yarnCluster, clock, context), clock);
+      NodeScaleDownPolicy scaleDownPolicy = ScaleDownPolicyFactory.create(policy, state,
+          new SimulatedNodeStatistics(yarnCluster, clock, context), cfg.getScaleDownConfiguration().getWeights());
+      MyriadOperations operations = new MyriadOperations(cfg, state, scaleDownPolicy, drainer, driverManager, null, context,
+          clock);
+
+      ServiceProfileManager profileManager = new ServiceProfileManager();
+      for (Map.Entry<String, Map<String, String>> profile : cfg.getProfiles().entrySet()) {
+        profileManager.add(new ExtendedResourceProfile(new NMProfile(profile.getKey(),
+            Long.parseLong(profile.getValue().get("cpu")), Long.parseLong(profile.getValue().get("mem"))),
+            taskUtils.getNodeManagerCpus(), taskUtils.getNodeManagerMemory(), taskUtils.getNodeManagerPorts()));
+      }
+      for (Map.Entry<String, Integer> instances : cfg.getNmInstances().entrySet()) {
+        operations.flexUpCluster(profileManager.get(instances.getKey()), instances.getValue(), null);
+      }
+      rebalancer = new Rebalancer(cfg, state, operations, profileManager, drainer, new DemandForecaster(cfg), context,
+          clock);
+      terminator = new TaskTerminator(state, driverManager, offerLifecycleManager, new MetricRegistry(), clock);
+    }
+
+    SimulationReport run() {
+      long rebalancerIntervalMs = cfg.getAutoscalerConfiguration().getIntervalMs();
+      long nextOffers = 0;
+      long nextHeartbeat = 0;
+      long nextRebalance = 0;
+      for (long now = 0; now < report.getDurationMs(); now += tickMs) {
+        clock.set(now);
+        addAgents(now);
+        submitJobs(now);
+        registerNodeManagers(now);
+        yarnCluster.update(now);
+        if (now >= nextHeartbeat) {
+          heartbeat();
+          nextHeartbeat += heartbeatMs;
+        }
+        if (now >= nextOffers) {
+          offer(now);
+          nextOffers += offerIntervalMs;
+        }
+        if (now >= nextRebalance && cfg.isRebalancerEnabled()) {
+          rebalancer.run();
+          nextRebalance += rebalancerIntervalMs;
+        }
+        if (drainer.isEnabled()) {
+          drainer.run();
+        }
+        terminator.terminate();
+        sample();
+      }
+      report.jobs = yarnCluster.getSubmittedApps();
+      report.jobsAtCapacity = yarnCluster.getTimesToCapacity().size();
+      report.timesToCapacity.addAll(yarnCluster.getTimesToCapacity());
+      report.containersAllocated = yarnCluster.getAllocatedContainers();
+      report.containersLost = yarnCluster.getLostContainers();
+      return report;
+    }
+
+    private void addAgents(long now) {
+      List<Trace.Agent> traceAgents = trace.getAgents();
+      while (nextAgent < traceAgents.size() && traceAgents.get(nextAgent).getTimeMs() <= now) {
+        Agent agent = new Agent(traceAgents.get(nextAgent++));
+        agents.put(agent.slaveId.getValue(), agent);
+      }
+    }
+
+    private void submitJobs(long now) {
+      List<Trace.Job> jobs = trace.getJobs();
+      while (nextJob < jobs.size() && jobs.get(nextJob).getTimeMs() <= now) {
+        yarnCluster.submit(jobs.get(nextJob++), now);
+      }
+    }
+
+    /**
+     * Makes the NMs that finished starting active and registers them with the RM
+     */
+    private void registerNodeManagers(long now) {
+      for (Launch launch : launches.values()) {
+        if (launch.registered || launch.registerMillis > now) {
+          continue;
+        }
+        NodeTask task = state.getTask(launch.taskId);
+        if (task == null) {
+          continue;
+        }
+        launch.registered = true;
+        state.makeTaskActive(launch.taskId);
+        ServiceResourceProfile profile = task.getProfile();
+        String host = launch.agent.hostname;
+        yarnCluster.addNode(host, profile.getMemory().longValue(), profile.getCpus().longValue(), now);
+        if (profile.getMemory() == 0 && profile.getCpus() == 0) {
+          launch.fineGrained = true;
+          nodeStore.add(new FSSchedulerNode(TestObjectFactory.getRMNode(host, 8888, 0, 0), false));
+        }
+      }
+    }
+
+    /**
+     * Declines the offers of fine-grained NMs once the hold policy no longer holds them, as YARN
+     * does not allocate containers on their capacity
+     */
+    private void heartbeat() {
+      for (Launch launch : launches.values()) {
+        if (launch.fineGrained && !offerHoldPolicy.shouldHold(launch.agent.hostname)) {
+          offerLifecycleManager.declineOutstandingOffers(launch.agent.hostname);
+        }
+      }
+    }
+
+    private void offer(long now) {
+      List<Offer> offers = new ArrayList<>();
+      for (Agent agent : agents.values()) {
+        double cpus = agent.cpus - agent.usedCpus;
+        double memoryMB = agent.memoryMB - agent.usedMemoryMB;
+        if (cpus <= 0 || memoryMB <= 0) {
+          continue;
+        }
+        Offer offer = new OfferBuilder("offer-" + nextOfferId++, agent.hostname, agent.slaveId.getValue())
+            .addScalarResource("cpus", cpus)
+            .addScalarResource("mem", memoryMB)
+            .addRangeResource("ports", PORTS_BEGIN, PORTS_END)
+            .build();
+        outstandingOffers.put(offer.getId(), now);
+        offers.add(offer);
+      }
+      if (offers.isEmpty()) {
+        return;
+      }
+      report.offers += offers.size();
+      ResourceOffersEvent event = new ResourceOffersEvent();
+      event.setDriver(driver);
+      event.setOffers(offers);
+      try {
+        offersHandler.onEvent(event, sequence++, true);
+      } catch (Exception e) {
+        throw new IllegalStateException("Failed to handle offers", e);
+      }
+    }
+
+    private void sample() {
+      int registered = 0;
+      for (Launch launch : launches.values()) {
+        if (launch.registered) {
+          registered++;
+        }
+      }
+      double agentMB = 0;
+      for (Agent agent : agents.values()) {
+        agentMB += agent.memoryMB;
+      }
+      report.peakNMs = Math.max(report.peakNMs, registered);
+      report.allocatedMBMillis += (double) yarnCluster.getAllocatedMB() * tickMs;
+      report.capacityMBMillis += (double) yarnCluster.getCapacityMB() * tickMs;
+      report.agentMBMillis += agentMB * tickMs;
+    }
+
+    /**
+     * Driver that applies launches and kills to the simulated agents and counts declined offers
+     */
+    private class SimulatedDriver extends MockSchedulerDriver {
+      @Override
+      public Status launchTasks(Collection<OfferID> offerIds, Collection<TaskInfo> tasks) {
+        for (OfferID offerId : offerIds) {
+          outstandingOffers.remove(offerId);
+          report.offersUsed++;
+        }
+        for (TaskInfo task : tasks) {
+          Agent agent = agents.get(task.getSlaveId().getValue());
+          Launch launch = new Launch(task.getTaskId(), agent, clock.currentTimeMillis() + nmStartupMs);
+          for (Protos.Resource resource : concat(task.getResourcesList(), task.getExecutor().getResourcesList())) {
+            if (resource.getName().equals("cpus")) {
+              launch.cpus += resource.getScalar().getValue();
+            } else if (resource.getName().equals("mem")) {
+              launch.memoryMB += resource.getScalar().getValue();
+            }
+          }
+          agent.usedCpus += launch.cpus;
+          agent.usedMemoryMB += launch.memoryMB;
+          launches.put(launch.taskId, launch);
+          report.nmsLaunched++;
+        }
+        return Status.DRIVER_RUNNING;
+      }
+
+      @Override
+      public Status declineOffer(OfferID offerId, Filters filters) {
+        return declineOffer(offerId);
+      }
+
+      @Override
+      public Status declineOffer(OfferID offerId) {
+        Long offered = outstandingOffers.remove(offerId);
+        if (offered != null) {
+          report.offersDeclined++;
+          report.wastedOfferSeconds += (clock.currentTimeMillis() - offered) / 1000.0;
+        }
+        return Status.DRIVER_RUNNING;
+      }
+
+      /**
+       * Kills the NM right away and removes its task, as the status update of the kill would
+       */
+      @Override
+      public Status killTask(TaskID taskId) {
+        Launch launch = launches.remove(taskId);
+        if (launch != null) {
+          launch.agent.usedCpus -= launch.cpus;
+          launch.agent.usedMemoryMB -= launch.memoryMB;
+          if (launch.registered) {
+            yarnCluster.removeNode(launch.agent.hostname);
+            nodeStore.remove(launch.agent.hostname);
+          }
+          report.nmsKilled++;
+        }
+        state.removeTask(taskId);
+        return Status.DRIVER_RUNNING;
+      }
+    }
+  }
+
+  private static List<Protos.Resource> concat(List<Protos.Resource> first, List<Protos.Resource> second) {
+    List<Protos.Resource> resources = new ArrayList<>(first);
+    resources.addAll(second);
+    return resources;
+  }
+
+  /**
+   * Resources of a Mesos agent and the part of them used by NMs
+   */
+  private static class Agent {
+    private final String hostname;
+    private final Protos.SlaveID slaveId;
+    private final double cpus;
+    private final double memoryMB;
+    private double usedCpus;
+    private double usedMemoryMB;
+
+    Agent(Trace.Agent agent) {
+      this.hostname = agent.getHostname();
+      this.slaveId = Protos.SlaveID.newBuilder().setValue("slave-" + agent.getHostname()).build();
+      this.cpus = agent.getCpus();
+      this.memoryMB = agent.getMemoryMB();
+    }
+  }
+
+  /**
+   * NM launched on an agent, which registers with the RM once it started
+   */
+  private static class Launch {
+    private final TaskID taskId;
+    private final Agent agent;
+    private final long registerMillis;
+    private double cpus;
+    private double memoryMB;
+    private boolean registered;
+    private boolean fineGrained;
+
+    Launch(TaskID taskId, Agent agent, long registerMillis) {
+      this.taskId = taskId;
+      this.agent = agent;
+      this.registerMillis = registerMillis;
+    }
+  }
+
+  public static MyriadConfiguration loadConfiguration(String location) throws IOException {
+    ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+    File file = new File(location);
+    if (file.isFile()) {
+      return mapper.readValue(file, MyriadConfiguration.class);
+    }
+    URL resource = Thread.currentThread().getContextClassLoader().getResource(location);
+    if (resource == null) {
+      throw new IOException("Configuration " + location + " not found");
+    }
+    return mapper.readValue(resource, MyriadConfiguration.class);
+  }
+
+  /**
+   * Simulates a trace with every given scale down policy and prints a report per policy.
+   * <pre>
+   * --config     Myriad configuration file or resource, defaults to {@value #DEFAULT_CONFIG}
+   * --trace      trace file, a synthetic trace of recurring batch jobs by default
+   * --agents     number of agents of the synthetic trace, 10 by default
+   * --duration   simulated time in ms, by default until the last job of the trace finished plus an hour
+   * --startup    time NMs take to register in ms, defaults to {@value #DEFAULT_NM_STARTUP_MS}
+   * --policies   comma separated scale down policies, the configured policy by default
+   * </pre>
+   */
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = new HashMap<>();
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if (!args[i].startsWith("--")) {
+        throw new IllegalArgumentException("Expected an option instead of " + args[i]);
+      }
+      options.put(args[i].substring(2), args[i + 1]);
+    }
+    MyriadConfiguration cfg = loadConfiguration(get(options, "config", DEFAULT_CONFIG));
+    Trace trace;
+    if (options.containsKey("trace")) {
+      try (Reader reader = new FileReader(options.get("trace"))) {
+        trace = Trace.parse(reader);
+      }
+    } else {
+      trace = Trace.recurring(Integer.parseInt(get(options, "agents", "10")), 3600000, 4 * 3600000, 1);
+    }
+    long duration = Long.parseLong(get(options, "duration", String.valueOf(trace.getDurationMs() + 3600000)));
+    Simulator simulator = new Simulator(cfg, trace)
+        .setNMStartupMs(Long.parseLong(get(options, "startup", String.valueOf(DEFAULT_NM_STARTUP_MS))));
+
+    System.out.print(SimulationReport.header());
+    for (String policy : get(options, "policies", cfg.getScaleDownConfiguration().getPolicy()).split(",")) {
+      System.out.print(simulator.run(policy.trim(), duration));
+    }
+  }
+
+  private static String get(Map<String, String> options, String name, String defaultValue) {
+    String value = options.get(name);
+    return value == null ? defaultValue : value;
+  }
+}
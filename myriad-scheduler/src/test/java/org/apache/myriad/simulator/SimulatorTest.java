@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.simulator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+
+import org.apache.myriad.configuration.MyriadConfiguration;
+import org.apache.myriad.policy.LeastAMNodesFirstPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for Simulator
+ */
+public class SimulatorTest {
+  private MyriadConfiguration cfg;
+
+  @Before
+  public void setUp() throws Exception {
+    cfg = Simulator.loadConfiguration(Simulator.DEFAULT_CONFIG);
+  }
+
+  @Test
+  public void testParseTrace() throws Exception {
+    Trace trace = Trace.parse(new StringReader("# time,agent,host,cpus,mem\n0,agent,host-1,16,65536\n\n"
+        + "# time,job,containers,mb,vcores,duration\n60000, job, 20, 2048, 1, 600000\n"));
+    assertEquals(1, trace.getAgents().size());
+    assertEquals("host-1", trace.getAgents().get(0).getHostname());
+    assertEquals(1, trace.getJobs().size());
+    assertEquals(20, trace.getJobs().get(0).getContainers());
+    assertEquals(660000, trace.getDurationMs());
+  }
+
+  @Test
+  public void testFlexUpForJobsAndDownWhenIdle() throws Exception {
+    Trace trace = new Trace();
+    for (int i = 0; i < 4; i++) {
+      trace.addAgent(0, "agent-" + i, 16, 65536);
+    }
+    trace.addJob(60000, 40, 2048, 1, 900000);
+    trace.addJob(120000, 4, 1024, 1, 300000);
+
+    SimulationReport report = new Simulator(cfg, trace).run(LeastAMNodesFirstPolicy.NAME, 3 * 3600000);
+    assertEquals(2, report.getJobs());
+    assertEquals(2, report.getJobsAtCapacity());
+    assertEquals(44, report.getContainersAllocated());
+    assertTrue(report.getNMsLaunched() > cfg.getNmInstances().get("medium"));
+    assertTrue(report.getPeakNMs() <= 4);
+    assertTrue(report.getNMsKilled() > 0);
+    assertTrue(report.getUtilization() > 0 && report.getUtilization() <= 1);
+    assertTrue(report.getCapacityShare() > 0 && report.getCapacityShare() < 1);
+    assertTrue(report.getTimeToCapacityMs(100) >= Simulator.DEFAULT_NM_STARTUP_MS);
+    assertTrue(report.getOffersUsed() > 0);
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p/>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p/>
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.myriad.simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mesos agents joining the cluster and YARN jobs submitted to it over time. A trace is read
+ * from CSV, one event per line with its time in ms since the start of the simulation:
+ * <pre>
+ * # time,agent,hostname,cpus,memMB
+ * 0,agent,agent-1,16,65536
+ * # time,job,containers,containerMB,containerVCores,durationMs
+ * 60000,job,40,2048,1,300000
+ * </pre>
+ * or generated by {@link #recurring}.
+ */
+public class Trace {
+  private static final Comparator<Event> BY_TIME = new Comparator<Event>() {
+    @Override
+    public int compare(Event e1, Event e2) {
+      return Long.compare(e1.getTimeMs(), e2.getTimeMs());
+    }
+  };
+
+  private final List<Agent> agents = new ArrayList<>();
+  private final List<Job> jobs = new ArrayList<>();
+
+  public Trace addAgent(long timeMs, String hostname, double cpus, double memoryMB) {
+    agents.add(new Agent(timeMs, hostname, cpus, memoryMB));
+    Collections.sort(agents, BY_TIME);
+    return this;
+  }
+
+  public Trace addJob(long timeMs, int containers, int containerMB, int containerVCores, long durationMs) {
+    jobs.add(new Job(timeMs, containers, containerMB, containerVCores, durationMs));
+    Collections.sort(jobs, BY_TIME);
+    return this;
+  }
+
+  public List<Agent> getAgents() {
+    return Collections.unmodifiableList(agents);
+  }
+
+  public List<Job> getJobs() {
+    return Collections.unmodifiableList(jobs);
+  }
+
+  /**
+   * @return the time the last job finishes if it runs right away
+   */
+  public long getDurationMs() {
+    long duration = 0;
+    for (Job job : jobs) {
+      duration = Math.max(duration, job.getTimeMs() + job.getDurationMs());
+    }
+    return duration;
+  }
+
+  public static Trace parse(Reader reader) throws IOException {
+    Trace trace = new Trace();
+    BufferedReader lines = new BufferedReader(reader);
+    String line;
+    int number = 0;
+    while ((line = lines.readLine()) != null) {
+      number++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      String[] fields = line.split("\\s*,\\s*");
+      try {
+        if (fields.length == 5 && fields[1].equals("agent")) {
+          trace.addAgent(Long.parseLong(fields[0]), fields[2], Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+        } else if (fields.length == 6 && fields[1].equals("job")) {
+          trace.addJob(Long.parseLong(fields[0]), Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+              Integer.parseInt(fields[4]), Long.parseLong(fields[5]));
+        } else {
+          throw new IOException("Invalid event in line " + number + ": " + line);
+        }
+      } catch (NumberFormatException e) {
+        throw new IOException("Invalid number in line " + number + ": " + line, e);
+      }
+    }
+    return trace;
+  }
+
+  /**
+   * Generates a trace of a batch job that recurs every period, like an hourly ETL, on top of
+   * small ad-hoc jobs arriving at random.
+   *
+   * @param agents       number of agents, all joining at the start
+   * @param periodMs     time between two batch jobs, the first starts after half a period
+   * @param durationMs   time jobs are submitted for
+   * @param seed         seed of the ad-hoc jobs
+   */
+  public static Trace recurring(int agents, long periodMs, long durationMs, long seed) {
+    Trace trace = new Trace();
+    for (int i = 0; i < agents; i++) {
+      trace.addAgent(0, "agent-" + i, 16, 65536);
+    }
+    for (long time = periodMs / 2; time < durationMs; time += periodMs) {
+      trace.addJob(time, 10 * agents, 2048, 1, periodMs / 6);
+    }
+    Random random = new Random(seed);
+    long meanInterArrivalMs = Math.max(periodMs / 20, 1);
+    for (long time = 0; time < durationMs; time += (long) (-Math.log(1 - random.nextDouble()) * meanInterArrivalMs)) {
+      trace.addJob(time, 1 + random.nextInt(8), 1024, 1, periodMs / 30 + random.nextInt((int) Math.max(periodMs / 15, 1)));
+    }
+    return trace;
+  }
+
+  /**
+   * Something that happens at a time of the trace
+   */
+  public abstract static class Event {
+    private final long timeMs;
+
+    Event(long timeMs) {
+      this.timeMs = timeMs;
+    }
+
+    public long getTimeMs() {
+      return timeMs;
+    }
+  }
+
+  /**
+   * Mesos agent that joins the cluster and offers its resources from then on
+   */
+  public static class Agent extends Event {
+    private final String hostname;
+    private final double cpus;
+    private final double memoryMB;
+
+    Agent(long timeMs, String hostname, double cpus, double memoryMB) {
+      super(timeMs);
+      this.hostname = hostname;
+      this.cpus = cpus;
+      this.memoryMB = memoryMB;
+    }
+
+    public String getHostname() {
+      return hostname;
+    }
+
+    public double getCpus() {
+      return cpus;
+    }
+
+    public double getMemoryMB() {
+      return memoryMB;
+    }
+  }
+
+  /**
+   * YARN app requesting containers of one size that all run for the same time, the first
+   * container is its AM
+   */
+  public static class Job extends Event {
+    private final int containers;
+    private final int containerMB;
+    private final int containerVCores;
+    private final long durationMs;
+
+    Job(long timeMs, int containers, int containerMB, int containerVCores, long durationMs) {
+      super(timeMs);
+      this.containers = containers;
+      this.containerMB = containerMB;
+      this.containerVCores = containerVCores;
+      this.durationMs = durationMs;
+    }
+
+    public int getContainers() {
+      return containers;
+    }
+
+    public int getContainerMB() {
+      return containerMB;
+    }
+
+    public int getContainerVCores() {
+      return containerVCores;
+    }
+
+    public long getDurationMs() {
+      return durationMs;
+    }
+  }
+}
@@ -19,12 +19,24 @@
 package org.apache.myriad.state;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.apache.mesos.Protos.SlaveID;
 import org.apache.mesos.Protos.TaskID;
+import org.apache.mesos.Protos.TaskState;
+import org.apache.mesos.Protos.TaskStatus;
 import org.apache.myriad.BaseConfigurableTest;
 import org.apache.myriad.TestObjectFactory;
+import org.apache.myriad.state.utils.StoreContext;
 import org.junit.Test;
 
 /**
@@ -138,4 +150,111 @@ public class SchedulerStateTest extends BaseConfigurableTest {
     sState.removeTask(idTwo);
     assertNull(sState.getTask(idTwo));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testSnapshotIsNotChangedByLaterMutations() throws Exception {
+    SchedulerState sState = initialize();
+    TaskID idOne = TaskID.newBuilder().setValue("nm.zero.1").build();
+    TaskID idTwo = TaskID.newBuilder().setValue("nm.low.2").build();
+    sState.addTask(idOne, taskOne);
+    sState.makeTaskPending(idOne);
+    SchedulerStateSnapshot snapshot = sState.getSnapshot();
+
+    sState.makeTaskActive(idOne);
+    sState.makeTaskPending(idTwo);
+    assertEquals(SchedulerState.TaskState.PENDING, snapshot.getTaskState(idOne));
+    assertEquals(1, snapshot.getTaskIds(SchedulerState.TaskState.PENDING, "nm").size());
+    assertFalse(snapshot.getTaskIds(SchedulerState.TaskState.PENDING).contains(idTwo));
+    assertEquals(SchedulerState.TaskState.ACTIVE, sState.getSnapshot().getTaskState(idOne));
+    assertTrue(sState.getPendingTaskIds("nm").contains(idTwo));
+  }
+
+  @Test
+  public void testSnapshotSharesUnchangedTaskSets() throws Exception {
+    SchedulerState sState = initialize();
+    TaskID idOne = TaskID.newBuilder().setValue("nm.zero.1").build();
+    TaskID idTwo = TaskID.newBuilder().setValue("jobhistory.low.2").build();
+    TaskID idThree = TaskID.newBuilder().setValue("nm.zero.3").build();
+    sState.makeTaskActive(idOne);
+    sState.makeTaskPending(idTwo);
+    SchedulerStateSnapshot snapshot = sState.getSnapshot();
+
+    sState.makeTaskPending(idThree);
+    SchedulerStateSnapshot next = sState.getSnapshot();
+    assertSame(snapshot.getTaskIds(SchedulerState.TaskState.PENDING, "jobhistory"),
+        next.getTaskIds(SchedulerState.TaskState.PENDING, "jobhistory"));
+    assertSame(snapshot.getTaskIds(SchedulerState.TaskState.ACTIVE), next.getTaskIds(SchedulerState.TaskState.ACTIVE));
+    assertEquals(new HashSet<>(Arrays.asList(idTwo, idThree)), next.getTaskIds(SchedulerState.TaskState.PENDING));
+    assertEquals(Collections.singleton(idTwo), snapshot.getTaskIds(SchedulerState.TaskState.PENDING));
+  }
+
+  @Test
+  public void testUnchangedTaskStatesDoNotPublishSnapshot() throws Exception {
+    SchedulerState sState = initialize();
+    TaskID idOne = TaskID.newBuilder().setValue("nm.zero.1").build();
+    sState.addTask(idOne, taskOne);
+    sState.makeTaskActive(idOne);
+    SchedulerStateSnapshot snapshot = sState.getSnapshot();
+
+    sState.makeTaskActive(idOne);
+    sState.updateTask(TaskStatus.newBuilder().setTaskId(idOne).setState(TaskState.TASK_RUNNING).build());
+    assertSame(snapshot, sState.getSnapshot());
+    assertEquals(TaskState.TASK_RUNNING, sState.getTask(idOne).getTaskStatus().getState());
+  }
+
+  @Test
+  public void testSlaveIndex() throws Exception {
+    SchedulerState sState = initialize();
+    TaskID idOne = TaskID.newBuilder().setValue("nm.zero.1").build();
+    TaskID idTwo = TaskID.newBuilder().setValue("nm.low.2").build();
+    sState.addTask(idOne, taskOne);
+    sState.addTask(idTwo, taskTwo);
+    assertEquals(Collections.singleton(idOne), sState.getTaskIds(taskOne.getSlaveId()));
+    assertSame(taskTwo, sState.getNodeTask(taskTwo.getSlaveId(), "nm"));
+
+    // A relaunched task moves to the slave it was launched on
+    SlaveID previous = taskOne.getSlaveId();
+    taskOne.setSlaveId(taskTwo.getSlaveId());
+    sState.addTask(idOne, taskOne);
+    assertTrue(sState.getTaskIds(previous).isEmpty());
+    assertEquals(2, sState.getNodeTasks(taskTwo.getSlaveId()).size());
+
+    sState.removeTask(idTwo);
+    assertEquals(Collections.singleton(idOne), sState.getTaskIds(taskTwo.getSlaveId()));
+  }
+
+  @Test
+  public void testAddNodesStoresOnce() throws Exception {
+    CountingStateStore store = new CountingStateStore();
+    SchedulerState sState = new SchedulerState(store);
+    List<NodeTask> nodes = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      NodeTask node = TestObjectFactory.getNodeTask("low", "localhost", 0.1, 1024.0, Long.valueOf(1), Long.valueOf(2));
+      node.setTaskPrefix("nm");
+      nodes.add(node);
+    }
+    List<TaskID> taskIds = sState.addNodes(nodes);
+    assertEquals(1, store.stores);
+    assertEquals(100, new HashSet<>(taskIds).size());
+    assertEquals(new HashSet<>(taskIds), sState.getPendingTaskIds("nm"));
+    assertSame(nodes.get(0), sState.getTask(taskIds.get(0)));
+  }
+
+  private static class CountingStateStore implements MyriadStateStore {
+    private int stores;
+
+    @Override
+    public StoreContext loadMyriadState() throws Exception {
+      return null;
+    }
+
+    @Override
+    public void storeMyriadState(StoreContext storeContext) throws Exception {
+      stores++;
+    }
+
+    @Override
+    public void removeMyriadState() throws Exception {
+    }
+  }
+}